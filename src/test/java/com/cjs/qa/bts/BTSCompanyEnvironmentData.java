@@ -6,6 +6,7 @@
 import com.cjs.qa.utilities.IExtension;
 import com.cjs.qa.utilities.JavaHelpers;
 import com.cjs.qa.utilities.XML;
+import com.cjs.qa.utilities.XMLFactories;
 import java.io.File;
 import java.util.Locale;
 import javax.xml.xpath.XPathConstants;
@@ -186,7 +187,7 @@ private String getData(String xPath) {
     XPathExpression xpathExpression = null;
     NodeList nodeList = null;
     try {
-      xpathExpression = XML.XPATH.compile(xPath);
+      xpathExpression = XMLFactories.compileXPath(xPath);
       try {
         nodeList = (NodeList) xpathExpression.evaluate(getDocument(), XPathConstants.NODESET);
       } catch (XPathExpressionException e) {
@@ -198,7 +199,7 @@ private String getData(String xPath) {
     } catch (XPathExpressionException e) {
       Environment.sysOut(
           JavaHelpers.getCurrentMethodName()
-              + "xpathExpression = XML.XPATH.compile("
+              + "xpathExpression = XMLFactories.compileXPath("
               + xPath
               + ");");
     }
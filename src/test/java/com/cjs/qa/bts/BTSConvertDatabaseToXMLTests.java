@@ -6,6 +6,7 @@
 import com.cjs.qa.jdbc.JDBCConstants;
 import com.cjs.qa.utilities.FSOTests;
 import com.cjs.qa.utilities.XML;
+import com.cjs.qa.utilities.XMLFactories;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
@@ -184,7 +185,7 @@ public void readFromXML() throws Exception {
     String xml = FSOTests.fileReadAll(filePathName);
     Document document = XML.createDocument(xml);
     String xPath = BTSCompanyEnvironmentData.NODE_COMPANY + BTSCompanyEnvironmentData.NODE_TEXT;
-    XPathExpression xpathExpression = XML.XPATH.compile(xPath);
+    XPathExpression xpathExpression = XMLFactories.compileXPath(xPath);
     NodeList nodeList = (NodeList) xpathExpression.evaluate(document, XPathConstants.NODESET);
     Environment.sysOut("nodeList.getLength():[" + nodeList.getLength() + "]");
     JDBC jdbc = new JDBC("", "qatools");
@@ -262,7 +263,7 @@ public void readFromXML() throws Exception {
   }
 
   private void writeInformation(Document document, String xPath) throws XPathExpressionException {
-    XPathExpression xpathExpression = XML.XPATH.compile(xPath);
+    XPathExpression xpathExpression = XMLFactories.compileXPath(xPath);
     NodeList nodeList = (NodeList) xpathExpression.evaluate(document, XPathConstants.NODESET);
     if (nodeList.getLength() == 0) {
       Environment.sysOut("No Data Found For:[" + xPath + "]");
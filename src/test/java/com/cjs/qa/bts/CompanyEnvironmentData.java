@@ -6,6 +6,7 @@
 import com.cjs.qa.utilities.IExtension;
 import com.cjs.qa.utilities.JavaHelpers;
 import com.cjs.qa.utilities.XML;
+import com.cjs.qa.utilities.XMLFactories;
 import java.io.File;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
@@ -164,7 +165,7 @@ private String getData(String xPath) {
     XPathExpression xpathExpression = null;
     NodeList nodeList = null;
     try {
-      xpathExpression = XML.XPATH.compile(xPath);
+      xpathExpression = XMLFactories.compileXPath(xPath);
       try {
         nodeList = (NodeList) xpathExpression.evaluate(getDocument(), XPathConstants.NODESET);
       } catch (XPathExpressionException e) {
@@ -176,7 +177,7 @@ private String getData(String xPath) {
     } catch (XPathExpressionException e) {
       Environment.sysOut(
           JavaHelpers.getCurrentMethodName()
-              + "xpathExpression = XML.XPATH.compile("
+              + "xpathExpression = XMLFactories.compileXPath("
               + xPath
               + ");");
     }
@@ -0,0 +1,488 @@
+package com.cjs.qa.core.api;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.IHTTP;
+import com.cjs.qa.utilities.JavaHelpers;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * One {@link HttpClient} shared by the API services ({@link WebService}, {@code YMService}, {@code
+ * REST} and the namespaces built on them), so a run of thousands of calls reuses its connections
+ * instead of paying the TCP and TLS handshake on every one.
+ *
+ * <p>HTTP/2 is used where the server offers it, otherwise HTTP/1.1 with keep-alive (idle
+ * connections are kept for {@code jdk.httpclient.keepalive.timeout} seconds). Responses are asked
+ * for gzip compressed and unzipped while they are read, either whole into a {@link Response} or as
+ * a stream handed to a {@link BodyReader}. Redirects are only followed when asked for, as before.
+ * Requests to one host are limited to {@code http.client.maxConnectionsPerHost} at a time; further
+ * callers wait for a free connection rather than opening more. Files are streamed to disk by {@link
+ * #download(String, Path, int, long)}, which resumes an interrupted transfer where it stopped.
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code http.client.maxConnectionsPerHost} - concurrent requests per host (default 8)
+ *   <li>{@code http.client.connectTimeoutSeconds} - connect timeout (default 30)
+ *   <li>{@code http.client.requestTimeoutSeconds} - time to the response headers (default 120)
+ *   <li>{@code http.client.http2} - offer HTTP/2 (default true)
+ * </ul>
+ */
+public final class ApiHttpClient {
+  public static final String PROPERTY_MAX_CONNECTIONS_PER_HOST =
+      "http.client.maxConnectionsPerHost";
+  public static final String PROPERTY_CONNECT_TIMEOUT_SECONDS = "http.client.connectTimeoutSeconds";
+  public static final String PROPERTY_REQUEST_TIMEOUT_SECONDS = "http.client.requestTimeoutSeconds";
+  public static final String PROPERTY_HTTP2 = "http.client.http2";
+  private static volatile ApiHttpClient instance = null;
+  private final HttpClient httpClient;
+  private final HttpClient redirectingHttpClient;
+  private final int maxConnectionsPerHost;
+  private final Duration requestTimeout;
+  private final Map<String, Semaphore> hostPermitMap = new ConcurrentHashMap<>();
+  private final AtomicLong requestCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  private final AtomicLong gzipCount = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong bytesReceived = new AtomicLong();
+  private final AtomicLong resumedCount = new AtomicLong();
+  private final AtomicLong waitNanosTotal = new AtomicLong();
+  private final AtomicLong waitNanosMax = new AtomicLong();
+
+  /**
+   * Status, message and body of one call.
+   *
+   * @param statusCode HTTP status code
+   * @param responseMessage name of the status code, see {@link IHTTP#getResponseValue(int)}
+   * @param body response body, unzipped and decoded
+   */
+  public record Response(int statusCode, String responseMessage, String body) {}
+
+  /**
+   * Reads a response body as it arrives, for bodies too large to hold as a {@link String}.
+   *
+   * @param <T> what is read from the body
+   */
+  @FunctionalInterface
+  public interface BodyReader<T> {
+    /**
+     * @param statusCode HTTP status code
+     * @param headers response headers
+     * @param body response body, already unzipped; whatever is left unread is skipped afterwards
+     * @return what was read
+     * @throws IOException
+     */
+    T read(int statusCode, HttpHeaders headers, InputStream body) throws IOException;
+  }
+
+  ApiHttpClient(
+      int maxConnectionsPerHost, Duration connectTimeout, Duration requestTimeout, boolean http2) {
+    this.maxConnectionsPerHost = Math.max(1, maxConnectionsPerHost);
+    this.requestTimeout = requestTimeout;
+    this.httpClient = newHttpClient(connectTimeout, http2, HttpClient.Redirect.NEVER);
+    this.redirectingHttpClient = newHttpClient(connectTimeout, http2, HttpClient.Redirect.NORMAL);
+  }
+
+  private static HttpClient newHttpClient(
+      Duration connectTimeout, boolean http2, HttpClient.Redirect redirect) {
+    return HttpClient.newBuilder()
+        .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+        .connectTimeout(connectTimeout)
+        .followRedirects(redirect)
+        .build();
+  }
+
+  /**
+   * @return the client shared by every service, configured from the properties above
+   */
+  public static ApiHttpClient getInstance() {
+    if (instance == null) {
+      synchronized (ApiHttpClient.class) {
+        if (instance == null) {
+          instance =
+              new ApiHttpClient(
+                  JavaHelpers.readPropertyOrEnvInt(PROPERTY_MAX_CONNECTIONS_PER_HOST, 8),
+                  Duration.ofSeconds(
+                      JavaHelpers.readPropertyOrEnvInt(PROPERTY_CONNECT_TIMEOUT_SECONDS, 30)),
+                  Duration.ofSeconds(
+                      JavaHelpers.readPropertyOrEnvInt(PROPERTY_REQUEST_TIMEOUT_SECONDS, 120)),
+                  Boolean.parseBoolean(
+                      JavaHelpers.readPropertyOrEnv(PROPERTY_HTTP2, "true").trim()));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Sends a request and reads the whole response, whatever its status.
+   *
+   * @param requestMethod HTTP method; {@code POST} when empty and there is a body, otherwise {@code
+   *     GET}. A {@code GET} with a body is sent as a {@code POST}, as {@link
+   *     java.net.HttpURLConnection} did.
+   * @param url
+   * @param headers request headers
+   * @param body request body, sent as UTF-8; {@code null} for none
+   * @return the response
+   * @throws IOException if the request could not be sent or the response read
+   * @throws InterruptedException if interrupted while waiting for a connection or the response
+   */
+  public Response send(String requestMethod, String url, Map<String, String> headers, String body)
+      throws IOException, InterruptedException {
+    return send(requestMethod, url, headers, body, false);
+  }
+
+  /**
+   * @param requestMethod
+   * @param url
+   * @param headers
+   * @param body
+   * @param followRedirects follow redirects (except from HTTPS to HTTP)
+   * @return the response
+   * @throws IOException
+   * @throws InterruptedException
+   * @see #send(String, String, Map, String)
+   */
+  public Response send(
+      String requestMethod,
+      String url,
+      Map<String, String> headers,
+      String body,
+      boolean followRedirects)
+      throws IOException, InterruptedException {
+    return send(
+        requestMethod,
+        url,
+        headers,
+        body,
+        followRedirects,
+        (statusCode, httpHeaders, inputStream) ->
+            new Response(
+                statusCode,
+                IHTTP.getResponseValue(statusCode),
+                new String(inputStream.readAllBytes(), getCharset(httpHeaders))));
+  }
+
+  /**
+   * Sends a request and hands the response body to {@code bodyReader} as it arrives, whatever its
+   * status. The connection is held until {@code bodyReader} returns.
+   *
+   * @param <T> what is read from the body
+   * @param requestMethod
+   * @param url
+   * @param headers
+   * @param body
+   * @param followRedirects
+   * @param bodyReader reads the unzipped body
+   * @return what {@code bodyReader} returned
+   * @throws IOException
+   * @throws InterruptedException
+   * @see #send(String, String, Map, String)
+   */
+  public <T> T send(
+      String requestMethod,
+      String url,
+      Map<String, String> headers,
+      String body,
+      boolean followRedirects,
+      BodyReader<T> bodyReader)
+      throws IOException, InterruptedException {
+    final byte[] bytes = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+    String method = requestMethod == null ? "" : requestMethod.trim().toUpperCase(Locale.ENGLISH);
+    if (method.isEmpty() || (method.equals("GET") && bytes != null)) {
+      // HttpURLConnection turned a GET into a POST once its body was written; callers rely on it.
+      method = bytes == null ? "GET" : "POST";
+    }
+    final URI uri = URI.create(url);
+    final HttpRequest.Builder builder =
+        HttpRequest.newBuilder(uri)
+            .timeout(requestTimeout)
+            .header("Accept-Encoding", "gzip")
+            .method(
+                method,
+                bytes == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(bytes));
+    headers.forEach(builder::header);
+    final Semaphore semaphore = acquire(uri);
+    try {
+      requestCount.incrementAndGet();
+      final HttpResponse<InputStream> httpResponse =
+          (followRedirects ? redirectingHttpClient : httpClient)
+              .send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+      if (bytes != null) {
+        bytesSent.addAndGet(bytes.length);
+      }
+      return read(httpResponse, bodyReader);
+    } catch (final IOException | RuntimeException e) {
+      failedCount.incrementAndGet();
+      throw e;
+    } finally {
+      semaphore.release();
+    }
+  }
+
+  /**
+   * Streams a file to disk without holding it in memory. The body is written to {@code
+   * <target>.part} and moved onto {@code target} once complete. A {@code .part} left by an earlier
+   * run is deleted first and missing folders are created. When a transfer breaks off, the next
+   * attempt asks for the rest with a {@code Range} header and appends to what is already there,
+   * once the {@code Content-Range} shows the server resumed at that point; a server that ignores
+   * the range sends the whole file again, which replaces it. Redirects are followed.
+   *
+   * @param url
+   * @param target file to write
+   * @param attempts tries before giving up
+   * @param backoffMillis wait before the second try, doubled for each one after
+   * @return size of the file in bytes
+   * @throws IOException if the file could not be downloaded in {@code attempts} tries
+   * @throws InterruptedException
+   */
+  public long download(String url, Path target, int attempts, long backoffMillis)
+      throws IOException, InterruptedException {
+    final URI uri = URI.create(url);
+    final Path part = target.resolveSibling(target.getFileName() + ".part");
+    final int attemptsMax = Math.max(1, attempts);
+    final Path parent = target.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    // Only resume what this call wrote; a stale part may belong to another version of the file.
+    Files.deleteIfExists(part);
+    for (int attempt = 1; ; attempt++) {
+      final Semaphore semaphore = acquire(uri);
+      try {
+        requestCount.incrementAndGet();
+        downloadPart(uri, part);
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(target);
+      } catch (final IOException e) {
+        failedCount.incrementAndGet();
+        if (attempt >= attemptsMax) {
+          throw e;
+        }
+        Environment.sysOut(
+            "Download of ["
+                + url
+                + "] failed on attempt "
+                + attempt
+                + " at "
+                + (Files.exists(part) ? Files.size(part) : 0)
+                + " bytes, retrying: "
+                + e.getMessage());
+      } finally {
+        semaphore.release();
+      }
+      TimeUnit.MILLISECONDS.sleep(Math.max(0, backoffMillis) << Math.min(attempt - 1, 10));
+    }
+  }
+
+  private void downloadPart(URI uri, Path part) throws IOException, InterruptedException {
+    final long offset = Files.exists(part) ? Files.size(part) : 0;
+    final HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(requestTimeout).GET();
+    if (offset > 0) {
+      builder.header("Range", "bytes=" + offset + "-");
+    }
+    final HttpResponse<InputStream> httpResponse =
+        redirectingHttpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+    try (InputStream body = httpResponse.body()) {
+      final int statusCode = httpResponse.statusCode();
+      if (statusCode == 416 && offset > 0) {
+        // Nothing is left past the offset, so the previous attempt already had the whole file.
+        body.transferTo(OutputStream.nullOutputStream());
+        return;
+      }
+      if (statusCode != 200 && statusCode != 206) {
+        body.transferTo(OutputStream.nullOutputStream());
+        throw new IOException(
+            "HTTP " + statusCode + " " + IHTTP.getResponseValue(statusCode) + " for [" + uri + "]");
+      }
+      final boolean append = statusCode == 206;
+      if (append) {
+        final String contentRange = httpResponse.headers().firstValue("Content-Range").orElse("");
+        if (getRangeStart(contentRange) != offset) {
+          body.transferTo(OutputStream.nullOutputStream());
+          // Start the next attempt over rather than append at the wrong place.
+          Files.deleteIfExists(part);
+          throw new IOException(
+              "Content-Range ["
+                  + contentRange
+                  + "] does not start at "
+                  + offset
+                  + " for ["
+                  + uri
+                  + "]");
+        }
+        resumedCount.incrementAndGet();
+      }
+      final long expected = httpResponse.headers().firstValueAsLong("Content-Length").orElse(-1);
+      final long written;
+      try (OutputStream outputStream =
+          Files.newOutputStream(
+              part,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+        written = transfer(body, outputStream);
+      }
+      if (expected >= 0 && written < expected) {
+        throw new IOException(
+            "Received " + written + " of " + expected + " bytes for [" + uri + "]");
+      }
+    }
+  }
+
+  /**
+   * @param contentRange e.g. {@code bytes 100-199/200}
+   * @return the first byte position, or -1 if there is none
+   */
+  private static long getRangeStart(String contentRange) {
+    final String value = contentRange.trim();
+    if (!value.toLowerCase(Locale.ENGLISH).startsWith("bytes ")) {
+      return -1;
+    }
+    final int dash = value.indexOf('-');
+    try {
+      return dash < 0 ? -1 : Long.parseLong(value.substring("bytes ".length(), dash).trim());
+    } catch (final NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private long transfer(InputStream inputStream, OutputStream outputStream) throws IOException {
+    final byte[] buffer = new byte[64 * 1024];
+    long written = 0;
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      outputStream.write(buffer, 0, read);
+      written += read;
+      bytesReceived.addAndGet(read);
+    }
+    return written;
+  }
+
+  private Semaphore acquire(URI uri) throws InterruptedException {
+    final String host = uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    final Semaphore semaphore =
+        hostPermitMap.computeIfAbsent(host, key -> new Semaphore(maxConnectionsPerHost, true));
+    if (!semaphore.tryAcquire()) {
+      final long start = System.nanoTime();
+      semaphore.acquire();
+      final long waitNanos = System.nanoTime() - start;
+      waitNanosTotal.addAndGet(waitNanos);
+      waitNanosMax.accumulateAndGet(waitNanos, Math::max);
+    }
+    return semaphore;
+  }
+
+  private <T> T read(HttpResponse<InputStream> httpResponse, BodyReader<T> bodyReader)
+      throws IOException {
+    // HEAD, 204 and 304 responses have no body to unzip, whatever their headers say.
+    final boolean gzip =
+        !httpResponse.request().method().equals("HEAD")
+            && httpResponse.statusCode() != 204
+            && httpResponse.statusCode() != 304
+            && httpResponse
+                .headers()
+                .firstValue("Content-Encoding")
+                .map(value -> value.toLowerCase(Locale.ENGLISH).contains("gzip"))
+                .orElse(false);
+    if (gzip) {
+      gzipCount.incrementAndGet();
+    }
+    try (InputStream body = httpResponse.body();
+        InputStream inputStream =
+            new CountingInputStream(gzip ? new GZIPInputStream(body) : body)) {
+      final T value =
+          bodyReader.read(httpResponse.statusCode(), httpResponse.headers(), inputStream);
+      // The connection only goes back to the pool once the body has been read to its end.
+      body.transferTo(OutputStream.nullOutputStream());
+      return value;
+    }
+  }
+
+  /** Counts the unzipped bytes a caller reads into {@code bytesReceived}. */
+  private final class CountingInputStream extends FilterInputStream {
+    private CountingInputStream(InputStream inputStream) {
+      super(inputStream);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int value = super.read();
+      if (value != -1) {
+        bytesReceived.incrementAndGet();
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      final int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        bytesReceived.addAndGet(read);
+      }
+      return read;
+    }
+  }
+
+  private static Charset getCharset(HttpHeaders httpHeaders) {
+    final String contentType = httpHeaders.firstValue("Content-Type").orElse("");
+    for (final String parameter : contentType.split(";")) {
+      final String[] pair = parameter.trim().split("=", 2);
+      if (pair.length == 2 && "charset".equalsIgnoreCase(pair[0].trim())) {
+        try {
+          return Charset.forName(pair[1].trim().replace("\"", ""));
+        } catch (final IllegalArgumentException e) {
+          break;
+        }
+      }
+    }
+    return StandardCharsets.UTF_8;
+  }
+
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  public String getMetrics() {
+    return "HTTP Requests:["
+        + requestCount.get()
+        + "], Failed:["
+        + failedCount.get()
+        + "], Gzip Responses:["
+        + gzipCount.get()
+        + "], Bytes Sent:["
+        + bytesSent.get()
+        + "], Bytes Received:["
+        + bytesReceived.get()
+        + "], Resumed Downloads:["
+        + resumedCount.get()
+        + "], Host Wait Total:["
+        + waitNanosTotal.get() / 1_000_000
+        + " ms], Host Wait Max:["
+        + waitNanosMax.get() / 1_000_000
+        + " ms]";
+  }
+}
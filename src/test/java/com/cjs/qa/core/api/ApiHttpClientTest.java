@@ -0,0 +1,317 @@
+package com.cjs.qa.core.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ApiHttpClientTest {
+  private final Set<Integer> clientPortSet = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final AtomicInteger activeMax = new AtomicInteger();
+  private static final byte[] FILE = new byte[256 * 1024];
+  private final List<String> rangeList = new CopyOnWriteArrayList<>();
+  private HttpServer httpServer = null;
+  private String url = null;
+
+  @Before
+  public void setUp() throws IOException {
+    httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    httpServer.setExecutor(Executors.newFixedThreadPool(8));
+    httpServer.createContext("/echo", this::echo);
+    httpServer.createContext(
+        "/slow",
+        httpExchange -> {
+          activeMax.accumulateAndGet(activeCount.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(100);
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          activeCount.decrementAndGet();
+          respond(httpExchange, 200, "done".getBytes(StandardCharsets.UTF_8), false);
+        });
+    httpServer.createContext("/file", this::file);
+    httpServer.createContext("/wrongRange", this::wrongRange);
+    httpServer.createContext(
+        "/moved",
+        httpExchange -> {
+          httpExchange.getResponseHeaders().add("Location", "/echo");
+          httpExchange.sendResponseHeaders(302, -1);
+          httpExchange.close();
+        });
+    httpServer.start();
+    url = "http://127.0.0.1:" + httpServer.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown() {
+    httpServer.stop(0);
+  }
+
+  /** Breaks off half way through the first transfer and honours {@code Range} afterwards. */
+  private void file(HttpExchange httpExchange) throws IOException {
+    final String range = httpExchange.getRequestHeaders().getFirst("Range");
+    rangeList.add(String.valueOf(range));
+    if (range == null) {
+      httpExchange.sendResponseHeaders(200, FILE.length);
+      final OutputStream outputStream = httpExchange.getResponseBody();
+      outputStream.write(FILE, 0, FILE.length / 2);
+      outputStream.flush();
+      httpExchange.close();
+      return;
+    }
+    final int offset = Integer.parseInt(range.replaceAll("\\D", ""));
+    httpExchange
+        .getResponseHeaders()
+        .add("Content-Range", "bytes " + offset + "-" + (FILE.length - 1) + "/" + FILE.length);
+    httpExchange.sendResponseHeaders(206, FILE.length - offset);
+    try (OutputStream outputStream = httpExchange.getResponseBody()) {
+      outputStream.write(FILE, offset, FILE.length - offset);
+    }
+  }
+
+  /** Answers every {@code Range} from the start of the file, as if it had changed. */
+  private void wrongRange(HttpExchange httpExchange) throws IOException {
+    final String range = httpExchange.getRequestHeaders().getFirst("Range");
+    rangeList.add(String.valueOf(range));
+    if (range == null) {
+      file(httpExchange);
+      return;
+    }
+    httpExchange
+        .getResponseHeaders()
+        .add("Content-Range", "bytes 0-" + (FILE.length - 1) + "/" + FILE.length);
+    httpExchange.sendResponseHeaders(206, FILE.length);
+    try (OutputStream outputStream = httpExchange.getResponseBody()) {
+      outputStream.write(FILE);
+    }
+  }
+
+  private void echo(HttpExchange httpExchange) throws IOException {
+    clientPortSet.add(httpExchange.getRemoteAddress().getPort());
+    final byte[] request = httpExchange.getRequestBody().readAllBytes();
+    final String body =
+        httpExchange.getRequestMethod()
+            + " "
+            + httpExchange.getRequestHeaders().getFirst("Content-Type")
+            + " "
+            + new String(request, StandardCharsets.UTF_8);
+    final boolean gzip =
+        String.valueOf(httpExchange.getRequestHeaders().getFirst("Accept-Encoding"))
+            .contains("gzip");
+    respond(httpExchange, 200, body.getBytes(StandardCharsets.UTF_8), gzip);
+  }
+
+  private static void respond(HttpExchange httpExchange, int statusCode, byte[] body, boolean gzip)
+      throws IOException {
+    byte[] bytes = body;
+    if (gzip) {
+      final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+      try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+        gzipOutputStream.write(body);
+      }
+      bytes = byteArrayOutputStream.toByteArray();
+      httpExchange.getResponseHeaders().add("Content-Encoding", "gzip");
+    }
+    httpExchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+    httpExchange.sendResponseHeaders(statusCode, bytes.length);
+    try (OutputStream outputStream = httpExchange.getResponseBody()) {
+      outputStream.write(bytes);
+    }
+  }
+
+  private static ApiHttpClient newClient(int maxConnectionsPerHost) {
+    return new ApiHttpClient(
+        maxConnectionsPerHost, Duration.ofSeconds(5), Duration.ofSeconds(10), false);
+  }
+
+  static {
+    new Random(7).nextBytes(FILE);
+  }
+
+  @Test
+  public void resumesABrokenDownload() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    final Path target = Files.createTempDirectory("download").resolve("export.csv");
+    try {
+      assertEquals(FILE.length, apiHttpClient.download(url + "/file", target, 3, 10));
+      assertArrayEquals(FILE, Files.readAllBytes(target));
+      assertFalse(Files.exists(target.resolveSibling("export.csv.part")));
+      assertEquals(2, rangeList.size());
+      assertEquals("null", rangeList.get(0));
+      assertTrue(rangeList.get(1), rangeList.get(1).matches("bytes=[1-9]\\d*-"));
+      assertTrue(
+          apiHttpClient.getMetrics(), apiHttpClient.getMetrics().contains("Resumed Downloads:[1]"));
+    } finally {
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(target.getParent());
+    }
+  }
+
+  @Test
+  public void createsMissingFolders() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    final Path root = Files.createTempDirectory("download");
+    final Path target = root.resolve("Data").resolve("YM").resolve("export.csv");
+    try {
+      assertEquals(FILE.length, apiHttpClient.download(url + "/file", target, 3, 10));
+      assertArrayEquals(FILE, Files.readAllBytes(target));
+    } finally {
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(target.getParent());
+      Files.deleteIfExists(target.getParent().getParent());
+      Files.deleteIfExists(root);
+    }
+  }
+
+  @Test
+  public void startsOverFromAStalePartFile() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    final Path target = Files.createTempDirectory("download").resolve("export.csv");
+    final Path part = target.resolveSibling("export.csv.part");
+    try {
+      Files.write(part, "left by an earlier run".getBytes(StandardCharsets.UTF_8));
+      assertEquals(FILE.length, apiHttpClient.download(url + "/file", target, 3, 10));
+      assertArrayEquals(FILE, Files.readAllBytes(target));
+      assertFalse(Files.exists(part));
+      assertEquals("null", rangeList.get(0));
+    } finally {
+      Files.deleteIfExists(part);
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(target.getParent());
+    }
+  }
+
+  @Test
+  public void doesNotAppendARangeStartingElsewhere() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    final Path target = Files.createTempDirectory("download").resolve("export.csv");
+    final Path part = target.resolveSibling("export.csv.part");
+    try {
+      try {
+        apiHttpClient.download(url + "/wrongRange", target, 2, 10);
+        fail("expected the download to fail");
+      } catch (final IOException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("Content-Range"));
+      }
+      assertFalse(Files.exists(target));
+      assertFalse(Files.exists(part));
+      assertTrue(
+          apiHttpClient.getMetrics(), apiHttpClient.getMetrics().contains("Resumed Downloads:[0]"));
+    } finally {
+      Files.deleteIfExists(part);
+      Files.deleteIfExists(target);
+      Files.deleteIfExists(target.getParent());
+    }
+  }
+
+  @Test
+  public void sendsUtf8AndUnzipsTheResponse() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    final ApiHttpClient.Response response =
+        apiHttpClient.send(
+            "", url + "/echo", Map.of("Content-Type", "application/xml"), "<Name>Zoë</Name>");
+    assertEquals(200, response.statusCode());
+    assertEquals("POST application/xml <Name>Zoë</Name>", response.body());
+    assertTrue(
+        apiHttpClient.getMetrics(), apiHttpClient.getMetrics().contains("Gzip Responses:[1]"));
+  }
+
+  @Test
+  public void reusesTheConnectionForLaterCalls() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    for (int call = 0; call < 5; call++) {
+      assertEquals("GET null ", apiHttpClient.send("GET", url + "/echo", Map.of(), null).body());
+    }
+    assertEquals(1, clientPortSet.size());
+    assertEquals(5, apiHttpClient.getRequestCount());
+  }
+
+  @Test
+  public void limitsConcurrentRequestsPerHost() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(2);
+    final ExecutorService executorService = Executors.newFixedThreadPool(6);
+    try {
+      final List<Future<ApiHttpClient.Response>> futureList = new ArrayList<>();
+      for (int call = 0; call < 6; call++) {
+        futureList.add(
+            executorService.submit(() -> apiHttpClient.send("GET", url + "/slow", Map.of(), null)));
+      }
+      for (final Future<ApiHttpClient.Response> future : futureList) {
+        assertEquals("done", future.get().body());
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    assertTrue(String.valueOf(activeMax.get()), activeMax.get() <= 2);
+  }
+
+  @Test
+  public void sendsAGetWithABodyAsAPost() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    assertEquals(
+        "POST null request", apiHttpClient.send("GET", url + "/echo", Map.of(), "request").body());
+  }
+
+  @Test
+  public void followsRedirectsOnlyWhenAsked() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    assertEquals(302, apiHttpClient.send("HEAD", url + "/moved", Map.of(), null).statusCode());
+    assertEquals(
+        200, apiHttpClient.send("HEAD", url + "/moved", Map.of(), null, true).statusCode());
+  }
+
+  @Test
+  public void streamsTheBodyToABodyReader() throws Exception {
+    final ApiHttpClient apiHttpClient = newClient(4);
+    final String firstWord =
+        apiHttpClient.send(
+            "POST",
+            url + "/echo",
+            Map.of(),
+            "streamed",
+            false,
+            (statusCode, headers, body) -> {
+              assertEquals(200, statusCode);
+              assertEquals("gzip", headers.firstValue("Content-Encoding").orElse(""));
+              final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+              int read;
+              while ((read = body.read()) != ' ') {
+                byteArrayOutputStream.write(read);
+              }
+              return byteArrayOutputStream.toString(StandardCharsets.UTF_8);
+            });
+    assertEquals("POST", firstWord);
+    // The rest of the body is skipped, so the next call reuses the connection.
+    assertEquals("GET null ", apiHttpClient.send("GET", url + "/echo", Map.of(), null).body());
+    assertEquals(1, clientPortSet.size());
+  }
+}
@@ -5,6 +5,7 @@
 import com.cjs.qa.utilities.Constants;
 import com.cjs.qa.utilities.FSOTests;
 import com.cjs.qa.utilities.IExtension;
+import com.cjs.qa.utilities.XMLFactories;
 import jakarta.xml.soap.MessageFactory;
 import jakarta.xml.soap.SOAPBody;
 import jakarta.xml.soap.SOAPConnection;
@@ -14,23 +15,17 @@
 import jakarta.xml.soap.SOAPException;
 import jakarta.xml.soap.SOAPMessage;
 import jakarta.xml.soap.SOAPPart;
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -111,47 +106,28 @@ public static Map<String, String> getAPIJSONResponse(
               + apiRequest
               + "]");
     }
-    int responseCode = -1;
-    HttpURLConnection httpURLConnection = null;
-    String json = "";
-    String line = "";
     try {
-      final URL oURL = URI.create(url).toURL();
-      httpURLConnection = (HttpURLConnection) oURL.openConnection();
-      httpURLConnection.setDoOutput(true);
-      httpURLConnection.setInstanceFollowRedirects(false);
-      if (!requestMethod.isEmpty()) {
-        httpURLConnection.setRequestMethod(requestMethod);
-      }
-      httpURLConnection.setRequestProperty("Content-Type", "application/json");
-      httpURLConnection.setRequestProperty("Accept", "application/json");
-      httpURLConnection.setRequestProperty("charset", StandardCharsets.UTF_8.toString());
-      httpURLConnection.setRequestProperty(
-          "Content-Length", "" + Integer.toString(apiRequest.getBytes().length));
-      httpURLConnection.setUseCaches(false);
-      try (DataOutputStream dataOutputStream =
-          new DataOutputStream(httpURLConnection.getOutputStream())) {
-        dataOutputStream.writeBytes(apiRequest);
-        dataOutputStream.flush();
-        responseCode = httpURLConnection.getResponseCode();
-        map.put("responseCode", String.valueOf(responseCode));
-        final String responseMessage = String.valueOf(httpURLConnection.getResponseMessage());
-        map.put("responseMessage", responseMessage);
-        if (responseCode == HttpURLConnection.HTTP_OK) {
-          try (BufferedReader bufferedReader =
-              new BufferedReader(new InputStreamReader(httpURLConnection.getInputStream()))) {
-            while ((line = bufferedReader.readLine()) != null) {
-              json += line;
-            }
-            map.put("json", json);
-          }
-        }
-        if (responseCode != HttpURLConnection.HTTP_OK) {
-          Environment.sysOut("responseCode:[" + responseCode + "]");
-          Environment.sysOut("responseMessage:[" + responseMessage + "]");
-        }
-      } finally {
-        httpURLConnection.disconnect();
+      final ApiHttpClient.Response response =
+          ApiHttpClient.getInstance()
+              .send(
+                  requestMethod,
+                  url,
+                  Map.of(
+                      "Content-Type",
+                      "application/json",
+                      "Accept",
+                      "application/json",
+                      "charset",
+                      StandardCharsets.UTF_8.toString()),
+                  apiRequest);
+      final int responseCode = response.statusCode();
+      map.put("responseCode", String.valueOf(responseCode));
+      map.put("responseMessage", response.responseMessage());
+      if (responseCode == HttpURLConnection.HTTP_OK) {
+        map.put("json", response.body());
+      } else {
+        Environment.sysOut("responseCode:[" + responseCode + "]");
+        Environment.sysOut("responseMessage:[" + response.responseMessage() + "]");
       }
     } catch (final Exception e) {
       Environment.sysOut(e);
@@ -301,48 +277,23 @@ public static Map<String, String> getAPIXMLResponse(
               + apiRequest
               + "]");
     }
-    int responseCode = -1;
-    HttpURLConnection httpURLConnection = null;
-    String xml = "";
-    String line = "";
     try {
-      final URL oURL = URI.create(url).toURL();
-      httpURLConnection = (HttpURLConnection) oURL.openConnection();
-      httpURLConnection.setDoOutput(true);
-      httpURLConnection.setInstanceFollowRedirects(false);
-      if (!requestMethod.isEmpty()) {
-        httpURLConnection.setRequestMethod(requestMethod);
-      }
-      // httpURLConnection.setRequestProperty("Content-Type",
-      // "text/xml");
-      httpURLConnection.setRequestProperty("Accept", "application/xml");
-      httpURLConnection.setRequestProperty("charset", StandardCharsets.UTF_8.toString());
-      httpURLConnection.setRequestProperty(
-          "Content-Length", "" + Integer.toString(apiRequest.getBytes().length));
-      httpURLConnection.setUseCaches(false);
-      try (DataOutputStream dataOutputStream =
-          new DataOutputStream(httpURLConnection.getOutputStream())) {
-        dataOutputStream.writeBytes(apiRequest);
-        dataOutputStream.flush();
-        responseCode = httpURLConnection.getResponseCode();
-        map.put("responseCode", String.valueOf(responseCode));
-        final String responseMessage = String.valueOf(httpURLConnection.getResponseMessage());
-        map.put("responseMessage", responseMessage);
-        if (responseCode == HttpURLConnection.HTTP_OK) {
-          try (BufferedReader bufferedReader =
-              new BufferedReader(new InputStreamReader(httpURLConnection.getInputStream()))) {
-            while ((line = bufferedReader.readLine()) != null) {
-              xml += line;
-            }
-            map.put("xml", xml);
-          }
-        }
-        if (responseCode != HttpURLConnection.HTTP_OK) {
-          Environment.sysOut("responseCode:[" + responseCode + "]");
-          Environment.sysOut("responseMessage:[" + responseMessage + "]");
-        }
-      } finally {
-        httpURLConnection.disconnect();
+      // "Content-Type", "text/xml"
+      final ApiHttpClient.Response response =
+          ApiHttpClient.getInstance()
+              .send(
+                  requestMethod,
+                  url,
+                  Map.of("Accept", "application/xml", "charset", StandardCharsets.UTF_8.toString()),
+                  apiRequest);
+      final int responseCode = response.statusCode();
+      map.put("responseCode", String.valueOf(responseCode));
+      map.put("responseMessage", response.responseMessage());
+      if (responseCode == HttpURLConnection.HTTP_OK) {
+        map.put("xml", response.body());
+      } else {
+        Environment.sysOut("responseCode:[" + responseCode + "]");
+        Environment.sysOut("responseMessage:[" + response.responseMessage() + "]");
       }
     } catch (final Exception e) {
       Environment.sysOut(e);
@@ -469,8 +420,7 @@ public static String xmlReplaceSpecialCharacters(String xml, boolean revert) {
   public static String getSOAPMessageValue(SOAPMessage soapMessage, boolean maskPassword) {
     setXml(null);
     try {
-      final TransformerFactory transformerFactory = TransformerFactory.newInstance();
-      final Transformer transformer = transformerFactory.newTransformer();
+      final Transformer transformer = XMLFactories.getTransformer();
       // transformer.setOutputProperty(OutputKeys.INDENT, "yes");
       // transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount",
       // "2");
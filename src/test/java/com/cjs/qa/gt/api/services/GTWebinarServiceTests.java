@@ -1,6 +1,7 @@
 package com.cjs.qa.gt.api.services;
 
 import com.cjs.qa.core.Environment;
+import com.cjs.qa.core.api.ApiHttpClient;
 import com.cjs.qa.core.security.EAPIKeys;
 import com.cjs.qa.core.security.EPasswords;
 import com.cjs.qa.rest.REST;
@@ -8,7 +9,6 @@
 import com.cjs.qa.utilities.IExtension;
 import com.cjs.qa.utilities.IHTTP;
 import java.net.HttpURLConnection;
-import java.net.URI;
 import java.util.Map;
 import org.junit.Assert;
 import org.junit.Test;
@@ -52,10 +52,8 @@ public void gtwWebinarServiceTest() {
   public GTWebinarServiceTests() {
     if (!serviceActive) {
       try {
-        final HttpURLConnection httpUrlConnection =
-            (HttpURLConnection) URI.create(URL_GT).toURL().openConnection();
-        httpUrlConnection.setRequestMethod("HEAD");
-        final int responseCode = httpUrlConnection.getResponseCode();
+        final int responseCode =
+            ApiHttpClient.getInstance().send("HEAD", URL_GT, Map.of(), null, true).statusCode();
         if (!(responseCode >= HttpURLConnection.HTTP_OK
             && responseCode < HttpURLConnection.HTTP_BAD_REQUEST)) {
           Environment.sysOut(
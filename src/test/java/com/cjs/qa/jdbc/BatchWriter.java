@@ -0,0 +1,326 @@
+package com.cjs.qa.jdbc;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.JavaHelpers;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts {@code Map<String, String>} records with parameterized INSERT statements and JDBC
+ * batching instead of one large string of literal INSERTs.
+ *
+ * <p>One {@link PreparedStatement} is cached per table and column set. Rows are sent with {@code
+ * executeBatch} every {@code batchSize} rows per statement and committed every {@code commitSize}
+ * rows. A {@code null} value is written as an empty string, the same as {@link
+ * SQL#appendStringBuilderSQLInsertRecord(String, StringBuilder, Map, boolean)}.
+ *
+ * <pre>{@code
+ * try (BatchWriter batchWriter = new BatchWriter(jdbc.getDbParameters())) {
+ *   for (Map<String, String> record : records) {
+ *     batchWriter.add(tableName, record);
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>Defaults come from {@code jdbc.batch.size} (500) and {@code jdbc.batch.commitSize} (5000).
+ */
+public class BatchWriter implements AutoCloseable {
+  public static final String PROPERTY_BATCH_SIZE = "jdbc.batch.size";
+  public static final String PROPERTY_COMMIT_SIZE = "jdbc.batch.commitSize";
+
+  private final DBParameters dbParameters;
+  private final int batchSize;
+  private final int commitSize;
+  private final Map<String, CachedInsert> insertMap = new LinkedHashMap<>();
+  private final List<BatchTiming> batchTimingList = new ArrayList<>();
+  private Connection connection = null;
+  private int rowsUncommitted = 0;
+  private long rowsAdded = 0;
+  private long rowsInserted = 0;
+  private long rowsInsertedUncommitted = 0;
+  private long commits = 0;
+
+  /** Takes records one at a time, e.g. {@code record -> batchWriter.add(tableName, record)}. */
+  @FunctionalInterface
+  public interface RecordSink {
+    void accept(Map<String, String> record) throws SQLException;
+  }
+
+  /** Hands its records to a {@link RecordSink} as they are read instead of returning a list. */
+  @FunctionalInterface
+  public interface RecordSource {
+    void produce(RecordSink recordSink) throws Throwable;
+  }
+
+  /** Timing of one {@code executeBatch} call. */
+  public record BatchTiming(String tableName, int rows, long nanos) {
+    public double getMillis() {
+      return nanos / 1_000_000.0;
+    }
+  }
+
+  public BatchWriter(DBParameters dbParameters) {
+    this(
+        dbParameters,
+        Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_BATCH_SIZE, "500")),
+        Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_COMMIT_SIZE, "5000")));
+  }
+
+  public BatchWriter(DBParameters dbParameters, int batchSize, int commitSize) {
+    if (batchSize < 1 || commitSize < 1) {
+      throw new IllegalArgumentException(
+          "batchSize:[" + batchSize + "] and commitSize:[" + commitSize + "] must be positive");
+    }
+    this.dbParameters = dbParameters;
+    this.batchSize = batchSize;
+    this.commitSize = commitSize;
+  }
+
+  /**
+   * Queues one record for insertion into {@code tableName}.
+   *
+   * @param tableName table to insert into
+   * @param record field name to value
+   * @throws SQLException if a batch or commit fails; the open transaction is rolled back
+   */
+  public void add(String tableName, Map<String, String> record) throws SQLException {
+    final List<String> fieldNameList = new ArrayList<>(record.keySet());
+    Collections.sort(fieldNameList);
+    final CachedInsert cachedInsert = getCachedInsert(tableName, fieldNameList);
+    try {
+      for (int index = 0; index < fieldNameList.size(); index++) {
+        final String value = record.get(fieldNameList.get(index));
+        cachedInsert.preparedStatement.setString(index + 1, value == null ? "" : value);
+      }
+      cachedInsert.preparedStatement.addBatch();
+      cachedInsert.pending++;
+      rowsAdded++;
+      rowsUncommitted++;
+      if (cachedInsert.pending >= batchSize) {
+        executeBatch(cachedInsert);
+      }
+      if (rowsUncommitted >= commitSize) {
+        commit();
+      }
+    } catch (final SQLException e) {
+      rollback();
+      throw e;
+    }
+  }
+
+  /**
+   * Queues every record for insertion into {@code tableName}.
+   *
+   * @param tableName table to insert into
+   * @param recordList records to insert
+   * @throws SQLException if a batch or commit fails
+   */
+  public void addAll(String tableName, List<Map<String, String>> recordList) throws SQLException {
+    for (final Map<String, String> record : recordList) {
+      add(tableName, record);
+    }
+  }
+
+  /**
+   * Sends all pending batches and commits them.
+   *
+   * @throws SQLException if a batch or the commit fails; the open transaction is rolled back
+   */
+  public void commit() throws SQLException {
+    if (connection == null) {
+      return;
+    }
+    try {
+      for (final CachedInsert cachedInsert : insertMap.values()) {
+        executeBatch(cachedInsert);
+      }
+      connection.commit();
+      commits++;
+      rowsUncommitted = 0;
+      rowsInsertedUncommitted = 0;
+    } catch (final SQLException e) {
+      rollback();
+      throw e;
+    }
+  }
+
+  /**
+   * Commits anything still pending, closes the cached statements and returns the connection to the
+   * pool.
+   *
+   * @throws SQLException if the final commit fails
+   */
+  @Override
+  public void close() throws SQLException {
+    try {
+      commit();
+    } finally {
+      if (connection != null) {
+        // Closing the pooled connection also closes the cached statements.
+        connection.close();
+        connection = null;
+      }
+      insertMap.clear();
+      Environment.sysOut(getReport());
+    }
+  }
+
+  private void executeBatch(CachedInsert cachedInsert) throws SQLException {
+    if (cachedInsert.pending == 0) {
+      return;
+    }
+    final long start = System.nanoTime();
+    final int[] results = cachedInsert.preparedStatement.executeBatch();
+    final long nanos = System.nanoTime() - start;
+    int rows = 0;
+    for (final int result : results) {
+      // SUCCESS_NO_INFO (-2) still means the row was inserted.
+      rows += result == PreparedStatement.SUCCESS_NO_INFO ? 1 : Math.max(result, 0);
+    }
+    rowsInserted += rows;
+    rowsInsertedUncommitted += rows;
+    cachedInsert.pending = 0;
+    final BatchTiming batchTiming = new BatchTiming(cachedInsert.tableName, rows, nanos);
+    batchTimingList.add(batchTiming);
+    Environment.sysOut(
+        "["
+            + rows
+            + "] RECORD(S) INSERTED INTO ["
+            + cachedInsert.tableName
+            + "] in ["
+            + String.format("%.3f", batchTiming.getMillis())
+            + "] ms");
+  }
+
+  private CachedInsert getCachedInsert(String tableName, List<String> fieldNameList)
+      throws SQLException {
+    final String key = tableName + "|" + String.join("|", fieldNameList);
+    CachedInsert cachedInsert = insertMap.get(key);
+    if (cachedInsert == null) {
+      final String sql = getInsertSQL(tableName, fieldNameList);
+      cachedInsert = new CachedInsert(tableName, getConnection().prepareStatement(sql));
+      insertMap.put(key, cachedInsert);
+    }
+    return cachedInsert;
+  }
+
+  private Connection getConnection() throws SQLException {
+    if (connection == null) {
+      connection = PooledDataSource.getInstance(dbParameters).getConnection();
+      connection.setAutoCommit(false);
+    }
+    return connection;
+  }
+
+  private void rollback() {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.rollback();
+    } catch (final SQLException e) {
+      Environment.sysOut(e);
+    }
+    for (final CachedInsert cachedInsert : insertMap.values()) {
+      try {
+        cachedInsert.preparedStatement.clearBatch();
+      } catch (final SQLException e) {
+        Environment.sysOut(e);
+      }
+      cachedInsert.pending = 0;
+    }
+    rowsInserted -= rowsInsertedUncommitted;
+    rowsInsertedUncommitted = 0;
+    rowsUncommitted = 0;
+  }
+
+  /**
+   * Builds the parameterized INSERT used for a table and column set.
+   *
+   * @param tableName table to insert into
+   * @param fieldNameList columns in parameter order
+   * @return {@code insert into [table] ([a],[b]) values (?,?)}
+   */
+  public static String getInsertSQL(String tableName, List<String> fieldNameList) {
+    final StringBuilder stringBuilderFields = new StringBuilder();
+    final StringBuilder stringBuilderValues = new StringBuilder();
+    for (final String fieldName : fieldNameList) {
+      if (stringBuilderFields.length() > 0) {
+        stringBuilderFields.append(",");
+        stringBuilderValues.append(",");
+      }
+      stringBuilderFields.append("[" + fieldName + "]");
+      stringBuilderValues.append("?");
+    }
+    return JDBCConstants.INSERT_INTO
+        + "["
+        + tableName
+        + "] ("
+        + stringBuilderFields.toString()
+        + ")"
+        + JDBCConstants.VALUES
+        + "("
+        + stringBuilderValues.toString()
+        + ")";
+  }
+
+  public List<BatchTiming> getBatchTimingList() {
+    return Collections.unmodifiableList(batchTimingList);
+  }
+
+  public long getRowsAdded() {
+    return rowsAdded;
+  }
+
+  public long getRowsInserted() {
+    return rowsInserted;
+  }
+
+  public long getCommits() {
+    return commits;
+  }
+
+  public String getReport() {
+    long nanosTotal = 0;
+    long nanosMax = 0;
+    for (final BatchTiming batchTiming : batchTimingList) {
+      nanosTotal += batchTiming.nanos();
+      nanosMax = Math.max(nanosMax, batchTiming.nanos());
+    }
+    final double millisTotal = nanosTotal / 1_000_000.0;
+    final double rowsPerSecond = nanosTotal == 0 ? 0 : rowsInserted * 1_000_000_000.0 / nanosTotal;
+    return "BatchWriter Rows Inserted:["
+        + rowsInserted
+        + "/"
+        + rowsAdded
+        + "], Batches:["
+        + batchTimingList.size()
+        + "], Commits:["
+        + commits
+        + "], Batch Time:["
+        + String.format("%.3f", millisTotal)
+        + " ms], Slowest Batch:["
+        + String.format("%.3f", nanosMax / 1_000_000.0)
+        + " ms], Rows/Second:["
+        + String.format("%.0f", rowsPerSecond)
+        + "]";
+  }
+
+  /** A prepared INSERT for one table and column set plus its number of queued rows. */
+  private static final class CachedInsert {
+    private final String tableName;
+    private final PreparedStatement preparedStatement;
+    private int pending = 0;
+
+    private CachedInsert(String tableName, PreparedStatement preparedStatement) {
+      this.tableName = tableName;
+      this.preparedStatement = preparedStatement;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchWriterTest {
+
+  private static DBParameters createDatabase(String name) throws Exception {
+    final DBParameters dbParameters = TempSQLite.newDBParameters(name);
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.executeUpdate("create table [t_Batch] ([ID] TEXT, [Name] TEXT, [Note] TEXT)");
+    }
+    return dbParameters;
+  }
+
+  private static int count(DBParameters dbParameters, String where) throws SQLException {
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("select count(*) from [t_Batch] " + where)) {
+      resultSet.next();
+      return resultSet.getInt(1);
+    }
+  }
+
+  @Test
+  public void getInsertSQL() {
+    Assert.assertEquals(
+        "insert into [t_Batch] ([ID],[Name]) values (?,?)",
+        BatchWriter.getInsertSQL("t_Batch", Arrays.asList("ID", "Name")));
+  }
+
+  @Test
+  public void insertsInBatchesAndCommits() throws Exception {
+    final DBParameters dbParameters = createDatabase("BatchWriterInsert");
+    try (BatchWriter batchWriter = new BatchWriter(dbParameters, 10, 25)) {
+      for (int index = 0; index < 55; index++) {
+        final Map<String, String> record = new HashMap<>();
+        record.put("ID", String.valueOf(index));
+        record.put("Name", "O'Name " + index);
+        record.put("Note", null);
+        batchWriter.add("t_Batch", record);
+      }
+      batchWriter.commit();
+      Assert.assertEquals(55, batchWriter.getRowsInserted());
+      Assert.assertEquals(7, batchWriter.getBatchTimingList().size());
+    }
+    Assert.assertEquals(55, count(dbParameters, ""));
+    Assert.assertEquals(55, count(dbParameters, "where [Note] = ''"));
+    Assert.assertEquals(1, count(dbParameters, "where [Name] = 'O''Name 7'"));
+  }
+
+  @Test
+  public void columnOrderDoesNotMatter() throws Exception {
+    final DBParameters dbParameters = createDatabase("BatchWriterColumns");
+    try (BatchWriter batchWriter = new BatchWriter(dbParameters, 100, 100)) {
+      final Map<String, String> first = new LinkedHashMap<>();
+      first.put("ID", "1");
+      first.put("Name", "First");
+      final Map<String, String> second = new LinkedHashMap<>();
+      second.put("Name", "Second");
+      second.put("ID", "2");
+      batchWriter.add("t_Batch", first);
+      batchWriter.add("t_Batch", second);
+    }
+    Assert.assertEquals(1, count(dbParameters, "where [ID] = '2' and [Name] = 'Second'"));
+  }
+}
@@ -0,0 +1,70 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The column names of one query, resolved once and shared by every {@link ResultRow} it returns.
+ *
+ * <p>Lookups by name are O(1). When a query returns the same column name twice, the last one wins,
+ * the same as the maps built by {@link JDBC#queryResultsString(String, boolean)} always did.
+ */
+public final class ColumnIndex {
+  private final List<String> columnNameList;
+  private final Map<String, Integer> indexMap;
+
+  public ColumnIndex(List<String> columnNameList) {
+    this.columnNameList = Collections.unmodifiableList(new ArrayList<>(columnNameList));
+    this.indexMap = new HashMap<>();
+    for (int index = 0; index < this.columnNameList.size(); index++) {
+      indexMap.put(this.columnNameList.get(index), index);
+    }
+  }
+
+  public static ColumnIndex fromMetaData(ResultSetMetaData resultSetMetaData) throws SQLException {
+    final int columns = resultSetMetaData.getColumnCount();
+    final List<String> columnNameList = new ArrayList<>(columns);
+    for (int index = 1; index <= columns; index++) {
+      columnNameList.add(resultSetMetaData.getColumnName(index));
+    }
+    return new ColumnIndex(columnNameList);
+  }
+
+  public int getColumnCount() {
+    return columnNameList.size();
+  }
+
+  /**
+   * @return the number of distinct column names
+   */
+  public int getUniqueColumnCount() {
+    return indexMap.size();
+  }
+
+  public String getColumnName(int index) {
+    return columnNameList.get(index);
+  }
+
+  public List<String> getColumnNameList() {
+    return columnNameList;
+  }
+
+  /**
+   * @param columnName column name as reported by the driver
+   * @return the zero-based column index, or -1 if the query has no such column
+   */
+  public int indexOf(String columnName) {
+    final Integer index = indexMap.get(columnName);
+    return index == null ? -1 : index;
+  }
+
+  @Override
+  public String toString() {
+    return "Columns:" + columnNameList;
+  }
+}
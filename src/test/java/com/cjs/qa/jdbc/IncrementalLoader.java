@@ -0,0 +1,480 @@
+package com.cjs.qa.jdbc;
+
+import com.cjs.qa.core.Environment;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Brings a table in line with a new snapshot of its records by applying only the differences,
+ * instead of deleting the table and inserting every record again.
+ *
+ * <p>Each record is reduced to a SHA-256 content hash over its sorted field names and values. The
+ * existing rows are read once and compared by key:
+ *
+ * <ul>
+ *   <li>a key only in the new snapshot is INSERTed
+ *   <li>a key in both with a different hash is UPDATEd
+ *   <li>a key only in the table is DELETEd
+ * </ul>
+ *
+ * <p>With no key fields the whole record is the key, so only INSERTs and DELETEs are applied and
+ * identical records are counted rather than collapsed. With key fields, identical records under one
+ * key are loaded once and reported, while different records under one key fail the load before
+ * anything is written. A Previous table can be brought in line with the rows being replaced in the
+ * same pass, instead of being emptied and copied again. All changes are written in one transaction
+ * with batched prepared statements. Only the fields the records carry are compared, so columns
+ * maintained by the database itself are left alone. A {@code null} value compares equal to an empty
+ * string, the same as {@link BatchWriter}. An empty snapshot empties the table.
+ */
+public class IncrementalLoader {
+  private static final String KEY_SEPARATOR = "\u0001";
+
+  private final DBParameters dbParameters;
+
+  /** Change counts of one {@link IncrementalLoader#load(String, List, List)}. */
+  public record LoadResult(
+      String tableName, int inserted, int updated, int deleted, int unchanged, long millis) {
+    public int getChanges() {
+      return inserted + updated + deleted;
+    }
+
+    @Override
+    public String toString() {
+      return "IncrementalLoad:["
+          + tableName
+          + "] Inserted:["
+          + inserted
+          + "], Updated:["
+          + updated
+          + "], Deleted:["
+          + deleted
+          + "], Unchanged:["
+          + unchanged
+          + "], Time:["
+          + millis
+          + " ms]";
+    }
+  }
+
+  /** Thrown when two different records share a key; nothing has been written. */
+  public static class DuplicateKeyException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateKeyException(String message) {
+      super(message);
+    }
+  }
+
+  public IncrementalLoader(DBParameters dbParameters) {
+    this.dbParameters = dbParameters;
+  }
+
+  /**
+   * Applies the INSERT, UPDATE and DELETE deltas that turn the rows of {@code tableName} into
+   * {@code recordList}.
+   *
+   * @param tableName table to load
+   * @param keyFieldList fields identifying a record; empty to use the whole record
+   * @param recordList the complete new snapshot of the table
+   * @return the change counts
+   * @throws SQLException if reading or writing fails; nothing is committed
+   */
+  public LoadResult load(
+      String tableName, List<String> keyFieldList, List<Map<String, String>> recordList)
+      throws SQLException {
+    return load(tableName, null, keyFieldList, recordList);
+  }
+
+  /**
+   * Same as {@link #load(String, List, List)}, but first makes {@code previousTableName} hold the
+   * rows of {@code tableName} as they were before this load. Only the rows that differ are deleted
+   * from or inserted into it, so both tables need the same columns in the same order.
+   *
+   * @param tableName table to load
+   * @param previousTableName table to receive the replaced rows; {@code null} for none
+   * @param keyFieldList fields identifying a record; empty to use the whole record
+   * @param recordList the complete new snapshot of the table
+   * @return the change counts of {@code tableName}
+   * @throws DuplicateKeyException if two different records share a key
+   * @throws SQLException if reading or writing fails; nothing is committed
+   */
+  public LoadResult load(
+      String tableName,
+      String previousTableName,
+      List<String> keyFieldList,
+      List<Map<String, String>> recordList)
+      throws SQLException {
+    final long start = System.currentTimeMillis();
+    final List<String> fieldNameList = getFieldNameList(recordList, keyFieldList);
+    final List<String> valueFieldList = new ArrayList<>(fieldNameList);
+    valueFieldList.removeAll(keyFieldList);
+    final boolean keyed = !keyFieldList.isEmpty();
+    final Map<String, Map<String, String>> newRecordMap = new LinkedHashMap<>();
+    final Map<String, Integer> newCountMap = new HashMap<>();
+    final List<String> conflictKeyList = new ArrayList<>();
+    int duplicates = 0;
+    for (final Map<String, String> record : recordList) {
+      final String key = keyed ? getKey(record, keyFieldList) : getHash(record, fieldNameList);
+      final Map<String, String> existingRecord = newRecordMap.putIfAbsent(key, record);
+      newCountMap.merge(key, 1, Integer::sum);
+      if (keyed && existingRecord != null) {
+        duplicates++;
+        if (!getHash(existingRecord, fieldNameList).equals(getHash(record, fieldNameList))) {
+          conflictKeyList.add(key.replace(KEY_SEPARATOR, ","));
+        }
+      }
+    }
+    if (!conflictKeyList.isEmpty()) {
+      throw new DuplicateKeyException(
+          "["
+              + tableName
+              + "] has ["
+              + conflictKeyList.size()
+              + "] different record(s) sharing a key "
+              + keyFieldList
+              + ", first:["
+              + conflictKeyList.get(0)
+              + "]");
+    }
+    if (duplicates > 0) {
+      Environment.sysOut(
+          "[" + tableName + "] skipped [" + duplicates + "] identical duplicate record(s)");
+    }
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection()) {
+      final Map<String, String> existingHashMap = new HashMap<>();
+      final Map<String, Integer> existingCountMap = new HashMap<>();
+      final List<String> columnNameList =
+          readExisting(
+              connection,
+              tableName,
+              fieldNameList,
+              keyFieldList,
+              existingHashMap,
+              existingCountMap);
+      final List<Map<String, String>> insertList = new ArrayList<>();
+      final List<Map<String, String>> updateList = new ArrayList<>();
+      final List<Map<String, String>> deleteList = new ArrayList<>();
+      int inserted = 0;
+      int deleted = 0;
+      int unchanged = 0;
+      for (final Map.Entry<String, Map<String, String>> entry : newRecordMap.entrySet()) {
+        final String key = entry.getKey();
+        final Map<String, String> record = entry.getValue();
+        final int newCount = keyed ? 1 : newCountMap.get(key);
+        final int existingCount = existingCountMap.getOrDefault(key, 0);
+        if (existingCount == 0) {
+          for (int copy = 0; copy < newCount; copy++) {
+            insertList.add(record);
+          }
+          inserted += newCount;
+        } else if (keyed) {
+          if (getHash(record, fieldNameList).equals(existingHashMap.get(key))) {
+            unchanged++;
+          } else {
+            updateList.add(record);
+          }
+        } else if (newCount == existingCount) {
+          unchanged += newCount;
+        } else {
+          // Identical rows cannot be told apart; replace them with the new number of copies.
+          deleteList.add(record);
+          for (int copy = 0; copy < newCount; copy++) {
+            insertList.add(record);
+          }
+          unchanged += Math.min(newCount, existingCount);
+          inserted += Math.max(newCount - existingCount, 0);
+          deleted += Math.max(existingCount - newCount, 0);
+        }
+      }
+      for (final Map.Entry<String, Map<String, String>> entry :
+          getRemoved(
+                  keyed,
+                  keyFieldList,
+                  fieldNameList,
+                  existingCountMap,
+                  newCountMap,
+                  existingHashMap)
+              .entrySet()) {
+        deleteList.add(entry.getValue());
+        deleted += existingCountMap.get(entry.getKey());
+      }
+      final List<String> matchFieldList = keyed ? keyFieldList : fieldNameList;
+      connection.setAutoCommit(false);
+      try {
+        if (previousTableName != null) {
+          updatePrevious(connection, tableName, previousTableName, columnNameList);
+        }
+        executeBatch(
+            connection, getDeleteSQL(tableName, matchFieldList), deleteList, matchFieldList);
+        final List<String> updateFieldList = new ArrayList<>(valueFieldList);
+        updateFieldList.addAll(keyFieldList);
+        executeBatch(
+            connection,
+            getUpdateSQL(tableName, valueFieldList, keyFieldList),
+            updateList,
+            updateFieldList);
+        executeBatch(
+            connection,
+            BatchWriter.getInsertSQL(tableName, fieldNameList),
+            insertList,
+            fieldNameList);
+        connection.commit();
+      } catch (final SQLException e) {
+        connection.rollback();
+        throw e;
+      }
+      final LoadResult loadResult =
+          new LoadResult(
+              tableName,
+              inserted,
+              updateList.size(),
+              deleted,
+              unchanged,
+              System.currentTimeMillis() - start);
+      Environment.sysOut(loadResult.toString());
+      return loadResult;
+    }
+  }
+
+  /**
+   * The rows to delete because their key is not in the new snapshot. In keyed mode the value only
+   * needs the key fields, which are recovered from the key itself.
+   */
+  private static Map<String, Map<String, String>> getRemoved(
+      boolean keyed,
+      List<String> keyFieldList,
+      List<String> fieldNameList,
+      Map<String, Integer> existingCountMap,
+      Map<String, Integer> newCountMap,
+      Map<String, String> existingRecordMap) {
+    final Map<String, Map<String, String>> removedMap = new LinkedHashMap<>();
+    for (final String key : existingCountMap.keySet()) {
+      if (newCountMap.containsKey(key)) {
+        continue;
+      }
+      final List<String> matchFieldList = keyed ? keyFieldList : fieldNameList;
+      final String values = keyed ? key : existingRecordMap.get(key);
+      final String[] valueArray = values.split(KEY_SEPARATOR, -1);
+      final Map<String, String> record = new HashMap<>();
+      for (int index = 0; index < matchFieldList.size(); index++) {
+        record.put(matchFieldList.get(index), valueArray[index]);
+      }
+      removedMap.put(key, record);
+    }
+    return removedMap;
+  }
+
+  /**
+   * Deletes the rows of the Previous table with no identical row in the table and inserts the rows
+   * of the table it lacks. NULLs compare equal with {@code is}.
+   */
+  private static void updatePrevious(
+      Connection connection, String tableName, String previousTableName, List<String> columnList)
+      throws SQLException {
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (final String columnName : columnList) {
+      if (stringBuilder.length() > 0) {
+        stringBuilder.append(" " + JDBCConstants.AND);
+      }
+      stringBuilder.append(
+          "c.[" + columnName + "] is [" + previousTableName + "].[" + columnName + "]");
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate(
+          JDBCConstants.DELETE_FROM
+              + "["
+              + previousTableName
+              + "] "
+              + JDBCConstants.WHERE
+              + JDBCConstants.NOT
+              + "exists ("
+              + JDBCConstants.SELECT
+              + "1 "
+              + JDBCConstants.FROM
+              + "["
+              + tableName
+              + "] c "
+              + JDBCConstants.WHERE
+              + stringBuilder.toString()
+              + ")");
+      statement.executeUpdate(
+          JDBCConstants.INSERT_INTO
+              + "["
+              + previousTableName
+              + "] "
+              + JDBCConstants.SELECT_ALL_FROM
+              + "["
+              + tableName
+              + "] except "
+              + JDBCConstants.SELECT_ALL_FROM
+              + "["
+              + previousTableName
+              + "]");
+    }
+  }
+
+  /**
+   * Reads the rows of the table once. In keyed mode {@code existingHashMap} maps key to content
+   * hash; otherwise it maps content hash to the joined field values so removed rows can be matched.
+   *
+   * @return every column of the table, in table order
+   */
+  private static List<String> readExisting(
+      Connection connection,
+      String tableName,
+      List<String> fieldNameList,
+      List<String> keyFieldList,
+      Map<String, String> existingHashMap,
+      Map<String, Integer> existingCountMap)
+      throws SQLException {
+    final String sql = JDBCConstants.SELECT_ALL_FROM + "[" + tableName + "]";
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(sql)) {
+      final ColumnIndex columnIndex = ColumnIndex.fromMetaData(resultSet.getMetaData());
+      while (resultSet.next()) {
+        final Map<String, String> record = ResultRow.read(columnIndex, resultSet).toMap();
+        final String hash = getHash(record, fieldNameList);
+        if (keyFieldList.isEmpty()) {
+          existingHashMap.put(hash, getKey(record, fieldNameList));
+          existingCountMap.merge(hash, 1, Integer::sum);
+        } else {
+          final String key = getKey(record, keyFieldList);
+          existingHashMap.put(key, hash);
+          existingCountMap.merge(key, 1, Integer::sum);
+        }
+      }
+      return columnIndex.getColumnNameList();
+    }
+  }
+
+  private static void executeBatch(
+      Connection connection,
+      String sql,
+      List<Map<String, String>> recordList,
+      List<String> parameterFieldList)
+      throws SQLException {
+    if (recordList.isEmpty()) {
+      return;
+    }
+    try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+      for (final Map<String, String> record : recordList) {
+        for (int index = 0; index < parameterFieldList.size(); index++) {
+          preparedStatement.setString(index + 1, getValue(record, parameterFieldList.get(index)));
+        }
+        preparedStatement.addBatch();
+      }
+      preparedStatement.executeBatch();
+    }
+  }
+
+  private static List<String> getFieldNameList(
+      List<Map<String, String>> recordList, List<String> keyFieldList) {
+    final TreeSet<String> fieldNameSet = new TreeSet<>(keyFieldList);
+    for (final Map<String, String> record : recordList) {
+      fieldNameSet.addAll(record.keySet());
+    }
+    return Collections.unmodifiableList(new ArrayList<>(fieldNameSet));
+  }
+
+  private static String getValue(Map<String, String> record, String fieldName) {
+    final String value = record.get(fieldName);
+    return value == null ? "" : value;
+  }
+
+  private static String getKey(Map<String, String> record, List<String> keyFieldList) {
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (int index = 0; index < keyFieldList.size(); index++) {
+      if (index > 0) {
+        stringBuilder.append(KEY_SEPARATOR);
+      }
+      stringBuilder.append(getValue(record, keyFieldList.get(index)));
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * @param record field name to value
+   * @param fieldNameList fields to include, in a fixed order
+   * @return the hex SHA-256 of the length-prefixed field names and values
+   */
+  public static String getHash(Map<String, String> record, List<String> fieldNameList) {
+    final MessageDigest messageDigest;
+    try {
+      messageDigest = MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    for (final String fieldName : fieldNameList) {
+      update(messageDigest, fieldName);
+      update(messageDigest, getValue(record, fieldName));
+    }
+    return HexFormat.of().formatHex(messageDigest.digest());
+  }
+
+  private static void update(MessageDigest messageDigest, String value) {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    messageDigest.update((byte) (bytes.length >>> 24));
+    messageDigest.update((byte) (bytes.length >>> 16));
+    messageDigest.update((byte) (bytes.length >>> 8));
+    messageDigest.update((byte) bytes.length);
+    messageDigest.update(bytes);
+  }
+
+  private static String getWhere(List<String> matchFieldList) {
+    final StringBuilder stringBuilder = new StringBuilder(JDBCConstants.WHERE);
+    for (int index = 0; index < matchFieldList.size(); index++) {
+      if (index > 0) {
+        stringBuilder.append(" " + JDBCConstants.AND);
+      }
+      // NULL and '' are the same value for comparison purposes.
+      stringBuilder.append("COALESCE([" + matchFieldList.get(index) + "],'')=?");
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * @param tableName
+   * @param matchFieldList fields a row must match; empty, as for an empty snapshot without key
+   *     fields, to delete every row
+   * @return the DELETE statement
+   */
+  static String getDeleteSQL(String tableName, List<String> matchFieldList) {
+    if (matchFieldList.isEmpty()) {
+      return JDBCConstants.DELETE_FROM + "[" + tableName + "]";
+    }
+    return JDBCConstants.DELETE_FROM + "[" + tableName + "] " + getWhere(matchFieldList);
+  }
+
+  static String getUpdateSQL(
+      String tableName, List<String> valueFieldList, List<String> keyFieldList) {
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (final String fieldName : valueFieldList) {
+      if (stringBuilder.length() > 0) {
+        stringBuilder.append(",");
+      }
+      stringBuilder.append("[" + fieldName + "]=?");
+    }
+    return JDBCConstants.UPDATE
+        + "["
+        + tableName
+        + "] "
+        + JDBCConstants.SET
+        + stringBuilder.toString()
+        + " "
+        + getWhere(keyFieldList);
+  }
+}
@@ -0,0 +1,176 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IncrementalLoaderTest {
+
+  private static JDBC createJDBC(String name) throws Exception {
+    final JDBC jdbc = TempSQLite.newJDBC(name);
+    jdbc.executeUpdate(
+        "create table [t_Load] ([ID] TEXT, [Name] TEXT, [RecordNumber] INTEGER)", false);
+    return jdbc;
+  }
+
+  private static Map<String, String> record(String id, String name) {
+    final Map<String, String> record = new HashMap<>();
+    record.put("ID", id);
+    record.put("Name", name);
+    return record;
+  }
+
+  private static String query(JDBC jdbc) throws SQLException {
+    return query(jdbc, "t_Load");
+  }
+
+  private static String query(JDBC jdbc, String tableName) throws SQLException {
+    final StringBuilder stringBuilder = new StringBuilder();
+    try (Connection connection =
+            PooledDataSource.getInstance(jdbc.getDbParameters()).getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet =
+            statement.executeQuery(
+                "select [ID],[Name],[RecordNumber] from ["
+                    + tableName
+                    + "] order by [ID],[Name]")) {
+      while (resultSet.next()) {
+        stringBuilder.append(
+            resultSet.getString(1)
+                + "="
+                + resultSet.getString(2)
+                + "/"
+                + resultSet.getString(3)
+                + ";");
+      }
+    }
+    return stringBuilder.toString();
+  }
+
+  @Test
+  public void keyedLoadAppliesOnlyTheDeltas() throws Exception {
+    final JDBC jdbc = createJDBC("IncrementalLoaderKeyed");
+    final IncrementalLoader incrementalLoader = new IncrementalLoader(jdbc.getDbParameters());
+    final List<String> keyFieldList = List.of("ID");
+    final List<Map<String, String>> recordList = new ArrayList<>();
+    recordList.add(record("1", "One"));
+    recordList.add(record("2", "Two"));
+    recordList.add(record("3", null));
+    IncrementalLoader.LoadResult loadResult =
+        incrementalLoader.load("t_Load", keyFieldList, recordList);
+    Assert.assertEquals(3, loadResult.inserted());
+    jdbc.executeUpdate("update [t_Load] set [RecordNumber]=7 where [ID]='1'", false);
+    recordList.remove(1);
+    recordList.set(1, record("3", ""));
+    recordList.add(record("4", "Four"));
+    recordList.set(0, record("1", "Uno"));
+    loadResult = incrementalLoader.load("t_Load", keyFieldList, recordList);
+    Assert.assertEquals(1, loadResult.inserted());
+    Assert.assertEquals(1, loadResult.updated());
+    Assert.assertEquals(1, loadResult.deleted());
+    Assert.assertEquals(1, loadResult.unchanged());
+    Assert.assertEquals(3, loadResult.getChanges());
+    // Columns the records do not carry keep their values.
+    Assert.assertEquals("1=Uno/7;3=/null;4=Four/null;", query(jdbc));
+    loadResult = incrementalLoader.load("t_Load", keyFieldList, recordList);
+    Assert.assertEquals(0, loadResult.getChanges());
+    Assert.assertEquals(3, loadResult.unchanged());
+  }
+
+  @Test
+  public void unkeyedLoadCountsIdenticalRecords() throws Exception {
+    final JDBC jdbc = createJDBC("IncrementalLoaderUnkeyed");
+    final IncrementalLoader incrementalLoader = new IncrementalLoader(jdbc.getDbParameters());
+    final List<Map<String, String>> recordList = new ArrayList<>();
+    recordList.add(record("1", "One"));
+    recordList.add(record("1", "One"));
+    recordList.add(record("2", "Two"));
+    Assert.assertEquals(3, incrementalLoader.load("t_Load", List.of(), recordList).inserted());
+    recordList.remove(0);
+    recordList.set(1, record("2", "Deux"));
+    final IncrementalLoader.LoadResult loadResult =
+        incrementalLoader.load("t_Load", List.of(), recordList);
+    Assert.assertEquals(1, loadResult.inserted());
+    Assert.assertEquals(0, loadResult.updated());
+    Assert.assertEquals(2, loadResult.deleted());
+    Assert.assertEquals(1, loadResult.unchanged());
+    Assert.assertEquals("1=One/null;2=Deux/null;", query(jdbc));
+  }
+
+  @Test
+  public void emptySnapshotEmptiesTheTable() throws Exception {
+    final JDBC jdbc = createJDBC("IncrementalLoaderEmpty");
+    final IncrementalLoader incrementalLoader = new IncrementalLoader(jdbc.getDbParameters());
+    final List<Map<String, String>> recordList = new ArrayList<>();
+    recordList.add(record("1", "One"));
+    recordList.add(record("1", "One"));
+    recordList.add(record("2", "Two"));
+    incrementalLoader.load("t_Load", List.of(), recordList);
+    IncrementalLoader.LoadResult loadResult =
+        incrementalLoader.load("t_Load", List.of(), new ArrayList<>());
+    Assert.assertEquals(3, loadResult.deleted());
+    Assert.assertEquals("", query(jdbc));
+    incrementalLoader.load("t_Load", List.of("ID"), recordList);
+    loadResult = incrementalLoader.load("t_Load", List.of("ID"), new ArrayList<>());
+    Assert.assertEquals(2, loadResult.deleted());
+    Assert.assertEquals("", query(jdbc));
+  }
+
+  @Test
+  public void hashDependsOnFieldNamesAndValues() {
+    final List<String> fieldNameList = List.of("ID", "Name");
+    final String hash = IncrementalLoader.getHash(record("1", "One"), fieldNameList);
+    Assert.assertEquals(64, hash.length());
+    Assert.assertEquals(hash, IncrementalLoader.getHash(record("1", "One"), fieldNameList));
+    Assert.assertNotEquals(hash, IncrementalLoader.getHash(record("1O", "ne"), fieldNameList));
+    Assert.assertEquals(
+        IncrementalLoader.getHash(record("1", null), fieldNameList),
+        IncrementalLoader.getHash(record("1", ""), fieldNameList));
+  }
+
+  @Test
+  public void differentRecordsSharingAKeyFailTheLoad() throws Exception {
+    final JDBC jdbc = createJDBC("IncrementalLoaderDuplicate");
+    final IncrementalLoader incrementalLoader = new IncrementalLoader(jdbc.getDbParameters());
+    final List<Map<String, String>> recordList = new ArrayList<>();
+    recordList.add(record("1", "One"));
+    recordList.add(record("1", "One"));
+    recordList.add(record("2", "Two"));
+    final IncrementalLoader.LoadResult loadResult =
+        incrementalLoader.load("t_Load", List.of("ID"), recordList);
+    Assert.assertEquals(2, loadResult.inserted());
+    recordList.set(1, record("1", "Uno"));
+    Assert.assertThrows(
+        IncrementalLoader.DuplicateKeyException.class,
+        () -> incrementalLoader.load("t_Load", List.of("ID"), recordList));
+    Assert.assertEquals("1=One/null;2=Two/null;", query(jdbc));
+  }
+
+  @Test
+  public void previousTableReceivesTheReplacedRows() throws Exception {
+    final JDBC jdbc = createJDBC("IncrementalLoaderPrevious");
+    jdbc.executeUpdate(
+        "create table [t_Load_Previous] ([ID] TEXT, [Name] TEXT, [RecordNumber] INTEGER)", false);
+    jdbc.executeUpdate("insert into [t_Load_Previous] values ('9','Stale',null)", false);
+    final IncrementalLoader incrementalLoader = new IncrementalLoader(jdbc.getDbParameters());
+    final List<String> keyFieldList = List.of("ID");
+    final List<Map<String, String>> recordList = new ArrayList<>();
+    recordList.add(record("1", "One"));
+    recordList.add(record("2", "Two"));
+    incrementalLoader.load("t_Load", "t_Load_Previous", keyFieldList, recordList);
+    Assert.assertEquals("", query(jdbc, "t_Load_Previous"));
+    jdbc.executeUpdate("update [t_Load] set [RecordNumber]=7 where [ID]='1'", false);
+    recordList.set(0, record("1", "Uno"));
+    recordList.remove(1);
+    incrementalLoader.load("t_Load", "t_Load_Previous", keyFieldList, recordList);
+    Assert.assertEquals("1=One/7;2=Two/null;", query(jdbc, "t_Load_Previous"));
+    Assert.assertEquals("1=Uno/7;", query(jdbc));
+  }
+}
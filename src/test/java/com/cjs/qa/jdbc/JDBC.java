@@ -2,12 +2,13 @@
 
 import com.cjs.qa.core.Environment;
 import com.cjs.qa.microsoft.excel.xls.XLS;
+import com.cjs.qa.microsoft.excel.xlsx.XLSXStreamWriter;
 import com.cjs.qa.utilities.Constants;
 import com.cjs.qa.utilities.FSOTests;
 import com.cjs.qa.utilities.IExtension;
 import com.cjs.qa.utilities.JavaHelpers;
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -19,9 +20,15 @@
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class JDBC {
+  public static final String PROPERTY_FETCH_SIZE = "jdbc.fetchSize";
   private String environment = "TST";
   private String database = "QAAuto";
   private DBParameters dbParameters = null;
@@ -175,8 +182,12 @@ public void close() {
     }
   }
 
-  private void connect(DBParameters parameters) {
-    final String jdbcDriver = parameters.getJdbcDriver();
+  private boolean connect(DBParameters parameters) {
+    if (isConnected()) {
+      // Reuse the connection this instance already holds for any open ResultSets.
+      getStatement();
+      return false;
+    }
     final String connectionString = parameters.getConnectionString();
     connection = null;
     String message = connectionString;
@@ -195,17 +206,13 @@ private void connect(DBParameters parameters) {
             + message
             + "]");
     try {
-      classforName(jdbcDriver);
-      try {
-        connection = DriverManager.getConnection(connectionString);
-        getStatement();
-      } catch (final SQLException e) {
-        Environment.sysOut(parameters.toString());
-        Environment.sysOut(e);
-      }
+      connection = PooledDataSource.getInstance(parameters).getConnection();
+      getStatement();
+      return true;
     } catch (final Exception e) {
       Environment.sysOut(parameters.toString());
       Environment.sysOut(e);
+      return false;
     }
   }
 
@@ -293,7 +300,18 @@ public boolean dropTable(String tableName) throws Exception {
   }
 
   public boolean execute(String sql) {
-    connect(dbParameters);
+    if (SQLiteWriter.isEnabled(dbParameters)) {
+      try {
+        SQLiteWriter.getInstance(dbParameters).executeUpdate(sql);
+        return false;
+      } catch (final Exception e) {
+        Environment.sysOut(e);
+        return true;
+      } finally {
+        SchemaCache.invalidateIfDDL(dbParameters, sql);
+      }
+    }
+    final boolean borrowed = connect(dbParameters);
     try {
       final boolean success = statement.execute(sql);
       statement.close();
@@ -303,58 +321,83 @@ public boolean execute(String sql) {
       Environment.sysOut(e);
       return true;
     } finally {
-      try {
-        connection.close();
-      } catch (final SQLException e) {
-        Environment.sysOut(e);
-      }
+      release(borrowed);
+      SchemaCache.invalidateIfDDL(dbParameters, sql);
     }
   }
 
   public int executeUpdate(String sql, boolean autoCommit) throws Exception {
-    connect(dbParameters);
+    if (SQLiteWriter.isEnabled(dbParameters)) {
+      // Group-committed by the single writer thread; autoCommit does not apply.
+      try {
+        return SQLiteWriter.getInstance(dbParameters).executeUpdate(sql);
+      } finally {
+        SchemaCache.invalidateIfDDL(dbParameters, sql);
+      }
+    }
+    final boolean borrowed = connect(dbParameters);
     int recordsUpdated = 0;
-    connection.setAutoCommit(autoCommit);
     try {
+      connection.setAutoCommit(autoCommit);
       recordsUpdated = statement.executeUpdate(sql);
       connection.commit();
       statement.close();
     } catch (final SQLException e) {
       throw e;
     } finally {
-      try {
-        connection.close();
-      } catch (final Exception e) {
-        Environment.sysOut(e);
-      }
+      release(borrowed);
+      SchemaCache.invalidateIfDDL(dbParameters, sql);
     }
     return recordsUpdated;
   }
 
   public int executeUpdates(List<String> sqls, boolean autoCommit) {
-    connect(dbParameters);
+    if (SQLiteWriter.isEnabled(dbParameters)) {
+      try {
+        for (final String sql : sqls) {
+          Environment.sysOut("sql:[" + sql + "]");
+        }
+        return SQLiteWriter.getInstance(dbParameters).executeUpdates(sqls);
+      } catch (final Exception e) {
+        Environment.sysOut(e);
+        return 0;
+      } finally {
+        invalidateSchemaIfDDL(sqls);
+      }
+    }
+    final boolean borrowed = connect(dbParameters);
     int recordsUpdated = 0;
     try {
       connection.setAutoCommit(autoCommit);
       for (final String sql : sqls) {
         recordsUpdated += statement.executeUpdate(sql);
         Environment.sysOut("sql:[" + sql + "]");
-        connection.commit();
-        statement.close();
+        if (!autoCommit) {
+          connection.commit();
+        }
       }
+      statement.close();
       return recordsUpdated;
     } catch (final Exception e) {
       Environment.sysOut(e);
       return 0;
     } finally {
-      try {
-        connection.close();
-      } catch (final SQLException e) {
-        Environment.sysOut(e);
-      }
+      release(borrowed);
+      invalidateSchemaIfDDL(sqls);
     }
   }
 
+  private void invalidateSchemaIfDDL(List<String> sqls) {
+    for (final String sql : sqls) {
+      SchemaCache.invalidateIfDDL(dbParameters, sql);
+    }
+  }
+
+  /**
+   * Exports a table or view to a workbook sheet. An .xlsx file is streamed through {@link
+   * #exportQueryToXLSX(String, String, String, String, boolean)}; other files are written to an
+   * .xls workbook.
+   */
   public static void exportDataFromTableView(
       String tableViewName,
       String filePathName,
@@ -362,30 +405,31 @@ public static void exportDataFromTableView(
       String database,
       boolean overwrite)
       throws Throwable {
+    final String sql = JDBCConstants.SELECT_ALL + JDBCConstants.FROM + "[" + tableViewName + "]";
+    if (filePathName.toLowerCase(Locale.ENGLISH).endsWith(IExtension.XLSX)) {
+      exportQueryToXLSX(sql, filePathName, sheetName, database, overwrite);
+      return;
+    }
     JDBC jdbc = new JDBC("", database);
-    List<Map<Integer, String>> tableViewListMap =
-        jdbc.queryResultsIndex(
-            JDBCConstants.SELECT_ALL + JDBCConstants.FROM + "[" + tableViewName + "]", true);
     List<String> headingList = jdbc.getFieldNamesList(tableViewName);
-    jdbc.close();
     if (overwrite && FSOTests.fileExists(filePathName)) {
       FSOTests.fileDelete(filePathName);
     }
     final XLS excel = new XLS(filePathName, sheetName);
-    for (int recordIndex = 0; recordIndex < tableViewListMap.size(); recordIndex++) {
-      Map<Integer, String> tableViewMap = tableViewListMap.get(recordIndex);
-      if (recordIndex == 0) {
-        excel.createHeadings(sheetName, headingList);
-      } else {
-        for (Entry<Integer, String> entry : tableViewMap.entrySet()) {
-          int column = entry.getKey();
-          String value = entry.getValue();
+    excel.createHeadings(sheetName, headingList);
+    try (Stream<ResultRow> rows = jdbc.queryStream(sql)) {
+      int recordIndex = 0;
+      for (final ResultRow row : (Iterable<ResultRow>) rows::iterator) {
+        recordIndex++;
+        for (int column = 0; column < row.size(); column++) {
+          String value = row.get(column);
           if (JavaHelpers.hasValue(value)) {
             excel.writeCell(sheetName, column, recordIndex, value);
           }
         }
       }
     }
+    jdbc.close();
     excel.autoSizeColumns(sheetName);
     // Always leave the first sheet selected.
     excel.setSheet(0);
@@ -393,6 +437,33 @@ public static void exportDataFromTableView(
     excel.close();
   }
 
+  /**
+   * Streams a query straight from its cursor into an .xlsx sheet. Memory stays flat however many
+   * rows the query returns, and rows past the sheet limit spill over into further sheets.
+   *
+   * @param sql query to export
+   * @param filePathName .xlsx file to write
+   * @param sheetName name of the sheet to add
+   * @param database database definition, e.g. {@code QAAuto}
+   * @param overwrite replace an existing file; otherwise the sheet is added to it
+   * @return the number of rows exported
+   * @throws SQLException if the query fails
+   * @throws IOException if the file cannot be read or written
+   */
+  public static long exportQueryToXLSX(
+      String sql, String filePathName, String sheetName, String database, boolean overwrite)
+      throws SQLException, IOException {
+    final JDBC jdbc = new JDBC("", database);
+    Environment.sysOut("sql:[" + sql + "]");
+    try (Connection exportConnection =
+            PooledDataSource.getInstance(jdbc.getDbParameters()).getConnection();
+        Statement exportStatement = createStreamStatement(exportConnection, getFetchSize());
+        ResultSet exportResultSet = exportStatement.executeQuery(sql);
+        XLSXStreamWriter xlsxStreamWriter = new XLSXStreamWriter(filePathName, overwrite)) {
+      return xlsxStreamWriter.writeResultSet(sheetName, exportResultSet);
+    }
+  }
+
   public static void exportTableViewSchemaSQLite(
       String sheetName, String database, boolean overwrite) throws Throwable {
     StringBuilder sqlStringBuilder = new StringBuilder();
@@ -402,25 +473,22 @@ public static void exportTableViewSchemaSQLite(
     if (overwrite && FSOTests.fileExists(filePathName)) {
       FSOTests.fileDelete(filePathName);
     }
-    sqlStringBuilder.append(JDBCConstants.SELECT + "[type],[name] ");
-    sqlStringBuilder.append(JDBCConstants.FROM + "[" + "sqlite_master" + "] ");
-    sqlStringBuilder.append(JDBCConstants.WHERE + "[type] != 'index' ");
-    sqlStringBuilder.append(JDBCConstants.ORDER_BY + "[type],[name];");
-    List<Map<String, String>> tableViewListMap =
-        jdbc.queryResultsString(sqlStringBuilder.toString(), false);
+    // One pass over every table and view with its columns instead of a query per object.
+    sqlStringBuilder.append(JDBCConstants.SELECT + "m.[type],m.[name],p.[name] AS [field] ");
+    sqlStringBuilder.append(JDBCConstants.FROM + "[" + "sqlite_master" + "] m ");
+    sqlStringBuilder.append("JOIN pragma_table_info(m.[name]) p ");
+    sqlStringBuilder.append(JDBCConstants.WHERE + "m.[type] != 'index' ");
+    sqlStringBuilder.append(JDBCConstants.ORDER_BY + "m.[type],m.[name],p.[cid];");
     final XLS excel = new XLS(filePathName, sheetName);
     List<String> headingList = Arrays.asList("Type", "Name", "Field");
     excel.createHeadings(sheetName, headingList);
-    int recordIndex = 0;
-    for (Map<String, String> tableViewMap : tableViewListMap) {
-      String objectType = tableViewMap.get("type");
-      String objectName = tableViewMap.get("name");
-      List<String> fieldNameList = jdbc.getFieldNamesList(objectName);
-      for (String fieldName : fieldNameList) {
+    try (Stream<ResultRow> rows = jdbc.queryStream(sqlStringBuilder.toString())) {
+      int recordIndex = 0;
+      for (final ResultRow row : (Iterable<ResultRow>) rows::iterator) {
         recordIndex++;
-        excel.writeCell(sheetName, 0, recordIndex, objectType);
-        excel.writeCell(sheetName, 1, recordIndex, objectName);
-        excel.writeCell(sheetName, 2, recordIndex, fieldName);
+        excel.writeCell(sheetName, 0, recordIndex, row.get("type"));
+        excel.writeCell(sheetName, 1, recordIndex, row.get("name"));
+        excel.writeCell(sheetName, 2, recordIndex, row.get("field"));
       }
     }
     excel.autoSizeColumns(sheetName);
@@ -448,13 +516,22 @@ public void setDbParameters(DBParameters dbParameters) {
   }
 
   public List<String> getFieldNamesList(String table) {
+    final List<String> fieldNameList = getCachedFieldNamesList(table);
+    if (fieldNameList != null) {
+      return fieldNameList;
+    }
     final String sql = JDBCConstants.SELECT_ALL_FROM + "[" + table + "] LIMIT 0;";
     final List<String> records = queryResultsList(sql, true);
     return Arrays.asList(records.get(0).split(Constants.SYMBOL_TRADEMARK));
   }
 
   public List<String> getFieldNamesList(String tableName, boolean sqlite) {
+    final List<String> fieldNameList = getCachedFieldNamesList(tableName);
+    if (fieldNameList != null) {
+      return fieldNameList;
+    }
     final List<String> listResults = new ArrayList<>();
+    final boolean borrowed = !isConnected();
     try {
       String sql = JDBCConstants.SELECT + "TOP 0 " + JDBCConstants.FROM + tableName;
       if (sqlite) {
@@ -470,10 +547,37 @@ public List<String> getFieldNamesList(String tableName, boolean sqlite) {
     } catch (final Exception e) {
       Environment.sysOut(e);
       return Collections.emptyList();
+    } finally {
+      release(borrowed);
+    }
+  }
+
+  /**
+   * Returns the column names of a table or view from the {@link SchemaCache}.
+   *
+   * @param tableName table or view name, without brackets
+   * @return a new list, or {@code null} if the cache does not know the table
+   */
+  private List<String> getCachedFieldNamesList(String tableName) {
+    try {
+      final List<String> fieldNameList =
+          SchemaCache.getInstance(dbParameters).getColumnNames(tableName);
+      return fieldNameList == null ? null : new ArrayList<>(fieldNameList);
+    } catch (final SQLException e) {
+      // Fall back to querying the table directly.
+      return null;
     }
   }
 
   public Map<String, String> getFieldNamesMap(String table) {
+    final List<String> fieldNameList = getCachedFieldNamesList(table);
+    if (fieldNameList != null) {
+      final Map<String, String> fieldNameMap = new HashMap<>();
+      for (final String fieldName : fieldNameList) {
+        fieldNameMap.put(fieldName, fieldName);
+      }
+      return fieldNameMap;
+    }
     final String sql = JDBCConstants.SELECT_ALL_FROM + "[" + table + "] LIMIT 0;";
     final List<Map<String, String>> records = queryResultsString(sql, true);
     return records.get(0);
@@ -496,6 +600,31 @@ private void getStatement() {
     }
   }
 
+  private boolean isConnected() {
+    try {
+      return connection != null && !connection.isClosed();
+    } catch (final SQLException e) {
+      return false;
+    }
+  }
+
+  private void release(boolean borrowed) {
+    // Only hand back connections this call borrowed; an inherited connection may still be backing
+    // a ResultSet returned by queryResults(String).
+    if (!borrowed || connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (final SQLException e) {
+      Environment.sysOut(e);
+    }
+    connection = null;
+    statement = null;
+    resultSet = null;
+    resultSetMetaData = null;
+  }
+
   public ResultSet queryResults(String sql) {
     connect(dbParameters);
     try {
@@ -509,6 +638,7 @@ public ResultSet queryResults(String sql) {
   public String queryResults(String sql, String delimeter, boolean includeColumnNames) {
     Environment.sysOut("sql:[" + sql + "]");
     String result = "";
+    final boolean borrowed = !isConnected();
     try {
       resultSet = queryResults(sql);
       resultSetMetaData = resultSet.getMetaData();
@@ -550,31 +680,15 @@ public String queryResults(String sql, String delimeter, boolean includeColumnNa
     } catch (final Exception e) {
       Environment.sysOut(e);
       return null;
+    } finally {
+      release(borrowed);
     }
   }
 
   public List<Map<Integer, String>> queryResultsIndex(String sql, boolean includeColumnNames) {
-    Environment.sysOut("sql:[" + sql + "]");
-    final List<Map<Integer, String>> listResults = new ArrayList<>();
     try {
-      resultSet = queryResults(sql);
-      resultSetMetaData = resultSet.getMetaData();
-      final int columns = resultSetMetaData.getColumnCount();
-      if (includeColumnNames) {
-        Map<Integer, String> mapHeadings = new HashMap<>();
-        for (int index = 1; index <= columns; index++) {
-          mapHeadings.put(index - 1, resultSetMetaData.getColumnName(index));
-        }
-        listResults.add(listResults.size(), mapHeadings);
-      }
-      while (resultSet.next()) {
-        Map<Integer, String> mapRecord = new HashMap<>();
-        for (int index = 1; index <= columns; index++) {
-          mapRecord.put(index - 1, resultSet.getString(index));
-        }
-        listResults.add(listResults.size(), mapRecord);
-      }
-      return listResults;
+      // Callers drop the heading row, so hand back a list they can change.
+      return new ArrayList<>(queryTable(sql).asIndexMaps(includeColumnNames));
     } catch (final Exception e) {
       Environment.sysOut(e);
       return Collections.emptyList();
@@ -585,6 +699,7 @@ public List<String> queryResultsList(String sql, boolean includeColumnNames) {
     Environment.sysOut("sql:[" + sql + "]");
     final List<String> list = new ArrayList<>();
     StringBuilder stringBuilder = new StringBuilder();
+    final boolean borrowed = !isConnected();
     try {
       resultSet = queryResults(sql);
       resultSetMetaData = resultSet.getMetaData();
@@ -609,38 +724,169 @@ public List<String> queryResultsList(String sql, boolean includeColumnNames) {
     } catch (final Exception e) {
       Environment.sysOut(e);
       return Collections.emptyList();
+    } finally {
+      release(borrowed);
     }
   }
 
   public List<Map<String, String>> queryResultsString(String sql, boolean includeColumnNames) {
+    try {
+      return new ArrayList<>(queryTable(sql).asStringMaps(includeColumnNames));
+    } catch (final Exception e) {
+      Environment.sysOut(e);
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Reads a whole query into a {@link ResultTable}: one shared column index and a {@code String[]}
+   * per row.
+   *
+   * @param sql query to run
+   * @return the rows as strings
+   * @throws SQLException if the query fails or no connection can be made
+   */
+  public ResultTable queryTable(String sql) throws SQLException {
     Environment.sysOut("sql:[" + sql + "]");
-    final List<Map<String, String>> listResults = new ArrayList<>();
+    final boolean borrowed = !isConnected();
+    connect(dbParameters);
+    if (!isConnected()) {
+      throw new SQLException("Unable to connect to Database:[" + getDatabase() + "]");
+    }
     try {
-      resultSet = queryResults(sql);
-      resultSetMetaData = resultSet.getMetaData();
-      final int columns = resultSetMetaData.getColumnCount();
-      Map<String, String> mapHeadings = new HashMap<>();
-      List<String> listHeadings = new ArrayList<>();
-      for (int index = 1; index <= columns; index++) {
-        mapHeadings.put(
-            resultSetMetaData.getColumnName(index), resultSetMetaData.getColumnName(index));
-        listHeadings.add(resultSetMetaData.getColumnName(index));
-      }
-      if (includeColumnNames) {
-        listResults.add(listResults.size(), mapHeadings);
+      resultSet = statement.executeQuery(sql);
+      return ResultTable.read(resultSet);
+    } finally {
+      if (resultSet != null) {
+        resultSet.close();
       }
-      while (resultSet.next()) {
-        Map<String, String> mapRecord = new HashMap<>();
-        for (int index = 1; index <= columns; index++) {
-          mapRecord.put(listHeadings.get(index - 1), resultSet.getString(index));
+      release(borrowed);
+    }
+  }
+
+  /**
+   * Reads a query one row at a time on its own pooled connection, using the default fetch size.
+   *
+   * @see #queryEach(String, int, Predicate)
+   */
+  public long queryEach(String sql, Predicate<ResultRow> rowHandler) throws SQLException {
+    return queryEach(sql, getFetchSize(), rowHandler);
+  }
+
+  /**
+   * Reads a query one row at a time on its own pooled connection. Only the current row is held in
+   * memory, and the connection is returned to the pool when this method returns.
+   *
+   * @param sql query to run
+   * @param fetchSize rows the driver fetches per round trip
+   * @param rowHandler called for each row; return {@code false} to stop reading
+   * @return the number of rows handed to {@code rowHandler}
+   * @throws SQLException if the query or a fetch fails
+   */
+  public long queryEach(String sql, int fetchSize, Predicate<ResultRow> rowHandler)
+      throws SQLException {
+    Environment.sysOut("sql:[" + sql + "]");
+    long rows = 0;
+    try (Connection streamConnection = PooledDataSource.getInstance(dbParameters).getConnection();
+        Statement streamStatement = createStreamStatement(streamConnection, fetchSize);
+        ResultSet streamResultSet = streamStatement.executeQuery(sql)) {
+      final ColumnIndex columnIndex = ColumnIndex.fromMetaData(streamResultSet.getMetaData());
+      while (streamResultSet.next()) {
+        rows++;
+        if (!rowHandler.test(ResultRow.read(columnIndex, streamResultSet))) {
+          break;
         }
-        listResults.add(listResults.size(), mapRecord);
       }
-      return listResults;
-    } catch (final Exception e) {
-      Environment.sysOut(e);
-      return Collections.emptyList();
     }
+    return rows;
+  }
+
+  /**
+   * Streams a query on its own pooled connection, using the default fetch size.
+   *
+   * @see #queryStream(String, int)
+   */
+  public Stream<ResultRow> queryStream(String sql) throws SQLException {
+    return queryStream(sql, getFetchSize());
+  }
+
+  /**
+   * Streams a query on its own pooled connection. Rows are read from the cursor as the stream is
+   * consumed, so memory stays flat however many rows the query returns.
+   *
+   * <p>The connection is released when the last row has been read or when the stream is closed.
+   * Close it with try-with-resources so it is also released when the caller stops early:
+   *
+   * <pre>{@code
+   * try (Stream<ResultRow> rows = jdbc.queryStream(sql)) {
+   *   rows.filter(row -> "Y".equals(row.get("Active"))).limit(10).forEach(...);
+   * }
+   * }</pre>
+   *
+   * <p>A fetch failure while the stream is consumed is thrown as an {@link IllegalStateException}
+   * whose cause is the {@link SQLException}.
+   *
+   * @param sql query to run
+   * @param fetchSize rows the driver fetches per round trip
+   * @return a sequential stream of rows that must be closed
+   * @throws SQLException if the query cannot be started
+   */
+  public Stream<ResultRow> queryStream(String sql, int fetchSize) throws SQLException {
+    Environment.sysOut("sql:[" + sql + "]");
+    final Connection streamConnection = PooledDataSource.getInstance(dbParameters).getConnection();
+    final ResultSet streamResultSet;
+    final ColumnIndex columnIndex;
+    try {
+      final Statement streamStatement = createStreamStatement(streamConnection, fetchSize);
+      streamResultSet = streamStatement.executeQuery(sql);
+      columnIndex = ColumnIndex.fromMetaData(streamResultSet.getMetaData());
+    } catch (final SQLException e) {
+      // Closing the pooled connection also closes the statement.
+      streamConnection.close();
+      throw e;
+    }
+    final Runnable closer =
+        () -> {
+          try {
+            streamConnection.close();
+          } catch (final SQLException e) {
+            Environment.sysOut(e);
+          }
+        };
+    final Spliterator<ResultRow> spliterator =
+        new Spliterators.AbstractSpliterator<ResultRow>(
+            Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+          @Override
+          public boolean tryAdvance(Consumer<? super ResultRow> action) {
+            try {
+              if (streamConnection.isClosed() || !streamResultSet.next()) {
+                closer.run();
+                return false;
+              }
+              action.accept(ResultRow.read(columnIndex, streamResultSet));
+              return true;
+            } catch (final SQLException e) {
+              closer.run();
+              throw new IllegalStateException("Error streaming sql:[" + sql + "]", e);
+            }
+          }
+        };
+    return StreamSupport.stream(spliterator, false).onClose(closer);
+  }
+
+  private static Statement createStreamStatement(Connection connection, int fetchSize)
+      throws SQLException {
+    // Some drivers (PostgreSQL) only use a cursor when auto-commit is off; the pool rolls back and
+    // restores auto-commit when the connection is returned.
+    connection.setAutoCommit(false);
+    final Statement streamStatement =
+        connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+    streamStatement.setFetchSize(fetchSize);
+    return streamStatement;
+  }
+
+  private static int getFetchSize() {
+    return Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_FETCH_SIZE, "500"));
   }
 
   public boolean renameTable(String tableNameOld, String tableNameNew) throws Exception {
@@ -0,0 +1,114 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JDBCStreamTest {
+  private static final String SQL_SELECT = "select [ID],[Name] from [t_Stream] order by [ID]";
+
+  private static JDBC createJDBC(String name, int rows) throws Exception {
+    final DBParameters dbParameters = TempSQLite.newDBParameters(name);
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.executeUpdate("create table [t_Stream] ([ID] INTEGER, [Name] TEXT)");
+      connection.setAutoCommit(false);
+      try (PreparedStatement preparedStatement =
+          connection.prepareStatement("insert into [t_Stream] ([ID],[Name]) values (?,?)")) {
+        for (int index = 0; index < rows; index++) {
+          preparedStatement.setInt(1, index);
+          preparedStatement.setString(2, "Name " + index);
+          preparedStatement.addBatch();
+        }
+        preparedStatement.executeBatch();
+      }
+      connection.commit();
+    }
+    final JDBC jdbc = new JDBC("", "");
+    jdbc.setDbParameters(dbParameters);
+    return jdbc;
+  }
+
+  @Test
+  public void queryEachStopsWhenHandlerReturnsFalse() throws Exception {
+    final JDBC jdbc = createJDBC("JDBCStreamEach", 100);
+    final List<String> nameList = new ArrayList<>();
+    final long rows =
+        jdbc.queryEach(
+            SQL_SELECT,
+            10,
+            row -> {
+              nameList.add(row.get("Name"));
+              return nameList.size() < 5;
+            });
+    Assert.assertEquals(5, rows);
+    Assert.assertEquals("Name 4", nameList.get(4));
+    Assert.assertEquals(0, PooledDataSource.getInstance(jdbc.getDbParameters()).getActiveCount());
+  }
+
+  @Test
+  public void queryStreamReadsAllRowsAndReleasesConnection() throws Exception {
+    final JDBC jdbc = createJDBC("JDBCStreamAll", 1000);
+    final PooledDataSource dataSource = PooledDataSource.getInstance(jdbc.getDbParameters());
+    try (Stream<ResultRow> rows = jdbc.queryStream(SQL_SELECT, 50)) {
+      Assert.assertEquals(1000, rows.count());
+      Assert.assertEquals(0, dataSource.getActiveCount());
+    }
+  }
+
+  @Test
+  public void queryStreamCloseReleasesConnectionAfterEarlyTermination() throws Exception {
+    final JDBC jdbc = createJDBC("JDBCStreamEarly", 100);
+    final PooledDataSource dataSource = PooledDataSource.getInstance(jdbc.getDbParameters());
+    final List<String> idList;
+    try (Stream<ResultRow> rows = jdbc.queryStream(SQL_SELECT)) {
+      idList = rows.limit(3).map(row -> row.get(0)).collect(Collectors.toList());
+      Assert.assertEquals(1, dataSource.getActiveCount());
+    }
+    Assert.assertEquals(List.of("0", "1", "2"), idList);
+    Assert.assertEquals(0, dataSource.getActiveCount());
+  }
+
+  @Test
+  public void resultRowLooksUpByNameAndIndex() throws Exception {
+    final JDBC jdbc = createJDBC("JDBCStreamRow", 1);
+    try (Stream<ResultRow> rows = jdbc.queryStream(SQL_SELECT)) {
+      final ResultRow row = rows.findFirst().orElseThrow();
+      Assert.assertEquals("Name 0", row.get(1));
+      Assert.assertEquals("Name 0", row.get("Name"));
+      Assert.assertNull(row.get("Missing"));
+      Assert.assertEquals("{ID=0, Name=Name 0}", row.toMap().toString());
+    }
+  }
+
+  @Test
+  public void queryResultsStringReadsIntoResultTable() throws Exception {
+    final JDBC jdbc = createJDBC("JDBCStreamTable", 3);
+    final List<Map<String, String>> listMap = jdbc.queryResultsString(SQL_SELECT, true);
+    Assert.assertEquals(4, listMap.size());
+    Assert.assertEquals("Name", listMap.get(0).get("Name"));
+    Assert.assertEquals("Name 2", listMap.get(3).get("Name"));
+    Assert.assertEquals("1", jdbc.queryResultsIndex(SQL_SELECT, false).get(1).get(0));
+    Assert.assertEquals(0, PooledDataSource.getInstance(jdbc.getDbParameters()).getActiveCount());
+  }
+
+  @Test
+  public void queryResultsCanHaveTheirHeadingRowRemoved() throws Exception {
+    final JDBC jdbc = createJDBC("JDBCStreamRemove", 3);
+    final List<Map<Integer, String>> indexListMap = jdbc.queryResultsIndex(SQL_SELECT, true);
+    Assert.assertEquals("ID", indexListMap.remove(0).get(0));
+    Assert.assertEquals(3, indexListMap.size());
+    Assert.assertEquals("Name 0", indexListMap.get(0).get(1));
+    final List<Map<String, String>> stringListMap = jdbc.queryResultsString(SQL_SELECT, true);
+    stringListMap.remove(0);
+    Assert.assertEquals("0", stringListMap.get(0).get("ID"));
+    Assert.assertEquals(3, stringListMap.size());
+  }
+}
@@ -0,0 +1,135 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded, read-through cache with a time-to-live for reference lookups that rarely change
+ * during a run, such as company and environment rows.
+ *
+ * <p>The least recently used entry is dropped once {@code maxSize} is reached and any entry older
+ * than the TTL is reloaded on its next read. {@code null} results are cached too, so a missing row
+ * is not queried again until it expires. Failed loads are not cached.
+ *
+ * <pre>{@code
+ * String url = URL_CACHE.get(company + "|" + environment, () -> queryURL(company, environment));
+ * }</pre>
+ *
+ * @param <V> cached value type; callers must not modify cached values
+ */
+public final class LookupCache<V> {
+  private final String name;
+  private final int maxSize;
+  private final long ttlNanos;
+  private final Map<String, CachedValue<V>> cacheMap;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong expiredCount = new AtomicLong();
+  private final AtomicLong evictedCount = new AtomicLong();
+
+  /** Loads a value on a cache miss. */
+  @FunctionalInterface
+  public interface Loader<V> {
+    V load() throws SQLException;
+  }
+
+  private record CachedValue<V>(V value, long loadedNanos) {}
+
+  public LookupCache(String name, int maxSize, long ttl, TimeUnit timeUnit) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize:[" + maxSize + "] must be positive");
+    }
+    this.name = name;
+    this.maxSize = maxSize;
+    this.ttlNanos = timeUnit.toNanos(ttl);
+    this.cacheMap =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CachedValue<V>> eldest) {
+            if (size() <= LookupCache.this.maxSize) {
+              return false;
+            }
+            evictedCount.incrementAndGet();
+            return true;
+          }
+        };
+  }
+
+  /**
+   * Returns the cached value for {@code key}, calling {@code loader} when it is missing or expired.
+   *
+   * @param key lookup key
+   * @param loader query that produces the value
+   * @return the cached or freshly loaded value
+   * @throws SQLException if {@code loader} fails
+   */
+  public V get(String key, Loader<V> loader) throws SQLException {
+    synchronized (cacheMap) {
+      final CachedValue<V> cachedValue = cacheMap.get(key);
+      if (cachedValue != null) {
+        if (System.nanoTime() - cachedValue.loadedNanos() < ttlNanos) {
+          hitCount.incrementAndGet();
+          return cachedValue.value();
+        }
+        cacheMap.remove(key);
+        expiredCount.incrementAndGet();
+      }
+    }
+    missCount.incrementAndGet();
+    // Load outside the lock so a slow query does not block lookups of other keys.
+    final V value = loader.load();
+    synchronized (cacheMap) {
+      cacheMap.put(key, new CachedValue<>(value, System.nanoTime()));
+    }
+    return value;
+  }
+
+  public void clear() {
+    synchronized (cacheMap) {
+      cacheMap.clear();
+    }
+  }
+
+  public int size() {
+    synchronized (cacheMap) {
+      return cacheMap.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getExpiredCount() {
+    return expiredCount.get();
+  }
+
+  public long getEvictedCount() {
+    return evictedCount.get();
+  }
+
+  public String getMetrics() {
+    return "LookupCache:["
+        + name
+        + "] Size:["
+        + size()
+        + "/"
+        + maxSize
+        + "], Hits:["
+        + getHitCount()
+        + "], Misses:["
+        + getMissCount()
+        + "], Expired:["
+        + getExpiredCount()
+        + "], Evicted:["
+        + getEvictedCount()
+        + "]";
+  }
+}
@@ -0,0 +1,67 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LookupCacheTest {
+
+  @Test
+  public void repeatedLookupsAreServedFromCache() throws Exception {
+    final LookupCache<String> lookupCache = new LookupCache<>("Test", 10, 1, TimeUnit.MINUTES);
+    final AtomicInteger loads = new AtomicInteger();
+    final LookupCache.Loader<String> loader =
+        () -> {
+          loads.incrementAndGet();
+          return "1234";
+        };
+    for (int index = 0; index < 6; index++) {
+      Assert.assertEquals("1234", lookupCache.get("ABC", loader));
+    }
+    Assert.assertNull(lookupCache.get("Missing", () -> null));
+    Assert.assertNull(lookupCache.get("Missing", () -> "loaded"));
+    Assert.assertEquals(1, loads.get());
+    Assert.assertEquals(6, lookupCache.getHitCount());
+    Assert.assertEquals(2, lookupCache.getMissCount());
+  }
+
+  @Test
+  public void expiredEntriesAreReloaded() throws Exception {
+    final LookupCache<String> lookupCache = new LookupCache<>("Test", 10, 1, TimeUnit.MILLISECONDS);
+    lookupCache.get("ABC", () -> "old");
+    Thread.sleep(5);
+    Assert.assertEquals("new", lookupCache.get("ABC", () -> "new"));
+    Assert.assertEquals(1, lookupCache.getExpiredCount());
+    Assert.assertEquals(2, lookupCache.getMissCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedEntryIsEvicted() throws Exception {
+    final LookupCache<String> lookupCache = new LookupCache<>("Test", 2, 1, TimeUnit.MINUTES);
+    lookupCache.get("A", () -> "a");
+    lookupCache.get("B", () -> "b");
+    lookupCache.get("A", () -> "a2");
+    lookupCache.get("C", () -> "c");
+    Assert.assertEquals(2, lookupCache.size());
+    Assert.assertEquals(1, lookupCache.getEvictedCount());
+    Assert.assertEquals("a", lookupCache.get("A", () -> "a3"));
+    Assert.assertEquals("b2", lookupCache.get("B", () -> "b2"));
+  }
+
+  @Test
+  public void failedLoadsAreNotCached() throws Exception {
+    final LookupCache<String> lookupCache = new LookupCache<>("Test", 10, 1, TimeUnit.MINUTES);
+    Assert.assertThrows(
+        SQLException.class,
+        () ->
+            lookupCache.get(
+                "ABC",
+                () -> {
+                  throw new SQLException("database is locked");
+                }));
+    Assert.assertEquals("value", lookupCache.get("ABC", () -> "value"));
+    Assert.assertEquals(0, lookupCache.getHitCount());
+  }
+}
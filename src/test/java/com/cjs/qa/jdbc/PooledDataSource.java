@@ -0,0 +1,613 @@
+package com.cjs.qa.jdbc;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.JavaHelpers;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * Bounded pool of reusable JDBC connections, one pool per {@link DBParameters} connection string.
+ *
+ * <p>Connections handed out by {@link #getConnection()} are proxies: calling {@code close()} on
+ * them closes any statements created through them, rolls back uncommitted work, restores
+ * auto-commit and returns the physical connection to the pool. Idle connections are validated on
+ * borrow and evicted once they have been idle longer than the configured timeout.
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code jdbc.pool.maxSize} - maximum connections per database (default 5)
+ *   <li>{@code jdbc.pool.maxWaitMillis} - how long a borrow waits for a free connection (default
+ *       30000)
+ *   <li>{@code jdbc.pool.idleTimeoutMillis} - idle time before a connection is evicted (default
+ *       60000)
+ *   <li>{@code jdbc.pool.validationTimeoutSeconds} - timeout for {@code isValid} on borrow (default
+ *       5)
+ *   <li>{@code jdbc.pool.statementCacheSize} - prepared statements kept per physical connection by
+ *       {@link #prepareCached(Connection, String)} (default 50, 0 disables)
+ * </ul>
+ */
+public final class PooledDataSource implements DataSource {
+  public static final String PROPERTY_MAX_SIZE = "jdbc.pool.maxSize";
+  public static final String PROPERTY_MAX_WAIT_MILLIS = "jdbc.pool.maxWaitMillis";
+  public static final String PROPERTY_IDLE_TIMEOUT_MILLIS = "jdbc.pool.idleTimeoutMillis";
+  public static final String PROPERTY_VALIDATION_TIMEOUT_SECONDS =
+      "jdbc.pool.validationTimeoutSeconds";
+  public static final String PROPERTY_STATEMENT_CACHE_SIZE = "jdbc.pool.statementCacheSize";
+  private static final Map<String, PooledDataSource> DATA_SOURCES = new ConcurrentHashMap<>();
+  private static final ScheduledExecutorService EVICTOR =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            final Thread thread = new Thread(runnable, "jdbc-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  static {
+    Runtime.getRuntime()
+        .addShutdownHook(new Thread(PooledDataSource::closeAll, "jdbc-pool-shutdown"));
+  }
+
+  private final DBParameters dbParameters;
+  private final int maxSize;
+  private final long maxWaitMillis;
+  private final long idleTimeoutMillis;
+  private final int validationTimeoutSeconds;
+  private final int statementCacheSize;
+  private final Semaphore permits;
+  private final ScheduledFuture<?> evictionTask;
+  private final ConcurrentLinkedDeque<PooledConnection> idleConnections =
+      new ConcurrentLinkedDeque<>();
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final AtomicInteger totalCount = new AtomicInteger();
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong borrowedCount = new AtomicLong();
+  private final AtomicLong returnedCount = new AtomicLong();
+  private final AtomicLong destroyedCount = new AtomicLong();
+  private final AtomicLong evictedCount = new AtomicLong();
+  private final AtomicLong validationFailureCount = new AtomicLong();
+  private final AtomicLong timeoutCount = new AtomicLong();
+  private final AtomicLong waitNanosTotal = new AtomicLong();
+  private final AtomicLong waitNanosMax = new AtomicLong();
+  private final AtomicLong statementCacheHitCount = new AtomicLong();
+  private final AtomicLong statementCacheMissCount = new AtomicLong();
+  private volatile boolean closed = false;
+  private PrintWriter logWriter = null;
+
+  private PooledDataSource(DBParameters dbParameters) {
+    this.dbParameters = dbParameters;
+    this.maxSize = Math.max(1, JavaHelpers.readPropertyOrEnvInt(PROPERTY_MAX_SIZE, 5));
+    this.maxWaitMillis = JavaHelpers.readPropertyOrEnvInt(PROPERTY_MAX_WAIT_MILLIS, 30000);
+    this.idleTimeoutMillis = JavaHelpers.readPropertyOrEnvInt(PROPERTY_IDLE_TIMEOUT_MILLIS, 60000);
+    this.validationTimeoutSeconds =
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_VALIDATION_TIMEOUT_SECONDS, 5);
+    this.statementCacheSize =
+        Math.max(0, JavaHelpers.readPropertyOrEnvInt(PROPERTY_STATEMENT_CACHE_SIZE, 50));
+    this.permits = new Semaphore(maxSize, true);
+    final long evictionPeriod = Math.max(1000, idleTimeoutMillis / 2);
+    this.evictionTask =
+        EVICTOR.scheduleWithFixedDelay(
+            this::evictIdleConnections, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the pool for the given database, creating it on first use.
+   *
+   * @param dbParameters database definition from {@link DBConnections}
+   * @return the shared pool for the connection string of {@code dbParameters}
+   */
+  public static PooledDataSource getInstance(DBParameters dbParameters) {
+    final String key = dbParameters.getConnectionString();
+    PooledDataSource dataSource = DATA_SOURCES.get(key);
+    if (dataSource == null || dataSource.closed) {
+      synchronized (DATA_SOURCES) {
+        dataSource = DATA_SOURCES.get(key);
+        if (dataSource == null || dataSource.closed) {
+          dataSource = new PooledDataSource(dbParameters);
+          DATA_SOURCES.put(key, dataSource);
+        }
+      }
+    }
+    return dataSource;
+  }
+
+  /** Closes every pool and all of their idle connections. */
+  public static void closeAll() {
+    synchronized (DATA_SOURCES) {
+      for (final PooledDataSource dataSource : DATA_SOURCES.values()) {
+        dataSource.close();
+      }
+      DATA_SOURCES.clear();
+    }
+  }
+
+  /**
+   * Returns the metrics of every pool created so far.
+   *
+   * @return one {@link #getMetrics()} block per pool
+   */
+  public static String getMetricsAll() {
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (final PooledDataSource dataSource : DATA_SOURCES.values()) {
+      stringBuilder.append(dataSource.getMetrics());
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Returns a {@link PreparedStatement} for {@code sql} that stays open on the physical connection
+   * after the lease is closed, so the next borrower of that connection skips the prepare.
+   *
+   * <p>The caller must not close the statement; it is closed when it falls out of the
+   * per-connection cache or the connection is destroyed. Parameters are cleared before it is handed
+   * out. For a connection that did not come from a pool, this is a plain {@code prepareStatement}.
+   *
+   * @param connection a connection borrowed from {@link #getConnection()}
+   * @param sql parameterized SQL
+   * @return the cached statement
+   * @throws SQLException if the statement cannot be prepared
+   */
+  public static PreparedStatement prepareCached(Connection connection, String sql)
+      throws SQLException {
+    if (Proxy.isProxyClass(connection.getClass())
+        && Proxy.getInvocationHandler(connection) instanceof LeaseHandler leaseHandler) {
+      return leaseHandler.prepareCached(sql);
+    }
+    return connection.prepareStatement(sql);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (closed) {
+      throw new SQLException("Connection pool for [" + getName() + "] has been closed");
+    }
+    final long waitStart = System.nanoTime();
+    try {
+      if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+        timeoutCount.incrementAndGet();
+        throw new SQLException(
+            "Timed out after ["
+                + maxWaitMillis
+                + "] ms waiting for a connection to ["
+                + getName()
+                + "], Active:["
+                + activeCount.get()
+                + "/"
+                + maxSize
+                + "]");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for a connection to [" + getName() + "]", e);
+    }
+    recordWait(System.nanoTime() - waitStart);
+    try {
+      PooledConnection pooledConnection = idleConnections.pollFirst();
+      while (pooledConnection != null && !isValid(pooledConnection)) {
+        validationFailureCount.incrementAndGet();
+        destroy(pooledConnection);
+        pooledConnection = idleConnections.pollFirst();
+      }
+      if (pooledConnection == null) {
+        pooledConnection = create();
+      }
+      activeCount.incrementAndGet();
+      borrowedCount.incrementAndGet();
+      return pooledConnection.lease();
+    } catch (final SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    throw new SQLFeatureNotSupportedException(
+        "Credentials are taken from the DBParameters connection string");
+  }
+
+  /** Closes all idle connections and stops handing out new ones. */
+  public void close() {
+    closed = true;
+    evictionTask.cancel(false);
+    PooledConnection pooledConnection;
+    while ((pooledConnection = idleConnections.pollFirst()) != null) {
+      destroy(pooledConnection);
+    }
+  }
+
+  /** Closes idle connections that have not been used within the idle timeout. */
+  public void evictIdleConnections() {
+    final long now = System.currentTimeMillis();
+    final Iterator<PooledConnection> iterator = idleConnections.iterator();
+    while (iterator.hasNext()) {
+      final PooledConnection pooledConnection = iterator.next();
+      if (now - pooledConnection.lastUsedMillis > idleTimeoutMillis
+          && idleConnections.remove(pooledConnection)) {
+        evictedCount.incrementAndGet();
+        destroy(pooledConnection);
+      }
+    }
+  }
+
+  private PooledConnection create() throws SQLException {
+    JDBC.classforName(dbParameters.getJdbcDriver());
+    final Connection connection = DriverManager.getConnection(dbParameters.getConnectionString());
+    try {
+      SQLiteWriter.applyPragmas(dbParameters, connection);
+    } catch (final SQLException e) {
+      connection.close();
+      throw e;
+    }
+    totalCount.incrementAndGet();
+    createdCount.incrementAndGet();
+    return new PooledConnection(connection);
+  }
+
+  private void destroy(PooledConnection pooledConnection) {
+    totalCount.decrementAndGet();
+    destroyedCount.incrementAndGet();
+    pooledConnection.closeCachedStatements();
+    try {
+      pooledConnection.connection.close();
+    } catch (final SQLException e) {
+      Environment.sysOut(e);
+    }
+  }
+
+  private boolean isValid(PooledConnection pooledConnection) {
+    try {
+      return pooledConnection.connection.isValid(validationTimeoutSeconds);
+    } catch (final SQLException e) {
+      return false;
+    }
+  }
+
+  private void recordWait(long waitNanos) {
+    waitNanosTotal.addAndGet(waitNanos);
+    waitNanosMax.accumulateAndGet(waitNanos, Math::max);
+    if (QueryMetrics.isEnabled()) {
+      QueryMetrics.recordConnectionWait(getName(), waitNanos);
+    }
+  }
+
+  private void release(PooledConnection pooledConnection) {
+    boolean reusable = !closed;
+    try {
+      pooledConnection.closeStatements();
+      if (!pooledConnection.connection.getAutoCommit()) {
+        pooledConnection.connection.rollback();
+        pooledConnection.connection.setAutoCommit(true);
+      }
+      reusable = reusable && !pooledConnection.connection.isClosed();
+    } catch (final SQLException e) {
+      Environment.sysOut(e);
+      reusable = false;
+    }
+    activeCount.decrementAndGet();
+    returnedCount.incrementAndGet();
+    if (reusable) {
+      pooledConnection.lastUsedMillis = System.currentTimeMillis();
+      idleConnections.offerFirst(pooledConnection);
+    } else {
+      destroy(pooledConnection);
+    }
+    permits.release();
+  }
+
+  public String getName() {
+    return dbParameters.getName();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int getActiveCount() {
+    return activeCount.get();
+  }
+
+  public int getIdleCount() {
+    return idleConnections.size();
+  }
+
+  public int getTotalCount() {
+    return totalCount.get();
+  }
+
+  public long getCreatedCount() {
+    return createdCount.get();
+  }
+
+  public long getBorrowedCount() {
+    return borrowedCount.get();
+  }
+
+  public long getReturnedCount() {
+    return returnedCount.get();
+  }
+
+  public long getEvictedCount() {
+    return evictedCount.get();
+  }
+
+  public long getValidationFailureCount() {
+    return validationFailureCount.get();
+  }
+
+  public long getTimeoutCount() {
+    return timeoutCount.get();
+  }
+
+  public double getAverageWaitMillis() {
+    final long borrowed = borrowedCount.get();
+    return borrowed == 0 ? 0 : waitNanosTotal.get() / 1_000_000.0 / borrowed;
+  }
+
+  public double getMaxWaitMillis() {
+    return waitNanosMax.get() / 1_000_000.0;
+  }
+
+  public long getStatementCacheHitCount() {
+    return statementCacheHitCount.get();
+  }
+
+  public long getStatementCacheMissCount() {
+    return statementCacheMissCount.get();
+  }
+
+  public String getMetrics() {
+    final StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append("Pool:[" + getName() + "]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Size:["
+            + getTotalCount()
+            + "/"
+            + getMaxSize()
+            + "], Active:["
+            + getActiveCount()
+            + "], Idle:["
+            + getIdleCount()
+            + "]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Created:["
+            + getCreatedCount()
+            + "], Borrowed:["
+            + getBorrowedCount()
+            + "], Returned:["
+            + getReturnedCount()
+            + "], Destroyed:["
+            + destroyedCount.get()
+            + "], Evicted:["
+            + getEvictedCount()
+            + "]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Validation Failures:["
+            + getValidationFailureCount()
+            + "], Timeouts:["
+            + getTimeoutCount()
+            + "], Average Wait:["
+            + String.format("%.3f", getAverageWaitMillis())
+            + " ms], Max Wait:["
+            + String.format("%.3f", getMaxWaitMillis())
+            + " ms]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Statement Cache Hits:["
+            + getStatementCacheHitCount()
+            + "], Misses:["
+            + getStatementCacheMissCount()
+            + "]");
+    return stringBuilder.toString();
+  }
+
+  @Override
+  public PrintWriter getLogWriter() {
+    return logWriter;
+  }
+
+  @Override
+  public void setLogWriter(PrintWriter out) {
+    this.logWriter = out;
+  }
+
+  @Override
+  public void setLoginTimeout(int seconds) {
+    DriverManager.setLoginTimeout(seconds);
+  }
+
+  @Override
+  public int getLoginTimeout() {
+    return DriverManager.getLoginTimeout();
+  }
+
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException("java.util.logging is not used");
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    throw new SQLException("Not a wrapper for [" + iface.getName() + "]");
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return iface.isInstance(this);
+  }
+
+  /**
+   * A physical connection owned by the pool plus the statements opened by its current lease and the
+   * prepared statements it keeps across leases.
+   */
+  private final class PooledConnection {
+    private final Connection connection;
+    private final List<Statement> statements = new ArrayList<>();
+    private final Map<String, PreparedStatement> preparedStatementCache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Entry<String, PreparedStatement> eldest) {
+            if (size() <= statementCacheSize) {
+              return false;
+            }
+            closeQuietly(eldest.getValue());
+            return true;
+          }
+        };
+    private volatile long lastUsedMillis = System.currentTimeMillis();
+
+    private PooledConnection(Connection connection) {
+      this.connection = connection;
+    }
+
+    private Connection lease() {
+      return (Connection)
+          Proxy.newProxyInstance(
+              Connection.class.getClassLoader(),
+              new Class<?>[] {Connection.class},
+              new LeaseHandler(this));
+    }
+
+    private synchronized void track(Statement statement) {
+      statements.add(statement);
+    }
+
+    private synchronized void closeStatements() {
+      for (final Statement statement : statements) {
+        closeQuietly(statement);
+      }
+      statements.clear();
+    }
+
+    private synchronized void closeCachedStatements() {
+      for (final PreparedStatement preparedStatement : preparedStatementCache.values()) {
+        closeQuietly(preparedStatement);
+      }
+      preparedStatementCache.clear();
+    }
+
+    private synchronized PreparedStatement prepareCached(String sql) throws SQLException {
+      if (statementCacheSize == 0) {
+        final PreparedStatement preparedStatement =
+            (PreparedStatement) instrument(connection.prepareStatement(sql), sql);
+        track(preparedStatement);
+        return preparedStatement;
+      }
+      PreparedStatement preparedStatement = preparedStatementCache.get(sql);
+      if (preparedStatement != null && !preparedStatement.isClosed()) {
+        statementCacheHitCount.incrementAndGet();
+        preparedStatement.clearParameters();
+        return preparedStatement;
+      }
+      statementCacheMissCount.incrementAndGet();
+      preparedStatement = (PreparedStatement) instrument(connection.prepareStatement(sql), sql);
+      preparedStatementCache.put(sql, preparedStatement);
+      return preparedStatement;
+    }
+  }
+
+  /** Wraps the statement for {@link QueryMetrics} unless {@code jdbc.metrics.enabled=false}. */
+  private Statement instrument(Statement statement, String sql) {
+    return QueryMetrics.isEnabled()
+        ? StatementInstrumentation.wrap(statement, getName(), sql)
+        : statement;
+  }
+
+  private static void closeQuietly(Statement statement) {
+    try {
+      statement.close();
+    } catch (final SQLException e) {
+      Environment.sysOut(e);
+    }
+  }
+
+  /** Routes calls to the physical connection until the lease is closed. */
+  private final class LeaseHandler implements InvocationHandler {
+    private final PooledConnection pooledConnection;
+    private boolean leaseClosed = false;
+
+    private LeaseHandler(PooledConnection pooledConnection) {
+      this.pooledConnection = pooledConnection;
+    }
+
+    private PreparedStatement prepareCached(String sql) throws SQLException {
+      if (leaseClosed) {
+        throw new SQLException("Connection has already been returned to the pool");
+      }
+      return pooledConnection.prepareCached(sql);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!leaseClosed) {
+            leaseClosed = true;
+            release(pooledConnection);
+          }
+          return null;
+        case "isClosed":
+          return leaseClosed || pooledConnection.connection.isClosed();
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "PooledConnection[" + getName() + "]";
+        default:
+          break;
+      }
+      if (leaseClosed) {
+        throw new SQLException("Connection has already been returned to the pool");
+      }
+      final Object result;
+      try {
+        result = method.invoke(pooledConnection.connection, args);
+      } catch (final InvocationTargetException e) {
+        throw e.getCause();
+      }
+      if (result instanceof Statement statement) {
+        final Statement instrumented =
+            instrument(
+                statement,
+                args != null && args.length > 0 && args[0] instanceof String sql ? sql : null);
+        pooledConnection.track(instrumented);
+        return instrumented;
+      }
+      return result;
+    }
+  }
+}
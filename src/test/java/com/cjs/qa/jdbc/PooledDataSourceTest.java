@@ -0,0 +1,96 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PooledDataSourceTest {
+
+  @Test
+  public void connectionsAreReused() throws Exception {
+    final PooledDataSource dataSource =
+        PooledDataSource.getInstance(TempSQLite.newDBParameters("PooledDataSourceReuse"));
+    try (Connection connection = dataSource.getConnection()) {
+      Assert.assertTrue(connection.isValid(1));
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      Assert.assertTrue(connection.isValid(1));
+    }
+    Assert.assertEquals(1, dataSource.getCreatedCount());
+    Assert.assertEquals(2, dataSource.getBorrowedCount());
+    Assert.assertEquals(0, dataSource.getActiveCount());
+    Assert.assertEquals(1, dataSource.getIdleCount());
+    dataSource.close();
+  }
+
+  @Test
+  public void closeReturnsConnectionAndClosesStatements() throws Exception {
+    final PooledDataSource dataSource =
+        PooledDataSource.getInstance(TempSQLite.newDBParameters("PooledDataSourceStatements"));
+    final Connection connection = dataSource.getConnection();
+    final Statement statement = connection.createStatement();
+    connection.setAutoCommit(false);
+    connection.close();
+    Assert.assertTrue(connection.isClosed());
+    Assert.assertTrue(statement.isClosed());
+    try (Connection reused = dataSource.getConnection()) {
+      Assert.assertTrue(reused.getAutoCommit());
+    }
+    dataSource.close();
+  }
+
+  @Test
+  public void borrowTimesOutWhenPoolIsExhausted() throws Exception {
+    System.setProperty(PooledDataSource.PROPERTY_MAX_SIZE, "1");
+    System.setProperty(PooledDataSource.PROPERTY_MAX_WAIT_MILLIS, "100");
+    final PooledDataSource dataSource;
+    try {
+      dataSource =
+          PooledDataSource.getInstance(TempSQLite.newDBParameters("PooledDataSourceTimeout"));
+    } finally {
+      System.clearProperty(PooledDataSource.PROPERTY_MAX_SIZE);
+      System.clearProperty(PooledDataSource.PROPERTY_MAX_WAIT_MILLIS);
+    }
+    final Connection connection = dataSource.getConnection();
+    try {
+      Assert.assertThrows(SQLException.class, dataSource::getConnection);
+    } finally {
+      connection.close();
+    }
+    Assert.assertEquals(1, dataSource.getTimeoutCount());
+    dataSource.close();
+  }
+
+  @Test
+  public void preparedStatementsAreCachedAcrossLeases() throws Exception {
+    final PooledDataSource dataSource =
+        PooledDataSource.getInstance(TempSQLite.newDBParameters("PooledDataSourceStatementCache"));
+    final String sql = "select ? as [Value]";
+    PreparedStatement first;
+    try (Connection connection = dataSource.getConnection()) {
+      first = PooledDataSource.prepareCached(connection, sql);
+      first.setString(1, "first");
+      try (ResultSet resultSet = first.executeQuery()) {
+        Assert.assertTrue(resultSet.next());
+      }
+    }
+    Assert.assertFalse(first.isClosed());
+    try (Connection connection = dataSource.getConnection()) {
+      final PreparedStatement second = PooledDataSource.prepareCached(connection, sql);
+      Assert.assertSame(first, second);
+      second.setString(1, "second");
+      try (ResultSet resultSet = second.executeQuery()) {
+        Assert.assertTrue(resultSet.next());
+        Assert.assertEquals("second", resultSet.getString("Value"));
+      }
+    }
+    Assert.assertEquals(1, dataSource.getStatementCacheHitCount());
+    Assert.assertEquals(1, dataSource.getStatementCacheMissCount());
+    dataSource.close();
+    Assert.assertTrue(first.isClosed());
+  }
+}
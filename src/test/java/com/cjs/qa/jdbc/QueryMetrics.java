@@ -0,0 +1,503 @@
+package com.cjs.qa.jdbc;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.JavaHelpers;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Latency histograms, row counts and errors per SQL fingerprint, plus connection wait time per
+ * database, for every statement run on a {@link PooledDataSource} connection.
+ *
+ * <p>A fingerprint is the statement with comments removed, literals replaced by {@code ?}, value
+ * lists and repeated statements collapsed and whitespace normalized, so {@code select * from [t]
+ * where [ID]=1} and {@code ... [ID]=2} are counted together. Statement time includes reading the
+ * rows of its result set, but not what the caller does between rows.
+ *
+ * <p>The collected data is available as {@link #getSummary()}, which is logged at shutdown, and in
+ * the Prometheus text format from {@link #toPrometheus()}, served on {@code /metrics} once {@link
+ * #startServer(int)} is called or {@code jdbc.metrics.port} is set.
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code jdbc.metrics.enabled} - instrument pooled statements (default true)
+ *   <li>{@code jdbc.metrics.port} - port of the scrape endpoint (default none)
+ *   <li>{@code jdbc.metrics.maxFingerprints} - distinct fingerprints kept; the rest are counted as
+ *       {@code other} (default 500)
+ * </ul>
+ */
+public final class QueryMetrics {
+  public static final String PROPERTY_ENABLED = "jdbc.metrics.enabled";
+  public static final String PROPERTY_PORT = "jdbc.metrics.port";
+  public static final String PROPERTY_MAX_FINGERPRINTS = "jdbc.metrics.maxFingerprints";
+  public static final String FINGERPRINT_OTHER = "other";
+  private static final double[] BUCKET_SECONDS = {
+    0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30
+  };
+  private static final int MAX_FINGERPRINT_LENGTH = 500;
+  private static final int SUMMARY_ROWS = 25;
+  private static final Pattern PATTERN_VALUE_LIST = Pattern.compile("\\(\\?(?:\\s*,\\s*\\?)*\\)");
+  private static final Pattern PATTERN_REPEATED_LIST =
+      Pattern.compile("\\(\\.\\.\\.\\)(?:\\s*,\\s*\\(\\.\\.\\.\\))+");
+  private static final boolean ENABLED =
+      Boolean.parseBoolean(JavaHelpers.readPropertyOrEnv(PROPERTY_ENABLED, "true"));
+  private static final int MAX_FINGERPRINTS =
+      Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_MAX_FINGERPRINTS, "500"));
+  private static final Map<Key, StatementStats> STATEMENTS = new ConcurrentHashMap<>();
+  private static final Map<String, Histogram> CONNECTION_WAITS = new ConcurrentHashMap<>();
+  private static HttpServer httpServer = null;
+
+  static {
+    final String port = JavaHelpers.readPropertyOrEnv(PROPERTY_PORT, "");
+    if (JavaHelpers.hasValue(port)) {
+      startServer(Integer.parseInt(port.trim()));
+    }
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  if (!STATEMENTS.isEmpty()) {
+                    Environment.sysOut(getSummary());
+                  }
+                  stopServer();
+                },
+                "jdbc-metrics-shutdown"));
+  }
+
+  private record Key(String database, String fingerprint) {}
+
+  private QueryMetrics() {}
+
+  /**
+   * @return {@code false} if {@code jdbc.metrics.enabled=false}
+   */
+  public static boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * Records one statement execution.
+   *
+   * @param database database name
+   * @param sql statement text as executed
+   * @param nanos time spent executing it and reading its rows
+   * @param rows rows returned or affected
+   * @param failed whether it threw
+   */
+  public static void recordStatement(
+      String database, String sql, long nanos, long rows, boolean failed) {
+    Key key = new Key(database, fingerprint(sql));
+    StatementStats statementStats = STATEMENTS.get(key);
+    if (statementStats == null) {
+      if (STATEMENTS.size() >= MAX_FINGERPRINTS) {
+        key = new Key(database, FINGERPRINT_OTHER);
+      }
+      statementStats = STATEMENTS.computeIfAbsent(key, k -> new StatementStats());
+    }
+    statementStats.histogram.record(nanos);
+    statementStats.rows.add(rows);
+    if (failed) {
+      statementStats.errors.increment();
+    }
+  }
+
+  /**
+   * Records how long a borrower waited for a pooled connection.
+   *
+   * @param database database name
+   * @param nanos wait time
+   */
+  public static void recordConnectionWait(String database, long nanos) {
+    CONNECTION_WAITS.computeIfAbsent(database, key -> new Histogram()).record(nanos);
+  }
+
+  /** Forgets everything recorded so far. */
+  public static void reset() {
+    STATEMENTS.clear();
+    CONNECTION_WAITS.clear();
+  }
+
+  /**
+   * Normalizes a statement so executions that differ only in literal values share a fingerprint.
+   *
+   * @param sql statement text
+   * @return lower case text with literals as {@code ?}, value lists as {@code (...)} and
+   *     consecutive identical statements collapsed
+   */
+  public static String fingerprint(String sql) {
+    if (sql == null) {
+      return "";
+    }
+    final StringBuilder stringBuilder = new StringBuilder(Math.min(sql.length(), 4096));
+    final int length = sql.length();
+    int index = 0;
+    while (index < length) {
+      final char character = sql.charAt(index);
+      if (character == '-' && index + 1 < length && sql.charAt(index + 1) == '-') {
+        while (index < length && sql.charAt(index) != '\n') {
+          index++;
+        }
+      } else if (character == '/' && index + 1 < length && sql.charAt(index + 1) == '*') {
+        final int end = sql.indexOf("*/", index + 2);
+        index = end < 0 ? length : end + 2;
+      } else if (character == '\'') {
+        // A doubled quote is an escaped quote inside the literal.
+        index++;
+        while (index < length) {
+          if (sql.charAt(index) == '\'') {
+            if (index + 1 < length && sql.charAt(index + 1) == '\'') {
+              index += 2;
+              continue;
+            }
+            break;
+          }
+          index++;
+        }
+        index++;
+        stringBuilder.append('?');
+      } else if (character == '[' || character == '"' || character == '`') {
+        final char close = character == '[' ? ']' : character;
+        final int end = sql.indexOf(close, index + 1);
+        final int next = end < 0 ? length : end + 1;
+        stringBuilder.append(sql, index, next);
+        index = next;
+      } else if (Character.isDigit(character) && !isIdentifierEnd(stringBuilder)) {
+        while (index < length
+            && (Character.isLetterOrDigit(sql.charAt(index)) || sql.charAt(index) == '.')) {
+          index++;
+        }
+        stringBuilder.append('?');
+      } else if (Character.isWhitespace(character)) {
+        while (index < length && Character.isWhitespace(sql.charAt(index))) {
+          index++;
+        }
+        if (stringBuilder.length() > 0 && stringBuilder.charAt(stringBuilder.length() - 1) != ' ') {
+          stringBuilder.append(' ');
+        }
+      } else {
+        stringBuilder.append(Character.toLowerCase(character));
+        index++;
+      }
+    }
+    String fingerprint = PATTERN_VALUE_LIST.matcher(stringBuilder).replaceAll("(...)");
+    fingerprint = PATTERN_REPEATED_LIST.matcher(fingerprint).replaceAll("(...)");
+    fingerprint = collapseRepeatedStatements(fingerprint);
+    if (fingerprint.length() > MAX_FINGERPRINT_LENGTH) {
+      fingerprint = fingerprint.substring(0, MAX_FINGERPRINT_LENGTH) + "...";
+    }
+    return fingerprint;
+  }
+
+  private static boolean isIdentifierEnd(StringBuilder stringBuilder) {
+    if (stringBuilder.length() == 0) {
+      return false;
+    }
+    final char character = stringBuilder.charAt(stringBuilder.length() - 1);
+    return Character.isLetterOrDigit(character) || character == '_';
+  }
+
+  private static String collapseRepeatedStatements(String fingerprint) {
+    if (fingerprint.indexOf(';') < 0) {
+      return fingerprint.trim();
+    }
+    final StringBuilder stringBuilder = new StringBuilder();
+    String previous = null;
+    for (final String statement : fingerprint.split(";")) {
+      final String trimmed = statement.trim();
+      if (trimmed.isEmpty() || trimmed.equals(previous)) {
+        continue;
+      }
+      stringBuilder.append(trimmed).append("; ");
+      previous = trimmed;
+    }
+    return stringBuilder.toString().trim();
+  }
+
+  /**
+   * Starts the Prometheus scrape endpoint on {@code /metrics}, unless it is already running.
+   *
+   * @param port port to listen on; 0 picks a free one
+   * @return the port in use, or -1 if it could not be started
+   */
+  public static synchronized int startServer(int port) {
+    if (httpServer != null) {
+      return httpServer.getAddress().getPort();
+    }
+    try {
+      final HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+      server.createContext(
+          "/metrics",
+          exchange -> {
+            final byte[] body = toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange
+                .getResponseHeaders()
+                .set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+              outputStream.write(body);
+            }
+          });
+      server.setExecutor(
+          Executors.newSingleThreadExecutor(
+              runnable -> {
+                final Thread thread = new Thread(runnable, "jdbc-metrics-server");
+                thread.setDaemon(true);
+                return thread;
+              }));
+      server.start();
+      httpServer = server;
+      Environment.sysOut(
+          "JDBC metrics at http://localhost:" + server.getAddress().getPort() + "/metrics");
+      return server.getAddress().getPort();
+    } catch (final IOException e) {
+      Environment.sysOut("JDBC metrics endpoint not started on port [" + port + "]: " + e);
+      return -1;
+    }
+  }
+
+  /** Stops the scrape endpoint if it is running. */
+  public static synchronized void stopServer() {
+    if (httpServer != null) {
+      httpServer.stop(0);
+      httpServer = null;
+    }
+  }
+
+  /**
+   * @return every histogram and counter in the Prometheus text exposition format
+   */
+  public static String toPrometheus() {
+    final StringBuilder stringBuilder = new StringBuilder();
+    final List<Map.Entry<Key, StatementStats>> entryList = new ArrayList<>(STATEMENTS.entrySet());
+    appendHeader(
+        stringBuilder,
+        "jdbc_statement_duration_seconds",
+        "histogram",
+        "Time spent executing statements and reading their rows.");
+    for (final Map.Entry<Key, StatementStats> entry : entryList) {
+      entry
+          .getValue()
+          .histogram
+          .appendPrometheus(
+              stringBuilder, "jdbc_statement_duration_seconds", getLabels(entry.getKey()));
+    }
+    appendHeader(
+        stringBuilder, "jdbc_statement_rows_total", "counter", "Rows returned or affected.");
+    for (final Map.Entry<Key, StatementStats> entry : entryList) {
+      stringBuilder.append(
+          "jdbc_statement_rows_total{"
+              + getLabels(entry.getKey())
+              + "} "
+              + entry.getValue().rows.sum()
+              + "\n");
+    }
+    appendHeader(stringBuilder, "jdbc_statement_errors_total", "counter", "Statements that threw.");
+    for (final Map.Entry<Key, StatementStats> entry : entryList) {
+      stringBuilder.append(
+          "jdbc_statement_errors_total{"
+              + getLabels(entry.getKey())
+              + "} "
+              + entry.getValue().errors.sum()
+              + "\n");
+    }
+    appendHeader(
+        stringBuilder,
+        "jdbc_connection_wait_seconds",
+        "histogram",
+        "Time spent waiting for a pooled connection.");
+    for (final Map.Entry<String, Histogram> entry : CONNECTION_WAITS.entrySet()) {
+      entry
+          .getValue()
+          .appendPrometheus(
+              stringBuilder,
+              "jdbc_connection_wait_seconds",
+              "database=\"" + escape(entry.getKey()) + "\"");
+    }
+    return stringBuilder.toString();
+  }
+
+  private static void appendHeader(
+      StringBuilder stringBuilder, String name, String type, String help) {
+    stringBuilder.append("# HELP " + name + " " + help + "\n");
+    stringBuilder.append("# TYPE " + name + " " + type + "\n");
+  }
+
+  private static String getLabels(Key key) {
+    return "database=\""
+        + escape(key.database())
+        + "\",fingerprint=\""
+        + escape(key.fingerprint())
+        + "\"";
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  /**
+   * @return the statements with the most total time, with count, mean, p95, max, rows and errors,
+   *     followed by the connection wait per database
+   */
+  public static String getSummary() {
+    final List<Map.Entry<Key, StatementStats>> entryList = new ArrayList<>(STATEMENTS.entrySet());
+    entryList.sort(
+        Comparator.comparingLong(
+                (Map.Entry<Key, StatementStats> entry) -> entry.getValue().histogram.getSumNanos())
+            .reversed());
+    final String format = "%8s %12s %10s %10s %10s %10s %6s  %s";
+    final StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append("JDBC Statements (top " + SUMMARY_ROWS + " by total time)");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        String.format(
+            Locale.ENGLISH,
+            format,
+            "Count",
+            "Total ms",
+            "Mean ms",
+            "p95 ms",
+            "Max ms",
+            "Rows",
+            "Errors",
+            "Fingerprint"));
+    for (final Map.Entry<Key, StatementStats> entry :
+        entryList.subList(0, Math.min(SUMMARY_ROWS, entryList.size()))) {
+      final Histogram histogram = entry.getValue().histogram;
+      String fingerprint = entry.getKey().fingerprint();
+      if (fingerprint.length() > 120) {
+        fingerprint = fingerprint.substring(0, 120) + "...";
+      }
+      stringBuilder.append(System.lineSeparator());
+      stringBuilder.append(
+          String.format(
+              Locale.ENGLISH,
+              format,
+              histogram.getCount(),
+              millis(histogram.getSumNanos()),
+              millis(
+                  histogram.getCount() == 0 ? 0 : histogram.getSumNanos() / histogram.getCount()),
+              histogram.getPercentileMillis(0.95),
+              millis(histogram.getMaxNanos()),
+              entry.getValue().rows.sum(),
+              entry.getValue().errors.sum(),
+              fingerprint));
+    }
+    for (final Map.Entry<String, Histogram> entry : CONNECTION_WAITS.entrySet()) {
+      final Histogram histogram = entry.getValue();
+      stringBuilder.append(System.lineSeparator());
+      stringBuilder.append(
+          "Connection Wait:["
+              + entry.getKey()
+              + "] Borrows:["
+              + histogram.getCount()
+              + "], Total:["
+              + millis(histogram.getSumNanos())
+              + " ms], p95:["
+              + histogram.getPercentileMillis(0.95)
+              + " ms], Max:["
+              + millis(histogram.getMaxNanos())
+              + " ms]");
+    }
+    return stringBuilder.toString();
+  }
+
+  private static String millis(long nanos) {
+    return String.format(Locale.ENGLISH, "%.3f", nanos / 1_000_000.0);
+  }
+
+  /** Counters of one database and fingerprint. */
+  private static final class StatementStats {
+    private final Histogram histogram = new Histogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+  }
+
+  /** Fixed-bucket latency histogram. */
+  private static final class Histogram {
+    private final LongAdder[] buckets = new LongAdder[BUCKET_SECONDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private Histogram() {
+      for (int index = 0; index < buckets.length; index++) {
+        buckets[index] = new LongAdder();
+      }
+    }
+
+    private void record(long nanos) {
+      final double seconds = nanos / 1_000_000_000.0;
+      int index = 0;
+      while (index < BUCKET_SECONDS.length && seconds > BUCKET_SECONDS[index]) {
+        index++;
+      }
+      buckets[index].increment();
+      count.increment();
+      sumNanos.add(nanos);
+      maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private long getCount() {
+      return count.sum();
+    }
+
+    private long getSumNanos() {
+      return sumNanos.sum();
+    }
+
+    private long getMaxNanos() {
+      return maxNanos.get();
+    }
+
+    // The upper bound of the bucket holding the percentile, capped at the maximum seen.
+    private String getPercentileMillis(double percentile) {
+      final long total = getCount();
+      if (total == 0) {
+        return millis(0);
+      }
+      final long rank = (long) Math.ceil(total * percentile);
+      long cumulative = 0;
+      for (int index = 0; index < BUCKET_SECONDS.length; index++) {
+        cumulative += buckets[index].sum();
+        if (cumulative >= rank) {
+          return millis(Math.min((long) (BUCKET_SECONDS[index] * 1_000_000_000L), getMaxNanos()));
+        }
+      }
+      return millis(getMaxNanos());
+    }
+
+    private void appendPrometheus(StringBuilder stringBuilder, String name, String labels) {
+      long cumulative = 0;
+      for (int index = 0; index < buckets.length; index++) {
+        cumulative += buckets[index].sum();
+        final String le =
+            index < BUCKET_SECONDS.length ? String.valueOf(BUCKET_SECONDS[index]) : "+Inf";
+        stringBuilder.append(
+            name + "_bucket{" + labels + ",le=\"" + le + "\"} " + cumulative + "\n");
+      }
+      stringBuilder.append(
+          name
+              + "_sum{"
+              + labels
+              + "} "
+              + String.format(Locale.ENGLISH, "%.9f", getSumNanos() / 1_000_000_000.0)
+              + "\n");
+      stringBuilder.append(name + "_count{" + labels + "} " + cumulative + "\n");
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.cjs.qa.jdbc;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryMetricsTest {
+
+  @Test
+  public void fingerprintReplacesLiteralsAndCollapsesLists() {
+    Assert.assertEquals(
+        "select * from [t_Member] where [ID]=? and [Name]=?",
+        QueryMetrics.fingerprint("SELECT *\n  FROM [t_Member] WHERE [ID]=42 AND [Name]='O''Neil'"));
+    Assert.assertEquals(
+        "insert into [t_2] ([a],[b]) values (...);",
+        QueryMetrics.fingerprint(
+            "insert into [t_2] ([a],[b]) values (1,'x'),(2,'y');\n"
+                + "insert into [t_2] ([a],[b]) values (3,'z'); -- comment"));
+    Assert.assertEquals(
+        "select [ID] from t2 where [ID] in (...)",
+        QueryMetrics.fingerprint("select [ID] from t2 /* ids */ where [ID] in (1, 2, 3)"));
+  }
+
+  @Test
+  public void pooledStatementsAreRecordedAndServed() throws Exception {
+    final DBParameters dbParameters = TempSQLite.newDBParameters("QueryMetrics");
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.executeUpdate("create table [t_Metrics] ([ID] INTEGER)");
+      try (PreparedStatement preparedStatement =
+          connection.prepareStatement("insert into [t_Metrics] values (?)")) {
+        for (int index = 0; index < 3; index++) {
+          preparedStatement.setInt(1, index);
+          preparedStatement.addBatch();
+        }
+        preparedStatement.executeBatch();
+      }
+      for (int index = 0; index < 2; index++) {
+        try (ResultSet resultSet =
+            statement.executeQuery("select [ID] from [t_Metrics] where [ID]>=" + index)) {
+          while (resultSet.next()) {
+            // Read every row.
+          }
+        }
+      }
+    }
+    final int port = QueryMetrics.startServer(0);
+    try {
+      final HttpResponse<String> response =
+          HttpClient.newHttpClient()
+              .send(
+                  HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/metrics"))
+                      .build(),
+                  HttpResponse.BodyHandlers.ofString());
+      Assert.assertEquals(200, response.statusCode());
+      final String labels =
+          "database=\""
+              + dbParameters.getName()
+              + "\",fingerprint=\"select [ID] from [t_Metrics] where [ID]>=?\"";
+      Assert.assertTrue(
+          response.body().contains("jdbc_statement_duration_seconds_count{" + labels + "} 2"));
+      Assert.assertTrue(response.body().contains("jdbc_statement_rows_total{" + labels + "} 5"));
+      Assert.assertTrue(
+          response
+              .body()
+              .contains(
+                  "jdbc_statement_rows_total{database=\""
+                      + dbParameters.getName()
+                      + "\",fingerprint=\"insert into [t_Metrics] values (...)\"} 3"));
+      Assert.assertTrue(
+          response
+              .body()
+              .contains(
+                  "jdbc_connection_wait_seconds_count{database=\""
+                      + dbParameters.getName()
+                      + "\"} 1"));
+    } finally {
+      QueryMetrics.stopServer();
+    }
+    // Other tests' statements can push this one out of the top statements, but every database's
+    // connection wait is listed.
+    Assert.assertTrue(
+        QueryMetrics.getSummary()
+            .contains("Connection Wait:[" + dbParameters.getName() + "] Borrows:[1]"));
+  }
+}
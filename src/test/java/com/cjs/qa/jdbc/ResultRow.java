@@ -0,0 +1,71 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** One row of a query as strings, read by column name or zero-based index. */
+public final class ResultRow {
+  private final ColumnIndex columnIndex;
+  private final String[] values;
+
+  public ResultRow(ColumnIndex columnIndex, String[] values) {
+    if (columnIndex.getColumnCount() != values.length) {
+      throw new IllegalArgumentException(
+          "values:["
+              + values.length
+              + "] does not match columns:["
+              + columnIndex.getColumnCount()
+              + "]");
+    }
+    this.columnIndex = columnIndex;
+    this.values = values;
+  }
+
+  static ResultRow read(ColumnIndex columnIndex, ResultSet resultSet) throws SQLException {
+    final String[] values = new String[columnIndex.getColumnCount()];
+    for (int index = 0; index < values.length; index++) {
+      values[index] = resultSet.getString(index + 1);
+    }
+    return new ResultRow(columnIndex, values);
+  }
+
+  public ColumnIndex getColumnIndex() {
+    return columnIndex;
+  }
+
+  public String get(int index) {
+    return values[index];
+  }
+
+  /**
+   * @param columnName column name as reported by the driver
+   * @return the value, or {@code null} if the query has no such column
+   */
+  public String get(String columnName) {
+    final int index = columnIndex.indexOf(columnName);
+    return index < 0 ? null : values[index];
+  }
+
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * @return a copy of this row keyed by column name, in column order
+   */
+  public Map<String, String> toMap() {
+    final Map<String, String> map = new LinkedHashMap<>();
+    for (int index = 0; index < values.length; index++) {
+      map.put(columnIndex.getColumnName(index), values[index]);
+    }
+    return map;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(values);
+  }
+}
@@ -0,0 +1,265 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A fully read query result stored as one shared {@link ColumnIndex} plus a {@code String[]} per
+ * row, instead of a new {@code HashMap} with repeated keys for every row.
+ *
+ * <p>Values are found in O(1) by row and column name or index. {@link #asIndexMaps(boolean)} and
+ * {@link #asStringMaps(boolean)} expose the rows in the shape {@link JDBC#queryResultsIndex(String,
+ * boolean)} and {@link JDBC#queryResultsString(String, boolean)} have always returned, including
+ * the optional header row at element 0, as read-only views that copy nothing. The JDBC methods
+ * copy the row views into an {@code ArrayList}, so their callers can still remove rows.
+ */
+public final class ResultTable {
+  private final ColumnIndex columnIndex;
+  private final List<String[]> rowList;
+
+  public ResultTable(ColumnIndex columnIndex, List<String[]> rowList) {
+    this.columnIndex = columnIndex;
+    this.rowList = rowList;
+  }
+
+  /**
+   * Reads every remaining row of {@code resultSet}. The caller still owns and closes it.
+   *
+   * @param resultSet an open result set
+   * @return the rows as strings
+   * @throws SQLException if reading fails
+   */
+  public static ResultTable read(ResultSet resultSet) throws SQLException {
+    final ColumnIndex columnIndex = ColumnIndex.fromMetaData(resultSet.getMetaData());
+    final int columns = columnIndex.getColumnCount();
+    final List<String[]> rowList = new ArrayList<>();
+    while (resultSet.next()) {
+      final String[] values = new String[columns];
+      for (int index = 0; index < columns; index++) {
+        values[index] = resultSet.getString(index + 1);
+      }
+      rowList.add(values);
+    }
+    return new ResultTable(columnIndex, rowList);
+  }
+
+  public ColumnIndex getColumnIndex() {
+    return columnIndex;
+  }
+
+  public int getRowCount() {
+    return rowList.size();
+  }
+
+  public String get(int row, int column) {
+    return rowList.get(row)[column];
+  }
+
+  /**
+   * @param row zero-based row
+   * @param columnName column name as reported by the driver
+   * @return the value, or {@code null} if the query has no such column
+   */
+  public String get(int row, String columnName) {
+    final int column = columnIndex.indexOf(columnName);
+    return column < 0 ? null : rowList.get(row)[column];
+  }
+
+  /**
+   * @param row zero-based row
+   * @return a {@link ResultRow} backed by the stored values
+   */
+  public ResultRow getRow(int row) {
+    return new ResultRow(columnIndex, rowList.get(row));
+  }
+
+  /**
+   * @param includeColumnNames add a header row mapping each index to its column name first
+   * @return a read-only view keyed by zero-based column index
+   */
+  public List<Map<Integer, String>> asIndexMaps(boolean includeColumnNames) {
+    final String[] header = includeColumnNames ? getHeader() : null;
+    return new RowListView<>(header, IndexMapView::new);
+  }
+
+  /**
+   * @param includeColumnNames add a header row mapping each column name to itself first
+   * @return a read-only view keyed by column name
+   */
+  public List<Map<String, String>> asStringMaps(boolean includeColumnNames) {
+    final String[] header = includeColumnNames ? getHeader() : null;
+    return new RowListView<>(header, values -> new StringMapView(columnIndex, values));
+  }
+
+  private String[] getHeader() {
+    return columnIndex.getColumnNameList().toArray(new String[0]);
+  }
+
+  @Override
+  public String toString() {
+    return columnIndex + ", Rows:[" + rowList.size() + "]";
+  }
+
+  private interface RowViewFactory<K> {
+    Map<K, String> create(String[] values);
+  }
+
+  private final class RowListView<K> extends AbstractList<Map<K, String>> {
+    private final String[] header;
+    private final RowViewFactory<K> rowViewFactory;
+
+    private RowListView(String[] header, RowViewFactory<K> rowViewFactory) {
+      this.header = header;
+      this.rowViewFactory = rowViewFactory;
+    }
+
+    @Override
+    public Map<K, String> get(int index) {
+      if (header == null) {
+        return rowViewFactory.create(rowList.get(index));
+      }
+      return rowViewFactory.create(index == 0 ? header : rowList.get(index - 1));
+    }
+
+    @Override
+    public int size() {
+      return rowList.size() + (header == null ? 0 : 1);
+    }
+  }
+
+  /** One row keyed 0..n-1, like the {@code HashMap<Integer, String>} rows it replaces. */
+  private static final class IndexMapView extends AbstractMap<Integer, String> {
+    private final String[] values;
+
+    private IndexMapView(String[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof Integer index && index >= 0 && index < values.length;
+    }
+
+    @Override
+    public String get(Object key) {
+      return containsKey(key) ? values[(Integer) key] : null;
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+    @Override
+    public Set<Entry<Integer, String>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Integer, String>> iterator() {
+          return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+              return index < values.length;
+            }
+
+            @Override
+            public Entry<Integer, String> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              final int column = index++;
+              return new SimpleImmutableEntry<>(column, values[column]);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return values.length;
+        }
+      };
+    }
+  }
+
+  /** One row keyed by column name, like the {@code HashMap<String, String>} rows it replaces. */
+  private static final class StringMapView extends AbstractMap<String, String> {
+    private final ColumnIndex columnIndex;
+    private final String[] values;
+
+    private StringMapView(ColumnIndex columnIndex, String[] values) {
+      this.columnIndex = columnIndex;
+      this.values = values;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String columnName && columnIndex.indexOf(columnName) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+      if (!(key instanceof String columnName)) {
+        return null;
+      }
+      final int column = columnIndex.indexOf(columnName);
+      return column < 0 ? null : values[column];
+    }
+
+    @Override
+    public int size() {
+      return columnIndex.getUniqueColumnCount();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+          return new Iterator<>() {
+            private int index = advance(0);
+
+            // Skip a duplicated column name unless this is the index a lookup resolves to.
+            private int advance(int from) {
+              int column = from;
+              while (column < values.length
+                  && columnIndex.indexOf(columnIndex.getColumnName(column)) != column) {
+                column++;
+              }
+              return column;
+            }
+
+            @Override
+            public boolean hasNext() {
+              return index < values.length;
+            }
+
+            @Override
+            public Entry<String, String> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              final int column = index;
+              index = advance(index + 1);
+              return new SimpleImmutableEntry<>(columnIndex.getColumnName(column), values[column]);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return columnIndex.getUniqueColumnCount();
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.cjs.qa.jdbc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResultTableTest {
+
+  private static ResultTable createResultTable() {
+    return new ResultTable(
+        new ColumnIndex(Arrays.asList("ID", "Name", "URL")),
+        Arrays.asList(
+            new String[] {"1", "First", "http://one"}, new String[] {"2", null, "http://two"}));
+  }
+
+  @Test
+  public void lookupByNameAndIndex() {
+    final ResultTable resultTable = createResultTable();
+    Assert.assertEquals(2, resultTable.getRowCount());
+    Assert.assertEquals("First", resultTable.get(0, 1));
+    Assert.assertEquals("http://two", resultTable.get(1, "URL"));
+    Assert.assertNull(resultTable.get(1, "Name"));
+    Assert.assertNull(resultTable.get(0, "Missing"));
+    Assert.assertEquals("2", resultTable.getRow(1).get("ID"));
+  }
+
+  @Test
+  public void indexMapsMatchTheOldShape() {
+    final List<Map<Integer, String>> listMap = createResultTable().asIndexMaps(true);
+    Assert.assertEquals(3, listMap.size());
+    final Map<Integer, String> heading = new HashMap<>();
+    heading.put(0, "ID");
+    heading.put(1, "Name");
+    heading.put(2, "URL");
+    Assert.assertEquals(heading, listMap.get(0));
+    final Map<Integer, String> record = new HashMap<>();
+    record.put(0, "2");
+    record.put(1, null);
+    record.put(2, "http://two");
+    Assert.assertEquals(record, listMap.get(2));
+    Assert.assertTrue(listMap.get(2).containsKey(1));
+    Assert.assertNull(listMap.get(1).get(3));
+  }
+
+  @Test
+  public void stringMapsMatchTheOldShape() {
+    final List<Map<String, String>> listMap = createResultTable().asStringMaps(false);
+    Assert.assertEquals(2, listMap.size());
+    final Map<String, String> record = new HashMap<>();
+    record.put("ID", "1");
+    record.put("Name", "First");
+    record.put("URL", "http://one");
+    Assert.assertEquals(record, listMap.get(0));
+    Assert.assertEquals("URL", createResultTable().asStringMaps(true).get(0).get("URL"));
+    Assert.assertThrows(UnsupportedOperationException.class, () -> listMap.get(0).put("ID", "3"));
+  }
+
+  @Test
+  public void duplicateColumnNamesKeepTheLastValue() {
+    final ResultTable resultTable =
+        new ResultTable(
+            new ColumnIndex(Arrays.asList("Name", "Name")),
+            List.<String[]>of(new String[] {"first", "last"}));
+    final Map<String, String> record = resultTable.asStringMaps(false).get(0);
+    Assert.assertEquals(1, record.size());
+    Assert.assertEquals("last", record.get("Name"));
+    Assert.assertEquals("{Name=last}", record.toString());
+  }
+}
@@ -13,15 +13,18 @@
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 public class SQL {
   private static final String DATABASE_DEFINITION = "QAAuto";
@@ -31,6 +34,24 @@ public class SQL {
   private static final String TABLE_ENVIRONMENTS = "tblEnvironments";
   private static final String TABLE_PSTAR = "tblDOM_PSTAR_Service_Accounts";
   private static final String TABLE_SUBMISSIONLOG = "tblSubmissionLog";
+  public static final String PROPERTY_LOOKUP_CACHE_SIZE = "jdbc.lookupCache.maxSize";
+  public static final String PROPERTY_LOOKUP_CACHE_TTL_SECONDS = "jdbc.lookupCache.ttlSeconds";
+  private static final LookupCache<String> LOOKUP_STRINGS = createLookupCache("SQL Values");
+  private static final LookupCache<Map<String, String>> LOOKUP_MAPS =
+      createLookupCache("SQL Records");
+
+  @FunctionalInterface
+  private interface RowReader<T> {
+    T read(ResultSet resultSet) throws SQLException;
+  }
+
+  private static <V> LookupCache<V> createLookupCache(String name) {
+    return new LookupCache<>(
+        name,
+        Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_LOOKUP_CACHE_SIZE, "1000")),
+        Long.parseLong(JavaHelpers.readPropertyOrEnv(PROPERTY_LOOKUP_CACHE_TTL_SECONDS, "300")),
+        TimeUnit.SECONDS);
+  }
 
   public int exUpdateDbUserToAdmin(String eMail) {
     String sql =
@@ -323,6 +344,45 @@ public static int addPSTARPDFCompareRecord(String table, Map<String, String> map
     return addDBRecord(table, map);
   }
 
+  /**
+   * Inserts the records into the QAAuto database with a {@link BatchWriter}.
+   *
+   * @param tableName table to insert into
+   * @param recordList records to insert
+   * @return number of records inserted
+   * @throws SQLException if a batch fails; the uncommitted records are rolled back
+   */
+  public static long insertRecords(String tableName, List<Map<String, String>> recordList)
+      throws SQLException {
+    Environment.sysOut("INSERTING [" + recordList.size() + "] RECORD(S) INTO [" + tableName + "]");
+    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
+    try (BatchWriter batchWriter = new BatchWriter(jdbc.getDbParameters())) {
+      batchWriter.addAll(tableName, recordList);
+      batchWriter.commit();
+      return batchWriter.getRowsInserted();
+    }
+  }
+
+  /**
+   * Inserts the records into the QAAuto database with a {@link BatchWriter} as the source produces
+   * them, so only one batch is held in memory at a time.
+   *
+   * @param tableName table to insert into
+   * @param recordSource reads the records
+   * @return number of records inserted
+   * @throws Throwable if reading fails or a batch fails; the uncommitted records are rolled back
+   */
+  public static long insertRecords(String tableName, BatchWriter.RecordSource recordSource)
+      throws Throwable {
+    Environment.sysOut("INSERTING RECORD(S) INTO [" + tableName + "]");
+    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
+    try (BatchWriter batchWriter = new BatchWriter(jdbc.getDbParameters())) {
+      recordSource.produce(record -> batchWriter.add(tableName, record));
+      batchWriter.commit();
+      return batchWriter.getRowsInserted();
+    }
+  }
+
   public static Connection createDatabaseSQLite(String fileName) throws Throwable {
     final String url = "jdbc:sqlite:" + fileName;
     Class.forName("org" + IExtension.SQLITE + IExtension.JDBC);
@@ -467,19 +527,19 @@ public static String getCompanyNumber(String company) throws SQLException {
             + JDBCConstants.WHERE
             + "UPPER(["
             + TABLE_COMPANY
-            + "].[Abbreviation]) = '"
-            + company.toUpperCase(Locale.ENGLISH)
-            + "';";
+            + "].[Abbreviation]) = ?;";
+    final String companyUpper = company.toUpperCase(Locale.ENGLISH);
     String companyNumber = "";
-    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
-    try (ResultSet resultSet = jdbc.queryResults(sql)) {
-      if (resultSet != null) {
-        companyNumber = resultSet.getString("Number");
+    try {
+      companyNumber =
+          LOOKUP_STRINGS.get(
+              "CompanyNumber|" + companyUpper,
+              () -> queryFirstRow(sql, resultSet -> resultSet.getString("Number"), companyUpper));
+      if (companyNumber == null) {
+        companyNumber = "";
       }
     } catch (final SQLException e) {
       Environment.sysOut(e.getMessage());
-    } finally {
-      jdbc.close();
     }
     Environment.sysOut("Value [" + companyNumber + "]");
     return companyNumber;
@@ -504,8 +564,18 @@ public static String getCompanyNumber(String company) throws SQLException {
   //
   public static Map<String, String> getPDFCompare(String company, String environment)
       throws SQLException, ClassNotFoundException {
+    final Map<String, String> map =
+        new HashMap<>(
+            LOOKUP_MAPS.get(
+                "PDFCompare|" + company + "|" + environment,
+                () -> queryPDFCompare(company, environment)));
+    Environment.sysOut(map);
+    return map;
+  }
+
+  private static Map<String, String> queryPDFCompare(String company, String environment)
+      throws SQLException {
     final Map<String, String> map = new HashMap<>();
-    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
     // Get the Company Number and FilenetSplit.
     String sql =
         JDBCConstants.SELECT
@@ -519,14 +589,19 @@ public static Map<String, String> getPDFCompare(String company, String environme
             + JDBCConstants.WHERE
             + "["
             + TABLE_COMPANY
-            + "].[Abbreviation]='"
-            + company
-            + "';";
-    try (ResultSet resultSet = jdbc.queryResults(sql)) {
-      if (resultSet != null) {
-        map.put("CompanyNumber", resultSet.getString("Number"));
-        map.put("FilenetSplit", resultSet.getString("FilenetSplit"));
-      }
+            + "].[Abbreviation]=?;";
+    final Map<String, String> companyMap =
+        queryFirstRow(
+            sql,
+            resultSet -> {
+              final Map<String, String> row = new HashMap<>();
+              row.put("CompanyNumber", resultSet.getString("Number"));
+              row.put("FilenetSplit", resultSet.getString("FilenetSplit"));
+              return row;
+            },
+            company);
+    if (companyMap != null) {
+      map.putAll(companyMap);
     }
     // Get the WSDL.
     sql =
@@ -541,28 +616,33 @@ public static Map<String, String> getPDFCompare(String company, String environme
             + JDBCConstants.WHERE
             + "["
             + TABLE_ENVIRONMENTS
-            + "].[Environment]='"
-            + environment
-            + "'";
-    if (!"".equals(environment)) {
-      sql +=
-          " " + JDBCConstants.AND + "[" + TABLE_ENVIRONMENTS + "].[Abbreviation]='" + company + "'";
+            + "].[Environment]=?";
+    final String wsdl;
+    if ("".equals(environment)) {
+      wsdl = queryFirstRow(sql, resultSet -> resultSet.getString("WSDL"), environment);
+    } else {
+      sql += " " + JDBCConstants.AND + "[" + TABLE_ENVIRONMENTS + "].[Abbreviation]=?";
+      wsdl = queryFirstRow(sql, resultSet -> resultSet.getString("WSDL"), environment, company);
     }
-    try (ResultSet resultSet2 = jdbc.queryResults(sql)) {
-      if (resultSet2 != null) {
-        map.put("WSDL", resultSet2.getString("WSDL"));
-      }
-    } finally {
-      jdbc.close();
+    if (wsdl != null) {
+      map.put("WSDL", wsdl);
     }
-    Environment.sysOut(map);
     return map;
   }
 
   public static Map<String, String> getPSTARInfo(String company)
       throws SQLException, ClassNotFoundException {
-    final Map<String, String> map = new HashMap<>();
-    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
+    final String companyUpper = company.toUpperCase(Locale.ENGLISH);
+    try {
+      return new HashMap<>(
+          LOOKUP_MAPS.get("PSTARInfo|" + companyUpper, () -> queryPSTARInfo(companyUpper)));
+    } catch (final SQLException e) {
+      Environment.sysOut(e.getMessage());
+      return new HashMap<>();
+    }
+  }
+
+  private static Map<String, String> queryPSTARInfo(String companyUpper) throws SQLException {
     // Get the FilenetSplit, Number, Service_Account, Service_Account
     // Password UserID & Filenet Password.
     // String sql = JDBCConstants.SELECT+"c.[Abbreviation],
@@ -578,73 +658,44 @@ public static Map<String, String> getPSTARInfo(String company)
     sql += "c.[Abbreviation] = p.[Abbreviation] ";
     sql += "LEFT JOIN [" + TABLE_FILENET + "] f " + JDBCConstants.ON;
     sql += "c.[FilenetSplit] = f.[FilenetSplit] ";
-    sql += JDBCConstants.WHERE + "c.[Abbreviation]='" + company.toUpperCase(Locale.ENGLISH) + "';";
-    try (ResultSet resultSet = jdbc.queryResults(sql)) {
-      if (resultSet != null) {
-        map.put("FilenetSplit", resultSet.getString("FilenetSplit"));
-        Environment.sysOut("FilenetSplit:[" + map.get("FilenetSplit") + "]");
-        map.put("Number", resultSet.getString("Number"));
-        Environment.sysOut("Company Number:[" + map.get("Number") + "]");
-        map.put("Service_Account", resultSet.getString("Service_Account"));
-        Environment.sysOut("Service_Account:[" + map.get("Service_Account") + "]");
-        map.put("pPassword", resultSet.getString("pPassword"));
-        map.put("UserID", resultSet.getString("UserID"));
-        Environment.sysOut("UserID:[" + map.get("UserID") + "]");
-        if (map.get("UserID") == null) {
-          map.put("UserID", "");
-          Environment.sysOut("UserID:[" + map.get("UserID") + "]");
-          map.put("fPassword", "");
-        } else {
-          map.put("fPassword", resultSet.getString("fPassword"));
-        }
-      }
-    } catch (final SQLException e) {
-      Environment.sysOut(e.getMessage());
-    } finally {
-      jdbc.close();
-    }
-    return map;
+    sql += JDBCConstants.WHERE + "c.[Abbreviation]=?;";
+    final Map<String, String> map =
+        queryFirstRow(
+            sql,
+            resultSet -> {
+              final Map<String, String> row = new HashMap<>();
+              row.put("FilenetSplit", resultSet.getString("FilenetSplit"));
+              Environment.sysOut("FilenetSplit:[" + row.get("FilenetSplit") + "]");
+              row.put("Number", resultSet.getString("Number"));
+              Environment.sysOut("Company Number:[" + row.get("Number") + "]");
+              row.put("Service_Account", resultSet.getString("Service_Account"));
+              Environment.sysOut("Service_Account:[" + row.get("Service_Account") + "]");
+              row.put("pPassword", resultSet.getString("pPassword"));
+              row.put("UserID", resultSet.getString("UserID"));
+              Environment.sysOut("UserID:[" + row.get("UserID") + "]");
+              if (row.get("UserID") == null) {
+                row.put("UserID", "");
+                Environment.sysOut("UserID:[" + row.get("UserID") + "]");
+                row.put("fPassword", "");
+              } else {
+                row.put("fPassword", resultSet.getString("fPassword"));
+              }
+              return row;
+            },
+            companyUpper);
+    return map == null ? new HashMap<>() : map;
   }
 
   public static String getURL(String company, String environment)
       throws SQLException, ClassNotFoundException {
-    // final String sql = JDBCConstants.SELECT+"[URL]
-    // "+JDBCConstants.FROM+"[tblURLs]
-    // "+JDBCConstants.WHERE+"[ABBREVIATION] = '" + company + "'
-    // " +
-    // Java 17: Text block for cleaner SQL query construction
-    String sql =
-            """
-        %s[%s].[URL] %s[%s] %s[%s].[Environment]='%s'%s
-        """
-            .formatted(
-                JDBCConstants.SELECT,
-                TABLE_ENVIRONMENTS,
-                JDBCConstants.FROM,
-                TABLE_ENVIRONMENTS,
-                JDBCConstants.WHERE,
-                TABLE_ENVIRONMENTS,
-                environment,
-                (!"".equals(company)
-                    ? " "
-                        + JDBCConstants.AND
-                        + "["
-                        + TABLE_ENVIRONMENTS
-                        + "].[Abbreviation]='"
-                        + company
-                        + "'"
-                    : ""))
-            .trim();
     String url = null;
-    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
-    try (ResultSet resultSet = jdbc.queryResults(sql)) {
-      if (resultSet != null) {
-        url = resultSet.getString("URL");
-      }
+    try {
+      url =
+          LOOKUP_STRINGS.get(
+              "URL|" + company + "|" + environment,
+              () -> queryEnvironmentField("URL", company, environment));
     } catch (final SQLException e) {
       Environment.sysOut(e.getMessage());
-    } finally {
-      jdbc.close();
     }
     Environment.sysOut("Value [" + url + "]");
     return url;
@@ -652,42 +703,74 @@ public static String getURL(String company, String environment)
 
   public static String getUserName(String company, String environment)
       throws SQLException, ClassNotFoundException {
+    String userName = null;
+    try {
+      userName =
+          LOOKUP_STRINGS.get(
+              "UserName|" + company + "|" + environment,
+              () -> queryEnvironmentField("UserName", company, environment));
+    } catch (final SQLException e) {
+      Environment.sysOut(e.getMessage());
+    }
+    Environment.sysOut("Value [" + userName + "]");
+    return userName;
+  }
+
+  private static String queryEnvironmentField(String field, String company, String environment)
+      throws SQLException {
     // Java 17: Text block for cleaner SQL query construction
-    String sql =
-            """
-        %s[%s].[UserName] %s[%s] %s[%s].[Environment]='%s'%s
+    final String sql =
+        """
+        %s[%s].[%s] %s[%s] %s[%s].[Environment]=?%s
         """
             .formatted(
                 JDBCConstants.SELECT,
                 TABLE_ENVIRONMENTS,
+                field,
                 JDBCConstants.FROM,
                 TABLE_ENVIRONMENTS,
                 JDBCConstants.WHERE,
                 TABLE_ENVIRONMENTS,
-                environment,
                 (!"".equals(company)
-                    ? " "
-                        + JDBCConstants.AND
-                        + "["
-                        + TABLE_ENVIRONMENTS
-                        + "].[Abbreviation]='"
-                        + company
-                        + "'"
+                    ? " " + JDBCConstants.AND + "[" + TABLE_ENVIRONMENTS + "].[Abbreviation]=?"
                     : ""))
             .trim();
-    String userName = null;
-    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
-    try (ResultSet resultSet = jdbc.queryResults(sql)) {
-      if (resultSet != null) {
-        userName = resultSet.getString("UserName");
+    if ("".equals(company)) {
+      return queryFirstRow(sql, resultSet -> resultSet.getString(field), environment);
+    }
+    return queryFirstRow(sql, resultSet -> resultSet.getString(field), environment, company);
+  }
+
+  /**
+   * Runs a parameterized query through the connection pool's prepared-statement cache and reads its
+   * first row.
+   *
+   * @return the value read from the first row, or {@code null} if there is no row
+   */
+  private static <T> T queryFirstRow(String sql, RowReader<T> rowReader, String... parameters)
+      throws SQLException {
+    Environment.sysOut("sql:[" + sql + "], parameters:" + Arrays.toString(parameters));
+    final DBParameters dbParameters = new JDBC("", DATABASE_DEFINITION).getDbParameters();
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection()) {
+      final PreparedStatement preparedStatement = PooledDataSource.prepareCached(connection, sql);
+      for (int index = 0; index < parameters.length; index++) {
+        preparedStatement.setString(index + 1, parameters[index]);
+      }
+      try (ResultSet resultSet = preparedStatement.executeQuery()) {
+        return resultSet.next() ? rowReader.read(resultSet) : null;
       }
-    } catch (final SQLException e) {
-      Environment.sysOut(e.getMessage());
-    } finally {
-      jdbc.close();
     }
-    Environment.sysOut("Value [" + userName + "]");
-    return userName;
+  }
+
+  /** Cache hit and miss counts of the reference lookups. */
+  public static String getLookupCacheMetrics() {
+    return LOOKUP_STRINGS.getMetrics() + Constants.NEWLINE + LOOKUP_MAPS.getMetrics();
+  }
+
+  /** Forgets every cached reference lookup, e.g. after the reference tables are edited. */
+  public static void clearLookupCaches() {
+    LOOKUP_STRINGS.clear();
+    LOOKUP_MAPS.clear();
   }
 
   public static String getUniqueString(String database, String sql) {
@@ -0,0 +1,236 @@
+package com.cjs.qa.jdbc;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.IExtension;
+import com.cjs.qa.utilities.JavaHelpers;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.sqlite.SQLiteConnection;
+
+/**
+ * Backup, compaction and backup retention for a SQLite database, done in-process so it works on any
+ * platform and never holds the database for long.
+ *
+ * <ul>
+ *   <li>{@link #backup(File)} copies the database page by page with the SQLite online backup API,
+ *       pausing between steps so writers can get in
+ *   <li>{@link #incrementalVacuum()} returns free pages to the file system a bounded number at a
+ *       time with {@code auto_vacuum=INCREMENTAL}, instead of a full {@code VACUUM}
+ *   <li>{@link #pruneBackups(File, String, int, int)} deletes backups outside the retention policy
+ * </ul>
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code jdbc.sqlite.backup.pagesPerStep} - pages copied per backup step (default 256)
+ *   <li>{@code jdbc.sqlite.backup.pauseMillis} - pause between backup steps (default 10)
+ *   <li>{@code jdbc.sqlite.vacuum.pagesPerStep} - pages freed per vacuum step (default 1000)
+ *   <li>{@code jdbc.sqlite.vacuum.maxMillis} - time budget of one {@link #incrementalVacuum()}
+ *       (default 10000)
+ * </ul>
+ */
+public class SQLiteMaintenance {
+  public static final String PROPERTY_BACKUP_PAGES_PER_STEP = "jdbc.sqlite.backup.pagesPerStep";
+  public static final String PROPERTY_BACKUP_PAUSE_MILLIS = "jdbc.sqlite.backup.pauseMillis";
+  public static final String PROPERTY_VACUUM_PAGES_PER_STEP = "jdbc.sqlite.vacuum.pagesPerStep";
+  public static final String PROPERTY_VACUUM_MAX_MILLIS = "jdbc.sqlite.vacuum.maxMillis";
+  private static final int AUTO_VACUUM_INCREMENTAL = 2;
+  // Busy retries of a backup step before giving up, and the wait between them.
+  private static final int BACKUP_BUSY_RETRIES = 100;
+  private static final int BACKUP_BUSY_SLEEP_MILLIS = 100;
+
+  private final DBParameters dbParameters;
+
+  public SQLiteMaintenance(DBParameters dbParameters) {
+    if (!EDBDriver.SQLITE.name().equals(dbParameters.getType())) {
+      throw new IllegalArgumentException(
+          "Database:[" + dbParameters.getName() + "] is not a SQLite database");
+    }
+    this.dbParameters = dbParameters;
+  }
+
+  /**
+   * Copies the whole database into {@code backupFile} with the online backup API. Other connections
+   * can keep reading and writing; a write from another connection makes SQLite restart the copy
+   * from the changed pages.
+   *
+   * @param backupFile file to write; replaced if it exists
+   * @return {@code backupFile}
+   * @throws SQLException if the backup fails
+   */
+  public File backup(File backupFile) throws SQLException {
+    final int pagesPerStep =
+        Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_BACKUP_PAGES_PER_STEP, "256"));
+    final long pauseMillis =
+        Long.parseLong(JavaHelpers.readPropertyOrEnv(PROPERTY_BACKUP_PAUSE_MILLIS, "10"));
+    final long start = System.currentTimeMillis();
+    final int[] pageCount = new int[1];
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection()) {
+      final int resultCode =
+          connection
+              .unwrap(SQLiteConnection.class)
+              .getDatabase()
+              .backup(
+                  "main",
+                  backupFile.getAbsolutePath(),
+                  (remaining, pages) -> {
+                    pageCount[0] = pages;
+                    // The source is only locked while a step runs; give writers a turn.
+                    if (remaining > 0 && pauseMillis > 0) {
+                      pause(pauseMillis);
+                    }
+                  },
+                  BACKUP_BUSY_SLEEP_MILLIS,
+                  BACKUP_BUSY_RETRIES,
+                  pagesPerStep);
+      if (resultCode != 0) {
+        throw new SQLException(
+            "Backup of ["
+                + dbParameters.getName()
+                + "] to ["
+                + backupFile.getAbsolutePath()
+                + "] failed with SQLite result code ["
+                + resultCode
+                + "]");
+      }
+    }
+    Environment.sysOut(
+        "Backup:["
+            + dbParameters.getName()
+            + "] to ["
+            + backupFile.getAbsolutePath()
+            + "], Pages:["
+            + pageCount[0]
+            + "], Time:["
+            + (System.currentTimeMillis() - start)
+            + " ms]");
+    return backupFile;
+  }
+
+  private static void pause(long millis) {
+    try {
+      TimeUnit.MILLISECONDS.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Switches the database to {@code auto_vacuum=INCREMENTAL}. An existing database only takes the
+   * new mode after one full {@code VACUUM}, which is run here once; afterwards this does nothing.
+   *
+   * @return {@code true} if the database was converted
+   * @throws SQLException if a pragma or the conversion fails
+   */
+  public boolean enableIncrementalVacuum() throws SQLException {
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection();
+        Statement statement = connection.createStatement()) {
+      if (queryInt(statement, "PRAGMA auto_vacuum;") == AUTO_VACUUM_INCREMENTAL) {
+        return false;
+      }
+      Environment.sysOut("Converting:[" + dbParameters.getName() + "] to auto_vacuum=INCREMENTAL");
+      statement.execute("PRAGMA auto_vacuum=INCREMENTAL;");
+      statement.execute("VACUUM;");
+      return queryInt(statement, "PRAGMA auto_vacuum;") == AUTO_VACUUM_INCREMENTAL;
+    }
+  }
+
+  /**
+   * Frees the database's unused pages in steps of {@code jdbc.sqlite.vacuum.pagesPerStep}, each in
+   * its own short transaction, until none are left or {@code jdbc.sqlite.vacuum.maxMillis} has
+   * passed. Does nothing unless {@link #enableIncrementalVacuum()} has been run.
+   *
+   * @return the number of pages freed
+   * @throws SQLException if a pragma fails
+   */
+  public int incrementalVacuum() throws SQLException {
+    final int pagesPerStep =
+        Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_VACUUM_PAGES_PER_STEP, "1000"));
+    final long maxMillis =
+        Long.parseLong(JavaHelpers.readPropertyOrEnv(PROPERTY_VACUUM_MAX_MILLIS, "10000"));
+    final long start = System.currentTimeMillis();
+    int pagesFreed = 0;
+    int steps = 0;
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection();
+        Statement statement = connection.createStatement()) {
+      if (queryInt(statement, "PRAGMA auto_vacuum;") != AUTO_VACUUM_INCREMENTAL) {
+        Environment.sysOut(
+            "Database:[" + dbParameters.getName() + "] is not in auto_vacuum=INCREMENTAL mode");
+        return 0;
+      }
+      int freePages = queryInt(statement, "PRAGMA freelist_count;");
+      while (freePages > 0 && System.currentTimeMillis() - start < maxMillis) {
+        // executeUpdate steps the pragma to completion; execute would free only one page.
+        statement.executeUpdate("PRAGMA incremental_vacuum(" + pagesPerStep + ");");
+        steps++;
+        final int freePagesAfter = queryInt(statement, "PRAGMA freelist_count;");
+        pagesFreed += freePages - freePagesAfter;
+        if (freePagesAfter >= freePages) {
+          break;
+        }
+        freePages = freePagesAfter;
+      }
+    }
+    Environment.sysOut(
+        "Incremental Vacuum:["
+            + dbParameters.getName()
+            + "], Pages Freed:["
+            + pagesFreed
+            + "], Steps:["
+            + steps
+            + "], Time:["
+            + (System.currentTimeMillis() - start)
+            + " ms]");
+    return pagesFreed;
+  }
+
+  private static int queryInt(Statement statement, String sql) throws SQLException {
+    try (ResultSet resultSet = statement.executeQuery(sql)) {
+      return resultSet.next() ? resultSet.getInt(1) : 0;
+    }
+  }
+
+  /**
+   * Deletes the {@code .bak} files in {@code folder} whose names start with {@code prefix}, except
+   * the newest {@code keepCount} and any modified within the last {@code keepDays} days.
+   *
+   * @param folder backup folder
+   * @param prefix file name prefix; empty for every backup
+   * @param keepCount newest backups always kept
+   * @param keepDays backups younger than this are always kept
+   * @return the deleted files
+   */
+  public static List<File> pruneBackups(File folder, String prefix, int keepCount, int keepDays) {
+    final List<File> deletedList = new ArrayList<>();
+    final File[] files =
+        folder.listFiles(
+            file ->
+                file.isFile()
+                    && file.getName().startsWith(prefix)
+                    && file.getName().toLowerCase(Locale.ENGLISH).endsWith(IExtension.BAK));
+    if (files == null) {
+      return deletedList;
+    }
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+    final long cutOff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(keepDays);
+    for (int fileIndex = 0; fileIndex < files.length; fileIndex++) {
+      final File file = files[fileIndex];
+      if (fileIndex < keepCount || file.lastModified() >= cutOff) {
+        Environment.sysOut("Preserved filePathName:[" + file.getAbsolutePath() + "]");
+      } else if (file.delete()) {
+        Environment.sysOut("Deleted filePathName:[" + file.getAbsolutePath() + "]");
+        deletedList.add(file);
+      }
+    }
+    return deletedList;
+  }
+}
@@ -0,0 +1,87 @@
+package com.cjs.qa.jdbc;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SQLiteMaintenanceTest {
+
+  private static JDBC createJDBC(String name) throws Exception {
+    final JDBC jdbc = TempSQLite.newJDBC(name);
+    jdbc.executeUpdate("create table [t_Data] ([ID] INTEGER, [Text] TEXT)", false);
+    jdbc.executeUpdate(
+        "insert into [t_Data] with recursive [n]([i]) as (select 1 union all select [i]+1 from [n]"
+            + " where [i]<5000) select [i],printf('%.500c','x') from [n]",
+        false);
+    return jdbc;
+  }
+
+  @Test
+  public void backupCopiesTheDatabase() throws Exception {
+    final JDBC jdbc = createJDBC("SQLiteMaintenanceBackup");
+    final File backupFile = File.createTempFile("SQLiteMaintenanceBackup", ".bak");
+    backupFile.deleteOnExit();
+    System.setProperty(SQLiteMaintenance.PROPERTY_BACKUP_PAGES_PER_STEP, "50");
+    try {
+      new SQLiteMaintenance(jdbc.getDbParameters()).backup(backupFile);
+    } finally {
+      System.clearProperty(SQLiteMaintenance.PROPERTY_BACKUP_PAGES_PER_STEP);
+    }
+    try (Connection connection =
+            DriverManager.getConnection("jdbc:sqlite:" + backupFile.getAbsolutePath());
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("select count(*) from [t_Data]")) {
+      resultSet.next();
+      Assert.assertEquals(5000, resultSet.getInt(1));
+    }
+  }
+
+  @Test
+  public void incrementalVacuumShrinksTheFile() throws Exception {
+    final JDBC jdbc = createJDBC("SQLiteMaintenanceVacuum");
+    final SQLiteMaintenance sqliteMaintenance = new SQLiteMaintenance(jdbc.getDbParameters());
+    Assert.assertEquals(0, sqliteMaintenance.incrementalVacuum());
+    Assert.assertTrue(sqliteMaintenance.enableIncrementalVacuum());
+    Assert.assertFalse(sqliteMaintenance.enableIncrementalVacuum());
+    jdbc.executeUpdate("delete from [t_Data]", false);
+    final File file = new File(jdbc.getDbParameters().getName());
+    final long sizeBefore = file.length();
+    System.setProperty(SQLiteMaintenance.PROPERTY_VACUUM_PAGES_PER_STEP, "100");
+    try {
+      Assert.assertTrue(sqliteMaintenance.incrementalVacuum() > 100);
+    } finally {
+      System.clearProperty(SQLiteMaintenance.PROPERTY_VACUUM_PAGES_PER_STEP);
+    }
+    Assert.assertTrue(file.length() < sizeBefore);
+  }
+
+  @Test
+  public void pruneBackupsKeepsNewestAndRecentFiles() throws Exception {
+    final File folder = Files.createTempDirectory("SQLiteMaintenancePrune").toFile();
+    folder.deleteOnExit();
+    final long now = System.currentTimeMillis();
+    for (int day = 0; day < 6; day++) {
+      final File file = new File(folder, "QAAuto_" + day + ".bak");
+      Files.writeString(file.toPath(), String.valueOf(day));
+      file.setLastModified(now - TimeUnit.DAYS.toMillis(day) - 1000);
+      file.deleteOnExit();
+    }
+    final File other = new File(folder, "Other_9.bak");
+    Files.writeString(other.toPath(), "9");
+    other.setLastModified(now - TimeUnit.DAYS.toMillis(9));
+    other.deleteOnExit();
+    final List<File> deletedList = SQLiteMaintenance.pruneBackups(folder, "QAAuto_", 2, 3);
+    Assert.assertEquals(3, deletedList.size());
+    Assert.assertFalse(new File(folder, "QAAuto_3.bak").exists());
+    Assert.assertFalse(new File(folder, "QAAuto_5.bak").exists());
+    Assert.assertTrue(new File(folder, "QAAuto_2.bak").exists());
+    Assert.assertTrue(other.exists());
+  }
+}
@@ -0,0 +1,313 @@
+package com.cjs.qa.jdbc;
+
+import com.cjs.qa.utilities.JavaHelpers;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in concurrent-safe write mode for SQLite databases.
+ *
+ * <p>SQLite allows one writer at a time, so parallel test methods writing through {@link
+ * JDBC#executeUpdate(String, boolean)} collide with {@code SQLITE_BUSY}. With {@code
+ * jdbc.sqlite.wal=true}:
+ *
+ * <ul>
+ *   <li>pooled SQLite connections switch to WAL journaling with {@code synchronous=NORMAL} and a
+ *       busy timeout, so readers keep reading while a write is in progress
+ *   <li>writes from every thread are queued to one writer thread per database, which commits up to
+ *       {@code jdbc.sqlite.groupCommitSize} (default 200) queued statements in a single transaction
+ * </ul>
+ *
+ * <p>If a statement in a group fails, the group is rolled back and its statements are retried one
+ * transaction each, so only the caller of the failing statement sees the error.
+ */
+public final class SQLiteWriter {
+  public static final String PROPERTY_WAL = "jdbc.sqlite.wal";
+  public static final String PROPERTY_BUSY_TIMEOUT_MILLIS = "jdbc.sqlite.busyTimeoutMillis";
+  public static final String PROPERTY_GROUP_COMMIT_SIZE = "jdbc.sqlite.groupCommitSize";
+  private static final Map<String, SQLiteWriter> WRITERS = new ConcurrentHashMap<>();
+
+  private final DBParameters dbParameters;
+  private final int groupCommitSize;
+  private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+  private final Thread writerThread;
+  private final AtomicLong statementCount = new AtomicLong();
+  private final AtomicLong groupCount = new AtomicLong();
+  private final AtomicLong retriedGroupCount = new AtomicLong();
+  private final AtomicLong maxGroupSize = new AtomicLong();
+  // Held while checking closed and queueing, so nothing is queued after the writer has drained.
+  private final Object queueLock = new Object();
+  private volatile boolean closed = false;
+
+  private record PendingWrite(String sql, CompletableFuture<Integer> future) {}
+
+  private SQLiteWriter(DBParameters dbParameters) {
+    this.dbParameters = dbParameters;
+    this.groupCommitSize =
+        Math.max(
+            1, Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_GROUP_COMMIT_SIZE, "200")));
+    this.writerThread = new Thread(this::run, "sqlite-writer-" + dbParameters.getName());
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * @param dbParameters database definition
+   * @return {@code true} if {@code jdbc.sqlite.wal} is set and the database is SQLite
+   */
+  public static boolean isEnabled(DBParameters dbParameters) {
+    return EDBDriver.SQLITE.name().equals(dbParameters.getType())
+        && Boolean.parseBoolean(JavaHelpers.readPropertyOrEnv(PROPERTY_WAL, "false"));
+  }
+
+  /**
+   * Applies the WAL pragmas to a new physical connection. Does nothing unless {@link
+   * #isEnabled(DBParameters)}.
+   *
+   * @param dbParameters database the connection belongs to
+   * @param connection a new, unpooled connection
+   * @throws SQLException if a pragma fails
+   */
+  public static void applyPragmas(DBParameters dbParameters, Connection connection)
+      throws SQLException {
+    if (!isEnabled(dbParameters)) {
+      return;
+    }
+    final String busyTimeoutMillis =
+        JavaHelpers.readPropertyOrEnv(PROPERTY_BUSY_TIMEOUT_MILLIS, "5000");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("PRAGMA journal_mode=WAL;");
+      statement.execute("PRAGMA synchronous=NORMAL;");
+      statement.execute("PRAGMA busy_timeout=" + Integer.parseInt(busyTimeoutMillis) + ";");
+      statement.execute("PRAGMA temp_store=MEMORY;");
+    }
+  }
+
+  /**
+   * Returns the writer for the given database, starting its thread on first use.
+   *
+   * @param dbParameters SQLite database definition
+   * @return the shared writer for the connection string of {@code dbParameters}
+   */
+  public static SQLiteWriter getInstance(DBParameters dbParameters) {
+    return WRITERS.compute(
+        dbParameters.getConnectionString(),
+        (key, writer) -> writer == null || writer.closed ? new SQLiteWriter(dbParameters) : writer);
+  }
+
+  /** Stops every writer once its queued statements have been written. */
+  public static void closeAll() {
+    for (final SQLiteWriter writer : WRITERS.values()) {
+      writer.close();
+    }
+    WRITERS.clear();
+  }
+
+  /**
+   * Queues a statement for the writer thread.
+   *
+   * @param sql INSERT, UPDATE, DELETE or DDL
+   * @return completes with the update count once the statement's group is committed
+   */
+  public CompletableFuture<Integer> submit(String sql) {
+    final CompletableFuture<Integer> future = new CompletableFuture<>();
+    synchronized (queueLock) {
+      if (!closed) {
+        queue.add(new PendingWrite(sql, future));
+        return future;
+      }
+    }
+    future.completeExceptionally(
+        new SQLException("SQLite writer for [" + dbParameters.getName() + "] has been closed"));
+    return future;
+  }
+
+  /**
+   * Queues a statement and waits for it to be committed.
+   *
+   * @param sql INSERT, UPDATE, DELETE or DDL
+   * @return the update count
+   * @throws SQLException if the statement fails or the wait is interrupted
+   */
+  public int executeUpdate(String sql) throws SQLException {
+    return await(submit(sql));
+  }
+
+  /**
+   * Queues all statements, then waits for every one of them to be committed.
+   *
+   * @param sqlList statements in the order they should run
+   * @return the total update count
+   * @throws SQLException if any statement fails; the others are still written
+   */
+  public int executeUpdates(List<String> sqlList) throws SQLException {
+    final List<CompletableFuture<Integer>> futureList = new ArrayList<>();
+    for (final String sql : sqlList) {
+      futureList.add(submit(sql));
+    }
+    int recordsUpdated = 0;
+    SQLException sqlException = null;
+    for (final CompletableFuture<Integer> future : futureList) {
+      try {
+        recordsUpdated += await(future);
+      } catch (final SQLException e) {
+        if (sqlException == null) {
+          sqlException = e;
+        }
+      }
+    }
+    if (sqlException != null) {
+      throw sqlException;
+    }
+    return recordsUpdated;
+  }
+
+  private static int await(CompletableFuture<Integer> future) throws SQLException {
+    try {
+      return future.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for the SQLite writer", e);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof SQLException sqlException) {
+        throw sqlException;
+      }
+      throw new SQLException(e.getCause());
+    }
+  }
+
+  /** Writes what is already queued, then stops the writer thread. */
+  public void close() {
+    synchronized (queueLock) {
+      closed = true;
+    }
+    writerThread.interrupt();
+    try {
+      writerThread.join(30000);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    final List<PendingWrite> group = new ArrayList<>();
+    try {
+      while (!closed || !queue.isEmpty()) {
+        try {
+          group.add(queue.take());
+        } catch (final InterruptedException e) {
+          // close() wakes the thread; anything still queued is written below.
+        }
+        queue.drainTo(group, groupCommitSize - group.size());
+        if (!group.isEmpty()) {
+          writeGroup(group);
+          group.clear();
+        }
+      }
+    } finally {
+      PendingWrite pendingWrite;
+      while ((pendingWrite = queue.poll()) != null) {
+        pendingWrite
+            .future()
+            .completeExceptionally(
+                new SQLException(
+                    "SQLite writer for [" + dbParameters.getName() + "] has been closed"));
+      }
+    }
+  }
+
+  private void writeGroup(List<PendingWrite> group) {
+    groupCount.incrementAndGet();
+    maxGroupSize.accumulateAndGet(group.size(), Math::max);
+    try {
+      final List<Integer> countList = write(group);
+      for (int index = 0; index < group.size(); index++) {
+        group.get(index).future().complete(countList.get(index));
+      }
+    } catch (final SQLException e) {
+      if (group.size() == 1) {
+        group.get(0).future().completeExceptionally(e);
+        return;
+      }
+      retriedGroupCount.incrementAndGet();
+      for (final PendingWrite pendingWrite : group) {
+        try {
+          pendingWrite.future().complete(write(List.of(pendingWrite)).get(0));
+        } catch (final SQLException retryException) {
+          pendingWrite.future().completeExceptionally(retryException);
+        }
+      }
+    } catch (final RuntimeException e) {
+      for (final PendingWrite pendingWrite : group) {
+        pendingWrite.future().completeExceptionally(e);
+      }
+    }
+  }
+
+  private List<Integer> write(List<PendingWrite> group) throws SQLException {
+    final List<Integer> countList = new ArrayList<>(group.size());
+    // Closing the pooled connection rolls back anything left uncommitted.
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection()) {
+      connection.setAutoCommit(false);
+      try (Statement statement = connection.createStatement()) {
+        for (final PendingWrite pendingWrite : group) {
+          countList.add(statement.executeUpdate(pendingWrite.sql()));
+        }
+      }
+      connection.commit();
+    }
+    statementCount.addAndGet(group.size());
+    return countList;
+  }
+
+  public long getStatementCount() {
+    return statementCount.get();
+  }
+
+  public long getGroupCount() {
+    return groupCount.get();
+  }
+
+  public long getRetriedGroupCount() {
+    return retriedGroupCount.get();
+  }
+
+  public long getMaxGroupSize() {
+    return maxGroupSize.get();
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  public String getMetrics() {
+    final long groups = getGroupCount();
+    return "SQLiteWriter:["
+        + dbParameters.getName()
+        + "] Statements:["
+        + getStatementCount()
+        + "], Groups:["
+        + groups
+        + "], Average Group:["
+        + String.format(
+            Locale.ENGLISH, "%.1f", groups == 0 ? 0 : (double) getStatementCount() / groups)
+        + "], Max Group:["
+        + getMaxGroupSize()
+        + "], Retried Groups:["
+        + getRetriedGroupCount()
+        + "], Queued:["
+        + getQueueSize()
+        + "]";
+  }
+}
@@ -0,0 +1,129 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SQLiteWriterTest {
+
+  @Before
+  public void enableWal() {
+    System.setProperty(SQLiteWriter.PROPERTY_WAL, "true");
+  }
+
+  @After
+  public void disableWal() {
+    System.clearProperty(SQLiteWriter.PROPERTY_WAL);
+  }
+
+  private static JDBC createJDBC(String name) throws Exception {
+    final JDBC jdbc = TempSQLite.newJDBC(name);
+    jdbc.executeUpdate("create table [t_Writer] ([Thread] INTEGER, [Row] INTEGER)", false);
+    return jdbc;
+  }
+
+  private static String queryString(JDBC jdbc, String sql) throws SQLException {
+    try (Connection connection =
+            PooledDataSource.getInstance(jdbc.getDbParameters()).getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(sql)) {
+      resultSet.next();
+      return resultSet.getString(1);
+    }
+  }
+
+  @Test
+  public void parallelWritesAreGroupCommitted() throws Exception {
+    final JDBC jdbc = createJDBC("SQLiteWriterParallel");
+    final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    final List<Future<Integer>> futureList = new ArrayList<>();
+    for (int thread = 0; thread < 5; thread++) {
+      final int threadNumber = thread;
+      futureList.add(
+          executorService.submit(
+              () -> {
+                int recordsUpdated = 0;
+                for (int row = 0; row < 100; row++) {
+                  recordsUpdated +=
+                      jdbc.executeUpdate(
+                          "insert into [t_Writer] values (" + threadNumber + "," + row + ")", true);
+                }
+                return recordsUpdated;
+              }));
+    }
+    for (final Future<Integer> future : futureList) {
+      Assert.assertEquals(100, (int) future.get());
+    }
+    executorService.shutdown();
+    Assert.assertEquals("500", queryString(jdbc, "select count(*) from [t_Writer]"));
+    Assert.assertEquals("wal", queryString(jdbc, "PRAGMA journal_mode;"));
+    final SQLiteWriter writer = SQLiteWriter.getInstance(jdbc.getDbParameters());
+    Assert.assertEquals(501, writer.getStatementCount());
+    Assert.assertTrue(writer.getGroupCount() <= writer.getStatementCount());
+    writer.close();
+  }
+
+  @Test
+  public void failingStatementOnlyFailsItsCaller() throws Exception {
+    final JDBC jdbc = createJDBC("SQLiteWriterFailure");
+    final SQLiteWriter writer = SQLiteWriter.getInstance(jdbc.getDbParameters());
+    final List<String> sqlList = new ArrayList<>();
+    sqlList.add("insert into [t_Writer] values (1,1)");
+    sqlList.add("insert into [t_Missing] values (1,1)");
+    sqlList.add("insert into [t_Writer] values (1,2)");
+    Assert.assertThrows(SQLException.class, () -> writer.executeUpdates(sqlList));
+    Assert.assertEquals("2", queryString(jdbc, "select count(*) from [t_Writer]"));
+    writer.close();
+    Assert.assertThrows(
+        SQLException.class, () -> writer.executeUpdate("insert into [t_Writer] values (1,3)"));
+  }
+
+  @Test
+  public void writesSubmittedWhileClosingAreWrittenOrFailed() throws Exception {
+    final JDBC jdbc = createJDBC("SQLiteWriterClosing");
+    final SQLiteWriter writer = SQLiteWriter.getInstance(jdbc.getDbParameters());
+    final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    final List<Future<List<CompletableFuture<Integer>>>> submitList = new ArrayList<>();
+    for (int thread = 0; thread < 4; thread++) {
+      final int threadNumber = thread;
+      submitList.add(
+          executorService.submit(
+              () -> {
+                final List<CompletableFuture<Integer>> futureList = new ArrayList<>();
+                for (int row = 0; row < 500; row++) {
+                  futureList.add(
+                      writer.submit(
+                          "insert into [t_Writer] values (" + threadNumber + "," + row + ")"));
+                }
+                return futureList;
+              }));
+    }
+    writer.close();
+    int written = 0;
+    for (final Future<List<CompletableFuture<Integer>>> submit : submitList) {
+      for (final CompletableFuture<Integer> future : submit.get()) {
+        try {
+          written += future.get(30, TimeUnit.SECONDS);
+        } catch (final ExecutionException e) {
+          Assert.assertTrue(e.getCause() instanceof SQLException);
+        }
+      }
+    }
+    executorService.shutdown();
+    Assert.assertEquals(
+        String.valueOf(written), queryString(jdbc, "select count(*) from [t_Writer]"));
+  }
+}
@@ -0,0 +1,240 @@
+package com.cjs.qa.jdbc;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Table and view column names for one database, loaded in a single pass and cached until DDL is
+ * issued through {@link JDBC}.
+ *
+ * <p>SQLite schemas are read with one {@code sqlite_master} / {@code pragma_table_info} join; other
+ * databases through {@link DatabaseMetaData#getColumns(String, String, String, String)}, where a
+ * table is known by its schema-qualified name ({@code schema.table}) and, in the connection's own
+ * schema, also by its bare name. Table names are matched case-insensitively. Names that are still
+ * missing after a reload are remembered as missing until the next {@link #invalidate()}.
+ */
+public final class SchemaCache {
+  private static final Map<String, SchemaCache> SCHEMA_CACHES = new ConcurrentHashMap<>();
+  private static final Pattern PATTERN_DDL =
+      Pattern.compile(
+          "\\b(CREATE|ALTER|DROP)\\s+(TEMP\\s+|TEMPORARY\\s+)?(TABLE|VIEW)\\b",
+          Pattern.CASE_INSENSITIVE);
+
+  private final DBParameters dbParameters;
+  private final AtomicLong generation = new AtomicLong();
+  private volatile Snapshot snapshot = null;
+  private final AtomicLong loadCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong invalidationCount = new AtomicLong();
+
+  /**
+   * One load of the schema, the names looked up since then and found missing, and the {@link
+   * #invalidate()} generation it was loaded in.
+   */
+  private record Snapshot(
+      long generation, Map<String, List<String>> tableColumnMap, Set<String> missingSet) {}
+
+  private SchemaCache(DBParameters dbParameters) {
+    this.dbParameters = dbParameters;
+  }
+
+  /**
+   * Returns the cache for the given database, creating it on first use.
+   *
+   * @param dbParameters database definition
+   * @return the shared cache for the connection string of {@code dbParameters}
+   */
+  public static SchemaCache getInstance(DBParameters dbParameters) {
+    return SCHEMA_CACHES.computeIfAbsent(
+        dbParameters.getConnectionString(), key -> new SchemaCache(dbParameters));
+  }
+
+  /**
+   * Drops the cached schema of the given database if {@code sql} creates, alters or drops a table
+   * or view.
+   *
+   * @param dbParameters database the statement ran against
+   * @param sql statement that was executed
+   */
+  public static void invalidateIfDDL(DBParameters dbParameters, String sql) {
+    if (sql != null && PATTERN_DDL.matcher(sql).find()) {
+      getInstance(dbParameters).invalidate();
+    }
+  }
+
+  /**
+   * @param tableName table or view name, without brackets, optionally schema-qualified
+   * @return the column names in table order, or {@code null} if the database has no such table or
+   *     view even after a reload
+   * @throws SQLException if the schema cannot be read
+   */
+  public List<String> getColumnNames(String tableName) throws SQLException {
+    final String key = tableName.toLowerCase(Locale.ENGLISH);
+    Snapshot current = getSnapshot();
+    if (current != null
+        && (current.tableColumnMap().containsKey(key) || current.missingSet().contains(key))) {
+      hitCount.incrementAndGet();
+      return current.tableColumnMap().get(key);
+    }
+    missCount.incrementAndGet();
+    // Not loaded yet, or created outside of JDBC since the last load.
+    current = load();
+    if (!current.tableColumnMap().containsKey(key)) {
+      current.missingSet().add(key);
+    }
+    return current.tableColumnMap().get(key);
+  }
+
+  /**
+   * @return every table and view name, lower case
+   * @throws SQLException if the schema cannot be read
+   */
+  public List<String> getTableNames() throws SQLException {
+    Snapshot current = getSnapshot();
+    if (current == null) {
+      current = load();
+    }
+    return new ArrayList<>(current.tableColumnMap().keySet());
+  }
+
+  /** Forgets the cached schema and missing names; the next lookup reloads it. */
+  public void invalidate() {
+    invalidationCount.incrementAndGet();
+    generation.incrementAndGet();
+    snapshot = null;
+  }
+
+  /**
+   * @return the cached snapshot, or {@code null} if none was loaded since the last {@link
+   *     #invalidate()}
+   */
+  private Snapshot getSnapshot() {
+    final Snapshot current = snapshot;
+    return current == null || current.generation() != generation.get() ? null : current;
+  }
+
+  private synchronized Snapshot load() throws SQLException {
+    // An invalidate() from here on may have changed what is read, so the load is then used once
+    // but not kept.
+    final long loadGeneration = generation.get();
+    final Map<String, List<String>> map = new LinkedHashMap<>();
+    try (Connection connection = PooledDataSource.getInstance(dbParameters).getConnection()) {
+      if (EDBDriver.SQLITE.name().equals(dbParameters.getType())) {
+        loadSQLite(connection, map);
+      } else {
+        loadMetaData(connection, map);
+      }
+    }
+    final Map<String, List<String>> unmodifiableMap = new HashMap<>();
+    for (final Map.Entry<String, List<String>> entry : map.entrySet()) {
+      unmodifiableMap.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+    }
+    final Snapshot loaded =
+        new Snapshot(
+            loadGeneration,
+            Collections.unmodifiableMap(unmodifiableMap),
+            ConcurrentHashMap.newKeySet());
+    snapshot = loaded;
+    loadCount.incrementAndGet();
+    return loaded;
+  }
+
+  private static void loadSQLite(Connection connection, Map<String, List<String>> map)
+      throws SQLException {
+    final String sql =
+        JDBCConstants.SELECT
+            + "m.[name] AS [table],p.[name] AS [field] "
+            + JDBCConstants.FROM
+            + "[sqlite_master] m JOIN pragma_table_info(m.[name]) p "
+            + JDBCConstants.WHERE
+            + "m.[type] IN ('table','view') "
+            + JDBCConstants.ORDER_BY
+            + "m.[name],p.[cid];";
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(sql)) {
+      while (resultSet.next()) {
+        map.computeIfAbsent(
+                resultSet.getString("table").toLowerCase(Locale.ENGLISH), key -> new ArrayList<>())
+            .add(resultSet.getString("field"));
+      }
+    }
+  }
+
+  private static void loadMetaData(Connection connection, Map<String, List<String>> map)
+      throws SQLException {
+    final DatabaseMetaData databaseMetaData = connection.getMetaData();
+    final String currentSchema = getSchema(connection);
+    try (ResultSet resultSet =
+        databaseMetaData.getColumns(connection.getCatalog(), null, "%", "%")) {
+      while (resultSet.next()) {
+        final String schema = resultSet.getString("TABLE_SCHEM");
+        final String table = resultSet.getString("TABLE_NAME").toLowerCase(Locale.ENGLISH);
+        final String columnName = resultSet.getString("COLUMN_NAME");
+        if (schema == null || schema.isEmpty()) {
+          map.computeIfAbsent(table, key -> new ArrayList<>()).add(columnName);
+          continue;
+        }
+        map.computeIfAbsent(
+                schema.toLowerCase(Locale.ENGLISH) + "." + table, key -> new ArrayList<>())
+            .add(columnName);
+        if (schema.equalsIgnoreCase(currentSchema)) {
+          map.computeIfAbsent(table, key -> new ArrayList<>()).add(columnName);
+        }
+      }
+    }
+  }
+
+  private static String getSchema(Connection connection) {
+    try {
+      return connection.getSchema();
+    } catch (final SQLException e) {
+      // Without the current schema only qualified names are found.
+      return null;
+    }
+  }
+
+  public long getLoadCount() {
+    return loadCount.get();
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getInvalidationCount() {
+    return invalidationCount.get();
+  }
+
+  public String getMetrics() {
+    return "SchemaCache:["
+        + dbParameters.getName()
+        + "] Loads:["
+        + getLoadCount()
+        + "], Hits:["
+        + getHitCount()
+        + "], Misses:["
+        + getMissCount()
+        + "], Invalidations:["
+        + getInvalidationCount()
+        + "]";
+  }
+}
@@ -0,0 +1,70 @@
+package com.cjs.qa.jdbc;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SchemaCacheTest {
+
+  private static JDBC createJDBC(String name) throws Exception {
+    final JDBC jdbc = TempSQLite.newJDBC(name);
+    jdbc.executeUpdate("create table [t_Schema] ([ID] INTEGER, [Name] TEXT)", false);
+    jdbc.executeUpdate("create table [t_Other] ([Key] TEXT)", false);
+    return jdbc;
+  }
+
+  @Test
+  public void fieldNamesAreLoadedOnceForAllTables() throws Exception {
+    final JDBC jdbc = createJDBC("SchemaCacheLoad");
+    final SchemaCache schemaCache = SchemaCache.getInstance(jdbc.getDbParameters());
+    Assert.assertEquals(List.of("ID", "Name"), jdbc.getFieldNamesList("t_Schema"));
+    Assert.assertEquals(List.of("Key"), jdbc.getFieldNamesList("T_OTHER"));
+    Assert.assertEquals(List.of("ID", "Name"), jdbc.getFieldNamesList("t_Schema", true));
+    Assert.assertEquals(1, schemaCache.getLoadCount());
+    Assert.assertEquals(2, schemaCache.getHitCount());
+    Assert.assertNull(schemaCache.getColumnNames("t_Missing"));
+  }
+
+  @Test
+  public void ddlThroughJDBCInvalidatesTheCache() throws Exception {
+    final JDBC jdbc = createJDBC("SchemaCacheDDL");
+    final SchemaCache schemaCache = SchemaCache.getInstance(jdbc.getDbParameters());
+    Assert.assertEquals(List.of("ID", "Name"), jdbc.getFieldNamesList("t_Schema"));
+    jdbc.addFieldToTableSQLite("t_Schema", "Added");
+    Assert.assertEquals(List.of("ID", "Name", "Added"), jdbc.getFieldNamesList("t_Schema"));
+    jdbc.renameTable("t_Other", "t_Renamed");
+    Assert.assertEquals(List.of("Key"), jdbc.getFieldNamesList("t_Renamed"));
+    jdbc.dropTable("t_Renamed");
+    Assert.assertNull(schemaCache.getColumnNames("t_Renamed"));
+    jdbc.executeUpdate("insert into [t_Schema] ([ID]) values (1)", false);
+    final long invalidations = schemaCache.getInvalidationCount();
+    jdbc.getFieldNamesList("t_Schema");
+    Assert.assertEquals(invalidations, schemaCache.getInvalidationCount());
+  }
+
+  @Test
+  public void fieldNamesMapIsACopy() throws Exception {
+    final JDBC jdbc = createJDBC("SchemaCacheMap");
+    final Map<String, String> fieldNameMap = jdbc.getFieldNamesMap("t_Schema");
+    Assert.assertEquals("Name", fieldNameMap.get("Name"));
+    fieldNameMap.remove("Name");
+    jdbc.getFieldNamesList("t_Schema").add("Extra");
+    Assert.assertEquals(2, jdbc.getFieldNamesMap("t_Schema").size());
+    Assert.assertEquals(List.of("ID", "Name"), jdbc.getFieldNamesList("t_Schema"));
+  }
+
+  @Test
+  public void missingNamesAreRememberedUntilInvalidated() throws Exception {
+    final JDBC jdbc = createJDBC("SchemaCacheMissing");
+    final SchemaCache schemaCache = SchemaCache.getInstance(jdbc.getDbParameters());
+    Assert.assertNull(schemaCache.getColumnNames("t_Later"));
+    final long loads = schemaCache.getLoadCount();
+    Assert.assertNull(schemaCache.getColumnNames("t_Later"));
+    Assert.assertNull(schemaCache.getColumnNames("T_LATER"));
+    Assert.assertEquals(loads, schemaCache.getLoadCount());
+    jdbc.executeUpdate("create table [t_Later] ([Key] TEXT)", false);
+    Assert.assertEquals(List.of("Key"), schemaCache.getColumnNames("t_Later"));
+    Assert.assertEquals(loads + 1, schemaCache.getLoadCount());
+  }
+}
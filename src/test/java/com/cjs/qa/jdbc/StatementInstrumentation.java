@@ -0,0 +1,243 @@
+package com.cjs.qa.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Wraps statements handed out by {@link PooledDataSource} so each execution is timed and reported
+ * to {@link QueryMetrics}. Queries are reported once their result set is exhausted or closed, with
+ * the time spent in {@code next()} added to the execution time.
+ */
+final class StatementInstrumentation {
+
+  private StatementInstrumentation() {}
+
+  /**
+   * @param statement statement from the physical connection
+   * @param database database name for the metrics
+   * @param sql SQL it was prepared with, or {@code null} for a plain {@link Statement}
+   * @return a proxy implementing the same JDBC interface as {@code statement}
+   */
+  static Statement wrap(Statement statement, String database, String sql) {
+    final Class<?> type;
+    if (statement instanceof CallableStatement) {
+      type = CallableStatement.class;
+    } else if (statement instanceof PreparedStatement) {
+      type = PreparedStatement.class;
+    } else {
+      type = Statement.class;
+    }
+    return (Statement)
+        Proxy.newProxyInstance(
+            Statement.class.getClassLoader(),
+            new Class<?>[] {type},
+            new StatementHandler(statement, database, sql));
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (final InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /** One execution, reported once when its rows have been read. */
+  private static final class Execution {
+    private final String database;
+    private final String sql;
+    private long nanos;
+    private long rows = 0;
+    private boolean failed = false;
+    private boolean reported = false;
+
+    private Execution(String database, String sql, long nanos) {
+      this.database = database;
+      this.sql = sql;
+      this.nanos = nanos;
+    }
+
+    private void report() {
+      if (!reported) {
+        reported = true;
+        QueryMetrics.recordStatement(database, sql, nanos, rows, failed);
+      }
+    }
+  }
+
+  private static final class StatementHandler implements InvocationHandler {
+    private final Statement statement;
+    private final String database;
+    private final String preparedSql;
+    private String batchSql = null;
+    private Execution execution = null;
+
+    private StatementHandler(Statement statement, String database, String preparedSql) {
+      this.statement = statement;
+      this.database = database;
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      final String name = method.getName();
+      switch (name) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return statement.toString();
+        case "close":
+          finish();
+          return StatementInstrumentation.invoke(statement, method, args);
+        case "addBatch":
+          if (args != null && args.length == 1 && batchSql == null) {
+            batchSql = (String) args[0];
+          }
+          return StatementInstrumentation.invoke(statement, method, args);
+        case "clearBatch":
+          batchSql = null;
+          return StatementInstrumentation.invoke(statement, method, args);
+        case "getResultSet":
+          return wrapResultSet(
+              (ResultSet) StatementInstrumentation.invoke(statement, method, args));
+        case "execute":
+        case "executeQuery":
+        case "executeUpdate":
+        case "executeLargeUpdate":
+        case "executeBatch":
+        case "executeLargeBatch":
+          return execute(method, args);
+        default:
+          return StatementInstrumentation.invoke(statement, method, args);
+      }
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+      finish();
+      final String sql;
+      if (args != null && args.length > 0 && args[0] instanceof String text) {
+        sql = text;
+      } else if (preparedSql != null) {
+        sql = preparedSql;
+      } else {
+        sql = batchSql;
+      }
+      final long start = System.nanoTime();
+      final Object result;
+      try {
+        result = StatementInstrumentation.invoke(statement, method, args);
+      } catch (final Throwable e) {
+        execution = new Execution(database, sql, System.nanoTime() - start);
+        execution.failed = true;
+        finish();
+        throw e;
+      }
+      execution = new Execution(database, sql, System.nanoTime() - start);
+      switch (result) {
+        case ResultSet resultSet -> {
+          return wrapResultSet(resultSet);
+        }
+        case Integer count -> execution.rows = Math.max(count, 0);
+        case Long count -> execution.rows = Math.max(count, 0);
+        case int[] counts -> {
+          for (final int count : counts) {
+            execution.rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+          }
+        }
+        case long[] counts -> {
+          for (final long count : counts) {
+            execution.rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+          }
+        }
+        case Boolean hasResultSet -> {
+          if (hasResultSet) {
+            // Reported when getResultSet's rows have been read, or on the next execute/close.
+            return result;
+          }
+          execution.rows = Math.max(statement.getUpdateCount(), 0);
+        }
+        case null, default -> {}
+      }
+      if (method.getName().startsWith("executeBatch")
+          || method.getName().startsWith("executeLargeBatch")) {
+        batchSql = null;
+      }
+      finish();
+      return result;
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet) {
+      if (resultSet == null || execution == null || execution.reported) {
+        return resultSet;
+      }
+      return (ResultSet)
+          Proxy.newProxyInstance(
+              ResultSet.class.getClassLoader(),
+              new Class<?>[] {ResultSet.class},
+              new ResultSetHandler(resultSet, execution));
+    }
+
+    private void finish() {
+      if (execution != null) {
+        execution.report();
+        execution = null;
+      }
+    }
+  }
+
+  private static final class ResultSetHandler implements InvocationHandler {
+    private final ResultSet resultSet;
+    private final Execution execution;
+
+    private ResultSetHandler(ResultSet resultSet, Execution execution) {
+      this.resultSet = resultSet;
+      this.execution = execution;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return resultSet.toString();
+        case "next":
+          return next(method, args);
+        case "close":
+          execution.report();
+          return StatementInstrumentation.invoke(resultSet, method, args);
+        default:
+          return StatementInstrumentation.invoke(resultSet, method, args);
+      }
+    }
+
+    private Object next(Method method, Object[] args) throws Throwable {
+      final long start = System.nanoTime();
+      try {
+        final boolean hasRow = (Boolean) StatementInstrumentation.invoke(resultSet, method, args);
+        execution.nanos += System.nanoTime() - start;
+        if (hasRow) {
+          execution.rows++;
+        } else {
+          execution.report();
+        }
+        return hasRow;
+      } catch (final Throwable e) {
+        execution.nanos += System.nanoTime() - start;
+        execution.failed = true;
+        execution.report();
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.cjs.qa.jdbc;
+
+import java.io.File;
+import java.io.IOException;
+
+/** Empty SQLite databases in temporary files, deleted when the tests exit. */
+final class TempSQLite {
+  private TempSQLite() {}
+
+  /**
+   * @param name prefix of the file name
+   * @return parameters for a new, empty database; {@link DBParameters#getName()} is its path
+   * @throws IOException
+   */
+  static DBParameters newDBParameters(String name) throws IOException {
+    final File file = File.createTempFile(name, ".sqlite");
+    file.deleteOnExit();
+    final DBParameters dbParameters = new DBParameters("SQLITE");
+    dbParameters.setName(file.getAbsolutePath());
+    dbParameters.setConnectionString(dbParameters.getUrlPrefix() + dbParameters.getName());
+    return dbParameters;
+  }
+
+  /**
+   * @param name prefix of the file name
+   * @return a {@link JDBC} on a new, empty database
+   * @throws IOException
+   */
+  static JDBC newJDBC(String name) throws IOException {
+    final JDBC jdbc = new JDBC("", "");
+    jdbc.setDbParameters(newDBParameters(name));
+    return jdbc;
+  }
+}
@@ -0,0 +1,279 @@
+package com.cjs.qa.microsoft.excel.xlsx;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.FSOTests;
+import com.cjs.qa.utilities.JavaHelpers;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Writes query results straight from a {@link ResultSet} into an .xlsx file through a windowed
+ * {@link SXSSFWorkbook}, so only {@code excel.sxssf.windowSize} rows (default 100) are held in
+ * memory however large the result is.
+ *
+ * <p>Numbers, dates, timestamps and booleans are written as typed cells; everything else is text.
+ * When a sheet reaches the row limit the remaining rows spill over into {@code "Sheet (2)"}, {@code
+ * "Sheet (3)"} and so on, each with the headings repeated.
+ *
+ * <pre>{@code
+ * try (XLSXStreamWriter writer = new XLSXStreamWriter(fileName, true)) {
+ *   writer.writeResultSet("Members", resultSet);
+ * }
+ * }</pre>
+ */
+public class XLSXStreamWriter implements AutoCloseable {
+  public static final String PROPERTY_WINDOW_SIZE = "excel.sxssf.windowSize";
+  public static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+  public static final int MAX_COLUMNS = SpreadsheetVersion.EXCEL2007.getMaxColumns();
+  private static final int MAX_TEXT_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+  private static final int MAX_COLUMN_WIDTH_CHARACTERS = 100;
+
+  private final String fileName;
+  private final SXSSFWorkbook workbook;
+  private final int maxRowsPerSheet;
+  private final CellStyle headingStyle;
+  private final CellStyle dateStyle;
+  private final CellStyle timestampStyle;
+  private long rowsWritten = 0;
+  private boolean failed = false;
+
+  public XLSXStreamWriter(String fileName, boolean overwrite) throws IOException {
+    this(fileName, overwrite, MAX_ROWS);
+  }
+
+  /**
+   * @param fileName .xlsx file to write
+   * @param overwrite replace an existing file; otherwise new sheets are added to it
+   * @param maxRowsPerSheet rows per sheet, headings included, before spilling over
+   * @throws IOException if an existing file cannot be read
+   */
+  public XLSXStreamWriter(String fileName, boolean overwrite, int maxRowsPerSheet)
+      throws IOException {
+    if (maxRowsPerSheet < 2 || maxRowsPerSheet > MAX_ROWS) {
+      throw new IllegalArgumentException(
+          "maxRowsPerSheet:[" + maxRowsPerSheet + "] must be between 2 and " + MAX_ROWS);
+    }
+    this.fileName = fileName;
+    this.maxRowsPerSheet = maxRowsPerSheet;
+    final int windowSize =
+        Integer.parseInt(JavaHelpers.readPropertyOrEnv(PROPERTY_WINDOW_SIZE, "100"));
+    if (!overwrite && FSOTests.fileExists(fileName)) {
+      // Existing sheets stay in memory; only the sheets added here are streamed.
+      try (FileInputStream fileInputStream = new FileInputStream(fileName)) {
+        workbook = new SXSSFWorkbook(new XSSFWorkbook(fileInputStream), windowSize);
+      }
+    } else {
+      workbook = new SXSSFWorkbook(windowSize);
+    }
+    workbook.setCompressTempFiles(true);
+    headingStyle = workbook.createCellStyle();
+    final Font font = workbook.createFont();
+    font.setBold(true);
+    headingStyle.setFont(font);
+    dateStyle = workbook.createCellStyle();
+    dateStyle.setDataFormat(
+        workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+    timestampStyle = workbook.createCellStyle();
+    timestampStyle.setDataFormat(
+        workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+  }
+
+  /**
+   * Writes the headings and every remaining row of {@code resultSet} to a new sheet, spilling over
+   * into further sheets when {@code maxRowsPerSheet} is reached. The caller still owns and closes
+   * {@code resultSet}. If it fails, {@link #close()} leaves the file as it was.
+   *
+   * @param sheetName name of the first sheet
+   * @param resultSet an open, forward-only result set
+   * @return the number of data rows written
+   * @throws SQLException if reading the result set fails
+   */
+  public long writeResultSet(String sheetName, ResultSet resultSet) throws SQLException {
+    try {
+      return write(sheetName, resultSet);
+    } catch (final SQLException | RuntimeException e) {
+      failed = true;
+      throw e;
+    }
+  }
+
+  private long write(String sheetName, ResultSet resultSet) throws SQLException {
+    final ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+    final int columns = resultSetMetaData.getColumnCount();
+    if (columns > MAX_COLUMNS) {
+      throw new IllegalArgumentException(
+          "Columns:[" + columns + "] exceeds the sheet limit of " + MAX_COLUMNS);
+    }
+    final String[] headings = new String[columns];
+    for (int column = 0; column < columns; column++) {
+      headings[column] = resultSetMetaData.getColumnLabel(column + 1);
+    }
+    final int[] columnWidths = new int[columns];
+    int sheetNumber = 1;
+    SXSSFSheet sheet = createSheet(sheetName, sheetNumber, headings, columnWidths);
+    int rowIndex = 1;
+    long rows = 0;
+    while (resultSet.next()) {
+      if (rowIndex >= maxRowsPerSheet) {
+        setColumnWidths(sheet, columnWidths);
+        sheetNumber++;
+        sheet = createSheet(sheetName, sheetNumber, headings, columnWidths);
+        rowIndex = 1;
+      }
+      final Row row = sheet.createRow(rowIndex++);
+      for (int column = 0; column < columns; column++) {
+        writeCell(row, column, resultSet.getObject(column + 1), columnWidths);
+      }
+      rows++;
+    }
+    setColumnWidths(sheet, columnWidths);
+    rowsWritten += rows;
+    Environment.sysOut(
+        "Sheet:["
+            + sheetName
+            + "], Rows:["
+            + rows
+            + "], Sheets:["
+            + sheetNumber
+            + "], File:["
+            + fileName
+            + "]");
+    return rows;
+  }
+
+  private SXSSFSheet createSheet(
+      String sheetName, int sheetNumber, String[] headings, int[] columnWidths) {
+    final String suffix = sheetNumber == 1 ? "" : " (" + sheetNumber + ")";
+    String name = sheetName;
+    if (name.length() + suffix.length() > 31) {
+      name = name.substring(0, 31 - suffix.length());
+    }
+    final SXSSFSheet sheet = workbook.createSheet(WorkbookUtil.createSafeSheetName(name + suffix));
+    final Row row = sheet.createRow(0);
+    for (int column = 0; column < headings.length; column++) {
+      final Cell cell = row.createCell(column);
+      cell.setCellValue(headings[column]);
+      cell.setCellStyle(headingStyle);
+      columnWidths[column] = Math.max(columnWidths[column], length(headings[column]));
+    }
+    sheet.createFreezePane(0, 1);
+    return sheet;
+  }
+
+  // Typed from the value rather than the declared column type; SQLite columns can hold any type.
+  private void writeCell(Row row, int column, Object object, int[] columnWidths) {
+    if (object == null) {
+      return;
+    }
+    final Cell cell;
+    switch (object) {
+      case Number number -> {
+        cell = row.createCell(column);
+        cell.setCellValue(number.doubleValue());
+      }
+      case Boolean bool -> {
+        cell = row.createCell(column);
+        cell.setCellValue(bool);
+      }
+      case java.sql.Date date -> {
+        cell = row.createCell(column);
+        cell.setCellValue(date.toLocalDate());
+        cell.setCellStyle(dateStyle);
+      }
+      case java.util.Date date -> {
+        cell = row.createCell(column);
+        cell.setCellValue(date);
+        cell.setCellStyle(timestampStyle);
+      }
+      case LocalDate localDate -> {
+        cell = row.createCell(column);
+        cell.setCellValue(localDate);
+        cell.setCellStyle(dateStyle);
+      }
+      case LocalDateTime localDateTime -> {
+        cell = row.createCell(column);
+        cell.setCellValue(localDateTime);
+        cell.setCellStyle(timestampStyle);
+      }
+      default -> {
+        String value = object.toString();
+        if (!JavaHelpers.hasValue(value)) {
+          return;
+        }
+        if (value.length() > MAX_TEXT_LENGTH) {
+          value = value.substring(0, MAX_TEXT_LENGTH);
+        }
+        cell = row.createCell(column);
+        cell.setCellValue(value);
+        track(columnWidths, column, value);
+        return;
+      }
+    }
+    track(columnWidths, column, object.toString());
+  }
+
+  private static int length(String value) {
+    return value == null ? 0 : Math.min(value.length(), MAX_COLUMN_WIDTH_CHARACTERS);
+  }
+
+  private static void track(int[] columnWidths, int column, String value) {
+    columnWidths[column] = Math.max(columnWidths[column], length(value));
+  }
+
+  // SXSSF cannot auto-size flushed rows, so widths come from the longest value seen.
+  private static void setColumnWidths(SXSSFSheet sheet, int[] columnWidths) {
+    for (int column = 0; column < columnWidths.length; column++) {
+      sheet.setColumnWidth(column, (columnWidths[column] + 2) * 256);
+    }
+  }
+
+  public long getRowsWritten() {
+    return rowsWritten;
+  }
+
+  /**
+   * Saves the workbook with the first sheet selected and deletes the temporary row files. After a
+   * failed {@link #writeResultSet(String, ResultSet)} nothing is saved, so a partial workbook never
+   * replaces the file.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (failed) {
+        Environment.sysOut("File:[" + fileName + "] not written after a failed sheet");
+        // Flush while the row files are open; closing the workbook closes them before disposing.
+        for (int index = 0; index < workbook.getNumberOfSheets(); index++) {
+          workbook.getSheetAt(index).flushRows();
+        }
+        return;
+      }
+      if (workbook.getNumberOfSheets() > 0) {
+        // Always leave the first sheet selected.
+        workbook.setActiveSheet(0);
+        workbook.setSelectedTab(0);
+      }
+      try (FileOutputStream fileOutputStream = new FileOutputStream(fileName)) {
+        workbook.write(fileOutputStream);
+      }
+    } finally {
+      workbook.close();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.cjs.qa.microsoft.excel.xlsx;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class XLSXStreamWriterTest {
+
+  private static Connection createConnection(int rows) throws Exception {
+    final Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate("create table [t_Export] ([ID] INTEGER, [Name] TEXT, [Amount] REAL)");
+    }
+    try (PreparedStatement preparedStatement =
+        connection.prepareStatement("insert into [t_Export] values (?,?,?)")) {
+      for (int index = 1; index <= rows; index++) {
+        preparedStatement.setInt(1, index);
+        preparedStatement.setString(2, index % 2 == 0 ? "Name " + index : null);
+        preparedStatement.setDouble(3, index * 1.5);
+        preparedStatement.addBatch();
+      }
+      preparedStatement.executeBatch();
+    }
+    return connection;
+  }
+
+  @Test
+  public void writesTypedCellsAndSpillsOverToNewSheets() throws Exception {
+    final File file = File.createTempFile("XLSXStreamWriter", ".xlsx");
+    file.deleteOnExit();
+    try (Connection connection = createConnection(25);
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("select * from [t_Export] order by [ID]");
+        XLSXStreamWriter writer = new XLSXStreamWriter(file.getAbsolutePath(), true, 11)) {
+      Assert.assertEquals(25, writer.writeResultSet("Export", resultSet));
+    }
+    try (FileInputStream fileInputStream = new FileInputStream(file);
+        XSSFWorkbook workbook = new XSSFWorkbook(fileInputStream)) {
+      Assert.assertEquals(3, workbook.getNumberOfSheets());
+      final XSSFSheet first = workbook.getSheet("Export");
+      Assert.assertEquals("Name", first.getRow(0).getCell(1).getStringCellValue());
+      Assert.assertEquals(10, first.getLastRowNum());
+      Assert.assertEquals(CellType.NUMERIC, first.getRow(1).getCell(0).getCellType());
+      Assert.assertEquals(1.5, first.getRow(1).getCell(2).getNumericCellValue(), 0);
+      Assert.assertNull(first.getRow(1).getCell(1));
+      Assert.assertEquals("Name 2", first.getRow(2).getCell(1).getStringCellValue());
+      final XSSFSheet last = workbook.getSheet("Export (3)");
+      Assert.assertEquals("ID", last.getRow(0).getCell(0).getStringCellValue());
+      Assert.assertEquals(5, last.getLastRowNum());
+      Assert.assertEquals(25, last.getRow(5).getCell(0).getNumericCellValue(), 0);
+    }
+  }
+
+  @Test
+  public void addsSheetsToAnExistingFile() throws Exception {
+    final File file = File.createTempFile("XLSXStreamWriterAppend", ".xlsx");
+    file.deleteOnExit();
+    try (Connection connection = createConnection(3);
+        Statement statement = connection.createStatement()) {
+      try (ResultSet resultSet = statement.executeQuery("select * from [t_Export]");
+          XLSXStreamWriter writer = new XLSXStreamWriter(file.getAbsolutePath(), true)) {
+        writer.writeResultSet("First", resultSet);
+      }
+      try (ResultSet resultSet = statement.executeQuery("select [Name] from [t_Export]");
+          XLSXStreamWriter writer = new XLSXStreamWriter(file.getAbsolutePath(), false)) {
+        writer.writeResultSet("Second", resultSet);
+      }
+    }
+    try (FileInputStream fileInputStream = new FileInputStream(file);
+        XSSFWorkbook workbook = new XSSFWorkbook(fileInputStream)) {
+      Assert.assertEquals(2, workbook.getNumberOfSheets());
+      Assert.assertEquals(3, workbook.getSheet("First").getLastRowNum());
+      Assert.assertEquals("Name", workbook.getSheet("Second").getRow(0).getCell(0).toString());
+    }
+  }
+
+  @Test
+  public void leavesTheFileAloneWhenASheetFails() throws Exception {
+    final File file = File.createTempFile("XLSXStreamWriterFailure", ".xlsx");
+    file.deleteOnExit();
+    try (Connection connection = createConnection(5);
+        Statement statement = connection.createStatement()) {
+      try (ResultSet resultSet = statement.executeQuery("select * from [t_Export]");
+          XLSXStreamWriter writer = new XLSXStreamWriter(file.getAbsolutePath(), true)) {
+        writer.writeResultSet("First", resultSet);
+      }
+      // abs() of the smallest integer overflows, so reading the third row fails.
+      try (ResultSet resultSet =
+              statement.executeQuery(
+                  "select [ID], case when [ID] = 3 then abs(-9223372036854775807 - 1) end"
+                      + " from [t_Export]");
+          XLSXStreamWriter writer = new XLSXStreamWriter(file.getAbsolutePath(), true)) {
+        writer.writeResultSet("Failing", resultSet);
+        Assert.fail("expected the result set to fail");
+      } catch (final SQLException e) {
+        // Expected.
+      }
+    }
+    try (FileInputStream fileInputStream = new FileInputStream(file);
+        XSSFWorkbook workbook = new XSSFWorkbook(fileInputStream)) {
+      Assert.assertEquals(1, workbook.getNumberOfSheets());
+      Assert.assertEquals(5, workbook.getSheet("First").getLastRowNum());
+    }
+  }
+}
@@ -2,18 +2,14 @@
 
 import com.cjs.qa.core.Environment;
 import com.cjs.qa.core.QAException;
+import com.cjs.qa.core.api.ApiHttpClient;
 import com.cjs.qa.utilities.Constants;
 import com.cjs.qa.utilities.IHTTP;
 import com.cjs.qa.utilities.JavaHelpers;
 import com.cjs.qa.utilities.XML;
 import com.cjs.qa.vivit.VivitDataTests;
 import com.cjs.qa.vivit.VivitEnvironment;
-import java.io.BufferedReader;
-import java.io.DataOutputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
@@ -33,10 +29,10 @@ public class SharepointServiceTests {
 
   public SharepointServiceTests() {
     try {
-      final HttpURLConnection httpUrlConnection =
-          (HttpURLConnection) URI.create(URL_SHAREPOINT).toURL().openConnection();
-      httpUrlConnection.setRequestMethod("HEAD");
-      final int responseCode = httpUrlConnection.getResponseCode();
+      final int responseCode =
+          ApiHttpClient.getInstance()
+              .send("HEAD", URL_SHAREPOINT, Map.of(), null, true)
+              .statusCode();
       if (!(responseCode >= HttpURLConnection.HTTP_OK
           && responseCode < HttpURLConnection.HTTP_BAD_REQUEST)) {
         Environment.sysOut(
@@ -118,47 +114,27 @@ public static Map<String, String> getAPIXMLResponse(
               + request
               + "]");
     }
-    int responseCode = -1;
-    HttpURLConnection httpURLConnection = null;
     try {
-      final URL oURL = URI.create(url).toURL();
-      httpURLConnection = (HttpURLConnection) oURL.openConnection();
-      httpURLConnection.setDoOutput(true);
-      // httpURLConnection.setInstanceFollowRedirects(false);
-      httpURLConnection.setInstanceFollowRedirects(true);
-      if (!requestMethod.isEmpty()) {
-        httpURLConnection.setRequestMethod(requestMethod);
-      }
-      httpURLConnection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-      // httpURLConnection.setRequestProperty("Content-Type",
-      // "application/xml");
-      // httpURLConnection.setRequestProperty("Accept", "application/json;
-      // odata-verbose");
-      httpURLConnection.setRequestProperty("charset", StandardCharsets.UTF_8.toString());
-      httpURLConnection.setRequestProperty(
-          "Content-Length", "" + Integer.toString(request.getBytes().length));
-      httpURLConnection.setUseCaches(false);
-      try (DataOutputStream dataOutputStream =
-          new DataOutputStream(httpURLConnection.getOutputStream())) {
-        dataOutputStream.writeBytes(request);
-        dataOutputStream.flush();
-      }
-      responseCode = httpURLConnection.getResponseCode();
+      // "Content-Type", "application/xml"
+      // "Accept", "application/json; odata-verbose"
+      final ApiHttpClient.Response response =
+          ApiHttpClient.getInstance()
+              .send(
+                  requestMethod,
+                  url,
+                  Map.of(
+                      "Content-Type",
+                      "application/x-www-form-urlencoded",
+                      "charset",
+                      StandardCharsets.UTF_8.toString()),
+                  request,
+                  true);
+      final int responseCode = response.statusCode();
       map.put("responseCode", String.valueOf(responseCode));
-      final String responseMessage = String.valueOf(httpURLConnection.getResponseMessage());
+      final String responseMessage = response.responseMessage();
       map.put("responseMessage", responseMessage);
       if (responseCode == HttpURLConnection.HTTP_OK) {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (BufferedReader bufferedReader =
-            new BufferedReader(new InputStreamReader(httpURLConnection.getInputStream()))) {
-          String line = "";
-          while ((line = bufferedReader.readLine()) != null) {
-            stringBuilder.append(line);
-          }
-        } catch (Exception e) {
-          throw new QAException("BufferedReader", e);
-        }
-        map.put("xml", stringBuilder.toString());
+        map.put("xml", response.body());
         // Environment.sysOut("xml:[" + xml + "]")
       }
       if (responseCode != HttpURLConnection.HTTP_OK) {
@@ -167,10 +143,6 @@ public static Map<String, String> getAPIXMLResponse(
       }
     } catch (final Exception e) {
       VivitEnvironment.sysOut(e);
-    } finally {
-      if (httpURLConnection != null) {
-        httpURLConnection.disconnect();
-      }
     }
     // Environment.sysOut("map:[" + map.toString() + "]")
     return map;
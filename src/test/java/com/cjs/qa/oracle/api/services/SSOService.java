@@ -1,16 +1,14 @@
 package com.cjs.qa.oracle.api.services;
 
 import com.cjs.qa.core.Environment;
+import com.cjs.qa.core.api.ApiHttpClient;
 import com.cjs.qa.core.api.WebService;
 import com.cjs.qa.utilities.CJSConstants;
 import com.cjs.qa.utilities.Constants;
 import com.cjs.qa.utilities.Encoder;
 import com.cjs.qa.utilities.JavaHelpers;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -241,24 +239,19 @@ public Map<String, String> forgotPassword(String eMail) {
     map.put("API_Method", JavaHelpers.getCurrentMethodName().toString());
     final String requestURL = baseAPISSO + "/Auth/ForgotPassword" + "?emailAddress=" + eMail;
     String json = "";
-    String line = "s";
     try {
-      final URL oURL = URI.create(requestURL).toURL();
-      final HttpURLConnection oHttpURLConnection = (HttpURLConnection) oURL.openConnection();
-      oHttpURLConnection.setRequestMethod("GET");
-      final String responseCode = String.valueOf(oHttpURLConnection.getResponseCode());
-      final String responseMessage = String.valueOf(oHttpURLConnection.getResponseMessage());
-      try (BufferedReader oBufferedReader =
-          new BufferedReader(new InputStreamReader(oHttpURLConnection.getInputStream()))) {
-        while ((line = oBufferedReader.readLine()) != null) {
-          json += line;
-        }
+      final ApiHttpClient.Response response =
+          ApiHttpClient.getInstance().send("GET", requestURL, Map.of(), null, true);
+      final String responseCode = String.valueOf(response.statusCode());
+      if (response.statusCode() >= HttpURLConnection.HTTP_BAD_REQUEST) {
+        throw new IOException(
+            "Server returned HTTP response code: " + responseCode + " for URL: " + requestURL);
       }
+      json = response.body();
       if (!"200".equals(responseCode)) {
         LOG.warn("Response Code: {}", responseCode);
-        LOG.warn("Response Message: {}", responseMessage);
+        LOG.warn("Response Message: {}", response.responseMessage());
       }
-      oHttpURLConnection.disconnect();
     } catch (final Exception e) {
       e.printStackTrace();
     }
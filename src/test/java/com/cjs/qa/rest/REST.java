@@ -1,16 +1,13 @@
 package com.cjs.qa.rest;
 
 import com.cjs.qa.core.QAException;
+import com.cjs.qa.core.api.ApiHttpClient;
 import com.cjs.qa.utilities.JavaHelpers;
-import java.io.BufferedReader;
-import java.io.DataOutputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -32,73 +29,42 @@ public static Map<String, String> getAPIJSONResponse(
         apiRequest);
     String responseCode = "-1";
     map.put("responseCode", responseCode);
-    HttpURLConnection httpURLConnection = null;
-    final StringBuilder stringBuilderJSON = new StringBuilder();
-    String line = "";
+    final Map<String, String> headers = new LinkedHashMap<>();
+    if (JavaHelpers.hasValue(credentials)) {
+      final String encoding =
+          Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+      headers.put("Authorization", "Basic " + encoding);
+    }
+    // headers.put("X-Atlassian-Token", "no-check")
+    headers.put("Content-Type", "application/json");
+    headers.put("Accept", "application/json");
+    headers.put("charset", StandardCharsets.UTF_8.toString());
+    // headers.put("charset", StandardCharsets.US_ASCII.toString())
+    if (!JavaHelpers.hasValue(apiRequest)) {
+      headers.put("X-Requested-With", "Curl");
+    }
+    final ApiHttpClient.Response response;
     try {
-      final URL oURL = URI.create(url).toURL();
-      httpURLConnection = (HttpURLConnection) oURL.openConnection();
-      httpURLConnection.setDoInput(true);
-      httpURLConnection.setDoOutput(true);
-      httpURLConnection.setInstanceFollowRedirects(false);
-      if (!requestMethod.isEmpty()) {
-        httpURLConnection.setRequestMethod(requestMethod);
-      }
-      if (JavaHelpers.hasValue(credentials)) {
-        final String encoding =
-            Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
-        httpURLConnection.setRequestProperty("Authorization", "Basic " + encoding);
-      }
-      // httpURLConnection.setRequestProperty("X-Atlassian-Token:",
-      // "no-check")
-      httpURLConnection.setRequestProperty("Content-Type", "application/json");
-      httpURLConnection.setRequestProperty("Accept", "application/json");
-      httpURLConnection.setRequestProperty("charset", StandardCharsets.UTF_8.toString());
-      // httpURLConnection.setRequestProperty("charset",
-      // StandardCharsets.US_ASCII.toString());
-      if (JavaHelpers.hasValue(apiRequest)) {
-        httpURLConnection.setRequestProperty(
-            "Content-Length", "" + Integer.toString(apiRequest.getBytes().length));
-      } else {
-        httpURLConnection.setRequestProperty("X-Requested-With", "Curl");
-        httpURLConnection.setRequestProperty("Content-Length", "0");
-      }
-      httpURLConnection.setUseCaches(false);
-      //
-      // final PrintStream printStream = new
-      // PrintStream(httpURLConnection.getOutputStream());
-      // printStream.print(apiRequest);
-      // printStream.close();
-      //
-      try (DataOutputStream dataOutputStream =
-          new DataOutputStream(httpURLConnection.getOutputStream())) {
-        if (JavaHelpers.hasValue(apiRequest)) {
-          dataOutputStream.writeBytes(apiRequest);
-        }
-        dataOutputStream.flush();
-        responseCode = String.valueOf(httpURLConnection.getResponseCode());
-        map.put("responseCode", responseCode);
-        final String responseMessage = String.valueOf(httpURLConnection.getResponseMessage());
-        map.put("responseMessage", responseMessage);
-        // if (responseCode == HttpURLConnection.HTTP_OK)
-        // {
-        // final BufferedReader bufferedReader = new BufferedReader(new
-        // InputStreamReader(httpURLConnection.getInputStream(),
-        // StandardCharsets.UTF_8));
-        try (BufferedReader bufferedReader =
-            new BufferedReader(new InputStreamReader(httpURLConnection.getInputStream()))) {
-          while ((line = bufferedReader.readLine()) != null) {
-            stringBuilderJSON.append(line);
-          }
-        }
-        // }
-      } finally {
-        httpURLConnection.disconnect();
-      }
+      response =
+          ApiHttpClient.getInstance()
+              .send(
+                  requestMethod,
+                  url,
+                  headers,
+                  // The request has always been sent with a body, even an empty one.
+                  JavaHelpers.hasValue(apiRequest) ? apiRequest : "");
     } catch (final Exception e) {
       throw new QAException(e);
     }
-    map.put("json", stringBuilderJSON.toString());
+    responseCode = String.valueOf(response.statusCode());
+    map.put("responseCode", responseCode);
+    map.put("responseMessage", response.responseMessage());
+    if (response.statusCode() >= HttpURLConnection.HTTP_BAD_REQUEST) {
+      // Reading an error response has always failed the call.
+      throw new QAException(
+          "Server returned HTTP response code: " + responseCode + " for URL: " + url);
+    }
+    map.put("json", response.body());
     return map;
   }
 }
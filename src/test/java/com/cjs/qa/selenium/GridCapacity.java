@@ -0,0 +1,348 @@
+package com.cjs.qa.selenium;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.core.QAException;
+import com.cjs.qa.utilities.JavaHelpers;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Starts remote sessions only when the Selenium Grid hub reports a free slot for the browser, so a
+ * saturated grid is not hammered with new session requests.
+ *
+ * <p>Threads asking for a session queue in arrival order. The thread at the head of the queue polls
+ * the hub's {@code /status} with jittered exponential backoff until a node has a free slot for its
+ * browser, reserves it and leaves the queue to start the session; a session the hub still refuses
+ * is retried the same way. Every acquisition is bounded by a deadline. Slots reserved by sessions
+ * that are still starting are not handed out twice.
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code selenium.grid.acquireTimeoutMillis} - deadline of one acquisition (default 300000,
+ *       the hub's {@code SE_SESSION_REQUEST_TIMEOUT})
+ *   <li>{@code selenium.grid.backoffMillis} - first backoff (default 250)
+ *   <li>{@code selenium.grid.maxBackoffMillis} - backoff cap (default 5000)
+ * </ul>
+ */
+public final class GridCapacity {
+  public static final String PROPERTY_ACQUIRE_TIMEOUT_MILLIS = "selenium.grid.acquireTimeoutMillis";
+  public static final String PROPERTY_BACKOFF_MILLIS = "selenium.grid.backoffMillis";
+  public static final String PROPERTY_MAX_BACKOFF_MILLIS = "selenium.grid.maxBackoffMillis";
+  // Free slots are unknown when the hub's status cannot be read.
+  static final int SLOTS_UNKNOWN = -1;
+  private static final Map<String, GridCapacity> GRID_CAPACITIES = new ConcurrentHashMap<>();
+  private static final HttpClient HTTP_CLIENT =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+  private final String gridHub;
+  private final long acquireTimeoutMillis;
+  private final long backoffMillis;
+  private final long maxBackoffMillis;
+  private final ReentrantLock queue = new ReentrantLock(true);
+  private final Map<String, AtomicInteger> startingMap = new ConcurrentHashMap<>();
+  private final AtomicInteger queuedCount = new AtomicInteger();
+  private final AtomicInteger queuedMax = new AtomicInteger();
+  private final AtomicLong acquiredCount = new AtomicLong();
+  private final AtomicLong attemptCount = new AtomicLong();
+  private final AtomicLong refusedCount = new AtomicLong();
+  private final AtomicLong timeoutCount = new AtomicLong();
+  private final AtomicLong statusPollCount = new AtomicLong();
+  private final AtomicLong queueNanosTotal = new AtomicLong();
+  private final AtomicLong queueNanosMax = new AtomicLong();
+
+  GridCapacity(
+      String gridHub, long acquireTimeoutMillis, long backoffMillis, long maxBackoffMillis) {
+    this.gridHub = gridHub;
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+    this.backoffMillis = Math.max(1, backoffMillis);
+    this.maxBackoffMillis = Math.max(this.backoffMillis, maxBackoffMillis);
+  }
+
+  /**
+   * Returns the acquisition queue of the given hub, creating it on first use.
+   *
+   * @param gridHub hub URL, e.g. {@code http://localhost:4444/wd/hub}
+   * @return the shared queue for {@code gridHub}
+   */
+  public static GridCapacity getInstance(String gridHub) {
+    return GRID_CAPACITIES.computeIfAbsent(
+        gridHub,
+        key ->
+            new GridCapacity(
+                key,
+                JavaHelpers.readPropertyOrEnvLong(PROPERTY_ACQUIRE_TIMEOUT_MILLIS, 300000),
+                JavaHelpers.readPropertyOrEnvLong(PROPERTY_BACKOFF_MILLIS, 250),
+                JavaHelpers.readPropertyOrEnvLong(PROPERTY_MAX_BACKOFF_MILLIS, 5000)));
+  }
+
+  /**
+   * @return one {@link #getMetrics()} block per hub
+   */
+  public static String getMetricsAll() {
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (final GridCapacity gridCapacity : GRID_CAPACITIES.values()) {
+      stringBuilder.append(gridCapacity.getMetrics());
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Waits in the queue for a free slot for {@code browser}, then starts a session on it.
+   *
+   * @param browser browser name as the hub's slot stereotypes report it
+   * @param sessionFactory starts the remote session
+   * @return the new session
+   * @throws QAException if no session could be started before the deadline
+   */
+  public WebDriver acquire(String browser, WebDriverSessionPool.SessionFactory sessionFactory)
+      throws Throwable {
+    final String browserKey = browser.toLowerCase(Locale.ENGLISH);
+    final long start = System.nanoTime();
+    final long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+    int attempt = 0;
+    while (true) {
+      final long queueNanos = System.nanoTime();
+      attempt = reserveSlot(browserKey, deadline, attempt);
+      recordQueueWait(System.nanoTime() - queueNanos);
+      WebDriver webDriver = null;
+      Exception refusal = null;
+      try {
+        attemptCount.incrementAndGet();
+        webDriver = sessionFactory.create();
+      } catch (final Exception e) {
+        // The grid filled up between the status poll and the request.
+        refusedCount.incrementAndGet();
+        refusal = e;
+      } finally {
+        startingMap.get(browserKey).decrementAndGet();
+      }
+      if (refusal != null) {
+        if (System.nanoTime() >= deadline) {
+          timeoutCount.incrementAndGet();
+          throw new QAException(
+              "Remote Web Driver could not be instanciated on [" + gridHub + "]", refusal);
+        }
+        pause(getBackoffMillis(attempt++), deadline);
+        continue;
+      }
+      acquiredCount.incrementAndGet();
+      Environment.sysOut(
+          "Grid session of ["
+              + browser
+              + "] started in ["
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+              + " ms] after ["
+              + attempt
+              + "] backoff(s)");
+      return webDriver;
+    }
+  }
+
+  private int reserveSlot(String browserKey, long deadline, int attempt) throws Throwable {
+    final AtomicInteger starting =
+        startingMap.computeIfAbsent(browserKey, key -> new AtomicInteger());
+    queuedMax.accumulateAndGet(queuedCount.incrementAndGet(), Math::max);
+    try {
+      if (!queue.tryLock(remainingMillis(deadline), TimeUnit.MILLISECONDS)) {
+        timeoutCount.incrementAndGet();
+        throw new QAException("Timed out queueing for a [" + browserKey + "] slot on " + gridHub);
+      }
+      try {
+        while (true) {
+          final int freeSlots = getFreeSlots(browserKey);
+          if (freeSlots == SLOTS_UNKNOWN || freeSlots > starting.get()) {
+            starting.incrementAndGet();
+            return attempt;
+          }
+          if (System.nanoTime() >= deadline) {
+            timeoutCount.incrementAndGet();
+            throw new QAException(
+                "No free [" + browserKey + "] slot on [" + gridHub + "] before the deadline");
+          }
+          pause(getBackoffMillis(attempt++), deadline);
+        }
+      } finally {
+        queue.unlock();
+      }
+    } finally {
+      queuedCount.decrementAndGet();
+    }
+  }
+
+  /**
+   * @param attempt backoffs taken so far
+   * @return between half and all of {@code backoffMillis * 2^attempt}, capped at {@code
+   *     maxBackoffMillis}
+   */
+  long getBackoffMillis(int attempt) {
+    long ceiling = maxBackoffMillis;
+    if (attempt < Long.SIZE - 1 && backoffMillis <= maxBackoffMillis >> attempt) {
+      ceiling = backoffMillis << attempt;
+    }
+    final long half = ceiling / 2;
+    return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+  }
+
+  private static long remainingMillis(long deadline) {
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+  }
+
+  private static void pause(long millis, long deadline) throws InterruptedException {
+    TimeUnit.MILLISECONDS.sleep(Math.min(millis, remainingMillis(deadline)));
+  }
+
+  private int getFreeSlots(String browserKey) {
+    statusPollCount.incrementAndGet();
+    try {
+      final HttpRequest httpRequest =
+          HttpRequest.newBuilder(URI.create(gridHub + "/status"))
+              .timeout(Duration.ofSeconds(5))
+              .GET()
+              .build();
+      final HttpResponse<String> httpResponse =
+          HTTP_CLIENT.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+      if (httpResponse.statusCode() != 200) {
+        return SLOTS_UNKNOWN;
+      }
+      return countFreeSlots(httpResponse.body(), browserKey);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return SLOTS_UNKNOWN;
+    } catch (final Exception e) {
+      return SLOTS_UNKNOWN;
+    }
+  }
+
+  /**
+   * Counts the free slots for a browser in a Selenium Grid 4 {@code /status} response.
+   *
+   * @param statusJson response body
+   * @param browser browser name, lower case
+   * @return the number of slots without a session on nodes that are up, or {@link #SLOTS_UNKNOWN}
+   *     if the response has no node list
+   */
+  static int countFreeSlots(String statusJson, String browser) {
+    try {
+      final JsonObject value =
+          JsonParser.parseString(statusJson).getAsJsonObject().getAsJsonObject("value");
+      if (value == null || !value.has("nodes")) {
+        return SLOTS_UNKNOWN;
+      }
+      int freeSlots = 0;
+      for (final JsonElement nodeElement : value.getAsJsonArray("nodes")) {
+        final JsonObject node = nodeElement.getAsJsonObject();
+        if (node.has("availability")
+            && !"UP".equalsIgnoreCase(node.get("availability").getAsString())) {
+          continue;
+        }
+        for (final JsonElement slotElement : node.getAsJsonArray("slots")) {
+          final JsonObject slot = slotElement.getAsJsonObject();
+          final JsonElement session = slot.get("session");
+          final JsonObject stereotype = slot.getAsJsonObject("stereotype");
+          if ((session == null || session.isJsonNull())
+              && stereotype != null
+              && stereotype.has("browserName")
+              && browser.equalsIgnoreCase(stereotype.get("browserName").getAsString())) {
+            freeSlots++;
+          }
+        }
+      }
+      return freeSlots;
+    } catch (final RuntimeException e) {
+      return SLOTS_UNKNOWN;
+    }
+  }
+
+  private void recordQueueWait(long queueNanos) {
+    queueNanosTotal.addAndGet(queueNanos);
+    queueNanosMax.accumulateAndGet(queueNanos, Math::max);
+  }
+
+  public String getGridHub() {
+    return gridHub;
+  }
+
+  public int getQueuedCount() {
+    return queuedCount.get();
+  }
+
+  public int getQueuedMax() {
+    return queuedMax.get();
+  }
+
+  public long getAcquiredCount() {
+    return acquiredCount.get();
+  }
+
+  public long getAttemptCount() {
+    return attemptCount.get();
+  }
+
+  public long getRefusedCount() {
+    return refusedCount.get();
+  }
+
+  public long getTimeoutCount() {
+    return timeoutCount.get();
+  }
+
+  public long getStatusPollCount() {
+    return statusPollCount.get();
+  }
+
+  public double getAverageQueueMillis() {
+    final long attempts = attemptCount.get();
+    return attempts == 0 ? 0 : queueNanosTotal.get() / 1_000_000.0 / attempts;
+  }
+
+  public double getMaxQueueMillis() {
+    return queueNanosMax.get() / 1_000_000.0;
+  }
+
+  public String getMetrics() {
+    final StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append("Grid:[" + getGridHub() + "]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Acquired:["
+            + getAcquiredCount()
+            + "], Attempts:["
+            + getAttemptCount()
+            + "], Refused:["
+            + getRefusedCount()
+            + "], Timeouts:["
+            + getTimeoutCount()
+            + "], Status Polls:["
+            + getStatusPollCount()
+            + "]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Queued:["
+            + getQueuedCount()
+            + "], Max Queued:["
+            + getQueuedMax()
+            + "], Average Queue Wait:["
+            + String.format("%.3f", getAverageQueueMillis())
+            + " ms], Max Queue Wait:["
+            + String.format("%.3f", getMaxQueueMillis())
+            + " ms]");
+    return stringBuilder.toString();
+  }
+}
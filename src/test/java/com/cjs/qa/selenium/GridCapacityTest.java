@@ -0,0 +1,122 @@
+package com.cjs.qa.selenium;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.cjs.qa.core.QAException;
+import com.sun.net.httpserver.HttpServer;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openqa.selenium.WebDriver;
+
+public class GridCapacityTest {
+  private static final String SLOT_FREE =
+      "{\"id\":{},\"session\":null,\"stereotype\":{\"browserName\":\"chrome\"}}";
+  private static final String SLOT_BUSY =
+      "{\"id\":{},\"session\":{\"sessionId\":\"1\"},\"stereotype\":{\"browserName\":\"chrome\"}}";
+  private static final String SLOT_FIREFOX =
+      "{\"id\":{},\"session\":null,\"stereotype\":{\"browserName\":\"firefox\"}}";
+  private final AtomicInteger statusPolls = new AtomicInteger();
+  private volatile int busyPolls = 0;
+  private HttpServer httpServer = null;
+  private String gridHub = null;
+
+  @Before
+  public void setUp() throws Exception {
+    httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    httpServer.createContext(
+        "/wd/hub/status",
+        exchange -> {
+          final String slot = statusPolls.incrementAndGet() <= busyPolls ? SLOT_BUSY : SLOT_FREE;
+          final byte[] body = status("UP", slot, SLOT_FIREFOX).getBytes(StandardCharsets.UTF_8);
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+          }
+        });
+    httpServer.start();
+    gridHub = "http://127.0.0.1:" + httpServer.getAddress().getPort() + "/wd/hub";
+  }
+
+  @After
+  public void tearDown() {
+    httpServer.stop(0);
+  }
+
+  private static String status(String availability, String... slots) {
+    return "{\"value\":{\"ready\":true,\"nodes\":[{\"availability\":\""
+        + availability
+        + "\",\"slots\":["
+        + String.join(",", slots)
+        + "]}]}}";
+  }
+
+  private static WebDriver newWebDriver() {
+    return (WebDriver)
+        Proxy.newProxyInstance(
+            WebDriver.class.getClassLoader(),
+            new Class<?>[] {WebDriver.class},
+            (proxy, method, args) -> null);
+  }
+
+  @Test
+  public void countsFreeSlotsOfTheBrowserOnNodesThatAreUp() {
+    assertEquals(
+        1, GridCapacity.countFreeSlots(status("UP", SLOT_FREE, SLOT_BUSY, SLOT_FIREFOX), "chrome"));
+    assertEquals(1, GridCapacity.countFreeSlots(status("UP", SLOT_FIREFOX), "firefox"));
+    assertEquals(0, GridCapacity.countFreeSlots(status("DRAINING", SLOT_FREE), "chrome"));
+    assertEquals(GridCapacity.SLOTS_UNKNOWN, GridCapacity.countFreeSlots("{}", "chrome"));
+    assertEquals(GridCapacity.SLOTS_UNKNOWN, GridCapacity.countFreeSlots("<html>", "chrome"));
+  }
+
+  @Test
+  public void backoffGrowsWithJitterUpToTheCap() {
+    final GridCapacity gridCapacity = new GridCapacity(gridHub, 1000, 100, 1000);
+    for (int attempt = 0; attempt < 40; attempt++) {
+      final long ceiling = Math.min(1000, attempt < 4 ? 100L << attempt : 1000);
+      final long backoffMillis = gridCapacity.getBackoffMillis(attempt);
+      assertTrue(backoffMillis >= ceiling / 2 && backoffMillis <= ceiling);
+    }
+  }
+
+  @Test
+  public void waitsForAFreeSlotBeforeStartingTheSession() throws Throwable {
+    busyPolls = 3;
+    final GridCapacity gridCapacity = new GridCapacity(gridHub, 10000, 10, 20);
+    final AtomicInteger sessionsStarted = new AtomicInteger();
+    final WebDriver webDriver =
+        gridCapacity.acquire(
+            Browser.CHROME,
+            () -> {
+              sessionsStarted.incrementAndGet();
+              return newWebDriver();
+            });
+    assertNotNull(webDriver);
+    assertEquals(1, sessionsStarted.get());
+    assertEquals(4, gridCapacity.getStatusPollCount());
+    assertEquals(1, gridCapacity.getAcquiredCount());
+  }
+
+  @Test
+  public void givesUpAtTheDeadline() throws Throwable {
+    busyPolls = Integer.MAX_VALUE;
+    final GridCapacity gridCapacity = new GridCapacity(gridHub, 200, 10, 50);
+    final long start = System.currentTimeMillis();
+    try {
+      gridCapacity.acquire(Browser.CHROME, GridCapacityTest::newWebDriver);
+      fail("Expected a QAException");
+    } catch (final QAException e) {
+      assertTrue(System.currentTimeMillis() - start < 5000);
+      assertEquals(1, gridCapacity.getTimeoutCount());
+      assertEquals(0, gridCapacity.getAttemptCount());
+    }
+  }
+}
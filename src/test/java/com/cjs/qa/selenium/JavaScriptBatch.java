@@ -0,0 +1,256 @@
+package com.cjs.qa.selenium;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Queues in-page operations for one interaction and runs them with a single {@code executeScript},
+ * instead of one WebDriver round trip each.
+ *
+ * <p>Operations run in the order they were added. Each returns a {@link Result} that can be read
+ * once the batch has been executed; the batch itself is used once. The highlight operations use the
+ * same border handling {@link Page} always has: the element's current border is read as four {@code
+ * width style color} parts separated by {@code ;} and restored from that string.
+ *
+ * <pre>{@code
+ * JavaScriptBatch batch = new JavaScriptBatch();
+ * batch.scrollIntoView(webElement);
+ * JavaScriptBatch.Result<String> border = batch.highlight(webElement);
+ * JavaScriptBatch.Result<List<String>> rect = batch.readRect(webElement);
+ * batch.execute(page::executeJavaScript);
+ * }</pre>
+ */
+public final class JavaScriptBatch {
+  private static final String SCRIPT_BATCH =
+      """
+      var readBorder = function (element) {
+        var sides = ['top', 'right', 'bottom', 'left'];
+        var style = element.currentStyle ? null : document.defaultView.getComputedStyle(element);
+        return sides.map(function (side) {
+          return ['width', 'style', 'color'].map(function (part) {
+            if (style) {
+              return style.getPropertyValue('border-' + side + '-' + part);
+            }
+            var name = 'border' + side.charAt(0).toUpperCase() + side.slice(1)
+                + part.charAt(0).toUpperCase() + part.slice(1);
+            return element.currentStyle[name];
+          }).join(' ');
+        }).join(';');
+      };
+      var restoreBorder = function (element, border) {
+        var borders = border.split(';');
+        element.style.borderTop = borders[0];
+        element.style.borderRight = borders[1];
+        element.style.borderBottom = borders[2];
+        element.style.borderLeft = borders[3];
+      };
+      var highlight = function (element, color) {
+        var border = readBorder(element);
+        element.style.border = '4px solid ' + color;
+        return border;
+      };
+      var rect = function (element) {
+        var bounds = element.getBoundingClientRect();
+        return ['' + parseInt(bounds.left), '' + parseInt(bounds.top),
+            '' + parseInt(bounds.width), '' + parseInt(bounds.height)];
+      };
+      return arguments[0].map(function (command) {
+        var element = command.element;
+        switch (command.op) {
+          case 'highlight':
+            return highlight(element, command.value);
+          case 'flash':
+            var border = highlight(element, command.value);
+            setTimeout(function () { restoreBorder(element, border); }, command.amount);
+            return border;
+          case 'restore':
+            restoreBorder(element, command.value);
+            return null;
+          case 'scrollIntoView':
+            element.scrollIntoView(true);
+            return null;
+          case 'centerVertically':
+            window.scrollTo(0, parseInt(element.getBoundingClientRect().top) - command.amount / 2);
+            return null;
+          case 'rect':
+            return rect(element);
+          case 'value':
+            return element.value === undefined ? null : String(element.value);
+          default:
+            throw new Error('Unknown batch operation: ' + command.op);
+        }
+      });
+      """;
+  private static final AtomicLong batchCount = new AtomicLong();
+  private static final AtomicLong operationCount = new AtomicLong();
+  private final List<Map<String, Object>> commandList = new ArrayList<>();
+  private final List<Result<?>> resultList = new ArrayList<>();
+  private boolean executed = false;
+
+  /**
+   * Typed result of one queued operation.
+   *
+   * @param <T> result type
+   */
+  public static final class Result<T> {
+    private final Function<Object, T> converter;
+    private T value = null;
+    private boolean set = false;
+
+    private Result(Function<Object, T> converter) {
+      this.converter = converter;
+    }
+
+    private void set(Object rawValue) {
+      value = converter.apply(rawValue);
+      set = true;
+    }
+
+    /**
+     * @return the operation's result
+     * @throws IllegalStateException if the batch has not been executed yet
+     */
+    public T get() {
+      if (!set) {
+        throw new IllegalStateException("The batch has not been executed");
+      }
+      return value;
+    }
+  }
+
+  private <T> Result<T> add(
+      String operation,
+      WebElement webElement,
+      String value,
+      Integer amount,
+      Function<Object, T> converter) {
+    if (executed) {
+      throw new IllegalStateException("The batch has already been executed");
+    }
+    final Map<String, Object> command = new HashMap<>();
+    command.put("op", operation);
+    command.put("element", webElement);
+    if (value != null) {
+      command.put("value", value);
+    }
+    if (amount != null) {
+      command.put("amount", amount);
+    }
+    commandList.add(command);
+    final Result<T> result = new Result<>(converter);
+    resultList.add(result);
+    return result;
+  }
+
+  private static String toText(Object value) {
+    return value == null ? null : value.toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<String> toTextList(Object value) {
+    final List<String> textList = new ArrayList<>();
+    for (final Object item : (List<Object>) value) {
+      textList.add(toText(item));
+    }
+    return textList;
+  }
+
+  /**
+   * Reads the element's border and replaces it with a {@link Page#BORDER_COLOR} highlight.
+   *
+   * @return the border to restore later
+   */
+  public Result<String> highlight(WebElement webElement) {
+    return add("highlight", webElement, Page.BORDER_COLOR, null, JavaScriptBatch::toText);
+  }
+
+  /**
+   * Highlights the element and has the page restore its border after {@code milliseconds}, so a
+   * flash costs one round trip.
+   *
+   * @return the border the element had
+   */
+  public Result<String> flash(WebElement webElement, int milliseconds) {
+    return add("flash", webElement, Page.BORDER_COLOR, milliseconds, JavaScriptBatch::toText);
+  }
+
+  /**
+   * @param border border read by {@link #highlight(WebElement)}
+   */
+  public Result<Void> restore(WebElement webElement, String border) {
+    return add("restore", webElement, border, null, value -> null);
+  }
+
+  public Result<Void> scrollIntoView(WebElement webElement) {
+    return add("scrollIntoView", webElement, null, null, value -> null);
+  }
+
+  /**
+   * Scrolls the window so the element's top is half of {@code viewportHeight} above where it is.
+   */
+  public Result<Void> centerVertically(WebElement webElement, int viewportHeight) {
+    return add("centerVertically", webElement, null, viewportHeight, value -> null);
+  }
+
+  /**
+   * @return left, top, width and height, as {@link Page#getBoundedRectangleOfElement(WebElement)}
+   *     returns them
+   */
+  public Result<List<String>> readRect(WebElement webElement) {
+    return add("rect", webElement, null, null, JavaScriptBatch::toTextList);
+  }
+
+  /**
+   * @return the element's {@code value} property, or {@code null} if it has none
+   */
+  public Result<String> readValue(WebElement webElement) {
+    return add("value", webElement, null, null, JavaScriptBatch::toText);
+  }
+
+  public int size() {
+    return commandList.size();
+  }
+
+  public boolean isEmpty() {
+    return commandList.isEmpty();
+  }
+
+  /**
+   * Runs every queued operation in one script call.
+   *
+   * @param executor runs a script with one argument and returns its result, e.g. {@code
+   *     page::executeJavaScript}
+   */
+  public void execute(BiFunction<String, Object, Object> executor) {
+    if (executed) {
+      throw new IllegalStateException("The batch has already been executed");
+    }
+    executed = true;
+    if (commandList.isEmpty()) {
+      return;
+    }
+    batchCount.incrementAndGet();
+    operationCount.addAndGet(commandList.size());
+    final List<?> valueList = (List<?>) executor.apply(SCRIPT_BATCH, commandList);
+    for (int index = 0; index < resultList.size(); index++) {
+      resultList.get(index).set(valueList.get(index));
+    }
+  }
+
+  public static String getMetrics() {
+    final long batches = batchCount.get();
+    return "JavaScript Batches:["
+        + batches
+        + "], Operations:["
+        + operationCount.get()
+        + "], Round Trips Saved:["
+        + (operationCount.get() - batches)
+        + "]";
+  }
+}
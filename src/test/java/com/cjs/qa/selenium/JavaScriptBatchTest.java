@@ -0,0 +1,112 @@
+package com.cjs.qa.selenium;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+public class JavaScriptBatchTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private HtmlUnitDriver webDriver = null;
+  private final AtomicInteger scriptCalls = new AtomicInteger();
+
+  @Before
+  public void setUp() throws Exception {
+    final File file = temporaryFolder.newFile("form.html");
+    Files.writeString(
+        file.toPath(),
+        "<html><body style='margin:0'><div style='height:20px'></div>"
+            + "<input id='name' value='Jigsaw' style='border:2px dashed rgb(0, 0, 255);"
+            + " width:100px; height:10px'/></body></html>",
+        StandardCharsets.UTF_8);
+    webDriver = new HtmlUnitDriver(true);
+    webDriver.get(file.toURI().toString());
+  }
+
+  @After
+  public void tearDown() {
+    webDriver.quit();
+  }
+
+  private Object execute(String script, Object arguments) {
+    scriptCalls.incrementAndGet();
+    return webDriver.executeScript(script, arguments);
+  }
+
+  private String borderTopStyle(WebElement webElement) {
+    return (String)
+        ((JavascriptExecutor) webDriver)
+            .executeScript(
+                "return window.getComputedStyle(arguments[0]).borderTopStyle;", webElement);
+  }
+
+  @Test
+  public void runsEveryOperationInOneCall() {
+    final WebElement webElement = webDriver.findElement(By.id("name"));
+    final JavaScriptBatch javaScriptBatch = new JavaScriptBatch();
+    javaScriptBatch.scrollIntoView(webElement);
+    final JavaScriptBatch.Result<String> border = javaScriptBatch.highlight(webElement);
+    final JavaScriptBatch.Result<List<String>> rect = javaScriptBatch.readRect(webElement);
+    final JavaScriptBatch.Result<String> value = javaScriptBatch.readValue(webElement);
+    assertEquals(4, javaScriptBatch.size());
+    javaScriptBatch.execute(this::execute);
+    assertEquals(1, scriptCalls.get());
+    assertEquals(4, border.get().split(";").length);
+    assertTrue(border.get(), border.get().startsWith("2px dashed"));
+    assertEquals(4, rect.get().size());
+    assertEquals("20", rect.get().get(1));
+    assertEquals("Jigsaw", value.get());
+    assertEquals("solid", borderTopStyle(webElement));
+  }
+
+  @Test
+  public void restoresTheBorderReadByHighlight() {
+    final WebElement webElement = webDriver.findElement(By.id("name"));
+    final JavaScriptBatch highlightBatch = new JavaScriptBatch();
+    final JavaScriptBatch.Result<String> border = highlightBatch.highlight(webElement);
+    highlightBatch.execute(this::execute);
+    final JavaScriptBatch restoreBatch = new JavaScriptBatch();
+    restoreBatch.restore(webElement, border.get());
+    final JavaScriptBatch.Result<String> value =
+        restoreBatch.readValue(webDriver.findElement(By.tagName("div")));
+    restoreBatch.execute(this::execute);
+    assertEquals("dashed", borderTopStyle(webElement));
+    assertNull(value.get());
+  }
+
+  @Test
+  public void resultsAreOnlyReadableOnceExecuted() {
+    final JavaScriptBatch javaScriptBatch = new JavaScriptBatch();
+    final JavaScriptBatch.Result<String> value =
+        javaScriptBatch.readValue(webDriver.findElement(By.id("name")));
+    try {
+      value.get();
+      fail("Expected an IllegalStateException");
+    } catch (final IllegalStateException e) {
+      assertEquals(0, scriptCalls.get());
+    }
+    javaScriptBatch.execute(this::execute);
+    try {
+      javaScriptBatch.execute(this::execute);
+      fail("Expected an IllegalStateException");
+    } catch (final IllegalStateException e) {
+      assertEquals(Arrays.asList("Jigsaw"), Arrays.asList(value.get()));
+    }
+  }
+}
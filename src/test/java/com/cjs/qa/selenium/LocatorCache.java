@@ -0,0 +1,267 @@
+package com.cjs.qa.selenium;
+
+import com.cjs.qa.utilities.JavaHelpers;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Sequence;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+/**
+ * Remembers the element each {@link By} resolved to on the current page, so a page object that
+ * touches the same field several times in a row finds it once.
+ *
+ * <p>The cache listens to the page's decorated driver. Navigation, frame and window switches,
+ * {@code close} and {@code quit} empty it. A click, submit or action sequence can rebuild part of
+ * the DOM, so after one (or after {@link #markSuspect()}, which {@link Page} calls once it has
+ * acted on an element) the cached elements are only trusted again once {@code isDisplayed()} has
+ * answered for them; otherwise a hit costs no round trip at all. An element that went stale anyway
+ * throws {@link StaleElementReferenceException} when it is used, and {@link Page} then evicts it
+ * and resolves the locator again. Scripts run by the page are not tracked. So only the {@link Page}
+ * methods that can retry read from the cache; {@code waitExists} and {@code getWebElement}, which
+ * hand the element to their caller, always resolve the locator.
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code selenium.locatorCache.enabled} - cache resolved elements (default true)
+ *   <li>{@code selenium.locatorCache.maxSize} - locators kept per page (default 256)
+ * </ul>
+ */
+public final class LocatorCache implements WebDriverListener {
+  public static final String PROPERTY_ENABLED = "selenium.locatorCache.enabled";
+  public static final String PROPERTY_MAX_SIZE = "selenium.locatorCache.maxSize";
+  private static final boolean ENABLED =
+      Boolean.parseBoolean(JavaHelpers.readPropertyOrEnv(PROPERTY_ENABLED, "true").trim());
+  private static final int MAX_SIZE = JavaHelpers.readPropertyOrEnvInt(PROPERTY_MAX_SIZE, 256);
+  private static final Set<String> CONTEXT_SWITCHES =
+      Set.of("frame", "parentFrame", "window", "newWindow", "defaultContent");
+  private static final AtomicLong totalHits = new AtomicLong();
+  private static final AtomicLong totalMisses = new AtomicLong();
+  private static final AtomicLong totalStale = new AtomicLong();
+  private final boolean enabled;
+  private final Map<By, Entry> entryMap;
+  private long generation = 0;
+  private long hits = 0;
+  private long misses = 0;
+  private long stale = 0;
+  private long probes = 0;
+  private long invalidations = 0;
+
+  private static final class Entry {
+    private final WebElement webElement;
+    private long generation;
+
+    private Entry(WebElement webElement, long generation) {
+      this.webElement = webElement;
+      this.generation = generation;
+    }
+  }
+
+  public LocatorCache() {
+    this(ENABLED, MAX_SIZE);
+  }
+
+  LocatorCache(boolean enabled, int maxSize) {
+    this.enabled = enabled;
+    final int capacity = Math.max(1, maxSize);
+    this.entryMap =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<By, Entry> eldest) {
+            return size() > capacity;
+          }
+        };
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @param by
+   * @return the cached element, or {@code null} if the locator has to be resolved
+   */
+  public synchronized WebElement get(By by) {
+    if (!enabled) {
+      return null;
+    }
+    final Entry entry = entryMap.get(by);
+    if (entry == null) {
+      misses++;
+      totalMisses.incrementAndGet();
+      return null;
+    }
+    if (entry.generation != generation) {
+      probes++;
+      boolean displayed;
+      try {
+        displayed = entry.webElement.isDisplayed();
+      } catch (final WebDriverException e) {
+        displayed = false;
+      }
+      if (!displayed) {
+        entryMap.remove(by);
+        stale++;
+        totalStale.incrementAndGet();
+        misses++;
+        totalMisses.incrementAndGet();
+        return null;
+      }
+      entry.generation = generation;
+    }
+    hits++;
+    totalHits.incrementAndGet();
+    return entry.webElement;
+  }
+
+  /**
+   * @param by
+   * @param webElement element the locator resolved to
+   */
+  public synchronized void put(By by, WebElement webElement) {
+    if (enabled && webElement != null) {
+      entryMap.put(by, new Entry(webElement, generation));
+    }
+  }
+
+  /**
+   * Drops an element that turned out to be stale or no longer usable.
+   *
+   * @param by
+   */
+  public synchronized void evict(By by) {
+    if (entryMap.remove(by) != null) {
+      stale++;
+      totalStale.incrementAndGet();
+    }
+  }
+
+  /** Forgets every element, e.g. after the page changed. */
+  public synchronized void clear() {
+    if (!entryMap.isEmpty()) {
+      entryMap.clear();
+      invalidations++;
+    }
+  }
+
+  public synchronized int size() {
+    return entryMap.size();
+  }
+
+  /**
+   * Has every cached element checked before it is returned again, for changes the driver events do
+   * not show, such as a click on an element found by a script.
+   */
+  public synchronized void markSuspect() {
+    generation++;
+  }
+
+  @Override
+  public void afterGet(WebDriver driver, String url) {
+    clear();
+  }
+
+  @Override
+  public void afterAnyNavigationCall(
+      WebDriver.Navigation navigation, Method method, Object[] args, Object result) {
+    clear();
+  }
+
+  @Override
+  public void afterAnyTargetLocatorCall(
+      WebDriver.TargetLocator targetLocator, Method method, Object[] args, Object result) {
+    if (CONTEXT_SWITCHES.contains(method.getName())) {
+      clear();
+    }
+  }
+
+  @Override
+  public void afterClose(WebDriver driver) {
+    clear();
+  }
+
+  @Override
+  public void afterQuit(WebDriver driver) {
+    clear();
+  }
+
+  @Override
+  public void afterClick(WebElement element) {
+    markSuspect();
+  }
+
+  @Override
+  public void afterSubmit(WebElement element) {
+    markSuspect();
+  }
+
+  @Override
+  public void afterPerform(WebDriver driver, Collection<Sequence> actions) {
+    markSuspect();
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getStaleCount() {
+    return stale;
+  }
+
+  /**
+   * @return hits as a share of lookups, 0 before the first lookup
+   */
+  public synchronized double getHitRate() {
+    final long lookups = hits + misses;
+    return lookups == 0 ? 0 : (double) hits / lookups;
+  }
+
+  public synchronized String getMetrics() {
+    return "Locator Cache Hits:["
+        + hits
+        + "], Misses:["
+        + misses
+        + "], Hit Rate:["
+        + Math.round(getHitRate() * 100)
+        + "%], Stale:["
+        + stale
+        + "], Probes:["
+        + probes
+        + "], Invalidations:["
+        + invalidations
+        + "], Size:["
+        + entryMap.size()
+        + "]";
+  }
+
+  /**
+   * @return hits, misses and stale elements of every page's cache
+   */
+  public static String getTotalMetrics() {
+    final long lookups = totalHits.get() + totalMisses.get();
+    return "Locator Cache Hits:["
+        + totalHits.get()
+        + "], Misses:["
+        + totalMisses.get()
+        + "], Hit Rate:["
+        + (lookups == 0 ? 0 : Math.round(totalHits.get() * 100.0 / lookups))
+        + "%], Stale:["
+        + totalStale.get()
+        + "]";
+  }
+}
@@ -0,0 +1,91 @@
+package com.cjs.qa.selenium;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+public class LocatorCacheTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private final By byName = By.id("name");
+  private File file = null;
+  private Page page = null;
+
+  @Before
+  public void setUp() throws Exception {
+    file = temporaryFolder.newFile("form.html");
+    Files.writeString(
+        file.toPath(),
+        "<html><body><form><input id='name' value='Jigsaw'/>"
+            + "<button id='replace' type='button' onclick=\"document.getElementById('name')"
+            + ".outerHTML = '<input id=name value=Puzzle>';\">Replace</button>"
+            + "</form></body></html>",
+        StandardCharsets.UTF_8);
+    page = new Page(new HtmlUnitDriver(true));
+    page.getWebDriver().get(file.toURI().toString());
+  }
+
+  @After
+  public void tearDown() {
+    page.getWebDriver().quit();
+  }
+
+  @Test
+  public void repeatedLookupsAreServedFromTheCache() {
+    assertEquals("Jigsaw", page.getEdit(byName));
+    assertEquals("Jigsaw", page.getEdit(byName));
+    assertEquals("Jigsaw", page.getEdit(byName));
+    final LocatorCache locatorCache = page.getLocatorCache();
+    assertEquals(2, locatorCache.getHits());
+    assertEquals(1, locatorCache.getMisses());
+    assertEquals(2.0 / 3, locatorCache.getHitRate(), 0.001);
+    page.getWebDriver().navigate().refresh();
+    assertEquals(0, locatorCache.size());
+    page.getEdit(byName);
+    assertEquals(2, locatorCache.getMisses());
+  }
+
+  @Test
+  public void resolvesAgainWhenTheCachedElementIsStale() {
+    assertEquals("Jigsaw", page.getEdit(byName));
+    ((JavascriptExecutor) page.getWebDriver())
+        .executeScript(
+            "document.getElementById('name').outerHTML = '<input id=\"name\" value=\"Puzzle\">';");
+    assertEquals("Puzzle", page.getEdit(byName));
+    assertEquals(1, page.getLocatorCache().getStaleCount());
+  }
+
+  @Test
+  public void checksCachedElementsAgainAfterAClick() {
+    assertEquals("Jigsaw", page.getEdit(byName));
+    page.clickObject(By.id("replace"));
+    assertEquals("Puzzle", page.getEdit(byName));
+    assertEquals(1, page.getLocatorCache().getStaleCount());
+  }
+
+  @Test
+  public void elementsHandedToCallersAreAlwaysResolvedAgain() {
+    final WebElement webElement = page.waitExists(byName);
+    ((JavascriptExecutor) page.getWebDriver())
+        .executeScript(
+            "document.getElementById('name').outerHTML = '<input id=\"name\" value=\"Puzzle\">';");
+    final WebElement replaced = page.waitExists(byName);
+    assertNotSame(webElement, replaced);
+    assertEquals("Puzzle", replaced.getAttribute("value"));
+    assertEquals(0, page.getLocatorCache().getHits());
+    // The element it resolved is reused by the getters.
+    assertEquals("Puzzle", page.getEdit(byName));
+    assertEquals(1, page.getLocatorCache().getHits());
+  }
+}
@@ -20,6 +20,7 @@
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import javax.swing.JEditorPane;
 import org.apache.commons.collections.CollectionUtils;
@@ -34,12 +35,14 @@
 import org.openqa.selenium.Alert;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Dimension;
+import org.openqa.selenium.ElementNotInteractableException;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.interactions.Action;
@@ -62,38 +65,6 @@ public class Page extends JavaHelpers {
   public static final String LABEL_OPTION_UNCHECKED = "unchecked";
   // red;deeppink;fuchsia
   public static final String BORDER_COLOR = "deeppink";
-  private final String scriptGetElementBorder =
-      "var element = arguments[0];if (element.currentStyle) {var style ="
-          + " element.currentStyle;var border = style['borderTopWidth'] + ' ' +"
-          + " style['borderTopStyle'] + ' ' + style['borderTopColor'] + ';' +"
-          + " style['borderRightWidth'] + ' ' + style['borderRightStyle'] + ' ' +"
-          + " style['borderRightColor'] + ';' + style['borderBottomWidth'] + ' ' +"
-          + " style['borderBottomStyle'] + ' ' + style['borderBottomColor'] + ';' +"
-          + " style['borderLeftWidth'] + ' ' + style['borderLeftStyle'] + ' ' +"
-          + " style['borderLeftColor'];} else if (window.getComputedStyle) {var style ="
-          + " document.defaultView.getComputedStyle(element);var border ="
-          + " style.getPropertyValue('border-top-width') + ' ' +"
-          + " style.getPropertyValue('border-top-style') + ' ' +"
-          + " style.getPropertyValue('border-top-color') + ';' +"
-          + " style.getPropertyValue('border-right-width') + ' ' +"
-          + " style.getPropertyValue('border-right-style') + ' ' +"
-          + " style.getPropertyValue('border-right-color') + ';' +"
-          + " style.getPropertyValue('border-bottom-width') + ' ' +"
-          + " style.getPropertyValue('border-bottom-style') + ' ' +"
-          + " style.getPropertyValue('border-bottom-color') + ';' +"
-          + " style.getPropertyValue('border-left-width') + ' ' +"
-          + " style.getPropertyValue('border-left-style') + ' ' +"
-          + " style.getPropertyValue('border-left-color');}element.style.border = '4px solid "
-          + BORDER_COLOR
-          + "';"
-          + "return border;";
-  private final String scriptUnhighlightElement =
-      "var element = arguments[0];"
-          + "var borders = arguments[1].split(';');"
-          + "element.style.borderTop = borders[0];"
-          + "element.style.borderRight = borders[1];"
-          + "element.style.borderBottom = borders[2];"
-          + "element.style.borderLeft = borders[3];";
   // public final boolean SCROLL_TO_OBJECT = false
   private static final String FORMAT_SCREENSHOT_NUMBER = "000000";
   private static final int flashMilliseconds = 25;
@@ -105,6 +76,8 @@ public class Page extends JavaHelpers {
   private int screenshotCounter = 1;
   private SeleniumWebDriverEventListener seleniumWebDriverEventListener =
       new SeleniumWebDriverEventListener();
+  private WaitEngine waitEngine = null;
+  private final LocatorCache locatorCache = new LocatorCache();
 
   /**
    * @param webDriver
@@ -112,18 +85,10 @@ public class Page extends JavaHelpers {
   public Page(WebDriver webDriver) {
     setWebDriver(webDriver);
     EventFiringDecorator<WebDriver> eventFiringWebDriver =
-        new EventFiringDecorator<>(seleniumWebDriverEventListener);
+        new EventFiringDecorator<>(seleniumWebDriverEventListener, locatorCache);
     setWebDriver(eventFiringWebDriver.decorate(getWebDriver()));
   }
 
-  private String getScriptGetElementBorder() {
-    return scriptGetElementBorder;
-  }
-
-  private String getScriptUnhighlightElement() {
-    return scriptUnhighlightElement;
-  }
-
   private String getFormatScreenshotNumber() {
     return FORMAT_SCREENSHOT_NUMBER;
   }
@@ -164,13 +129,12 @@ public boolean flashCurrentElement(WebElement webElement, int flashMilliseconds)
     if (!Environment.isFlashObjects()) {
       return true;
     }
-    boolean success = highlightCurrentElement(webElement);
+    // The page restores the border itself, so the flash is a single round trip.
+    final boolean success = highlightCurrentElement(webElement, flashMilliseconds, batch -> {});
     if (!success) {
       return success;
     }
-    sleep(0, flashMilliseconds);
-    success = unhighlightPreviousElement();
-    sleep(0, flashMilliseconds);
+    sleep(0, flashMilliseconds * 2);
     return success;
   }
 
@@ -228,17 +192,35 @@ public String getUserName() {
    * @return
    */
   public boolean highlightCurrentElement(WebElement webElement) {
-    if (Environment.isFlashObjects()) {
-      unhighlightPreviousElement();
+    return highlightCurrentElement(webElement, 0, batch -> {});
+  }
+
+  /**
+   * Un-highlights the previous element (when flashing), runs the caller's operations and highlights
+   * {@code webElement}, all in one {@link JavaScriptBatch}.
+   *
+   * @param webElement
+   * @param flashMilliseconds 0 to leave the highlight on, otherwise how long the page keeps it
+   * @param before operations to run ahead of the highlight, in the same batch
+   * @return
+   */
+  private boolean highlightCurrentElement(
+      WebElement webElement, int flashMilliseconds, Consumer<JavaScriptBatch> before) {
+    if (!(getWebDriver() instanceof JavascriptExecutor)) {
+      setPreviousWebElement(webElement);
+      return true;
     }
+    final WebElement webElementPrevious =
+        Environment.isFlashObjects() ? getPreviousWebElement() : null;
     try {
-      // remember the new webElement
-      setPreviousWebElement(webElement);
-      // setPreviousBorder((String)
-      // (executeJavaScript(getScriptGetElementBorder(), webElement)))
-      // Java 17: Pattern matching for instanceof
-      if (getWebDriver() instanceof JavascriptExecutor) {
-        setPreviousBorder((String) executeJavaScript(getScriptGetElementBorder(), webElement));
+      try {
+        executeHighlightBatch(webElement, flashMilliseconds, before, webElementPrevious);
+      } catch (final StaleElementReferenceException e) {
+        if (webElementPrevious == null) {
+          throw e;
+        }
+        // the page got reloaded, the previous element isn't there
+        executeHighlightBatch(webElement, flashMilliseconds, before, null);
       }
       return true;
     } catch (final Exception e) {
@@ -247,6 +229,33 @@ public boolean highlightCurrentElement(WebElement webElement) {
     }
   }
 
+  private void executeHighlightBatch(
+      WebElement webElement,
+      int flashMilliseconds,
+      Consumer<JavaScriptBatch> before,
+      WebElement webElementPrevious) {
+    final JavaScriptBatch javaScriptBatch = new JavaScriptBatch();
+    if (webElementPrevious != null) {
+      javaScriptBatch.restore(webElementPrevious, getPreviousBorder());
+    }
+    before.accept(javaScriptBatch);
+    final JavaScriptBatch.Result<String> border =
+        flashMilliseconds > 0
+            ? javaScriptBatch.flash(webElement, flashMilliseconds)
+            : javaScriptBatch.highlight(webElement);
+    try {
+      executeBatch(javaScriptBatch);
+    } finally {
+      // element either restored or wasn't valid, nullify in both cases
+      setPreviousWebElement(null);
+    }
+    if (flashMilliseconds == 0) {
+      // remember the new webElement
+      setPreviousWebElement(webElement);
+      setPreviousBorder(border.get());
+    }
+  }
+
   /**
    * @param webElement
    * @return
@@ -278,12 +287,10 @@ public boolean unhighlightPreviousElement() {
     if (getPreviousWebElement() != null) {
       try {
         // if there already is a highlighted element, un-highlight it
-        // executeJavaScript(getScriptUnhighlightElement(),
-        // getPreviousWebElement(), getPreviousBorder())
-        // Java 17: Pattern matching for instanceof
         if (webDriver instanceof JavascriptExecutor) {
-          executeJavaScript(
-              getScriptUnhighlightElement(), getPreviousWebElement(), getPreviousBorder());
+          final JavaScriptBatch javaScriptBatch = new JavaScriptBatch();
+          javaScriptBatch.restore(getPreviousWebElement(), getPreviousBorder());
+          executeBatch(javaScriptBatch);
           success = true;
         }
       } catch (final StaleElementReferenceException ignored) {
@@ -457,8 +464,7 @@ protected void clickMethodsOther(By by) {
    */
   protected void clickObject(By by) {
     // clickMethodsOther(By)
-    final WebElement webElement = getWebElement(by);
-    clickObject(webElement);
+    actOnWebElement(by, true, this::clickObject);
   }
 
   /**
@@ -586,6 +592,15 @@ public Object executeJavaScript(String script, Object arguments, String value) {
     return getJavascriptExecutor().executeScript(script, arguments, value);
   }
 
+  /**
+   * Runs every operation queued in the batch with one script call.
+   *
+   * @param javaScriptBatch
+   */
+  public void executeBatch(JavaScriptBatch javaScriptBatch) {
+    javaScriptBatch.execute(this::executeJavaScript);
+  }
+
   /**
    * @param by
    * @param timeOut
@@ -673,12 +688,10 @@ public List<String> getAllFieldsType(String xpath) {
    * @return
    */
   public List<String> getBoundedRectangleOfElement(WebElement webElement) {
-    final String script =
-        "var rect = arguments[0].getBoundingClientRect();return [ '' + parseInt(rect.left),"
-            + " '' + parseInt(rect.top), '' + parseInt(rect.width), '' +"
-            + " parseInt(rect.height) ]";
-    @SuppressWarnings("unchecked")
-    final List<String> bounds = (List<String>) executeJavaScript(script, webElement);
+    final JavaScriptBatch javaScriptBatch = new JavaScriptBatch();
+    final JavaScriptBatch.Result<List<String>> rect = javaScriptBatch.readRect(webElement);
+    executeBatch(javaScriptBatch);
+    final List<String> bounds = rect.get();
     if (isLogAll()) {
       logFieldNameTagNameValue(webElement.toString(), webElement.getTagName(), bounds.toString());
     }
@@ -691,7 +704,8 @@ public List<String> getBoundedRectangleOfElement(WebElement webElement) {
    */
   protected String getCheckbox(By by) {
     String value;
-    if (getWebElement(by).getAttribute(LABEL_OPTION_CHECKED) == null) {
+    if (withWebElement(by, true, webElement -> webElement.getAttribute(LABEL_OPTION_CHECKED))
+        == null) {
       value = LABEL_OPTION_UNCHECKED;
     } else {
       value = LABEL_OPTION_CHECKED;
@@ -767,13 +781,17 @@ public String getCookie(String cookie) {
    * @return
    */
   protected String getDropdown(By by) {
-    final WebElement webElement = waitExists(by);
-    final Select select = new Select(webElement);
-    final String value = select.getFirstSelectedOption().getText();
-    if (Environment.isLogAll()) {
-      logFieldName(webElement.toString(), value);
-    }
-    return value;
+    return withWebElement(
+        by,
+        false,
+        webElement -> {
+          final Select select = new Select(webElement);
+          final String value = select.getFirstSelectedOption().getText();
+          if (Environment.isLogAll()) {
+            logFieldName(webElement.toString(), value);
+          }
+          return value;
+        });
   }
 
   /**
@@ -807,13 +825,17 @@ public String getDynamicID(String wildCard) {
    * @return
    */
   protected String getEdit(By by) {
-    final WebElement webElement = getWebElement(by);
-    String value;
-    value = webElement.getAttribute("value");
-    if (Environment.isLogAll()) {
-      logFieldName(webElement.toString(), value);
-    }
-    return value;
+    return withWebElement(
+        by,
+        true,
+        webElement -> {
+          String value;
+          value = webElement.getAttribute("value");
+          if (Environment.isLogAll()) {
+            logFieldName(webElement.toString(), value);
+          }
+          return value;
+        });
   }
 
   /**
@@ -1018,18 +1040,56 @@ public WebDriver getWebDriver() {
     return webDriver;
   }
 
+  public WaitEngine getWaitEngine() {
+    if (waitEngine == null) {
+      waitEngine = new WaitEngine(getWebDriver());
+    }
+    return waitEngine;
+  }
+
+  /**
+   * Waits for a condition instead of sleeping a fixed time.
+   *
+   * @param key names the condition in the wait statistics; reuse it for the same condition
+   * @param timeoutSeconds
+   * @param condition returns null or false until it is met
+   * @return the condition's value
+   */
+  public <T> T waitUntil(String key, int timeoutSeconds, Function<WebDriver, T> condition) {
+    return getWaitEngine().until(key, java.time.Duration.ofSeconds(timeoutSeconds), condition);
+  }
+
   /**
    * @param by
    * @return
    */
   protected WebElement getWebElement(By by) {
     // System.out.print("Object:[" + By.toString() + "]" + Constants.TAB)
-    final WebElement webElement = waitExists(by);
-    if (Environment.isScrollToObjects()) {
-      scrollElementIntoView(webElement);
-    }
+    return prepareWebElement(waitExists(by));
+  }
+
+  /**
+   * Scrolls to and highlights the element, as configured.
+   *
+   * @param webElement
+   * @return the element
+   */
+  private WebElement prepareWebElement(WebElement webElement) {
     if (Environment.isHighlightObjects()) {
-      highlightCurrentElement(webElement);
+      // scroll and highlight in one round trip
+      highlightCurrentElement(
+          webElement,
+          0,
+          batch -> {
+            if (Environment.isScrollToObjects()) {
+              batch.scrollIntoView(webElement);
+            }
+          });
+      if (Environment.isScrollToObjects()) {
+        moveToElement(webElement);
+      }
+    } else if (Environment.isScrollToObjects()) {
+      scrollElementIntoView(webElement);
     }
     // WebElement webElement = waitClickable(getWebDriver().findElement(By))
     // WebDriverWait webDriverWait = new WebDriverWait(getWebDriver(),
@@ -1094,8 +1154,7 @@ protected void hoverOverWebElement(WebElement webElement) {
    * @return
    */
   public boolean isDisplayed(By by) {
-    final WebElement webElement = waitExists(by);
-    return webElement.isDisplayed();
+    return withWebElement(by, false, WebElement::isDisplayed);
   }
 
   /**
@@ -1103,8 +1162,7 @@ public boolean isDisplayed(By by) {
    * @return
    */
   public boolean isEnabled(By by) {
-    final WebElement webElement = waitExists(by);
-    return webElement.isEnabled();
+    return withWebElement(by, false, WebElement::isEnabled);
   }
 
   public boolean isHorizontalScrollbarPresent() {
@@ -1198,9 +1256,7 @@ protected boolean objectExists(By by) {
    */
   protected boolean objectExists(By by, int seconds) {
     try {
-      final WebDriverWait webDriverWait =
-          new WebDriverWait(getWebDriver(), java.time.Duration.ofSeconds(seconds));
-      webDriverWait.until(ExpectedConditions.visibilityOfElementLocated(by));
+      getWaitEngine().waitForElement(by, true, java.time.Duration.ofSeconds(seconds));
     } catch (final Exception e) {
       return false;
     }
@@ -1392,23 +1448,28 @@ public void scrollToElement(String xPath) {
    * @param webElement
    */
   public void scrollToElementAndCenterVertically(WebElement webElement) {
-    try {
-      final List<String> bounds = getBoundedRectangleOfElement(webElement);
-      final double totalInnerPageHeight = getViewPortHeight();
-      final double centerLocation = Integer.parseInt(bounds.get(1)) - totalInnerPageHeight / 2;
-      final String script = "window.scrollTo(0, " + centerLocation + ");";
-      executeJavaScript(script);
-      final Actions actions = new Actions(getWebDriver());
-      actions.moveToElement(webElement);
-    } catch (final Exception e) {
-      Environment.sysOut(e.getMessage());
-    }
-    if (Environment.isHighlightObjects()) {
-      for (int iFlash = 1; iFlash <= 3; iFlash++) {
+    final int totalInnerPageHeight = (int) getViewPortHeight();
+    if (Environment.isHighlightObjects() && !Environment.isFlashObjects()) {
+      try {
+        final JavaScriptBatch javaScriptBatch = new JavaScriptBatch();
+        javaScriptBatch.centerVertically(webElement, totalInnerPageHeight);
+        executeBatch(javaScriptBatch);
+      } catch (final Exception e) {
+        Environment.sysOut(e.getMessage());
+      }
+      return;
+    }
+    // center and highlight (or the first flash) in one round trip
+    final boolean flash = Environment.isHighlightObjects();
+    highlightCurrentElement(
+        webElement,
+        flash ? getFlashMilliseconds() : 0,
+        batch -> batch.centerVertically(webElement, totalInnerPageHeight));
+    if (flash) {
+      sleep(0, getFlashMilliseconds() * 2);
+      for (int iFlash = 2; iFlash <= 3; iFlash++) {
         flashCurrentElement(webElement, getFlashMilliseconds());
       }
-    } else {
-      highlightCurrentElement(webElement);
     }
   }
 
@@ -1454,9 +1515,7 @@ protected void selectDropdown(By by, String value) {
     if (Environment.isLogAll()) {
       logFieldName(by.toString(), value);
     }
-    final WebElement webElement = waitExists(by);
-    final Select select = new Select(webElement);
-    select.selectByVisibleText(value);
+    actOnWebElement(by, false, webElement -> new Select(webElement).selectByVisibleText(value));
   }
 
   /**
@@ -1467,9 +1526,7 @@ protected void selectDropdownByIndex(By by, int index) {
     if (Environment.isLogAll()) {
       logFieldName(by.toString(), String.valueOf(index));
     }
-    final WebElement webElement = waitExists(by);
-    final Select select = new Select(webElement);
-    select.selectByIndex(index);
+    actOnWebElement(by, false, webElement -> new Select(webElement).selectByIndex(index));
   }
 
   /**
@@ -1501,10 +1558,14 @@ protected void selectOption(By by, String value) {
     if (Environment.isLogAll()) {
       logFieldName(by.toString(), value);
     }
-    final WebElement parent = waitExists(by);
-    final WebElement child =
-        parent.findElement(By.xpath(".//label[contains(text(),'" + value + "')]"));
-    child.click();
+    actOnWebElement(
+        by,
+        false,
+        parent -> {
+          final WebElement child =
+              parent.findElement(By.xpath(".//label[contains(text(),'" + value + "')]"));
+          child.click();
+        });
   }
 
   /**
@@ -1648,13 +1709,18 @@ protected void setEdit(By by, String value) {
     if (Environment.isLogAll()) {
       logFieldName(by.toString(), value);
     }
-    final WebElement webElement = getWebElement(by);
-    // Environment.sysOut(webElement.toString())
-    CharSequence[] keysToSend = new CharSequence[] {value};
-    seleniumWebDriverEventListener.beforeChangeValueOf(webElement, getWebDriver(), keysToSend);
-    webElement.clear();
-    webElement.sendKeys(value);
-    seleniumWebDriverEventListener.afterChangeValueOf(webElement, getWebDriver(), keysToSend);
+    actOnWebElement(
+        by,
+        true,
+        webElement -> {
+          // Environment.sysOut(webElement.toString())
+          CharSequence[] keysToSend = new CharSequence[] {value};
+          seleniumWebDriverEventListener.beforeChangeValueOf(
+              webElement, getWebDriver(), keysToSend);
+          webElement.clear();
+          webElement.sendKeys(value);
+          seleniumWebDriverEventListener.afterChangeValueOf(webElement, getWebDriver(), keysToSend);
+        });
   }
 
   /**
@@ -1665,13 +1731,18 @@ protected void setEditPassword(By by, String value) {
     if (Environment.isLogAll()) {
       logFieldName(by.toString(), "********");
     }
-    final WebElement webElement = getWebElement(by);
-    // Environment.sysOut(webElement.toString())
-    CharSequence[] keysToSend = new CharSequence[] {value};
-    seleniumWebDriverEventListener.beforeChangeValueOf(webElement, getWebDriver(), keysToSend);
-    webElement.clear();
-    webElement.sendKeys(value);
-    seleniumWebDriverEventListener.afterChangeValueOf(webElement, getWebDriver(), keysToSend);
+    actOnWebElement(
+        by,
+        true,
+        webElement -> {
+          // Environment.sysOut(webElement.toString())
+          CharSequence[] keysToSend = new CharSequence[] {value};
+          seleniumWebDriverEventListener.beforeChangeValueOf(
+              webElement, getWebDriver(), keysToSend);
+          webElement.clear();
+          webElement.sendKeys(value);
+          seleniumWebDriverEventListener.afterChangeValueOf(webElement, getWebDriver(), keysToSend);
+        });
   }
 
   /**
@@ -1715,6 +1786,8 @@ private void setScreenshotCounter(int screenshotCounter) {
    */
   public void setWebDriver(WebDriver webDriver) {
     this.webDriver = webDriver;
+    this.waitEngine = null;
+    locatorCache.clear();
   }
 
   /**
@@ -1865,8 +1938,7 @@ protected void toggleCheckbox(By by) {
     if (Environment.isLogAll()) {
       logFieldName(by.toString(), "toggle");
     }
-    final WebElement webElement = getWebElement(by);
-    webElement.click();
+    actOnWebElement(by, true, WebElement::click);
   }
 
   /**
@@ -1893,8 +1965,7 @@ public List<String> toString(List<WebElement> webElements) {
    * @param by
    */
   protected void verifyResultData(String expected, By by) {
-    final WebElement webElement = getWebElement(by);
-    final String actual = webElement.getText();
+    final String actual = withWebElement(by, true, WebElement::getText);
     Assert.assertEquals(actual, expected);
   }
 
@@ -1930,14 +2001,59 @@ protected WebElement waitClickable(WebElement webElement) {
   }
 
   /**
+   * Always resolves the locator again, since the caller keeps the element and cannot retry it when
+   * the page replaces it. The fresh element refreshes the locator cache.
+   *
    * @param by
    * @return
    */
   protected WebElement waitExists(By by) {
-    // May need to update as new webDriverWait returns boolean.
-    final WebDriverWait webDriverWait =
-        new WebDriverWait(getWebDriver(), java.time.Duration.ofSeconds(getTimeoutElement()));
-    return webDriverWait.until(ExpectedConditions.visibilityOfElementLocated(by));
+    return resolveWebElement(by);
+  }
+
+  private WebElement resolveWebElement(By by) {
+    final WebElement webElement =
+        getWaitEngine().waitForElement(by, true, java.time.Duration.ofSeconds(getTimeoutElement()));
+    locatorCache.put(by, webElement);
+    return webElement;
+  }
+
+  /**
+   * Runs an action on the element the locator resolves to. If the element came from the locator
+   * cache and has gone stale or can no longer be used, it is resolved again and the action is
+   * retried once.
+   *
+   * @param by
+   * @param prepare scroll to and highlight the element first, as {@link #getWebElement(By)} does
+   * @param action
+   * @return the action's result
+   */
+  private <T> T withWebElement(By by, boolean prepare, Function<WebElement, T> action) {
+    final WebElement webElement = locatorCache.get(by);
+    if (webElement != null) {
+      try {
+        return action.apply(prepare ? prepareWebElement(webElement) : webElement);
+      } catch (final StaleElementReferenceException | ElementNotInteractableException e) {
+        locatorCache.evict(by);
+      }
+    }
+    final WebElement resolved = resolveWebElement(by);
+    return action.apply(prepare ? prepareWebElement(resolved) : resolved);
+  }
+
+  private void actOnWebElement(By by, boolean prepare, Consumer<WebElement> action) {
+    withWebElement(
+        by,
+        prepare,
+        webElement -> {
+          action.accept(webElement);
+          return null;
+        });
+    locatorCache.markSuspect();
+  }
+
+  public LocatorCache getLocatorCache() {
+    return locatorCache;
   }
 
   public void waitForAlert() {
@@ -1968,22 +2084,13 @@ public WebElement apply(WebDriver driver) {
    * @param timeoutSec
    */
   public void waitForPageHeading(String headingTitle, int timeoutSec) {
-    final long initialTime = System.currentTimeMillis() / 1000;
-    long currentTime = System.currentTimeMillis() / 1000;
-    String heading = "";
-    while (!heading.equals(headingTitle) && timeoutSec > currentTime - initialTime) {
-      JavaHelpers.sleep(0, 500);
-      currentTime = System.currentTimeMillis() / 1000;
-      heading = getWebDriver().findElement(By.className("headingtitle")).getText().trim();
-      // Environment.sysOut("Waiting for page heading: '" + headingTitle +
-      // "'")
-    }
+    getWaitEngine()
+        .waitForText(
+            By.className("headingtitle"), headingTitle, java.time.Duration.ofSeconds(timeoutSec));
   }
 
   protected void waitForPageToLoad() {
-    // getWebDriver().manage().timeouts().pageLoadTimeout(java.time.Duration.ofSeconds(getTimeOutPage()),
-    // TimeUnit.SECONDS)
-    sleep(3);
+    getWaitEngine().waitForDocumentReady(java.time.Duration.ofSeconds(getTimeoutElement()));
   }
 
   /**
@@ -2004,15 +2111,14 @@ protected void waitForTextInWebElement(WebElement webElement, String expectedTex
    */
   public boolean waitForURLChange(String initialURL, int timeoutSec) {
     try {
-      String changedURL = initialURL;
-      final long initialTime = System.currentTimeMillis() / 1000;
-      long currentTime = System.currentTimeMillis() / 1000;
-      while (initialURL.equals(changedURL) && timeoutSec > currentTime - initialTime) {
-        sleep(0, 500);
-        changedURL = getWebDriver().getCurrentUrl();
-        currentTime = System.currentTimeMillis() / 1000;
-      }
-      return timeoutSec > currentTime - initialTime;
+      getWaitEngine()
+          .until(
+              "url-change:" + initialURL,
+              java.time.Duration.ofSeconds(timeoutSec),
+              driver -> !initialURL.equals(driver.getCurrentUrl()));
+      return true;
+    } catch (final TimeoutException e) {
+      return false;
     } catch (final Exception e) {
       Environment.sysOut(e);
       return false;
@@ -2025,9 +2131,9 @@ public boolean waitForURLChange(String initialURL, int timeoutSec) {
    */
   public boolean waitForXpath(String xpath) {
     try {
-      final WebDriverWait webDriverWait =
-          new WebDriverWait(getWebDriver(), java.time.Duration.ofSeconds(getTimeoutElement()));
-      webDriverWait.until(ExpectedConditions.presenceOfElementLocated(By.xpath(xpath)));
+      getWaitEngine()
+          .waitForElement(
+              By.xpath(xpath), false, java.time.Duration.ofSeconds(getTimeoutElement()));
       return true;
     } catch (final Exception e) {
       Environment.sysOut("Could not find xpath: [" + xpath + "]");
@@ -2043,17 +2149,12 @@ public void waitHard(int value) {
   }
 
   public void waitPageLoaded() {
-    boolean loading = true;
     // final By imageLoading = By.xpath(".//img[@alt='Loading']")
     final By imageSpinnerBy = By.xpath(".//*[@id='spinner']/img");
-    do {
-      // List<WebElement> imagesLoading = getElements(imageLoading)
-      // if ((imagesLoading.size() == 0) && !objectExists(imageSpinner,
-      // 0))
-      if (!objectExists(imageSpinnerBy, 0)) {
-        loading = false;
-      }
-    } while (loading);
+    while (!getWaitEngine()
+        .waitForElementAbsent(imageSpinnerBy, java.time.Duration.ofSeconds(getTimeoutElement()))) {
+      Environment.sysOut("Waiting for the page to finish loading");
+    }
   }
 
   /**
@@ -2072,7 +2173,7 @@ public boolean wildCardMatch(String text, String pattern) {
     }
     // Create the cards by splitting using a RegEx. If more speed
     // is desired, a simpler character based splitting can be done.
-    final String[] cards = pattern.split(Constants.DELIMETER_PATH + "*");
+    final String[] cards = pattern.split("\\*");
     // Iterate over the cards.
     for (final String card : cards) {
       final int idx = text.indexOf(card);
@@ -2110,7 +2211,7 @@ public boolean wildCardMatchNoPrint(String text, String pattern) {
     }
     // Create the cards by splitting using a RegEx. If more speed
     // is desired, a simpler character based splitting can be done.
-    final String[] cards = pattern.split(Constants.DELIMETER_PATH + "*");
+    final String[] cards = pattern.split("\\*");
     // Iterate over the cards.
     for (final String card : cards) {
       final int idx = text.indexOf(card);
@@ -0,0 +1,304 @@
+package com.cjs.qa.selenium;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.JavaHelpers;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.firefox.HasFullPageScreenshot;
+
+/**
+ * Full-page screenshots that keep the test thread busy only while the browser is being read.
+ *
+ * <p>Drivers that can capture beyond the viewport do it in one call: Chromium through the DevTools
+ * {@code Page.captureScreenshot} command with {@code captureBeyondViewport}, Firefox through {@link
+ * HasFullPageScreenshot}. Other drivers are scrolled a viewport at a time and the PNG bytes of each
+ * viewport kept in memory. Decoding, stitching, encoding and writing the file run on a bounded
+ * background executor; when its queue is full the caller does the work itself, so a burst of
+ * screenshots slows the test down instead of piling up in memory.
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code selenium.screenshot.threads} - background writer threads (default 2)
+ *   <li>{@code selenium.screenshot.queueSize} - screenshots waiting to be written (default 16)
+ * </ul>
+ */
+public final class ScreenshotPipeline {
+  public static final String PROPERTY_THREADS = "selenium.screenshot.threads";
+  public static final String PROPERTY_QUEUE_SIZE = "selenium.screenshot.queueSize";
+  private static final String SCRIPT_VIEWPORT =
+      "return [window.pageYOffset, window.innerHeight, document.documentElement.scrollHeight];";
+  private static final ThreadPoolExecutor EXECUTOR = newExecutor();
+  private static final AtomicInteger pendingCount = new AtomicInteger();
+  private static final AtomicLong capturedCount = new AtomicLong();
+  private static final AtomicLong fullPageCount = new AtomicLong();
+  private static final AtomicLong stitchedCount = new AtomicLong();
+  private static final AtomicLong failedCount = new AtomicLong();
+  private static final AtomicLong captureNanosTotal = new AtomicLong();
+  private static final AtomicLong writeNanosTotal = new AtomicLong();
+
+  static {
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(() -> flush(TimeUnit.SECONDS.toMillis(30)), "screenshot-shutdown"));
+  }
+
+  private ScreenshotPipeline() {}
+
+  private static ThreadPoolExecutor newExecutor() {
+    final int threads = Math.max(1, JavaHelpers.readPropertyOrEnvInt(PROPERTY_THREADS, 2));
+    final AtomicInteger threadNumber = new AtomicInteger();
+    final ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(
+                Math.max(1, JavaHelpers.readPropertyOrEnvInt(PROPERTY_QUEUE_SIZE, 16))),
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "screenshot-writer-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Captures the whole page and writes it to {@code file} in the background.
+   *
+   * @param webDriver undecorated driver, so the full-page capabilities can be detected
+   * @param file PNG file to write; parent folders are created
+   * @param scrollAmount pixels to scroll between viewports when the page has to be stitched; 0 or
+   *     more than a viewport scrolls a whole viewport
+   * @return completes with {@code file} once it has been written
+   */
+  public static CompletableFuture<File> captureFullPage(
+      WebDriver webDriver, File file, int scrollAmount) {
+    final long start = System.nanoTime();
+    try {
+      final byte[] fullPage = captureBeyondViewport(webDriver);
+      if (fullPage != null) {
+        fullPageCount.incrementAndGet();
+        captureNanosTotal.addAndGet(System.nanoTime() - start);
+        return submit(file, () -> fullPage);
+      }
+      final List<Viewport> viewportList = captureViewports(webDriver, scrollAmount);
+      stitchedCount.incrementAndGet();
+      captureNanosTotal.addAndGet(System.nanoTime() - start);
+      return submit(file, () -> stitch(viewportList));
+    } catch (final RuntimeException e) {
+      failedCount.incrementAndGet();
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Writes an already captured PNG to {@code file} in the background.
+   *
+   * @param png image bytes
+   * @param file file to write; parent folders are created
+   * @return completes with {@code file} once it has been written
+   */
+  public static CompletableFuture<File> write(byte[] png, File file) {
+    return submit(file, () -> png);
+  }
+
+  /** Produces the PNG bytes to write; runs on the background executor. */
+  @FunctionalInterface
+  private interface ImageSource {
+    byte[] get() throws IOException;
+  }
+
+  private static CompletableFuture<File> submit(File file, ImageSource imageSource) {
+    pendingCount.incrementAndGet();
+    return CompletableFuture.supplyAsync(
+        () -> {
+          final long start = System.nanoTime();
+          try {
+            final byte[] png = imageSource.get();
+            final File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+              Files.createDirectories(parent.toPath());
+            }
+            Files.write(file.toPath(), png);
+            capturedCount.incrementAndGet();
+            return file;
+          } catch (final IOException e) {
+            failedCount.incrementAndGet();
+            Environment.sysOut("Screenshot:[" + file.getAbsolutePath() + "] failed:[" + e + "]");
+            throw new IllegalStateException(e);
+          } finally {
+            writeNanosTotal.addAndGet(System.nanoTime() - start);
+            pendingCount.decrementAndGet();
+          }
+        },
+        EXECUTOR);
+  }
+
+  /**
+   * @return the full-page PNG, or {@code null} if the driver can only capture the viewport
+   */
+  private static byte[] captureBeyondViewport(WebDriver webDriver) {
+    try {
+      if (webDriver instanceof HasFullPageScreenshot hasFullPageScreenshot) {
+        return hasFullPageScreenshot.getFullPageScreenshotAs(OutputType.BYTES);
+      }
+      if (webDriver instanceof HasCdp hasCdp) {
+        final Map<String, Object> metrics =
+            hasCdp.executeCdpCommand("Page.getLayoutMetrics", new HashMap<>());
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> contentSize =
+            (Map<String, Object>)
+                metrics.getOrDefault("cssContentSize", metrics.get("contentSize"));
+        final Map<String, Object> clip = new HashMap<>();
+        clip.put("x", 0);
+        clip.put("y", 0);
+        clip.put("width", contentSize.get("width"));
+        clip.put("height", contentSize.get("height"));
+        clip.put("scale", 1);
+        final Map<String, Object> parameters = new HashMap<>();
+        parameters.put("format", "png");
+        parameters.put("captureBeyondViewport", true);
+        parameters.put("clip", clip);
+        final Map<String, Object> result =
+            hasCdp.executeCdpCommand("Page.captureScreenshot", parameters);
+        return Base64.getDecoder().decode((String) result.get("data"));
+      }
+    } catch (final RuntimeException e) {
+      Environment.sysOut("Full page capture unavailable, stitching viewports:[" + e + "]");
+    }
+    return null;
+  }
+
+  /** One viewport's PNG and where the page was scrolled to when it was taken. */
+  record Viewport(long offset, long height, long scrollHeight, byte[] png) {}
+
+  private static List<Viewport> captureViewports(WebDriver webDriver, int scrollAmount) {
+    final JavascriptExecutor javascriptExecutor = (JavascriptExecutor) webDriver;
+    final List<Viewport> viewportList = new ArrayList<>();
+    javascriptExecutor.executeScript("window.scrollTo(0, 0);");
+    long previousOffset = -1;
+    while (true) {
+      final List<?> position = (List<?>) javascriptExecutor.executeScript(SCRIPT_VIEWPORT);
+      final long offset = ((Number) position.get(0)).longValue();
+      final long height = ((Number) position.get(1)).longValue();
+      final long scrollHeight = ((Number) position.get(2)).longValue();
+      if (offset <= previousOffset) {
+        // The page would not scroll any further.
+        break;
+      }
+      viewportList.add(
+          new Viewport(
+              offset,
+              height,
+              scrollHeight,
+              ((TakesScreenshot) webDriver).getScreenshotAs(OutputType.BYTES)));
+      if (offset + height >= scrollHeight) {
+        break;
+      }
+      previousOffset = offset;
+      final long step = scrollAmount > 0 && scrollAmount < height ? scrollAmount : height;
+      javascriptExecutor.executeScript("window.scrollBy(0, arguments[0]);", step);
+    }
+    javascriptExecutor.executeScript("window.scrollTo(0, 0);");
+    return viewportList;
+  }
+
+  /**
+   * Draws each viewport at its scroll offset, so overlapping parts are not repeated, and scales
+   * offsets by the screenshot's device pixel ratio.
+   */
+  static byte[] stitch(List<Viewport> viewportList) throws IOException {
+    if (viewportList.size() == 1) {
+      return viewportList.get(0).png();
+    }
+    BufferedImage bufferedImageFinal = null;
+    Graphics2D graphics = null;
+    double scale = 1;
+    for (final Viewport viewport : viewportList) {
+      final BufferedImage bufferedImage = ImageIO.read(new ByteArrayInputStream(viewport.png()));
+      if (bufferedImageFinal == null) {
+        scale = viewport.height() > 0 ? (double) bufferedImage.getHeight() / viewport.height() : 1;
+        bufferedImageFinal =
+            new BufferedImage(
+                bufferedImage.getWidth(),
+                (int) Math.round(viewport.scrollHeight() * scale),
+                BufferedImage.TYPE_INT_ARGB);
+        graphics = bufferedImageFinal.createGraphics();
+      }
+      graphics.drawImage(bufferedImage, 0, (int) Math.round(viewport.offset() * scale), null);
+    }
+    graphics.dispose();
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    ImageIO.write(bufferedImageFinal, "png", byteArrayOutputStream);
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * Waits for the screenshots queued so far to be written.
+   *
+   * @param timeoutMillis longest wait
+   * @return {@code true} if nothing is left to write
+   */
+  public static boolean flush(long timeoutMillis) {
+    final long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (pendingCount.get() > 0) {
+      if (System.currentTimeMillis() >= deadline) {
+        return false;
+      }
+      try {
+        TimeUnit.MILLISECONDS.sleep(10);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public static String getMetrics() {
+    final long captures = fullPageCount.get() + stitchedCount.get();
+    return "Screenshots Written:["
+        + capturedCount.get()
+        + "], Full Page:["
+        + fullPageCount.get()
+        + "], Stitched:["
+        + stitchedCount.get()
+        + "], Failed:["
+        + failedCount.get()
+        + "], Pending:["
+        + pendingCount.get()
+        + "], Average Capture:["
+        + String.format(
+            "%.3f", captures == 0 ? 0 : captureNanosTotal.get() / 1_000_000.0 / captures)
+        + " ms], Total Write:["
+        + String.format("%.3f", writeNanosTotal.get() / 1_000_000.0)
+        + " ms]";
+  }
+}
@@ -0,0 +1,125 @@
+package com.cjs.qa.selenium;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+
+public class ScreenshotPipelineTest {
+  private static final int WIDTH = 40;
+  private static final int VIEWPORT_HEIGHT = 100;
+  private static final int PAGE_HEIGHT = 250;
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static byte[] png(int width, int height, Color color) throws IOException {
+    final BufferedImage bufferedImage =
+        new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D graphics = bufferedImage.createGraphics();
+    graphics.setColor(color);
+    graphics.fillRect(0, 0, width, height);
+    graphics.dispose();
+    final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    ImageIO.write(bufferedImage, "png", byteArrayOutputStream);
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  private static Color colorAt(long offset) {
+    return new Color((int) offset % 256, 0, 255 - (int) offset % 256);
+  }
+
+  /** A viewport-only driver whose screenshot colour tells which scroll offset it was taken at. */
+  private static WebDriver newWebDriver(AtomicInteger screenshots) {
+    final AtomicLong offset = new AtomicLong();
+    return (WebDriver)
+        Proxy.newProxyInstance(
+            WebDriver.class.getClassLoader(),
+            new Class<?>[] {WebDriver.class, JavascriptExecutor.class, TakesScreenshot.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "executeScript":
+                  final String script = (String) args[0];
+                  if (script.startsWith("window.scrollTo")) {
+                    offset.set(0);
+                  } else if (script.startsWith("window.scrollBy")) {
+                    final long step = ((Number) ((Object[]) args[1])[0]).longValue();
+                    offset.set(Math.min(PAGE_HEIGHT - VIEWPORT_HEIGHT, offset.get() + step));
+                  } else {
+                    return Arrays.asList(offset.get(), (long) VIEWPORT_HEIGHT, (long) PAGE_HEIGHT);
+                  }
+                  return null;
+                case "getScreenshotAs":
+                  screenshots.incrementAndGet();
+                  return png(WIDTH, VIEWPORT_HEIGHT, colorAt(offset.get()));
+                default:
+                  return null;
+              }
+            });
+  }
+
+  @Test
+  public void stitchesViewportsAtTheirScrollOffsets() throws Exception {
+    final AtomicInteger screenshots = new AtomicInteger();
+    final File file = new File(temporaryFolder.getRoot(), "page/full.png");
+    final File written =
+        ScreenshotPipeline.captureFullPage(newWebDriver(screenshots), file, 0)
+            .get(10, TimeUnit.SECONDS);
+    assertEquals(file, written);
+    // Offsets 0, 100 and then 150, where the page stops scrolling.
+    assertEquals(3, screenshots.get());
+    final BufferedImage bufferedImage = ImageIO.read(file);
+    assertEquals(WIDTH, bufferedImage.getWidth());
+    assertEquals(PAGE_HEIGHT, bufferedImage.getHeight());
+    assertEquals(colorAt(0).getRGB(), bufferedImage.getRGB(0, 50));
+    assertEquals(colorAt(100).getRGB(), bufferedImage.getRGB(0, 120));
+    assertEquals(colorAt(150).getRGB(), bufferedImage.getRGB(0, 240));
+    assertTrue(ScreenshotPipeline.flush(1000));
+  }
+
+  @Test
+  public void scalesOffsetsByTheDevicePixelRatio() throws Exception {
+    final List<ScreenshotPipeline.Viewport> viewportList =
+        Arrays.asList(
+            new ScreenshotPipeline.Viewport(0, 50, 80, png(20, 100, Color.RED)),
+            new ScreenshotPipeline.Viewport(30, 50, 80, png(20, 100, Color.BLUE)));
+    final BufferedImage bufferedImage =
+        ImageIO.read(new ByteArrayInputStream(ScreenshotPipeline.stitch(viewportList)));
+    assertEquals(160, bufferedImage.getHeight());
+    assertEquals(Color.RED.getRGB(), bufferedImage.getRGB(0, 59));
+    assertEquals(Color.BLUE.getRGB(), bufferedImage.getRGB(0, 60));
+  }
+
+  @Test
+  public void flushWaitsForQueuedWrites() throws Exception {
+    final List<File> fileList = new ArrayList<>();
+    final byte[] png = png(10, 10, Color.GREEN);
+    for (int index = 0; index < 20; index++) {
+      final File file = new File(temporaryFolder.getRoot(), "queued/" + index + ".png");
+      fileList.add(file);
+      ScreenshotPipeline.write(png, file);
+    }
+    assertTrue(ScreenshotPipeline.flush(10000));
+    for (final File file : fileList) {
+      assertTrue(file.getName(), file.isFile());
+    }
+  }
+}
@@ -5,7 +5,6 @@
 import com.cjs.qa.utilities.CommandLineTests;
 import com.cjs.qa.utilities.Constants;
 import com.cjs.qa.utilities.FSOTests;
-import com.cjs.qa.utilities.IExtension;
 import com.cjs.qa.utilities.JavaHelpers;
 import com.cjs.qa.utilities.Processes;
 import com.google.gson.JsonObject;
@@ -16,24 +15,20 @@
 import java.awt.Toolkit;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.imageio.ImageIO;
-import org.apache.commons.io.FileUtils;
 import org.apache.velocity.texen.util.FileUtil;
 import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.Dimension;
-import org.openqa.selenium.OutputType;
 import org.openqa.selenium.Platform;
 import org.openqa.selenium.Point;
 import org.openqa.selenium.Proxy;
-import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -70,6 +65,7 @@ public class SeleniumWebDriver {
   private Scenario scenario = null;
   private int screenshots = 0;
   private SessionId sessionId = null;
+  private WebDriverSessionPool sessionPool = null;
   private WebDriver webDriver = null;
   private String vendorURL = null;
   private String version = null;
@@ -112,106 +108,32 @@ public void captureDesktopImage() {
   }
 
   /**
-   * @param scrollAmount
+   * Captures the whole page. The browser is read on this thread; stitching and writing the PNG run
+   * on the {@link ScreenshotPipeline} executor.
+   *
+   * @param scrollAmount pixels to scroll between viewports when the driver cannot capture the page
+   *     in one call
+   * @return completes with the screenshot file once it has been written, or {@code null} if there
+   *     is no browser
    */
-  public void captureScreenshot(int scrollAmount) {
-    try {
-      if (getWebDriver() != null) {
-        String title = getWebDriver().getTitle();
-        Environment.sysOut("title:[" + title + "]");
-        title = FSOTests.fileValidateName(title);
-        Environment.sysOut("title:[" + title + "]");
-        final int heightScroll = getPage().getScrollHeight();
-        final String pathFileName = getScreenshotFilePathName(title);
-        if (heightScroll == 0) {
-          final File screenshot =
-              ((TakesScreenshot) getWebDriver()).getScreenshotAs(OutputType.FILE);
-          FileUtils.copyFile(screenshot, new File(pathFileName));
-        } else {
-          getPage().maximizeWindow();
-          getPage().scrollToTop();
-          final int heightWindow = getPage().getHeight();
-          int heightScrolled = 0;
-          Environment.sysOut(
-              "windowHeight:[" + heightWindow + "], scrollHeight:[" + heightScroll + "]");
-          final String pathTemp = PATH_SCREENSHOTS + getSessionId() + Constants.DELIMETER_PATH;
-          FileUtil.mkdir(pathTemp);
-          int fileNumber = 1;
-          do {
-            final File screenshot =
-                ((TakesScreenshot) getWebDriver()).getScreenshotAs(OutputType.FILE);
-            final StringBuilder stringBuilder = new StringBuilder();
-            stringBuilder.append(pathTemp);
-            stringBuilder.append(title);
-            stringBuilder.append("_");
-            stringBuilder.append(JavaHelpers.formatNumber(fileNumber, FORMAT_SCREENSHOT));
-            stringBuilder.append(".png");
-            final String fileName = stringBuilder.toString();
-            FileUtils.copyFile(screenshot, new File(fileName));
-            getPage().scrollDown(scrollAmount);
-            heightScrolled += scrollAmount;
-            fileNumber++;
-          } while (heightScrolled < heightScroll);
-          try {
-            final String pathFileNameNew = combineALLImages(pathTemp);
-            FileUtils.copyFile(new File(pathFileNameNew), new File(pathFileName));
-            FileUtils.deleteDirectory(new File(pathTemp));
-          } catch (final Exception e) {
-            e.printStackTrace();
-          }
-        }
-      }
-    } catch (final IOException e) {
-      e.printStackTrace();
-      Environment.sysOut(e.getMessage());
+  public CompletableFuture<File> captureScreenshot(int scrollAmount) {
+    if (getWebDriver() == null) {
+      return CompletableFuture.completedFuture(null);
     }
-  }
-
-  /**
-   * @param pathTemp
-   * @return
-   * @throws IOException
-   * @throws InterruptedException
-   */
-  private String combineALLImages(String pathTemp) throws IOException {
-    final List<String> listFiles = FSOTests.filesList(pathTemp, ".png");
-    final List<File> listFile = new ArrayList<>();
-    final int columns = 1;
-    final int rows = listFiles.size();
-    for (String filePathName : listFiles) {
-      listFile.add(new File(filePathName));
-    }
-    final BufferedImage bufferedImageSample = ImageIO.read(listFile.get(0));
-    // Initializing the final image
-    final BufferedImage bufferedImageFinal =
-        new BufferedImage(
-            bufferedImageSample.getWidth() * columns,
-            bufferedImageSample.getHeight() * rows,
-            bufferedImageSample.getType());
-    int index = 0;
-    for (int indexRow = 0; indexRow < rows; indexRow++) {
-      for (int indexColumn = 0; indexColumn < columns; indexColumn++) {
-        final String filePathName = listFiles.get(indexRow);
-        final String fileName =
-            filePathName.substring(
-                filePathName.lastIndexOf(Constants.DELIMETER_PATH) + 1, filePathName.length());
-        Environment.sysOut("Adding Image File:[" + index + "], [" + fileName + "]");
-        final BufferedImage bufferedImageTemp = ImageIO.read(listFile.get(index));
-        bufferedImageFinal
-            .createGraphics()
-            .drawImage(
-                bufferedImageTemp,
-                bufferedImageSample.getWidth() * indexColumn,
-                bufferedImageSample.getHeight() * indexRow,
-                null);
-        index++;
-      }
-    }
-    // final String newFile = pathTemp + "FinalImage" + IExtension.JPG
-    final String newFile = pathTemp + "FinalImage" + IExtension.PNG;
-    boolean success = ImageIO.write(bufferedImageFinal, "png", new File(newFile));
-    Environment.sysOut("success:[" + success + "]");
-    return newFile;
+    String title = getWebDriver().getTitle();
+    Environment.sysOut("title:[" + title + "]");
+    title = FSOTests.fileValidateName(title);
+    Environment.sysOut("title:[" + title + "]");
+    final CompletableFuture<File> future =
+        ScreenshotPipeline.captureFullPage(
+            getWebDriver(), new File(getScreenshotFilePathName(title)), scrollAmount);
+    future.whenComplete(
+        (file, throwable) -> {
+          if (throwable != null) {
+            Environment.sysOut("Screenshot failed:[" + throwable.getMessage() + "]");
+          }
+        });
+    return future;
   }
 
   public String getBrowser() {
@@ -318,6 +240,26 @@ public void getSessionInformation() {
     Environment.sysOut("Selenium WebDriver Information:" + toString());
   }
 
+  public WebDriverSessionPool getSessionPool() {
+    return sessionPool;
+  }
+
+  /**
+   * @return the key of the {@link WebDriverSessionPool} sessions of this browser, operating system
+   *     and grid are leased from
+   */
+  public String getSessionPoolName() {
+    final String host;
+    if (!isRemote()) {
+      host = "local";
+    } else if (getVendorURL() != null) {
+      host = getVendorURL();
+    } else {
+      host = getGridHub();
+    }
+    return getBrowser() + "|" + getOperatingSystem() + "|" + getVersion() + "|" + host;
+  }
+
   public String getVendorURL() {
     return vendorURL;
   }
@@ -419,165 +361,169 @@ public String getWebDriverVersion(String webDriver) throws Exception {
   }
 
   public void initializeWebDriver() throws Throwable {
-    final int maxInstanciationAttempts = 100;
     final DesiredCapabilities desiredCapabilities =
         setDesiredCapabilities(getOperatingSystem(), getBrowser());
-    final EDriverProperties eDriverProperties =
-        EDriverProperties.fromString(getBrowser().toUpperCase(Locale.ENGLISH));
     try {
       Environment.sysOut(OS_NAME + ":[" + System.getProperty(OS_NAME) + "]");
       setLocalExecutables();
       Environment.sysOut("desiredCapabilities:[" + desiredCapabilities.toString() + "]");
-      if (isRemote()) {
-        // setProxy(getBrowser(), isRemote(), desiredCapabilities);
-        if (getVendorURL() == null) {
-          int attempt = 0;
-          boolean driverInstanciated = false;
-          do {
-            attempt++;
-            try {
-              setWebDriver(new RemoteWebDriver(URI.create(getGridHub()).toURL(), desiredCapabilities));
-              if (getWebDriver() != null) {
-                driverInstanciated = true;
-                Environment.sysOut("Remote Web Driver instanciated on attemp [" + attempt + "]");
-              }
-            } catch (final Exception e) {
-              if (attempt % 10 == 0) {
-                // e.printStackTrace()
-                Environment.sysOut(
-                    "Remote Web Driver could not be instanciated on attemp [" + attempt + "]");
-              } else {
-                System.out.print(".");
-              }
-            }
-          } while (!driverInstanciated && attempt < maxInstanciationAttempts);
-          if (!driverInstanciated) {
-            throw new QAException("Remote Web Driver could not be instanciated");
-          }
-          Environment.sysOut("Grid Hub:[" + getGridHub() + "]");
-        } else {
-          setWebDriver(new RemoteWebDriver(URI.create(getVendorURL()).toURL(), desiredCapabilities));
-        }
+      if (WebDriverSessionPool.isEnabled()) {
+        setSessionPool(WebDriverSessionPool.getInstance(getSessionPoolName()));
+        setWebDriver(getSessionPool().acquire(() -> createWebDriver(desiredCapabilities)));
       } else {
-
-        // Java 17: Switch expression with block syntax for complex cases
-        switch (getBrowser().toLowerCase(Locale.ENGLISH)) {
-          case Browser.EDGE -> {
-            // WebDriverManager automatically downloads and sets up Edge driver
-            WebDriverManager.edgedriver().setup();
-            EdgeOptions edgeOpts = new EdgeOptions();
-            edgeOpts.merge(desiredCapabilities);
-            setWebDriver(new EdgeDriver(edgeOpts));
-          }
-          case Browser.FIREFOX -> {
-            // WebDriverManager automatically downloads and sets up Gecko driver
-            WebDriverManager.firefoxdriver().setup();
-            final FirefoxOptions firefoxOptions = new FirefoxOptions();
-            Environment.sysOut(
-                "System.getProperty("
-                    + Constants.QUOTE_DOUBLE
-                    + eDriverProperties.getWebDriverType()
-                    + Constants.QUOTE_DOUBLE
-                    + "):]"
-                    + System.getProperty(eDriverProperties.getWebDriverType())
-                    + "]");
-            firefoxOptions.setBinary(eDriverProperties.getPathBinary());
-            // setWebDriver(new MarionetteDriver());
-            setWebDriver(new FirefoxDriver(firefoxOptions));
-            //
-            GeckoDriverService service = null;
-            try {
-              service =
-                  new GeckoDriverService.Builder()
-                      .usingDriverExecutable(new File("path to geckodriver"))
-                      .usingAnyFreePort()
-                      .usingAnyFreePort()
-                      .build();
-              service.start();
-              // GeckoDriver needs the Proxy set in
-              // RequiredCapabilities
-              FirefoxOptions ffOpts = new FirefoxOptions();
-              ffOpts.merge(desiredCapabilities);
-              setWebDriver(new FirefoxDriver(service, ffOpts));
-            } finally {
-              if (service != null && service.isRunning()) {
-                service.stop();
-              }
-            }
-          }
-          case Browser.HTML_UNIT -> {
-            // setWebDriver(new
-            // HtmlUnitDriver(desiredCapabilities));
-            setWebDriver(new HtmlUnitDriver(desiredCapabilities));
-            ((HtmlUnitDriver) webDriver).setJavascriptEnabled(true);
-            // final WebClient webClient = new WebClient();
-            // try
-            // {
-            // final HtmlPage htmlPage =
-            // webClient.getPage("http://stackoverflow" +
-            // IExtension.COM + "/");
-            // Environment.sysOut(htmlPage.asNormalizedText());
-            // } catch (final Exception e)
-            // {
-            // Environment.sysOut(e);
-            // }
-          }
-          case Browser.IE, Browser.INTERNET_EXPLORER -> {
-            // (very slow)
-            // WebDriverManager automatically downloads and sets up IE driver
-            WebDriverManager.iedriver().setup();
-            InternetExplorerOptions ieOpts = new InternetExplorerOptions();
-            ieOpts.merge(desiredCapabilities);
-            setWebDriver(new InternetExplorerDriver(ieOpts));
-          }
-          case Browser.SAFARI -> {
-            // Safari driver is bundled with Safari - no WebDriverManager needed
-            setWebDriver(new SafariDriver());
-          }
-          case Browser.CHROME -> {
-            // WebDriverManager automatically downloads and sets up Chrome driver
-            WebDriverManager.chromedriver().setup();
-            // final ChromeOptions chromeOptions =
-            // setChromeOptions(eDriverProperty.getWebDriverType(),
-            // eDriverProperty.getPathBinary());
-            final ChromeOptions chromeOptions = setChromeOptions(null, null);
-            setWebDriver(new ChromeDriver(chromeOptions));
-            // setWebDriver(new ChromeDriver(desiredCapabilities));
-          }
-          default -> {
-            // Default to Chrome
-            WebDriverManager.chromedriver().setup();
-            final ChromeOptions defaultChromeOptions = setChromeOptions(null, null);
-            setWebDriver(new ChromeDriver(defaultChromeOptions));
-          }
-        }
+        setSessionPool(null);
+        setWebDriver(createWebDriver(desiredCapabilities));
       }
       getSessionInformation();
-      // Move browser to last monitor.
-      int lastMonitor = JavaHelpers.getMonitorCount() - 1;
-      if (lastMonitor != 0) {
-        int position = lastMonitor * 2000;
-        Point point = new Point(position, 0);
-        getWebDriver().manage().window().setPosition(point);
-        // Resize browser.
-        int pointX = JavaHelpers.getMonitorWidth(lastMonitor);
-        int pointY = JavaHelpers.getMonitorHeight(lastMonitor);
-        Dimension dimension = new Dimension(pointX, pointY);
-        getWebDriver().manage().window().setSize(dimension);
-      }
-      getWebDriver().manage().window().maximize();
       setPage(new Page(getWebDriver()));
-      getWebDriverInfo();
+      // A reused session was already described when it was started.
+      if (getSessionPool() == null || getSessionPool().getLeaseUses() == 1) {
+        getWebDriverInfo();
+      }
     } catch (final Exception e) {
       throw new QAException(JavaHelpers.getCurrentMethodName(), e);
     }
   }
 
+  private WebDriver createWebDriver(DesiredCapabilities desiredCapabilities) throws Throwable {
+    final EDriverProperties eDriverProperties =
+        EDriverProperties.fromString(getBrowser().toUpperCase(Locale.ENGLISH));
+    WebDriver webDriver = null;
+    if (isRemote()) {
+      // setProxy(getBrowser(), isRemote(), desiredCapabilities);
+      if (getVendorURL() == null) {
+        webDriver =
+            GridCapacity.getInstance(getGridHub())
+                .acquire(
+                    getBrowser(),
+                    () ->
+                        new RemoteWebDriver(URI.create(getGridHub()).toURL(), desiredCapabilities));
+        Environment.sysOut("Grid Hub:[" + getGridHub() + "]");
+      } else {
+        webDriver = new RemoteWebDriver(URI.create(getVendorURL()).toURL(), desiredCapabilities);
+      }
+    } else {
+
+      // Java 17: Switch expression with block syntax for complex cases
+      switch (getBrowser().toLowerCase(Locale.ENGLISH)) {
+        case Browser.EDGE -> {
+          // WebDriverManager automatically downloads and sets up Edge driver
+          WebDriverManager.edgedriver().setup();
+          EdgeOptions edgeOpts = new EdgeOptions();
+          edgeOpts.merge(desiredCapabilities);
+          webDriver = new EdgeDriver(edgeOpts);
+        }
+        case Browser.FIREFOX -> {
+          // WebDriverManager automatically downloads and sets up Gecko driver
+          WebDriverManager.firefoxdriver().setup();
+          final FirefoxOptions firefoxOptions = new FirefoxOptions();
+          Environment.sysOut(
+              "System.getProperty("
+                  + Constants.QUOTE_DOUBLE
+                  + eDriverProperties.getWebDriverType()
+                  + Constants.QUOTE_DOUBLE
+                  + "):]"
+                  + System.getProperty(eDriverProperties.getWebDriverType())
+                  + "]");
+          firefoxOptions.setBinary(eDriverProperties.getPathBinary());
+          // setWebDriver(new MarionetteDriver());
+          webDriver = new FirefoxDriver(firefoxOptions);
+          //
+          GeckoDriverService service = null;
+          try {
+            service =
+                new GeckoDriverService.Builder()
+                    .usingDriverExecutable(new File("path to geckodriver"))
+                    .usingAnyFreePort()
+                    .usingAnyFreePort()
+                    .build();
+            service.start();
+            // GeckoDriver needs the Proxy set in
+            // RequiredCapabilities
+            FirefoxOptions ffOpts = new FirefoxOptions();
+            ffOpts.merge(desiredCapabilities);
+            webDriver = new FirefoxDriver(service, ffOpts);
+          } finally {
+            if (service != null && service.isRunning()) {
+              service.stop();
+            }
+          }
+        }
+        case Browser.HTML_UNIT -> {
+          // setWebDriver(new
+          // HtmlUnitDriver(desiredCapabilities));
+          webDriver = new HtmlUnitDriver(desiredCapabilities);
+          ((HtmlUnitDriver) webDriver).setJavascriptEnabled(true);
+          // final WebClient webClient = new WebClient();
+          // try
+          // {
+          // final HtmlPage htmlPage =
+          // webClient.getPage("http://stackoverflow" +
+          // IExtension.COM + "/");
+          // Environment.sysOut(htmlPage.asNormalizedText());
+          // } catch (final Exception e)
+          // {
+          // Environment.sysOut(e);
+          // }
+        }
+        case Browser.IE, Browser.INTERNET_EXPLORER -> {
+          // (very slow)
+          // WebDriverManager automatically downloads and sets up IE driver
+          WebDriverManager.iedriver().setup();
+          InternetExplorerOptions ieOpts = new InternetExplorerOptions();
+          ieOpts.merge(desiredCapabilities);
+          webDriver = new InternetExplorerDriver(ieOpts);
+        }
+        case Browser.SAFARI -> {
+          // Safari driver is bundled with Safari - no WebDriverManager needed
+          webDriver = new SafariDriver();
+        }
+        case Browser.CHROME -> {
+          // WebDriverManager automatically downloads and sets up Chrome driver
+          WebDriverManager.chromedriver().setup();
+          // final ChromeOptions chromeOptions =
+          // setChromeOptions(eDriverProperty.getWebDriverType(),
+          // eDriverProperty.getPathBinary());
+          final ChromeOptions chromeOptions = setChromeOptions(null, null);
+          webDriver = new ChromeDriver(chromeOptions);
+          // setWebDriver(new ChromeDriver(desiredCapabilities));
+        }
+        default -> {
+          // Default to Chrome
+          WebDriverManager.chromedriver().setup();
+          final ChromeOptions defaultChromeOptions = setChromeOptions(null, null);
+          webDriver = new ChromeDriver(defaultChromeOptions);
+        }
+      }
+    }
+    // Move browser to last monitor.
+    int lastMonitor = JavaHelpers.getMonitorCount() - 1;
+    if (lastMonitor != 0) {
+      int position = lastMonitor * 2000;
+      Point point = new Point(position, 0);
+      webDriver.manage().window().setPosition(point);
+      // Resize browser.
+      int pointX = JavaHelpers.getMonitorWidth(lastMonitor);
+      int pointY = JavaHelpers.getMonitorHeight(lastMonitor);
+      Dimension dimension = new Dimension(pointX, pointY);
+      webDriver.manage().window().setSize(dimension);
+    }
+    webDriver.manage().window().maximize();
+    return webDriver;
+  }
+
   public boolean isRemote() {
     return remote;
   }
 
   public void killBrowser() {
+    if (getSessionPool() != null
+        && getWebDriver() != null
+        && getSessionPool().release(getWebDriver())) {
+      // Reset and kept warm for the next test instead of quitting.
+      setWebDriver(null);
+      return;
+    }
     try {
       if (getWebDriver() != null) {
         getWebDriver().close();
@@ -872,6 +818,13 @@ public void setSessionId(SessionId sessionId) {
     this.sessionId = sessionId;
   }
 
+  /**
+   * @param sessionPool
+   */
+  public void setSessionPool(WebDriverSessionPool sessionPool) {
+    this.sessionPool = sessionPool;
+  }
+
   /**
    * @param vendorURL
    */
@@ -0,0 +1,110 @@
+package com.cjs.qa.selenium;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Per-column value indexes over a {@link TableSnapshot}, so record searches are answered without
+ * rescanning the rows for every search column.
+ *
+ * <p>A column is indexed the first time it is searched: each distinct cell value maps to a {@link
+ * BitSet} of the rows holding it, with a second, lower case index built the first time the column
+ * is searched case-insensitively. A search over several columns intersects the per-column row sets.
+ * Wildcard searches test each distinct value of the column once, with the same matcher {@link
+ * Page#wildCardMatchNoPrint(String, String)} uses. Bit {@code n} stands for row {@code n}, counting
+ * from 1 as {@link WebElementTable} does.
+ */
+public final class TableIndex {
+  private final TableSnapshot tableSnapshot;
+  private final BiPredicate<String, String> wildCardMatcher;
+  private final Map<Integer, Map<String, BitSet>> columnIndexMap = new HashMap<>();
+  private final Map<Integer, Map<String, BitSet>> columnIndexLowerMap = new HashMap<>();
+
+  /**
+   * @param tableSnapshot table contents to index
+   * @param wildCardMatcher tests a cell value against a pattern with {@code *} wildcards
+   */
+  public TableIndex(TableSnapshot tableSnapshot, BiPredicate<String, String> wildCardMatcher) {
+    this.tableSnapshot = tableSnapshot;
+    this.wildCardMatcher = wildCardMatcher;
+  }
+
+  public TableSnapshot getTableSnapshot() {
+    return tableSnapshot;
+  }
+
+  /**
+   * @return the number of column indexes built so far, counting lower case indexes separately
+   */
+  public int getIndexCount() {
+    return columnIndexMap.size() + columnIndexLowerMap.size();
+  }
+
+  /**
+   * Finds the rows matching every column / value pair.
+   *
+   * @param columnValueMap search value by column number, from 1
+   * @param caseSensitive compare values case-sensitively
+   * @param wildCard treat {@code *} in the search values as a wildcard
+   * @return the matching rows; empty if none match, every row if {@code columnValueMap} is empty
+   */
+  public BitSet getMatchingRows(
+      Map<Integer, String> columnValueMap, boolean caseSensitive, boolean wildCard) {
+    final BitSet rows = new BitSet(tableSnapshot.getRowCount() + 1);
+    rows.set(1, tableSnapshot.getRowCount() + 1);
+    for (final Map.Entry<Integer, String> entry : columnValueMap.entrySet()) {
+      rows.and(getMatchingRows(entry.getKey(), entry.getValue(), caseSensitive, wildCard));
+      if (rows.isEmpty()) {
+        break;
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * @param column column number, from 1
+   * @param value search value
+   * @param caseSensitive compare values case-sensitively
+   * @param wildCard treat {@code *} in {@code value} as a wildcard
+   * @return the rows whose cell in {@code column} matches; a new set the caller may modify
+   */
+  public BitSet getMatchingRows(int column, String value, boolean caseSensitive, boolean wildCard) {
+    final Map<String, BitSet> valueIndex = getColumnIndex(column, caseSensitive);
+    final String valueMatch = caseSensitive ? value : value.toLowerCase(Locale.ENGLISH);
+    if (!wildCard) {
+      final BitSet rows = valueIndex.get(valueMatch);
+      return rows == null ? new BitSet() : (BitSet) rows.clone();
+    }
+    final BitSet rows = new BitSet();
+    for (final Map.Entry<String, BitSet> entry : valueIndex.entrySet()) {
+      if (wildCardMatcher.test(entry.getKey(), valueMatch)) {
+        rows.or(entry.getValue());
+      }
+    }
+    return rows;
+  }
+
+  private Map<String, BitSet> getColumnIndex(int column, boolean caseSensitive) {
+    final Map<Integer, Map<String, BitSet>> indexMap =
+        caseSensitive ? columnIndexMap : columnIndexLowerMap;
+    return indexMap.computeIfAbsent(column, key -> buildColumnIndex(key, caseSensitive));
+  }
+
+  private Map<String, BitSet> buildColumnIndex(int column, boolean caseSensitive) {
+    final Map<String, BitSet> valueIndex = new HashMap<>();
+    for (int row = 1; row <= tableSnapshot.getRowCount(); row++) {
+      String cellValue = tableSnapshot.getCellText(row, column);
+      if (cellValue == null) {
+        continue;
+      }
+      if (!caseSensitive) {
+        cellValue = cellValue.toLowerCase(Locale.ENGLISH);
+      }
+      valueIndex.computeIfAbsent(cellValue, key -> new BitSet()).set(row);
+    }
+    return valueIndex;
+  }
+}
@@ -0,0 +1,70 @@
+package com.cjs.qa.selenium;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class TableIndexTest {
+
+  private static TableSnapshot newSnapshot() {
+    final Map<String, Object> map = new HashMap<>();
+    map.put("headings", Arrays.asList("Title", "Studio", "Weeks"));
+    map.put(
+        "rows",
+        Arrays.asList(
+            Arrays.asList("Jigsaw", "Lionsgate", "1"),
+            Arrays.asList("Geostorm", "Warner Bros.", "2"),
+            Arrays.asList("JIGSAW", "Lionsgate", "2"),
+            Arrays.asList("Thor: Ragnarok", "Disney"),
+            Arrays.asList("Jigsaw", "Lionsgate", "2")));
+    return TableSnapshot.fromScriptResult(map);
+  }
+
+  private static List<Integer> toList(BitSet rows) {
+    return rows.stream().boxed().toList();
+  }
+
+  @Test
+  public void singleColumnMatches() {
+    final TableIndex tableIndex =
+        new TableIndex(newSnapshot(), (text, pattern) -> text.startsWith(pattern.replace("*", "")));
+    assertEquals(Arrays.asList(1, 5), toList(tableIndex.getMatchingRows(1, "Jigsaw", true, false)));
+    assertEquals(
+        Arrays.asList(1, 3, 5), toList(tableIndex.getMatchingRows(1, "jigsaw", false, false)));
+    assertEquals(
+        Arrays.asList(1, 3, 5), toList(tableIndex.getMatchingRows(1, "jig*", false, true)));
+    assertTrue(tableIndex.getMatchingRows(1, "Saw", true, false).isEmpty());
+    // Row 4 has no third cell.
+    assertEquals(Arrays.asList(2, 3, 5), toList(tableIndex.getMatchingRows(3, "2", true, false)));
+    assertEquals(3, tableIndex.getIndexCount());
+  }
+
+  @Test
+  public void multiColumnMatchesIntersect() {
+    final TableIndex tableIndex = new TableIndex(newSnapshot(), (text, pattern) -> false);
+    final Map<Integer, String> columnValueMap = new LinkedHashMap<>();
+    columnValueMap.put(2, "lionsgate");
+    columnValueMap.put(3, "2");
+    assertEquals(
+        Arrays.asList(3, 5), toList(tableIndex.getMatchingRows(columnValueMap, false, false)));
+    columnValueMap.put(1, "Geostorm");
+    assertTrue(tableIndex.getMatchingRows(columnValueMap, true, false).isEmpty());
+    assertEquals(
+        Arrays.asList(1, 2, 3, 4, 5),
+        toList(tableIndex.getMatchingRows(new LinkedHashMap<>(), true, false)));
+  }
+
+  @Test
+  public void returnedRowsDoNotChangeTheIndex() {
+    final TableIndex tableIndex = new TableIndex(newSnapshot(), (text, pattern) -> false);
+    tableIndex.getMatchingRows(1, "Jigsaw", true, false).clear();
+    assertEquals(Arrays.asList(1, 5), toList(tableIndex.getMatchingRows(1, "Jigsaw", true, false)));
+  }
+}
@@ -0,0 +1,251 @@
+package com.cjs.qa.selenium;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Immutable copy of an HTML table's headings, cell text and selected cell attributes, read with a
+ * single {@code executeScript} instead of one WebDriver call per cell.
+ *
+ * <p>The table is located and walked with the same XPaths {@link WebElementTable} uses: the table
+ * from the document, headings and rows relative to the table, cells relative to each row. Cell text
+ * is the element's {@code innerText}, trimmed, which matches {@link
+ * org.openqa.selenium.WebElement#getText()} for ordinary cells. Rows and columns are numbered from
+ * 1, as in {@link WebElementTable}.
+ */
+public final class TableSnapshot {
+  private static final String SCRIPT_SNAPSHOT =
+      """
+      var select = function (context, xpath) {
+        var result = document.evaluate(
+            xpath, context, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+        var nodes = [];
+        for (var index = 0; index < result.snapshotLength; index++) {
+          nodes.push(result.snapshotItem(index));
+        }
+        return nodes;
+      };
+      var text = function (element) {
+        var value = element.innerText === undefined ? element.textContent : element.innerText;
+        return value == null ? '' : String(value).trim();
+      };
+      var attribute = function (element, name) {
+        var value = element[name];
+        if (value === undefined || value === null
+            || typeof value === 'object' || typeof value === 'function') {
+          value = element.getAttribute(name);
+        }
+        return value == null ? null : String(value);
+      };
+      var table = select(document, arguments[0])[0];
+      if (!table) {
+        return null;
+      }
+      var cellsXPath = arguments[3];
+      var names = arguments[4];
+      var snapshot = { headings: [], rows: [], attributes: {} };
+      select(table, arguments[1]).forEach(function (heading) {
+        snapshot.headings.push(text(heading));
+      });
+      names.forEach(function (name) {
+        snapshot.attributes[name] = [];
+      });
+      select(table, arguments[2]).forEach(function (row) {
+        var cells = select(row, cellsXPath);
+        snapshot.rows.push(cells.map(text));
+        names.forEach(function (name) {
+          snapshot.attributes[name].push(cells.map(function (cell) {
+            return attribute(cell, name);
+          }));
+        });
+      });
+      return snapshot;
+      """;
+
+  private final List<String> headingList;
+  private final String[][] cells;
+  private final Map<String, String[][]> attributeMap;
+  private final long takenMillis;
+
+  private TableSnapshot(
+      List<String> headingList, String[][] cells, Map<String, String[][]> attributeMap) {
+    this.headingList = Collections.unmodifiableList(headingList);
+    this.cells = cells;
+    this.attributeMap = Collections.unmodifiableMap(attributeMap);
+    this.takenMillis = System.currentTimeMillis();
+  }
+
+  /**
+   * Reads the table in one round trip.
+   *
+   * @param webDriver driver the table is shown in; must implement {@link JavascriptExecutor}
+   * @param xPathTable table, relative to the document
+   * @param xpathHeadings heading cells, relative to the table
+   * @param xpathRows rows, relative to the table
+   * @param xPathCells cells, relative to a row
+   * @param attributeList cell attributes to capture besides the text
+   * @return the snapshot
+   * @throws NoSuchElementException if there is no table at {@code xPathTable}
+   */
+  public static TableSnapshot take(
+      WebDriver webDriver,
+      String xPathTable,
+      String xpathHeadings,
+      String xpathRows,
+      String xPathCells,
+      List<String> attributeList) {
+    final Object result =
+        ((JavascriptExecutor) webDriver)
+            .executeScript(
+                SCRIPT_SNAPSHOT,
+                xPathTable,
+                xpathHeadings,
+                xpathRows,
+                xPathCells,
+                new ArrayList<>(attributeList));
+    if (result == null) {
+      throw new NoSuchElementException("Unable to locate table:[" + xPathTable + "]");
+    }
+    return fromScriptResult(result);
+  }
+
+  /**
+   * @param result what the snapshot script returned through WebDriver
+   * @return the snapshot
+   */
+  @SuppressWarnings("unchecked")
+  static TableSnapshot fromScriptResult(Object result) {
+    final Map<String, Object> map = (Map<String, Object>) result;
+    final List<String> headingList = new ArrayList<>();
+    for (final Object heading : (List<Object>) map.get("headings")) {
+      headingList.add(String.valueOf(heading));
+    }
+    final String[][] cells = toArray((List<Object>) map.get("rows"));
+    final Map<String, String[][]> attributeMap = new HashMap<>();
+    final Object attributes = map.get("attributes");
+    if (attributes instanceof Map<?, ?> attributesMap) {
+      for (final Map.Entry<?, ?> entry : attributesMap.entrySet()) {
+        attributeMap.put((String) entry.getKey(), toArray((List<Object>) entry.getValue()));
+      }
+    }
+    return new TableSnapshot(headingList, cells, attributeMap);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static String[][] toArray(List<Object> rowList) {
+    final String[][] array = new String[rowList.size()][];
+    for (int rowIndex = 0; rowIndex < array.length; rowIndex++) {
+      final List<Object> cellList = (List<Object>) rowList.get(rowIndex);
+      array[rowIndex] = new String[cellList.size()];
+      for (int cellIndex = 0; cellIndex < cellList.size(); cellIndex++) {
+        final Object value = cellList.get(cellIndex);
+        array[rowIndex][cellIndex] = value == null ? null : String.valueOf(value);
+      }
+    }
+    return array;
+  }
+
+  /**
+   * @return the heading texts, in column order
+   */
+  public List<String> getHeadingList() {
+    return headingList;
+  }
+
+  public int getColumnCount() {
+    return headingList.size();
+  }
+
+  public int getRowCount() {
+    return cells.length;
+  }
+
+  /**
+   * @param row row number, from 1
+   * @param column column number, from 1
+   * @return the cell text, or {@code null} if there is no such cell
+   */
+  public String getCellText(int row, int column) {
+    if (row < 1 || row > cells.length || column < 1 || column > cells[row - 1].length) {
+      return null;
+    }
+    return cells[row - 1][column - 1];
+  }
+
+  /**
+   * @param row row number, from 1
+   * @param column column number, from 1
+   * @param attribute attribute name
+   * @return the attribute value, or {@code null} if there is no such cell or the attribute was not
+   *     captured
+   */
+  public String getCellAttribute(int row, int column, String attribute) {
+    final String[][] values = attributeMap.get(attribute);
+    if (values == null
+        || row < 1
+        || row > values.length
+        || column < 1
+        || column > values[row - 1].length) {
+      return null;
+    }
+    return values[row - 1][column - 1];
+  }
+
+  /**
+   * @param attribute attribute name
+   * @return {@code true} if the attribute was captured with the snapshot
+   */
+  public boolean hasAttribute(String attribute) {
+    return attributeMap.containsKey(attribute);
+  }
+
+  /**
+   * @param column column number, from 1
+   * @return the text of that column in every row that has it
+   */
+  public List<String> getColumnValues(int column) {
+    final List<String> columnValueList = new ArrayList<>(cells.length);
+    for (final String[] rowCells : cells) {
+      if (column >= 1 && column <= rowCells.length) {
+        columnValueList.add(rowCells[column - 1]);
+      }
+    }
+    return columnValueList;
+  }
+
+  /**
+   * @param row row number, from 1
+   * @return the text of every cell in that row
+   */
+  public List<String> getRowValues(int row) {
+    if (row < 1 || row > cells.length) {
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(Arrays.asList(cells[row - 1]));
+  }
+
+  /**
+   * @return a copy of the cell text, one array per row
+   */
+  public String[][] getCells() {
+    final String[][] copy = new String[cells.length][];
+    for (int rowIndex = 0; rowIndex < cells.length; rowIndex++) {
+      copy[rowIndex] = cells[rowIndex].clone();
+    }
+    return copy;
+  }
+
+  /**
+   * @return when the snapshot was taken, in epoch milliseconds
+   */
+  public long getTakenMillis() {
+    return takenMillis;
+  }
+}
@@ -0,0 +1,468 @@
+package com.cjs.qa.selenium;
+
+import com.cjs.qa.utilities.JavaHelpers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Waits for page conditions without fixed sleeps.
+ *
+ * <p>Element, text and ready-state conditions are first waited for in the browser: one {@code
+ * executeAsyncScript} checks the condition, then re-checks it on the next animation frame after
+ * every DOM mutation (and every 250 ms, for layout changes no mutation reports) until it holds or
+ * the timeout passes, so the wait ends as soon as the page changes instead of at the next poll.
+ * Conditions the page cannot evaluate (other locators, URL changes, anything written in Java) and
+ * drivers without async script support are polled instead. Polling starts at a quarter of how long
+ * the same condition usually takes to become true, within {@code selenium.wait.minPollMillis} and
+ * {@code selenium.wait.maxPollMillis}, and backs off by half again after every miss.
+ *
+ * <p>Time-to-ready is recorded per condition key (the locator for element waits) and shared by
+ * every engine, so later waits for the same element start polling at the right interval; see {@link
+ * #getMetrics()}. Set {@code selenium.wait.inPage} to {@code false} to always poll.
+ */
+public final class WaitEngine {
+  public static final String PROPERTY_IN_PAGE = "selenium.wait.inPage";
+  public static final String PROPERTY_MIN_POLL_MILLIS = "selenium.wait.minPollMillis";
+  public static final String PROPERTY_MAX_POLL_MILLIS = "selenium.wait.maxPollMillis";
+  private static final boolean IN_PAGE_ENABLED =
+      Boolean.parseBoolean(JavaHelpers.readPropertyOrEnv(PROPERTY_IN_PAGE, "true").trim());
+  private static final long MIN_POLL_MILLIS =
+      JavaHelpers.readPropertyOrEnvLong(PROPERTY_MIN_POLL_MILLIS, 25);
+  private static final long MAX_POLL_MILLIS =
+      JavaHelpers.readPropertyOrEnvLong(PROPERTY_MAX_POLL_MILLIS, 500);
+  private static final Duration SCRIPT_TIMEOUT_MARGIN = Duration.ofSeconds(2);
+  private static final Map<String, ReadyStats> readyStatsMap = new ConcurrentHashMap<>();
+  private static final String SCRIPT_WAIT =
+      """
+var kind = arguments[0], using = arguments[1], selector = arguments[2];
+var text = arguments[3], timeout = arguments[4];
+var done = arguments[arguments.length - 1];
+var find = function () {
+  if (using === 'xpath') {
+    return document.evaluate(selector, document, null,
+        XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;
+  }
+  return document.querySelector(selector);
+};
+var visible = function (element) {
+  return !!(element.offsetWidth || element.offsetHeight
+      || element.getClientRects().length)
+      && window.getComputedStyle(element).visibility !== 'hidden';
+};
+var check = function () {
+  var element;
+  switch (kind) {
+    case 'present':
+      element = find();
+      return element ? { value: element } : null;
+    case 'visible':
+      element = find();
+      return element && visible(element) ? { value: element } : null;
+    case 'absent':
+      element = find();
+      return element && visible(element) ? null : { value: true };
+    case 'text':
+      element = find();
+      var value = element ? (element.innerText || element.textContent || '') : null;
+      return value !== null && value.trim() === text ? { value: true } : null;
+    default:
+      return document.readyState === 'complete' ? { value: true } : null;
+  }
+};
+var result = check();
+if (result || timeout <= 0) {
+  done(result || { timeout: true });
+  return;
+}
+var finished = false, scheduled = false, observer = null, timer = null, interval = null;
+var finish = function (value) {
+  if (finished) {
+    return;
+  }
+  finished = true;
+  observer.disconnect();
+  clearTimeout(timer);
+  clearInterval(interval);
+  document.removeEventListener('readystatechange', changed);
+  done(value);
+};
+var recheck = function () {
+  scheduled = false;
+  var value = check();
+  if (value) {
+    finish(value);
+  }
+};
+var changed = function () {
+  if (scheduled || finished) {
+    return;
+  }
+  scheduled = true;
+  // Animation frames stop in background tabs, so a timer backs them up.
+  var frame = window.requestAnimationFrame || function (callback) {
+    return setTimeout(callback, 16);
+  };
+  frame(function () { if (scheduled) { recheck(); } });
+  setTimeout(function () { if (scheduled) { recheck(); } }, 100);
+};
+observer = new MutationObserver(changed);
+observer.observe(document, {
+  childList: true, subtree: true, attributes: true, characterData: true
+});
+document.addEventListener('readystatechange', changed);
+// Layout can change without a mutation (images, fonts, media queries), so check now and then.
+interval = setInterval(changed, 250);
+timer = setTimeout(function () { finish({ timeout: true }); }, timeout);
+""";
+  private final WebDriver webDriver;
+  private boolean inPageSupported = IN_PAGE_ENABLED;
+  private Duration originalScriptTimeout = null;
+
+  /** Time-to-ready of one condition key, as an exponentially weighted moving average. */
+  static final class ReadyStats {
+    private long readyCount = 0;
+    private long timeoutCount = 0;
+    private long inPageCount = 0;
+    private double averageMillis = 0;
+    private long maxMillis = 0;
+
+    synchronized void recordReady(long millis, boolean inPage) {
+      averageMillis = readyCount == 0 ? millis : averageMillis * 0.8 + millis * 0.2;
+      maxMillis = Math.max(maxMillis, millis);
+      readyCount++;
+      if (inPage) {
+        inPageCount++;
+      }
+    }
+
+    synchronized void recordTimeout() {
+      timeoutCount++;
+    }
+
+    synchronized long getAverageMillis() {
+      return Math.round(averageMillis);
+    }
+
+    synchronized long getReadyCount() {
+      return readyCount;
+    }
+
+    synchronized long getInPageCount() {
+      return inPageCount;
+    }
+
+    synchronized long getTimeoutCount() {
+      return timeoutCount;
+    }
+
+    synchronized String getMetrics() {
+      return "Ready:["
+          + readyCount
+          + "], In Page:["
+          + inPageCount
+          + "], Timeouts:["
+          + timeoutCount
+          + "], Average:["
+          + Math.round(averageMillis)
+          + " ms], Max:["
+          + maxMillis
+          + " ms]";
+    }
+  }
+
+  /**
+   * @param webDriver driver to wait on; must implement {@link JavascriptExecutor} for in-page waits
+   */
+  public WaitEngine(WebDriver webDriver) {
+    this.webDriver = webDriver;
+    if (!(webDriver instanceof JavascriptExecutor)) {
+      this.inPageSupported = false;
+    }
+  }
+
+  static ReadyStats getReadyStats(String key) {
+    return readyStatsMap.computeIfAbsent(key, k -> new ReadyStats());
+  }
+
+  /**
+   * @param key condition key
+   * @return how long to wait before the first poll: a quarter of the usual time-to-ready
+   */
+  static long getInitialPollMillis(String key) {
+    final ReadyStats readyStats = readyStatsMap.get(key);
+    if (readyStats == null || readyStats.getReadyCount() == 0) {
+      return MIN_POLL_MILLIS;
+    }
+    return Math.max(MIN_POLL_MILLIS, Math.min(MAX_POLL_MILLIS, readyStats.getAverageMillis() / 4));
+  }
+
+  /**
+   * @param by locator
+   * @param visible wait for the element to be displayed, not only present
+   * @param timeout longest wait
+   * @return the element
+   * @throws TimeoutException if the element is not there in time
+   */
+  public WebElement waitForElement(By by, boolean visible, Duration timeout) {
+    return (WebElement)
+        waitFor(
+            visible ? "visible" : "present",
+            by,
+            null,
+            timeout,
+            driver -> {
+              final List<WebElement> webElementList = driver.findElements(by);
+              if (webElementList.isEmpty()) {
+                return null;
+              }
+              final WebElement webElement = webElementList.get(0);
+              return !visible || webElement.isDisplayed() ? webElement : null;
+            });
+  }
+
+  /**
+   * @param by locator
+   * @param timeout longest wait
+   * @return {@code true} once no displayed element matches, {@code false} if one still does
+   */
+  public boolean waitForElementAbsent(By by, Duration timeout) {
+    try {
+      waitFor(
+          "absent",
+          by,
+          null,
+          timeout,
+          driver -> {
+            for (final WebElement webElement : driver.findElements(by)) {
+              if (webElement.isDisplayed()) {
+                return null;
+              }
+            }
+            return Boolean.TRUE;
+          });
+      return true;
+    } catch (final TimeoutException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @param by locator
+   * @param text expected text, compared with the element's trimmed text
+   * @param timeout longest wait
+   * @return {@code true} once the text matches, {@code false} if it never did
+   */
+  public boolean waitForText(By by, String text, Duration timeout) {
+    try {
+      waitFor(
+          "text",
+          by,
+          text,
+          timeout,
+          driver -> {
+            final List<WebElement> webElementList = driver.findElements(by);
+            return !webElementList.isEmpty() && text.equals(webElementList.get(0).getText().trim())
+                ? Boolean.TRUE
+                : null;
+          });
+      return true;
+    } catch (final TimeoutException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @param timeout longest wait
+   * @return {@code true} once {@code document.readyState} is {@code complete}
+   */
+  public boolean waitForDocumentReady(Duration timeout) {
+    try {
+      waitFor(
+          "ready",
+          null,
+          null,
+          timeout,
+          driver ->
+              "complete"
+                      .equals(
+                          ((JavascriptExecutor) driver)
+                              .executeScript("return document.readyState;"))
+                  ? Boolean.TRUE
+                  : null);
+      return true;
+    } catch (final TimeoutException e) {
+      return false;
+    }
+  }
+
+  private Object waitFor(
+      String kind, By by, String text, Duration timeout, Function<WebDriver, Object> condition) {
+    final String key = kind + ":" + (by == null ? "document" : by.toString());
+    final long start = System.nanoTime();
+    final String[] locator = by == null ? new String[] {"css selector", "html"} : toInPage(by);
+    if (inPageSupported && locator != null) {
+      try {
+        final Object value = waitInPage(kind, locator, text, timeout);
+        if (value != null) {
+          getReadyStats(key).recordReady(elapsedMillis(start), true);
+          return value;
+        }
+        if (elapsedMillis(start) >= timeout.toMillis()) {
+          getReadyStats(key).recordTimeout();
+          throw new TimeoutException(
+              "Expected condition failed: waiting for " + key + " (tried for " + timeout + ")");
+        }
+      } catch (final TimeoutException e) {
+        throw e;
+      } catch (final UnsupportedCommandException e) {
+        inPageSupported = false;
+      } catch (final WebDriverException e) {
+        // Navigation, a closed window or a driver without async scripts: poll for the rest.
+      }
+    }
+    return poll(key, timeout.minusNanos(System.nanoTime() - start), condition, start);
+  }
+
+  /**
+   * @return {@code [using, selector]} for locators the page can evaluate, otherwise {@code null}
+   */
+  private static String[] toInPage(By by) {
+    if (!(by instanceof By.Remotable remotable)) {
+      return null;
+    }
+    final By.Remotable.Parameters parameters = remotable.getRemoteParameters();
+    final String value = String.valueOf(parameters.value());
+    final String quoted = "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    return switch (parameters.using()) {
+      case "xpath" -> new String[] {"xpath", value};
+      case "css selector" -> new String[] {"css selector", value};
+      case "id" -> new String[] {"css selector", "[id=" + quoted + "]"};
+      case "name" -> new String[] {"css selector", "[name=" + quoted + "]"};
+      case "class name" -> new String[] {"css selector", "[class~=" + quoted + "]"};
+      case "tag name" -> new String[] {"css selector", value};
+      default -> null;
+    };
+  }
+
+  /**
+   * @return the condition's value, or {@code null} if the page timed out waiting for it
+   */
+  private Object waitInPage(String kind, String[] locator, String text, Duration timeout) {
+    final Duration needed = timeout.plus(SCRIPT_TIMEOUT_MARGIN);
+    if (originalScriptTimeout == null) {
+      originalScriptTimeout = getScriptTimeout();
+    }
+    // Only waits longer than the session allows change its timeout, and only until they return.
+    final boolean raise = originalScriptTimeout.compareTo(needed) < 0;
+    if (raise) {
+      webDriver.manage().timeouts().scriptTimeout(needed);
+    }
+    final Object result;
+    try {
+      result =
+          ((JavascriptExecutor) webDriver)
+              .executeAsyncScript(
+                  SCRIPT_WAIT,
+                  kind,
+                  locator[0],
+                  locator[1],
+                  text == null ? "" : text,
+                  timeout.toMillis());
+    } finally {
+      if (raise) {
+        webDriver.manage().timeouts().scriptTimeout(originalScriptTimeout);
+      }
+    }
+    if (!(result instanceof Map<?, ?> resultMap)) {
+      inPageSupported = false;
+      throw new WebDriverException("Unexpected in-page wait result:[" + result + "]");
+    }
+    return resultMap.containsKey("timeout") ? null : resultMap.get("value");
+  }
+
+  private Duration getScriptTimeout() {
+    try {
+      return webDriver.manage().timeouts().getScriptTimeout();
+    } catch (final UnsupportedOperationException | WebDriverException e) {
+      // The W3C default.
+      return Duration.ofSeconds(30);
+    }
+  }
+
+  /**
+   * Polls {@code condition} until it returns something other than {@code null} or {@code false}.
+   *
+   * @param key condition key, used for the time-to-ready statistics and the poll interval
+   * @param timeout longest wait
+   * @param condition condition to poll; {@link NotFoundException} and {@link
+   *     StaleElementReferenceException} count as not ready
+   * @return the condition's value
+   * @throws TimeoutException if the condition is not met in time
+   */
+  public <T> T until(String key, Duration timeout, Function<WebDriver, T> condition) {
+    return poll(key, timeout, condition, System.nanoTime());
+  }
+
+  private <T> T poll(String key, Duration timeout, Function<WebDriver, T> condition, long start) {
+    final long deadline = System.nanoTime() + Math.max(0, timeout.toNanos());
+    long pollMillis = getInitialPollMillis(key);
+    RuntimeException lastException = null;
+    while (true) {
+      try {
+        final T value = condition.apply(webDriver);
+        if (value != null && !Boolean.FALSE.equals(value)) {
+          getReadyStats(key).recordReady(elapsedMillis(start), false);
+          return value;
+        }
+      } catch (final NotFoundException | StaleElementReferenceException e) {
+        lastException = e;
+      }
+      final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remainingMillis <= 0) {
+        getReadyStats(key).recordTimeout();
+        throw new TimeoutException(
+            "Expected condition failed: waiting for "
+                + key
+                + " (tried for "
+                + Duration.ofNanos(System.nanoTime() - start)
+                + ")",
+            lastException);
+      }
+      try {
+        TimeUnit.MILLISECONDS.sleep(Math.min(pollMillis, remainingMillis));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new TimeoutException("Interrupted waiting for " + key, e);
+      }
+      pollMillis = Math.min(MAX_POLL_MILLIS, pollMillis + pollMillis / 2);
+    }
+  }
+
+  private static long elapsedMillis(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+
+  /**
+   * @return time-to-ready statistics, one line per condition key
+   */
+  public static String getMetrics() {
+    final List<String> lineList = new ArrayList<>();
+    readyStatsMap.forEach((key, readyStats) -> lineList.add(key + " " + readyStats.getMetrics()));
+    lineList.sort(null);
+    return String.join(System.lineSeparator(), lineList);
+  }
+}
@@ -0,0 +1,121 @@
+package com.cjs.qa.selenium;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+public class WaitEngineTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private HtmlUnitDriver webDriver = null;
+  private WaitEngine waitEngine = null;
+  // Unique per test, so statistics from other tests do not leak in.
+  private final String id = "id" + UUID.randomUUID().toString().replace("-", "");
+
+  @Before
+  public void setUp() throws Exception {
+    final File file = temporaryFolder.newFile("page.html");
+    Files.writeString(
+        file.toPath(),
+        "<html><body><div id='spinner'>Loading</div><h1 class='headingtitle'>Loading</h1>"
+            + "</body></html>",
+        StandardCharsets.UTF_8);
+    webDriver = new HtmlUnitDriver(true);
+    webDriver.get(file.toURI().toString());
+    waitEngine = new WaitEngine(webDriver);
+  }
+
+  @After
+  public void tearDown() {
+    webDriver.quit();
+  }
+
+  private void later(int milliseconds, String script) {
+    webDriver.executeScript("setTimeout(function () {" + script + "}, " + milliseconds + ");");
+  }
+
+  @Test
+  public void waitsInThePageForAnElementToAppear() {
+    later(
+        300,
+        "var link = document.createElement('a'); link.id = '"
+            + id
+            + "'; link.textContent = 'Ready'; document.body.appendChild(link);");
+    final By by = By.id(id);
+    final long start = System.currentTimeMillis();
+    final WebElement webElement = waitEngine.waitForElement(by, true, Duration.ofSeconds(10));
+    assertEquals("Ready", webElement.getText());
+    assertTrue(System.currentTimeMillis() - start < 5000);
+    final WaitEngine.ReadyStats readyStats = WaitEngine.getReadyStats("visible:" + by);
+    assertEquals(1, readyStats.getReadyCount());
+    assertEquals(1, readyStats.getInPageCount());
+  }
+
+  @Test
+  public void restoresTheScriptTimeoutAfterALongWait() {
+    webDriver.manage().timeouts().scriptTimeout(Duration.ofSeconds(5));
+    later(100, "document.getElementById('spinner').textContent = 'Done';");
+    assertTrue(waitEngine.waitForText(By.id("spinner"), "Done", Duration.ofSeconds(60)));
+    assertEquals(1, WaitEngine.getReadyStats("text:" + By.id("spinner")).getInPageCount());
+    assertEquals(Duration.ofSeconds(5), webDriver.manage().timeouts().getScriptTimeout());
+  }
+
+  @Test
+  public void waitsForTextAndAbsence() {
+    later(200, "document.querySelector('.headingtitle').textContent = ' Welcome ';");
+    later(300, "document.getElementById('spinner').style.display = 'none';");
+    assertTrue(
+        waitEngine.waitForText(By.className("headingtitle"), "Welcome", Duration.ofSeconds(10)));
+    assertTrue(waitEngine.waitForElementAbsent(By.id("spinner"), Duration.ofSeconds(10)));
+    assertTrue(waitEngine.waitForDocumentReady(Duration.ofSeconds(1)));
+  }
+
+  @Test
+  public void pollsLocatorsThePageCannotEvaluateAndLearnsTheInterval() {
+    later(
+        200,
+        "var link = document.createElement('a'); link.href = '#'; link.textContent = '"
+            + id
+            + "'; document.body.appendChild(link);");
+    final By by = By.linkText(id);
+    assertEquals(id, waitEngine.waitForElement(by, true, Duration.ofSeconds(10)).getText());
+    final String key = "visible:" + by;
+    final WaitEngine.ReadyStats readyStats = WaitEngine.getReadyStats(key);
+    assertEquals(1, readyStats.getReadyCount());
+    assertEquals(0, readyStats.getInPageCount());
+    final long expected = Math.max(25, Math.min(500, readyStats.getAverageMillis() / 4));
+    assertEquals(expected, WaitEngine.getInitialPollMillis(key));
+    assertTrue(readyStats.getAverageMillis() >= 150);
+  }
+
+  @Test
+  public void timesOutWhenTheConditionNeverHolds() {
+    final By by = By.id(id);
+    final long start = System.currentTimeMillis();
+    try {
+      waitEngine.waitForElement(by, false, Duration.ofMillis(300));
+      fail("Expected a TimeoutException");
+    } catch (final TimeoutException e) {
+      assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+    assertEquals(1, WaitEngine.getReadyStats("present:" + by).getTimeoutCount());
+    assertFalse(waitEngine.waitForText(By.id(id), "never", Duration.ZERO));
+    assertEquals(
+        Boolean.TRUE, waitEngine.until("condition:" + id, Duration.ofSeconds(1), driver -> true));
+  }
+}
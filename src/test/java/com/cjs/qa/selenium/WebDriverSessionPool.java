@@ -0,0 +1,400 @@
+package com.cjs.qa.selenium;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.JavaHelpers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Pool of warm browser sessions, one pool per browser / grid combination, so a test can reuse a
+ * browser another test has finished with instead of starting a new one.
+ *
+ * <p>A session is leased to the calling thread by {@link #acquire(SessionFactory)}; the same thread
+ * gets the same session back until it calls {@link #release(WebDriver)}. On release the session is
+ * reset (extra windows closed, cookies deleted, local and session storage cleared, {@code
+ * about:blank} loaded) and returned to the pool, or quit once it has been used {@code
+ * selenium.pool.maxUses} times or cannot be reset. Idle sessions are health-checked before they are
+ * leased again.
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code selenium.pool.enabled} - lease sessions from the pool in {@link SeleniumWebDriver}
+ *       (default false)
+ *   <li>{@code selenium.pool.size} - sessions pre-warmed and kept idle per browser (default 2)
+ *   <li>{@code selenium.pool.maxUses} - leases before a session is retired (default 25)
+ * </ul>
+ */
+public final class WebDriverSessionPool {
+  public static final String PROPERTY_ENABLED = "selenium.pool.enabled";
+  public static final String PROPERTY_SIZE = "selenium.pool.size";
+  public static final String PROPERTY_MAX_USES = "selenium.pool.maxUses";
+  private static final Map<String, WebDriverSessionPool> SESSION_POOLS = new ConcurrentHashMap<>();
+  private static final String SCRIPT_CLEAR_STORAGE =
+      "try { window.localStorage.clear(); } catch (e) {}"
+          + " try { window.sessionStorage.clear(); } catch (e) {}";
+
+  static {
+    Runtime.getRuntime()
+        .addShutdownHook(new Thread(WebDriverSessionPool::quitAll, "selenium-pool-shutdown"));
+  }
+
+  /** Starts a new browser session for the pool. */
+  @FunctionalInterface
+  public interface SessionFactory {
+    WebDriver create() throws Throwable;
+  }
+
+  private static final class Session {
+    private final WebDriver webDriver;
+    private int uses = 0;
+
+    private Session(WebDriver webDriver) {
+      this.webDriver = webDriver;
+    }
+  }
+
+  private final String name;
+  private final int size;
+  private final int maxUses;
+  private final ThreadLocal<Session> lease = new ThreadLocal<>();
+  private final ConcurrentLinkedDeque<Session> idleSessions = new ConcurrentLinkedDeque<>();
+  private final Set<Session> allSessions = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean warmed = new AtomicBoolean();
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong reusedCount = new AtomicLong();
+  private final AtomicLong retiredCount = new AtomicLong();
+  private final AtomicLong healthCheckFailureCount = new AtomicLong();
+  private final AtomicLong acquiredCount = new AtomicLong();
+  private final AtomicLong acquireNanosTotal = new AtomicLong();
+  private final AtomicLong acquireNanosMax = new AtomicLong();
+
+  WebDriverSessionPool(String name, int size, int maxUses) {
+    this.name = name;
+    this.size = Math.max(0, size);
+    this.maxUses = Math.max(1, maxUses);
+  }
+
+  /**
+   * @return {@code true} if {@link SeleniumWebDriver} should lease its sessions from the pool
+   */
+  public static boolean isEnabled() {
+    return Boolean.parseBoolean(JavaHelpers.readPropertyOrEnv(PROPERTY_ENABLED, "false"));
+  }
+
+  /**
+   * Returns the pool for the given key, creating it on first use.
+   *
+   * @param name browser and grid the pool's sessions belong to
+   * @return the shared pool for {@code name}
+   */
+  public static WebDriverSessionPool getInstance(String name) {
+    return SESSION_POOLS.computeIfAbsent(
+        name,
+        key ->
+            new WebDriverSessionPool(
+                key,
+                JavaHelpers.readPropertyOrEnvInt(PROPERTY_SIZE, 2),
+                JavaHelpers.readPropertyOrEnvInt(PROPERTY_MAX_USES, 25)));
+  }
+
+  /** Quits every session of every pool. */
+  public static void quitAll() {
+    for (final WebDriverSessionPool sessionPool : SESSION_POOLS.values()) {
+      sessionPool.quit();
+    }
+  }
+
+  /**
+   * @return one {@link #getMetrics()} block per pool
+   */
+  public static String getMetricsAll() {
+    final StringBuilder stringBuilder = new StringBuilder();
+    for (final WebDriverSessionPool sessionPool : SESSION_POOLS.values()) {
+      stringBuilder.append(sessionPool.getMetrics());
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Leases a session to the calling thread. A thread that already holds a lease gets the same
+   * session back. Otherwise a healthy idle session is reused, or {@code sessionFactory} starts a
+   * new one; the first acquisition also pre-warms the rest of the pool in the background.
+   *
+   * @param sessionFactory starts a new session when none is idle
+   * @return the leased session
+   * @throws Throwable if a new session cannot be started
+   */
+  public WebDriver acquire(SessionFactory sessionFactory) throws Throwable {
+    final Session leased = lease.get();
+    if (leased != null) {
+      if (allSessions.contains(leased)) {
+        return leased.webDriver;
+      }
+      // Quit by quit() while leased.
+      lease.remove();
+      activeCount.decrementAndGet();
+    }
+    final long start = System.nanoTime();
+    Session session = pollHealthy();
+    if (session == null) {
+      if (warmed.compareAndSet(false, true)) {
+        prewarmAsync(sessionFactory, size - 1);
+      }
+      session = create(sessionFactory);
+    } else {
+      reusedCount.incrementAndGet();
+    }
+    session.uses++;
+    lease.set(session);
+    activeCount.incrementAndGet();
+    recordAcquire(System.nanoTime() - start);
+    return session.webDriver;
+  }
+
+  /**
+   * Starts sessions until {@code count} are idle, without waiting for a test to ask for one.
+   *
+   * @param sessionFactory starts each session
+   * @param count idle sessions wanted
+   * @return the number of sessions started
+   */
+  public int prewarm(SessionFactory sessionFactory, int count) {
+    warmed.set(true);
+    int started = 0;
+    while (idleSessions.size() < Math.min(count, size)) {
+      try {
+        idleSessions.offer(create(sessionFactory));
+        started++;
+      } catch (final Throwable e) {
+        Environment.sysOut("Pre-warm of [" + name + "] failed:[" + e.toString() + "]");
+        break;
+      }
+    }
+    return started;
+  }
+
+  private void prewarmAsync(SessionFactory sessionFactory, int count) {
+    if (count <= 0) {
+      return;
+    }
+    final Thread thread =
+        new Thread(() -> prewarm(sessionFactory, count), "selenium-pool-prewarm-" + name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Ends the calling thread's lease. The session is reset and kept for the next test, or quit if it
+   * has reached {@code selenium.pool.maxUses}, cannot be reset or the pool is full.
+   *
+   * @param webDriver the session returned by {@link #acquire(SessionFactory)}
+   * @return {@code false} if {@code webDriver} is not leased to this thread by this pool
+   */
+  public boolean release(WebDriver webDriver) {
+    final Session session = lease.get();
+    if (session == null || session.webDriver != webDriver) {
+      return false;
+    }
+    lease.remove();
+    activeCount.decrementAndGet();
+    if (session.uses >= maxUses) {
+      retire(session, "max uses [" + maxUses + "] reached");
+    } else if (!reset(session.webDriver)) {
+      retire(session, "reset failed");
+    } else if (idleSessions.size() >= size) {
+      retire(session, "pool full");
+    } else {
+      idleSessions.offerFirst(session);
+    }
+    return true;
+  }
+
+  /**
+   * @return how many times the calling thread's session has been leased, or 0 if it holds none
+   */
+  public int getLeaseUses() {
+    final Session session = lease.get();
+    return session == null ? 0 : session.uses;
+  }
+
+  private Session create(SessionFactory sessionFactory) throws Throwable {
+    final Session session = new Session(sessionFactory.create());
+    allSessions.add(session);
+    createdCount.incrementAndGet();
+    return session;
+  }
+
+  private Session pollHealthy() {
+    Session session;
+    while ((session = idleSessions.pollFirst()) != null) {
+      if (isHealthy(session.webDriver)) {
+        return session;
+      }
+      healthCheckFailureCount.incrementAndGet();
+      retire(session, "health check failed");
+    }
+    return null;
+  }
+
+  private static boolean isHealthy(WebDriver webDriver) {
+    try {
+      return webDriver.getWindowHandle() != null;
+    } catch (final Exception e) {
+      return false;
+    }
+  }
+
+  /**
+   * Puts a session back into the state of a new one: one window, no cookies, empty storage.
+   *
+   * @param webDriver session to reset
+   * @return {@code false} if the session did not respond
+   */
+  static boolean reset(WebDriver webDriver) {
+    try {
+      final List<String> windowHandleList = new ArrayList<>(webDriver.getWindowHandles());
+      if (windowHandleList.isEmpty()) {
+        return false;
+      }
+      for (int windowIndex = 1; windowIndex < windowHandleList.size(); windowIndex++) {
+        webDriver.switchTo().window(windowHandleList.get(windowIndex));
+        webDriver.close();
+      }
+      webDriver.switchTo().window(windowHandleList.get(0));
+      webDriver.manage().deleteAllCookies();
+      if (webDriver instanceof JavascriptExecutor javascriptExecutor) {
+        javascriptExecutor.executeScript(SCRIPT_CLEAR_STORAGE);
+      }
+      webDriver.get("about:blank");
+      return true;
+    } catch (final Exception e) {
+      Environment.sysOut("Session reset failed:[" + e.toString() + "]");
+      return false;
+    }
+  }
+
+  private void retire(Session session, String reason) {
+    allSessions.remove(session);
+    retiredCount.incrementAndGet();
+    if (Environment.isLogAll()) {
+      Environment.sysOut("Retiring session of [" + name + "]:[" + reason + "]");
+    }
+    try {
+      session.webDriver.quit();
+    } catch (final Exception e) {
+      // Intentionally empty - the session may already be gone
+    }
+  }
+
+  /** Quits every session of this pool, including those still leased. */
+  public void quit() {
+    idleSessions.clear();
+    for (final Session session : new ArrayList<>(allSessions)) {
+      retire(session, "pool shut down");
+    }
+  }
+
+  private void recordAcquire(long acquireNanos) {
+    acquiredCount.incrementAndGet();
+    acquireNanosTotal.addAndGet(acquireNanos);
+    acquireNanosMax.accumulateAndGet(acquireNanos, Math::max);
+    Environment.sysOut(
+        "Session of ["
+            + name
+            + "] acquired in ["
+            + String.format("%.3f", acquireNanos / 1_000_000.0)
+            + " ms]");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public int getMaxUses() {
+    return maxUses;
+  }
+
+  public int getActiveCount() {
+    return activeCount.get();
+  }
+
+  public int getIdleCount() {
+    return idleSessions.size();
+  }
+
+  public long getCreatedCount() {
+    return createdCount.get();
+  }
+
+  public long getReusedCount() {
+    return reusedCount.get();
+  }
+
+  public long getRetiredCount() {
+    return retiredCount.get();
+  }
+
+  public long getHealthCheckFailureCount() {
+    return healthCheckFailureCount.get();
+  }
+
+  public double getAverageAcquireMillis() {
+    final long acquired = acquiredCount.get();
+    return acquired == 0 ? 0 : acquireNanosTotal.get() / 1_000_000.0 / acquired;
+  }
+
+  public double getMaxAcquireMillis() {
+    return acquireNanosMax.get() / 1_000_000.0;
+  }
+
+  public String getMetrics() {
+    final StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append("Session Pool:[" + getName() + "]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Size:["
+            + getSize()
+            + "], Active:["
+            + getActiveCount()
+            + "], Idle:["
+            + getIdleCount()
+            + "], Max Uses:["
+            + getMaxUses()
+            + "]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Created:["
+            + getCreatedCount()
+            + "], Reused:["
+            + getReusedCount()
+            + "], Retired:["
+            + getRetiredCount()
+            + "], Health Check Failures:["
+            + getHealthCheckFailureCount()
+            + "]");
+    stringBuilder.append(System.lineSeparator());
+    stringBuilder.append(
+        "Average Acquire:["
+            + String.format("%.3f", getAverageAcquireMillis())
+            + " ms], Max Acquire:["
+            + String.format("%.3f", getMaxAcquireMillis())
+            + " ms]");
+    return stringBuilder.toString();
+  }
+}
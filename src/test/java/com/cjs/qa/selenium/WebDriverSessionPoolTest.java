@@ -0,0 +1,166 @@
+package com.cjs.qa.selenium;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+
+public class WebDriverSessionPoolTest {
+  private final List<FakeBrowser> browserList = Collections.synchronizedList(new ArrayList<>());
+  private WebDriverSessionPool sessionPool = null;
+
+  @After
+  public void tearDown() {
+    if (sessionPool != null) {
+      sessionPool.quit();
+    }
+  }
+
+  /** Records what the pool does to one browser session. */
+  private static final class FakeBrowser {
+    private final List<String> windowHandleList = new ArrayList<>(List.of("main"));
+    private String currentWindowHandle = "main";
+    private String url = "https://example.com/account";
+    private int cookieDeletes = 0;
+    private int scripts = 0;
+    private boolean alive = true;
+    private boolean quit = false;
+    private WebDriver webDriver;
+  }
+
+  private WebDriver newWebDriver() {
+    final FakeBrowser fakeBrowser = new FakeBrowser();
+    final Object targetLocator =
+        Proxy.newProxyInstance(
+            WebDriver.class.getClassLoader(),
+            new Class<?>[] {WebDriver.TargetLocator.class},
+            (proxy, method, args) -> {
+              fakeBrowser.currentWindowHandle = (String) args[0];
+              return fakeBrowser.webDriver;
+            });
+    final Object options =
+        Proxy.newProxyInstance(
+            WebDriver.class.getClassLoader(),
+            new Class<?>[] {WebDriver.Options.class},
+            (proxy, method, args) -> {
+              fakeBrowser.cookieDeletes++;
+              return null;
+            });
+    fakeBrowser.webDriver =
+        (WebDriver)
+            Proxy.newProxyInstance(
+                WebDriver.class.getClassLoader(),
+                new Class<?>[] {WebDriver.class, JavascriptExecutor.class},
+                (proxy, method, args) -> {
+                  if (!fakeBrowser.alive) {
+                    throw new NoSuchSessionException("Session is gone");
+                  }
+                  return switch (method.getName()) {
+                    case "getWindowHandle" -> fakeBrowser.currentWindowHandle;
+                    case "getWindowHandles" -> new LinkedHashSet<>(fakeBrowser.windowHandleList);
+                    case "switchTo" -> targetLocator;
+                    case "manage" -> options;
+                    case "close" -> {
+                      fakeBrowser.windowHandleList.remove(fakeBrowser.currentWindowHandle);
+                      yield null;
+                    }
+                    case "get" -> {
+                      fakeBrowser.url = (String) args[0];
+                      yield null;
+                    }
+                    case "executeScript" -> {
+                      fakeBrowser.scripts++;
+                      yield null;
+                    }
+                    case "quit" -> {
+                      fakeBrowser.quit = true;
+                      yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                  };
+                });
+    browserList.add(fakeBrowser);
+    return fakeBrowser.webDriver;
+  }
+
+  @Test
+  public void releasedSessionIsResetAndReused() throws Throwable {
+    sessionPool = new WebDriverSessionPool("test", 1, 10);
+    final WebDriver webDriver = sessionPool.acquire(this::newWebDriver);
+    assertSame(webDriver, sessionPool.acquire(this::newWebDriver));
+    final FakeBrowser fakeBrowser = browserList.get(0);
+    fakeBrowser.windowHandleList.add("popup");
+    fakeBrowser.currentWindowHandle = "popup";
+    assertTrue(sessionPool.release(webDriver));
+    assertFalse(sessionPool.release(webDriver));
+    assertEquals(List.of("main"), fakeBrowser.windowHandleList);
+    assertEquals("main", fakeBrowser.currentWindowHandle);
+    assertEquals(1, fakeBrowser.cookieDeletes);
+    assertEquals(1, fakeBrowser.scripts);
+    assertEquals("about:blank", fakeBrowser.url);
+    assertSame(webDriver, sessionPool.acquire(this::newWebDriver));
+    assertEquals(2, sessionPool.getLeaseUses());
+    assertEquals(1, sessionPool.getCreatedCount());
+    assertEquals(1, sessionPool.getReusedCount());
+  }
+
+  @Test
+  public void sessionIsRetiredAfterMaxUses() throws Throwable {
+    sessionPool = new WebDriverSessionPool("test", 1, 2);
+    for (int use = 0; use < 2; use++) {
+      sessionPool.release(sessionPool.acquire(this::newWebDriver));
+    }
+    assertEquals(1, browserList.size());
+    assertTrue(browserList.get(0).quit);
+    assertEquals(0, sessionPool.getIdleCount());
+    assertEquals(1, sessionPool.getRetiredCount());
+    sessionPool.acquire(this::newWebDriver);
+    assertEquals(2, sessionPool.getCreatedCount());
+  }
+
+  @Test
+  public void unhealthyIdleSessionIsReplaced() throws Throwable {
+    sessionPool = new WebDriverSessionPool("test", 1, 10);
+    final WebDriver webDriver = sessionPool.acquire(this::newWebDriver);
+    sessionPool.release(webDriver);
+    browserList.get(0).alive = false;
+    assertNotSame(webDriver, sessionPool.acquire(this::newWebDriver));
+    assertEquals(1, sessionPool.getHealthCheckFailureCount());
+  }
+
+  @Test
+  public void leasesAreHeldPerThread() throws Throwable {
+    sessionPool = new WebDriverSessionPool("test", 2, 10);
+    final WebDriver webDriver = sessionPool.acquire(this::newWebDriver);
+    final AtomicReference<WebDriver> otherWebDriver = new AtomicReference<>();
+    final Thread thread =
+        new Thread(
+            () -> {
+              try {
+                otherWebDriver.set(sessionPool.acquire(this::newWebDriver));
+              } catch (final Throwable e) {
+                throw new IllegalStateException(e);
+              }
+            });
+    thread.start();
+    thread.join();
+    assertNotSame(webDriver, otherWebDriver.get());
+    assertFalse(sessionPool.release(otherWebDriver.get()));
+    assertEquals(2, sessionPool.getActiveCount());
+  }
+}
@@ -4,10 +4,13 @@
 import com.cjs.qa.utilities.Constants;
 import com.cjs.qa.utilities.FSOTests;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
@@ -31,6 +34,10 @@ private String getColumnNamePrefix() {
   private WebElement webElementTable = null;
   private List<WebElement> tableHeadingsList = null;
   private List<WebElement> tableRowsList = null;
+  private boolean snapshotMode = false;
+  private List<String> snapshotAttributeList = new ArrayList<>();
+  private TableSnapshot tableSnapshot = null;
+  private TableIndex tableIndex = null;
 
   /**
    * @param webDriver
@@ -77,6 +84,9 @@ public boolean clickCell(int columnIndex, int row) {
    */
   public boolean clickCell(String columnName, int row) {
     populateTableObjects();
+    if (isSnapshotMode()) {
+      populateTableElements();
+    }
     final WebElement webElementRow = getTableRowsList().get(row - 1);
     final int column = getHeadingsNameLookup().get(columnName.toLowerCase(Locale.ENGLISH));
     final WebElement webElementCell = webElementRow.findElement(By.xpath("./td[" + column + "]"));
@@ -107,6 +117,10 @@ public void exportTable(String fileName) {
       stringBuilderRecords.append(Constants.NEWLINE);
       for (final int key : getHeadingsIndex().keySet()) {
         String value = getCellText(rowIndex, key);
+        if (value == null) {
+          // A snapshot has no text for cells past the end of a short row.
+          value = "";
+        }
         value = prepareForCSV(value);
         stringBuilderRecords.append(value + ",");
       }
@@ -122,6 +136,12 @@ public void exportTable(String fileName) {
    * @return
    */
   public String getCellAttribute(int row, int columnIndex, String attribute) {
+    if (isSnapshotMode()) {
+      if (getSnapshot().hasAttribute(attribute)) {
+        return getSnapshot().getCellAttribute(row, columnIndex, attribute);
+      }
+      populateTableElements();
+    }
     final int rowIndex = row - 1;
     if (row > getTableRowsList().size()) {
       return null;
@@ -153,6 +173,9 @@ public String getCellAttribute(int row, String columnName, String attribute) {
    */
   public String getCellText(int row, int columnIndex) {
     populateTableObjects();
+    if (isSnapshotMode()) {
+      return getSnapshot().getCellText(row, columnIndex);
+    }
     final int rowIndex = row - 1;
     if (row > getTableRowsList().size()) {
       return null;
@@ -176,6 +199,9 @@ public String getCellText(int row, String columnName) {
 
   public int getColumnCount() {
     setHeadingMaps();
+    if (isSnapshotMode()) {
+      return getSnapshot().getColumnCount();
+    }
     return getTableHeadingsList().size();
   }
 
@@ -237,6 +263,9 @@ private List<String> getColumnRowValues(By by) {
    * @return
    */
   public List<String> getColumnValues(int columnIndex) {
+    if (isSnapshotMode()) {
+      return getSnapshot().getColumnValues(columnIndex);
+    }
     return getColumnRowValues(
         By.xpath(getXpathRows() + getxPathCells().replace(".", "") + "[" + columnIndex + "]"));
   }
@@ -247,12 +276,18 @@ public List<String> getColumnValues(int columnIndex) {
    */
   public List<String> getColumnValues(String columnName) {
     final int columnIndex = getColumnIndex(columnName);
+    if (isSnapshotMode()) {
+      return getSnapshot().getColumnValues(columnIndex);
+    }
     return getColumnRowValues(
         By.xpath(getXpathRows() + getxPathCells().replace(".", "") + "[" + columnIndex + "]"));
   }
 
   public int getRowCount() {
     populateTableObjects();
+    if (isSnapshotMode()) {
+      return getSnapshot().getRowCount();
+    }
     return getTableRowsList().size();
   }
 
@@ -269,6 +304,9 @@ private WebElement getRowIndex(int rowIndex) {
    * @return
    */
   public List<String> getRowValues(int row) {
+    if (isSnapshotMode()) {
+      return getSnapshot().getRowValues(row);
+    }
     return getColumnRowValues(
         By.xpath(getXpathRows() + "[" + row + "]" + getxPathCells().replace(".", "")));
   }
@@ -306,6 +344,17 @@ public int matchingRecordsCount(Map<String, String> map) {
     return recordsSearch.size();
   }
 
+  /**
+   * @param map
+   * @param caseSensitive
+   * @param wildCard
+   * @return
+   */
+  public int matchingRecordsCount(
+      Map<String, String> map, boolean caseSensitive, boolean wildCard) {
+    return matchingRecordsList(map, caseSensitive, wildCard).size();
+  }
+
   /**
    * @param map
    * @return
@@ -314,34 +363,92 @@ public boolean matchingRecordsExist(Map<String, String> map) {
     return matchingRecordsCount(map) > 0;
   }
 
+  /**
+   * @param map
+   * @param caseSensitive
+   * @param wildCard
+   * @return
+   */
+  public boolean matchingRecordsExist(
+      Map<String, String> map, boolean caseSensitive, boolean wildCard) {
+    return matchingRecordsCount(map, caseSensitive, wildCard) > 0;
+  }
+
   /**
    * @param map
    * @return
    */
   public List<Integer> matchingRecordsList(Map<String, String> map) {
+    return matchingRecordsList(map, true, false);
+  }
+
+  /**
+   * Finds the rows whose cells match every column name / value pair of {@code map}. In snapshot
+   * mode the search is answered from the {@link TableIndex} of the snapshot.
+   *
+   * @param map search value by column name
+   * @param caseSensitive compare values case-sensitively
+   * @param wildCard treat {@code *} in the search values as a wildcard, as {@link
+   *     #wildCardMatchNoPrint(String, String)} does
+   * @return the matching row numbers, in table order
+   */
+  public List<Integer> matchingRecordsList(
+      Map<String, String> map, boolean caseSensitive, boolean wildCard) {
     populateTableObjects();
-    final List<Integer> listRecordsSearch = new ArrayList<>();
+    final Map<Integer, String> columnValueMap = new LinkedHashMap<>();
+    for (final Entry<String, String> entry : map.entrySet()) {
+      columnValueMap.put(
+          getHeadingsNameLookup().get(entry.getKey().toLowerCase(Locale.ENGLISH)),
+          entry.getValue());
+    }
+    List<Integer> listRecordsSearch = new ArrayList<>();
+    if (isSnapshotMode()) {
+      final BitSet records =
+          getTableIndex().getMatchingRows(columnValueMap, caseSensitive, wildCard);
+      for (int record = records.nextSetBit(0);
+          record >= 0;
+          record = records.nextSetBit(record + 1)) {
+        listRecordsSearch.add(record);
+      }
+      return listRecordsSearch;
+    }
     for (int record = 1; record <= getRowCount(); record++) {
       listRecordsSearch.add(record);
     }
-    for (final String keySearch : map.keySet()) {
-      final List<Integer> listRecordsNoMatch = new ArrayList<>();
-      final String columnName = keySearch;
-      final String valueMatch = map.get(keySearch);
-      final int columnIndex = getHeadingsNameLookup().get(columnName.toLowerCase(Locale.ENGLISH));
+    for (final Entry<Integer, String> entry : columnValueMap.entrySet()) {
+      final List<Integer> listRecordsMatch = new ArrayList<>();
       for (final int record : listRecordsSearch) {
-        final String cellValue = getCellText(record, columnIndex);
-        if (!cellValue.equals(valueMatch)) {
-          listRecordsNoMatch.add(record);
+        final String cellValue = getCellText(record, entry.getKey());
+        if (cellValueMatches(cellValue, entry.getValue(), caseSensitive, wildCard)) {
+          listRecordsMatch.add(record);
         }
       }
-      listRecordsSearch.removeAll(listRecordsNoMatch);
+      listRecordsSearch = listRecordsMatch;
     }
     return listRecordsSearch;
   }
 
+  private boolean cellValueMatches(
+      String cellValue, String valueMatch, boolean caseSensitive, boolean wildCard) {
+    if (!caseSensitive) {
+      cellValue = cellValue.toLowerCase(Locale.ENGLISH);
+      valueMatch = valueMatch.toLowerCase(Locale.ENGLISH);
+    }
+    if (wildCard) {
+      return wildCardMatchNoPrint(cellValue, valueMatch);
+    }
+    return cellValue.equals(valueMatch);
+  }
+
   private void populateTableObjects() {
     setHeadingMaps();
+    if (!isSnapshotMode()) {
+      setRowList();
+    }
+  }
+
+  private void populateTableElements() {
+    setTable();
     setRowList();
   }
 
@@ -363,22 +470,86 @@ public String prepareForCSV(String value) {
 
   public void reset() {
     this.resetTable = true;
+    setTableSnapshot(null);
+    setTableIndex(null);
+  }
+
+  /**
+   * Returns the snapshot of the table, taking it on first use. In snapshot mode every read goes
+   * against it until {@link #refreshSnapshot()} or {@link #reset()} is called.
+   *
+   * @return the current snapshot
+   */
+  public TableSnapshot getSnapshot() {
+    if (getTableSnapshot() == null) {
+      return refreshSnapshot();
+    }
+    return getTableSnapshot();
+  }
+
+  /**
+   * Reads the whole table again with one {@code executeScript}.
+   *
+   * @return the new snapshot
+   */
+  public TableSnapshot refreshSnapshot() {
+    final TableSnapshot snapshot =
+        TableSnapshot.take(
+            getWebDriver(),
+            getxPathTable(),
+            getXpathHeadings(),
+            getXpathRows(),
+            getxPathCells(),
+            getSnapshotAttributeList());
+    setHeadingMaps(snapshot.getHeadingList());
+    setTableSnapshot(snapshot);
+    setTableIndex(null);
+    return snapshot;
+  }
+
+  /**
+   * Returns the column indexes of the current snapshot, creating them on first use. Columns are
+   * indexed as they are searched.
+   *
+   * @return the index of {@link #getSnapshot()}
+   */
+  public TableIndex getTableIndex() {
+    final TableSnapshot snapshot = getSnapshot();
+    if (tableIndex == null || tableIndex.getTableSnapshot() != snapshot) {
+      setTableIndex(new TableIndex(snapshot, this::wildCardMatchNoPrint));
+    }
+    return tableIndex;
   }
 
   private void setHeadingMaps() {
+    if (isSnapshotMode()) {
+      getSnapshot();
+      return;
+    }
     setTable();
     if (!resetTable && getTableHeadingsList() != null) {
       return;
     }
     final List<WebElement> headings =
         getWebElementTable().findElements(By.xpath(getXpathHeadings()));
+    final List<String> headingTextList = new ArrayList<>();
+    for (final WebElement webElement : headings) {
+      highlightWebElement(webElement);
+      headingTextList.add(webElement.getText());
+    }
+    setHeadingMaps(headingTextList);
+    setTableHeadingsList(headings);
+  }
+
+  /**
+   * @param headingTextList
+   */
+  private void setHeadingMaps(List<String> headingTextList) {
     setHeadingsName(new HashMap<>());
     setHeadingsNameLookup(new HashMap<>());
     setHeadingsIndex(new HashMap<>());
-    for (int headingIndex = 0; headingIndex < headings.size(); headingIndex++) {
-      final WebElement webElement = headings.get(headingIndex);
-      highlightWebElement(webElement);
-      String columnName = webElement.getText();
+    for (int headingIndex = 0; headingIndex < headingTextList.size(); headingIndex++) {
+      String columnName = headingTextList.get(headingIndex);
       if (columnName.isEmpty()) {
         columnName = getColumnNamePrefix() + String.valueOf(headingIndex + 1);
       }
@@ -386,7 +557,6 @@ private void setHeadingMaps() {
       getHeadingsIndex().put(headingIndex + 1, columnName);
       getHeadingsNameLookup().put(columnName.toLowerCase(Locale.ENGLISH).trim(), headingIndex + 1);
     }
-    setTableHeadingsList(headings);
   }
 
   private void setRowList() {
@@ -412,6 +582,46 @@ public void setHighlightObjects(boolean highlightObjects) {
     this.highlightObjects = highlightObjects;
   }
 
+  public boolean isSnapshotMode() {
+    return snapshotMode;
+  }
+
+  /**
+   * @param snapshotMode read cells from a {@link TableSnapshot} instead of the live table
+   */
+  public void setSnapshotMode(boolean snapshotMode) {
+    this.snapshotMode = snapshotMode;
+  }
+
+  public List<String> getSnapshotAttributeList() {
+    return snapshotAttributeList;
+  }
+
+  /**
+   * @param snapshotAttributeList cell attributes captured with the next snapshot
+   */
+  public void setSnapshotAttributeList(List<String> snapshotAttributeList) {
+    this.snapshotAttributeList = snapshotAttributeList;
+  }
+
+  public TableSnapshot getTableSnapshot() {
+    return tableSnapshot;
+  }
+
+  /**
+   * @param tableSnapshot
+   */
+  public void setTableSnapshot(TableSnapshot tableSnapshot) {
+    this.tableSnapshot = tableSnapshot;
+  }
+
+  /**
+   * @param tableIndex
+   */
+  public void setTableIndex(TableIndex tableIndex) {
+    this.tableIndex = tableIndex;
+  }
+
   public boolean isResetTable() {
     return resetTable;
   }
@@ -0,0 +1,162 @@
+package com.cjs.qa.selenium;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.htmlunit.HtmlUnitDriver;
+
+public class WebElementTableSnapshotTest {
+  private static final String XPATH_TABLE = "//table[@id='grid']";
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private WebDriver webDriver = null;
+
+  @Before
+  public void setUp() throws Exception {
+    final StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append("<html><body><table id='grid'><thead><tr>");
+    stringBuilder.append("<th>Title</th><th>Gross</th><th></th></tr></thead><tbody>");
+    final String[][] rows = {
+      {"Jigsaw", "$16.6M", "1"}, {"Geostorm", "$5.9M", "2"}, {"Jigsaw", "$3.1M", "3"}
+    };
+    for (final String[] row : rows) {
+      stringBuilder.append("<tr>");
+      stringBuilder.append("<td><a href='#" + row[2] + "'>" + row[0] + "</a></td>");
+      stringBuilder.append("<td title='gross'>" + row[1] + "</td>");
+      stringBuilder.append("<td>" + row[2] + "</td>");
+      stringBuilder.append("</tr>");
+    }
+    stringBuilder.append("</tbody></table></body></html>");
+    final File file = temporaryFolder.newFile("grid.html");
+    Files.writeString(file.toPath(), stringBuilder.toString(), StandardCharsets.UTF_8);
+    webDriver = new HtmlUnitDriver(true);
+    webDriver.get(file.toURI().toString());
+  }
+
+  @After
+  public void tearDown() {
+    webDriver.quit();
+  }
+
+  private WebElementTable newTable(boolean snapshotMode) {
+    final WebElementTable webElementTable =
+        new WebElementTable(webDriver, XPATH_TABLE, null, null, null);
+    webElementTable.setSnapshotMode(snapshotMode);
+    webElementTable.setSnapshotAttributeList(List.of("title"));
+    return webElementTable;
+  }
+
+  @Test
+  public void snapshotReadsMatchLiveReads() {
+    final WebElementTable liveTable = newTable(false);
+    final WebElementTable snapshotTable = newTable(true);
+    assertEquals(liveTable.getRowCount(), snapshotTable.getRowCount());
+    assertEquals(liveTable.getColumnCount(), snapshotTable.getColumnCount());
+    assertEquals(liveTable.getColumnName(3), snapshotTable.getColumnName(3));
+    assertEquals("#3", snapshotTable.getColumnName(3));
+    for (int row = 1; row <= liveTable.getRowCount(); row++) {
+      assertEquals(liveTable.getRowValues(row), snapshotTable.getRowValues(row));
+      for (int column = 1; column <= liveTable.getColumnCount(); column++) {
+        assertEquals(liveTable.getCellText(row, column), snapshotTable.getCellText(row, column));
+      }
+    }
+    assertEquals(liveTable.getColumnValues("Gross"), snapshotTable.getColumnValues("Gross"));
+    assertEquals(Arrays.asList("$16.6M", "$5.9M", "$3.1M"), snapshotTable.getColumnValues("Gross"));
+    assertEquals("gross", snapshotTable.getCellAttribute(2, "Gross", "title"));
+    assertEquals(
+        liveTable.getCellAttribute(2, "Title", "class"),
+        snapshotTable.getCellAttribute(2, "Title", "class"));
+    assertNull(snapshotTable.getCellText(4, 1));
+    final Map<String, String> map = new HashMap<>();
+    map.put("Title", "Jigsaw");
+    assertEquals(liveTable.matchingRecordsList(map), snapshotTable.matchingRecordsList(map));
+    assertEquals(Arrays.asList(1, 3), snapshotTable.matchingRecordsList(map));
+  }
+
+  @Test
+  public void indexedSearchMatchesLiveSearch() {
+    final WebElementTable liveTable = newTable(false);
+    final WebElementTable snapshotTable = newTable(true);
+    final Map<String, String> map = new HashMap<>();
+    map.put("title", "JIG*");
+    map.put("Gross", "$*M");
+    for (final boolean caseSensitive : new boolean[] {true, false}) {
+      for (final boolean wildCard : new boolean[] {true, false}) {
+        assertEquals(
+            liveTable.matchingRecordsList(map, caseSensitive, wildCard),
+            snapshotTable.matchingRecordsList(map, caseSensitive, wildCard));
+      }
+    }
+    assertEquals(Arrays.asList(1, 3), snapshotTable.matchingRecordsList(map, false, true));
+    assertEquals(0, snapshotTable.matchingRecordsCount(map, true, true));
+    map.put("#3", "3");
+    assertEquals(Arrays.asList(3), snapshotTable.matchingRecordsList(map, false, true));
+    assertTrue(snapshotTable.matchingRecordsExist(map, false, true));
+  }
+
+  @Test
+  public void exportMatchesLiveExport() throws Exception {
+    final File liveFile = new File(temporaryFolder.getRoot(), "live.csv");
+    final File snapshotFile = new File(temporaryFolder.getRoot(), "snapshot.csv");
+    newTable(false).exportTable(liveFile.getAbsolutePath());
+    newTable(true).exportTable(snapshotFile.getAbsolutePath());
+    assertEquals(Files.readString(liveFile.toPath()), Files.readString(snapshotFile.toPath()));
+  }
+
+  @Test
+  public void snapshotIsStableUntilRefreshed() {
+    final WebElementTable snapshotTable = newTable(true);
+    final TableSnapshot tableSnapshot = snapshotTable.getSnapshot();
+    assertEquals(3, snapshotTable.getRowCount());
+    ((JavascriptExecutor) webDriver)
+        .executeScript(
+            "var row = document.querySelector('#grid tbody').insertRow();"
+                + " ['Saw', '$1.0M', '4'].forEach(function (text) {"
+                + " row.insertCell().textContent = text; });");
+    assertEquals(3, snapshotTable.getRowCount());
+    assertTrue(tableSnapshot == snapshotTable.getSnapshot());
+    snapshotTable.refreshSnapshot();
+    assertEquals(4, snapshotTable.getRowCount());
+    assertEquals("Saw", snapshotTable.getCellText(4, "Title"));
+  }
+
+  @Test
+  public void shortRowsHaveNoCellsPastTheirEnd() {
+    final WebElementTable snapshotTable = newTable(true);
+    ((JavascriptExecutor) webDriver)
+        .executeScript("document.querySelector('#grid tbody').insertRow().insertCell();");
+    snapshotTable.refreshSnapshot();
+    final TableSnapshot tableSnapshot = snapshotTable.getSnapshot();
+    assertEquals("", tableSnapshot.getCellText(4, 1));
+    assertNull(tableSnapshot.getCellText(4, 2));
+    assertNull(tableSnapshot.getCellAttribute(4, 2, "title"));
+    assertNull(tableSnapshot.getCellAttribute(4, 0, "title"));
+    assertEquals("gross", tableSnapshot.getCellAttribute(3, 2, "title"));
+  }
+
+  @Test
+  public void exportWritesShortRowsWithEmptyCells() throws Exception {
+    final WebElementTable snapshotTable = newTable(true);
+    ((JavascriptExecutor) webDriver)
+        .executeScript(
+            "document.querySelector('#grid tbody').insertRow().insertCell().textContent = 'Saw';");
+    snapshotTable.refreshSnapshot();
+    final File snapshotFile = new File(temporaryFolder.getRoot(), "short.csv");
+    snapshotTable.exportTable(snapshotFile.getAbsolutePath());
+    assertTrue(Files.readString(snapshotFile.toPath()).endsWith("Saw,,,"));
+  }
+}
@@ -4,6 +4,7 @@
 import com.cjs.qa.core.QAException;
 import com.cjs.qa.utilities.Constants;
 import com.cjs.qa.utilities.XML;
+import com.cjs.qa.utilities.XMLFactories;
 import jakarta.xml.soap.MessageFactory;
 import jakarta.xml.soap.MimeHeaders;
 import jakarta.xml.soap.SOAPConnection;
@@ -23,7 +24,6 @@
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 
 public class SOAP {
@@ -77,10 +77,9 @@ public String getAPIXMLResponse(String url, SOAPMessage soapMessage) throws Thro
   public String getSOAPMessageValue(SOAPMessage soapMessage, boolean maskPassword)
       throws QAException {
     setXml(null);
-    final TransformerFactory transformerFactory = TransformerFactory.newInstance();
     Transformer transformer;
     try {
-      transformer = transformerFactory.newTransformer();
+      transformer = XMLFactories.getTransformer();
       final Source source = soapMessage.getSOAPPart().getContent();
       final StringWriter stringWriter = new StringWriter();
       final StreamResult streamResult = new StreamResult(stringWriter);
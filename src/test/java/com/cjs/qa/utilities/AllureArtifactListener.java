@@ -0,0 +1,13 @@
+package com.cjs.qa.utilities;
+
+import java.util.concurrent.TimeUnit;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/** Waits for background Allure attachments to be written before a TestNG suite is reported done. */
+public class AllureArtifactListener implements ISuiteListener {
+  @Override
+  public void onFinish(ISuite suite) {
+    AllureHelper.flushAttachments(TimeUnit.MINUTES.toMillis(2));
+  }
+}
@@ -0,0 +1,276 @@
+package com.cjs.qa.utilities;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Writes Allure attachments on background threads, so a test only pays for reading the browser.
+ *
+ * <p>The attachment is linked to the running test, fixture or step on the caller's thread, where
+ * Allure tracks them; only the file is written later. Content already attached during the run (the
+ * same screenshot or page source after several failures in a row) is not written again: the new
+ * attachment points at the first copy's file, under a step named after it. Text attachments can be
+ * gzip compressed to keep the results folder small; screenshots are PNG and left as they are. The
+ * queue is bounded; when it is full the caller writes the attachment itself rather than holding
+ * more content in memory. {@link #flush(long)} waits for the queue to drain, and is called from a
+ * shutdown hook and by {@link AllureArtifactListener} at the end of each suite.
+ *
+ * <p>Configuration (system property or environment variable):
+ *
+ * <ul>
+ *   <li>{@code allure.attachments.threads} - writer threads (default 2)
+ *   <li>{@code allure.attachments.queueSize} - attachments waiting to be written (default 64)
+ *   <li>{@code allure.attachments.compress} - gzip text attachments (default false)
+ *   <li>{@code allure.attachments.dedup} - write identical content once (default true)
+ * </ul>
+ */
+public final class AllureArtifactWriter {
+  public static final String PROPERTY_THREADS = "allure.attachments.threads";
+  public static final String PROPERTY_QUEUE_SIZE = "allure.attachments.queueSize";
+  public static final String PROPERTY_COMPRESS = "allure.attachments.compress";
+  public static final String PROPERTY_DEDUP = "allure.attachments.dedup";
+  public static final String TYPE_GZIP = "application/gzip";
+  private static final Logger LOGGER = LogManager.getLogger(AllureArtifactWriter.class);
+  private static volatile AllureArtifactWriter instance = null;
+  private final AllureLifecycle lifecycle;
+  private final boolean compress;
+  private final boolean dedup;
+  private final ThreadPoolExecutor executor;
+  private final Map<String, Attachment> attachmentMap = new ConcurrentHashMap<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicLong writtenCount = new AtomicLong();
+  private final AtomicLong duplicateCount = new AtomicLong();
+  private final AtomicLong failedCount = new AtomicLong();
+  private final AtomicLong bytesIn = new AtomicLong();
+  private final AtomicLong bytesOut = new AtomicLong();
+
+  AllureArtifactWriter(
+      AllureLifecycle lifecycle, int threads, int queueSize, boolean compress, boolean dedup) {
+    this.lifecycle = lifecycle;
+    this.compress = compress;
+    this.dedup = dedup;
+    final AtomicInteger threadNumber = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            Math.max(1, threads),
+            Math.max(1, threads),
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "allure-writer-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * @return the writer for {@link Allure#getLifecycle()}, configured from the properties above
+   */
+  public static AllureArtifactWriter getInstance() {
+    if (instance == null) {
+      synchronized (AllureArtifactWriter.class) {
+        if (instance == null) {
+          final AllureArtifactWriter allureArtifactWriter =
+              new AllureArtifactWriter(
+                  Allure.getLifecycle(),
+                  JavaHelpers.readPropertyOrEnvInt(PROPERTY_THREADS, 2),
+                  JavaHelpers.readPropertyOrEnvInt(PROPERTY_QUEUE_SIZE, 64),
+                  Boolean.parseBoolean(
+                      JavaHelpers.readPropertyOrEnv(PROPERTY_COMPRESS, "false").trim()),
+                  Boolean.parseBoolean(
+                      JavaHelpers.readPropertyOrEnv(PROPERTY_DEDUP, "true").trim()));
+          Runtime.getRuntime()
+              .addShutdownHook(
+                  new Thread(
+                      () -> allureArtifactWriter.flush(TimeUnit.SECONDS.toMillis(30)),
+                      "allure-writer-shutdown"));
+          instance = allureArtifactWriter;
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Links an attachment to the running test, fixture or step and writes it in the background.
+   *
+   * @param name attachment name
+   * @param type MIME type
+   * @param fileExtension file extension, with the dot
+   * @param content attachment content; not copied, so the caller must not change it
+   */
+  public void attach(String name, String type, String fileExtension, byte[] content) {
+    bytesIn.addAndGet(content.length);
+    final String key = dedup ? type + ":" + hash(content) : null;
+    if (key != null) {
+      final Attachment attachment = attachmentMap.get(key);
+      if (attachment != null) {
+        duplicateCount.incrementAndGet();
+        linkDuplicate(name, attachment);
+        return;
+      }
+    }
+    final boolean gzip = compress && isText(type);
+    final String source =
+        lifecycle.prepareAttachment(
+            name, gzip ? TYPE_GZIP : type, gzip ? fileExtension + ".gz" : fileExtension);
+    if (key != null) {
+      attachmentMap.putIfAbsent(
+          key, new Attachment().setName(name).setType(gzip ? TYPE_GZIP : type).setSource(source));
+    }
+    pendingCount.incrementAndGet();
+    executor.execute(() -> write(key, source, content, gzip));
+  }
+
+  /**
+   * @param name attachment name
+   * @param type MIME type
+   * @param fileExtension file extension, with the dot
+   * @param content text content, written as UTF-8
+   */
+  public void attach(String name, String type, String fileExtension, String content) {
+    attach(name, type, fileExtension, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void write(String key, String source, byte[] content, boolean gzip) {
+    try {
+      final byte[] bytes = gzip ? gzip(content) : content;
+      lifecycle.writeAttachment(source, new ByteArrayInputStream(bytes));
+      bytesOut.addAndGet(bytes.length);
+      writtenCount.incrementAndGet();
+    } catch (final RuntimeException | IOException e) {
+      failedCount.incrementAndGet();
+      if (key != null) {
+        attachmentMap.remove(key);
+      }
+      LOGGER.error("⚠️  Failed to write attachment {}: {}", source, e.getMessage());
+    } finally {
+      pendingCount.decrementAndGet();
+    }
+  }
+
+  /**
+   * Allure keeps attachment links in the running test, fixture or step, and only a step can be
+   * added to any of them through the public API, so a duplicate is linked under a step of its own.
+   */
+  private void linkDuplicate(String name, Attachment attachment) {
+    final String parentUuid = lifecycle.getCurrentTestCaseOrStep().orElse(null);
+    if (parentUuid == null) {
+      LOGGER.warn("Could not add attachment {}: no test is running", name);
+      return;
+    }
+    final String uuid = UUID.randomUUID().toString();
+    final StepResult stepResult =
+        new StepResult()
+            .setName(name)
+            .setStatus(Status.PASSED)
+            .setAttachments(
+                new ArrayList<>(
+                    List.of(
+                        new Attachment()
+                            .setName(name)
+                            .setType(attachment.getType())
+                            .setSource(attachment.getSource()))));
+    lifecycle.startStep(parentUuid, uuid, stepResult);
+    lifecycle.stopStep(uuid);
+  }
+
+  private static boolean isText(String type) {
+    return type.startsWith("text/") || type.endsWith("json") || type.endsWith("xml");
+  }
+
+  private static byte[] gzip(byte[] content) throws IOException {
+    final ByteArrayOutputStream byteArrayOutputStream =
+        new ByteArrayOutputStream(Math.max(64, content.length / 4));
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+      gzipOutputStream.write(content);
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  private static String hash(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Waits for the attachments queued so far to be written.
+   *
+   * @param timeoutMillis longest wait
+   * @return {@code true} if nothing is left to write
+   */
+  public boolean flush(long timeoutMillis) {
+    final long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (pendingCount.get() > 0) {
+      if (System.currentTimeMillis() >= deadline) {
+        LOGGER.warn("⚠️  {} attachments still being written", pendingCount.get());
+        return false;
+      }
+      try {
+        TimeUnit.MILLISECONDS.sleep(10);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public long getWrittenCount() {
+    return writtenCount.get();
+  }
+
+  public long getDuplicateCount() {
+    return duplicateCount.get();
+  }
+
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  public String getMetrics() {
+    return "Attachments Written:["
+        + writtenCount.get()
+        + "], Duplicates:["
+        + duplicateCount.get()
+        + "], Failed:["
+        + failedCount.get()
+        + "], Pending:["
+        + pendingCount.get()
+        + "], Bytes In:["
+        + bytesIn.get()
+        + "], Bytes Out:["
+        + bytesOut.get()
+        + "]";
+  }
+}
@@ -0,0 +1,116 @@
+package com.cjs.qa.utilities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.Attachment;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AllureArtifactWriterTest {
+  private final Map<String, byte[]> fileMap = new ConcurrentHashMap<>();
+  private final Map<String, TestResult> testResultMap = new ConcurrentHashMap<>();
+  private AllureLifecycle lifecycle = null;
+  private String testUuid = null;
+
+  @Before
+  public void setUp() {
+    lifecycle =
+        new AllureLifecycle(
+            new AllureResultsWriter() {
+              @Override
+              public void write(TestResult testResult) {
+                testResultMap.put(testResult.getUuid(), testResult);
+              }
+
+              @Override
+              public void write(TestResultContainer testResultContainer) {}
+
+              @Override
+              public void write(String source, InputStream attachment) {
+                try {
+                  fileMap.put(source, attachment.readAllBytes());
+                } catch (final IOException e) {
+                  throw new IllegalStateException(e);
+                }
+              }
+            });
+    testUuid = UUID.randomUUID().toString();
+    lifecycle.scheduleTestCase(new TestResult().setUuid(testUuid).setName("test"));
+    lifecycle.startTestCase(testUuid);
+  }
+
+  private TestResult finishTest() {
+    lifecycle.stopTestCase(testUuid);
+    lifecycle.writeTestCase(testUuid);
+    return testResultMap.get(testUuid);
+  }
+
+  @Test
+  public void linksOnTheCallerAndWritesInTheBackground() {
+    final AllureArtifactWriter allureArtifactWriter =
+        new AllureArtifactWriter(lifecycle, 2, 8, false, true);
+    final byte[] png = {1, 2, 3};
+    allureArtifactWriter.attach("Screenshot", "image/png", ".png", png);
+    allureArtifactWriter.attach("Page Source", "text/html", ".html", "<html></html>");
+    assertTrue(allureArtifactWriter.flush(10000));
+    final List<Attachment> attachmentList = finishTest().getAttachments();
+    assertEquals(2, attachmentList.size());
+    assertEquals("Screenshot", attachmentList.get(0).getName());
+    assertArrayEquals(png, fileMap.get(attachmentList.get(0).getSource()));
+    assertEquals(
+        "<html></html>",
+        new String(fileMap.get(attachmentList.get(1).getSource()), StandardCharsets.UTF_8));
+    assertEquals(2, allureArtifactWriter.getWrittenCount());
+  }
+
+  @Test
+  public void writesIdenticalContentOnce() {
+    final AllureArtifactWriter allureArtifactWriter =
+        new AllureArtifactWriter(lifecycle, 1, 8, false, true);
+    allureArtifactWriter.attach("Page Source", "text/html", ".html", "<html>same</html>");
+    allureArtifactWriter.attach("Page Source", "text/html", ".html", "<html>same</html>");
+    allureArtifactWriter.attach("Log", "text/plain", ".txt", "<html>same</html>");
+    assertTrue(allureArtifactWriter.flush(10000));
+    final TestResult testResult = finishTest();
+    assertEquals(2, fileMap.size());
+    assertEquals(1, allureArtifactWriter.getDuplicateCount());
+    assertEquals(2, testResult.getAttachments().size());
+    final Attachment duplicate = testResult.getSteps().get(0).getAttachments().get(0);
+    assertEquals(testResult.getAttachments().get(0).getSource(), duplicate.getSource());
+  }
+
+  @Test
+  public void compressesTextButNotImages() throws IOException {
+    final AllureArtifactWriter allureArtifactWriter =
+        new AllureArtifactWriter(lifecycle, 1, 8, true, false);
+    final String html = "<html>" + "row ".repeat(1000) + "</html>";
+    allureArtifactWriter.attach("Page Source", "text/html", ".html", html);
+    allureArtifactWriter.attach("Screenshot", "image/png", ".png", new byte[] {1, 2, 3});
+    assertTrue(allureArtifactWriter.flush(10000));
+    final List<Attachment> attachmentList = finishTest().getAttachments();
+    assertEquals(AllureArtifactWriter.TYPE_GZIP, attachmentList.get(0).getType());
+    assertTrue(attachmentList.get(0).getSource().endsWith(".html.gz"));
+    final byte[] compressed = fileMap.get(attachmentList.get(0).getSource());
+    assertTrue(compressed.length < html.length());
+    try (GZIPInputStream gzipInputStream =
+        new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      assertEquals(html, new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertEquals("image/png", attachmentList.get(1).getType());
+  }
+}
@@ -2,7 +2,6 @@
 
 import io.qameta.allure.Allure;
 import io.qameta.allure.Attachment;
-import java.io.ByteArrayInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.OutputType;
@@ -12,6 +11,9 @@
 /**
  * Utility class for Allure reporting enhancements Provides screenshot capture, logging, and
  * attachment functionality
+ *
+ * <p>Attachments are linked to the report immediately and written by {@link AllureArtifactWriter}
+ * in the background; call {@link #flushAttachments(long)} before reading the results folder.
  */
 public final class AllureHelper {
   private AllureHelper() {
@@ -30,7 +32,7 @@ public static void captureScreenshot(WebDriver driver, String name) {
     if (driver != null) {
       try {
         byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-        Allure.addAttachment(name, "image/png", new ByteArrayInputStream(screenshot), ".png");
+        AllureArtifactWriter.getInstance().attach(name, "image/png", ".png", screenshot);
         LOGGER.info("📸 Screenshot captured: {}", name);
       } catch (Exception e) {
         LOGGER.error("⚠️  Failed to capture screenshot: {}", e.getMessage());
@@ -73,7 +75,7 @@ public static byte[] takeScreenshot(WebDriver driver) {
    * @param content Text content
    */
   public static void attachText(String name, String content) {
-    Allure.addAttachment(name, "text/plain", content);
+    AllureArtifactWriter.getInstance().attach(name, "text/plain", ".txt", content);
   }
 
   /**
@@ -83,7 +85,7 @@ public static void attachText(String name, String content) {
    * @param html HTML content
    */
   public static void attachHtml(String name, String html) {
-    Allure.addAttachment(name, "text/html", html);
+    AllureArtifactWriter.getInstance().attach(name, "text/html", ".html", html);
   }
 
   /**
@@ -93,7 +95,7 @@ public static void attachHtml(String name, String html) {
    * @param json JSON content
    */
   public static void attachJson(String name, String json) {
-    Allure.addAttachment(name, "application/json", json);
+    AllureArtifactWriter.getInstance().attach(name, "application/json", ".json", json);
   }
 
   /**
@@ -175,4 +177,17 @@ public static void stepWithScreenshot(String stepName, WebDriver driver, Runnabl
           captureScreenshot(driver, stepName + "-screenshot");
         });
   }
+
+  /**
+   * Wait for attachments still being written in the background
+   *
+   * @param timeoutMillis Longest wait
+   * @return true if every attachment has been written
+   */
+  public static boolean flushAttachments(long timeoutMillis) {
+    AllureArtifactWriter allureArtifactWriter = AllureArtifactWriter.getInstance();
+    boolean flushed = allureArtifactWriter.flush(timeoutMillis);
+    LOGGER.info("📎 {}", allureArtifactWriter.getMetrics());
+    return flushed;
+  }
 }
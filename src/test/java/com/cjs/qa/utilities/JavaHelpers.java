@@ -1101,6 +1101,40 @@ public static String readPropertyOrEnv(String key, Object defaultValue) {
     return value;
   }
 
+  /**
+   * Reads a System.Property or System.Environment value as an int.
+   *
+   * @param key
+   * @param defaultValue used when the value is missing or not a number
+   * @return
+   */
+  public static int readPropertyOrEnvInt(String key, int defaultValue) {
+    final String value = readPropertyOrEnv(key, String.valueOf(defaultValue));
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (final NumberFormatException e) {
+      Environment.sysOut("Invalid value [" + value + "] for [" + key + "], using " + defaultValue);
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Reads a System.Property or System.Environment value as a long.
+   *
+   * @param key
+   * @param defaultValue used when the value is missing or not a number
+   * @return
+   */
+  public static long readPropertyOrEnvLong(String key, long defaultValue) {
+    final String value = readPropertyOrEnv(key, String.valueOf(defaultValue));
+    try {
+      return Long.parseLong(value.trim());
+    } catch (final NumberFormatException e) {
+      Environment.sysOut("Invalid value [" + value + "] for [" + key + "], using " + defaultValue);
+      return defaultValue;
+    }
+  }
+
   /**
    * Saves properties file with comments
    *
@@ -11,13 +11,11 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.xpath.XPath;
@@ -35,8 +33,6 @@
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.w3c.dom.bootstrap.DOMImplementationRegistry;
-import org.w3c.dom.ls.DOMImplementationLS;
 import org.w3c.dom.ls.LSSerializer;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -44,7 +40,12 @@
 public class XML {
   private static final Logger LOG = LogManager.getLogger(XML.class);
   public static final XPathFactory XPATH_FACTORY = XPathFactory.newInstance();
-  public static final XPath XPATH = XPATH_FACTORY.newXPath();
+
+  /**
+   * @deprecated not thread safe; use {@link XMLFactories#compileXPath(String)}
+   */
+  @Deprecated public static final XPath XPATH = XPATH_FACTORY.newXPath();
+
   public static final String ENCLOSURE_DELIMETER = "/";
   public static final String ENCLOSURE_LEFT = "<";
   public static final String ENCLOSURE_RIGHT = ">";
@@ -76,7 +77,7 @@ public XML(String xml) {
     Environment.sysOut(XPathConstants.NODESET.toString());
     final String xpath = "";
     try {
-      XPATH.compile(xpath);
+      XMLFactories.compileXPath(xpath);
     } catch (final Exception e) {
       Environment.sysOut(e);
     }
@@ -89,8 +90,7 @@ public XML(String xml) {
    */
   public static Document createDocument(File xml) throws Exception {
     Document document = null;
-    final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-    final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+    final DocumentBuilder documentBuilder = XMLFactories.getDocumentBuilder();
     document = documentBuilder.parse(xml);
     // read this -
     // http://stackoverflow" + IExtension.COM +
@@ -106,8 +106,7 @@ public static Document createDocument(File xml) throws Exception {
    */
   public static Document createDocument(String xml) throws Exception {
     Document document = null;
-    final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-    final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+    final DocumentBuilder documentBuilder = XMLFactories.getDocumentBuilder();
     try (StringReader stringReader = new StringReader(xml)) {
       document = documentBuilder.parse(new InputSource(stringReader));
     }
@@ -187,7 +186,7 @@ public static String getNode(String xml, String tagName, String elementTagName)
    */
   public static NodeList getNodeList(String xml, String xPath) throws Exception {
     final Document document = createDocument(xml);
-    final XPathExpression xpathExpression = XPATH.compile(xPath);
+    final XPathExpression xpathExpression = XMLFactories.compileXPath(xPath);
     return (NodeList) xpathExpression.evaluate(document, XPathConstants.NODESET);
   }
 
@@ -355,21 +354,19 @@ public static void parseNodes(String xml, String rootTagName) {
   }
 
   /**
+   * Reads the first element named {@code tagName} with one streaming pass. Use {@link
+   * XMLTagExtractor#extract(String, String...)} to read several tags from the same xml.
+   *
    * @param xml
    * @param tagName
-   * @return
-   * @throws Exception
+   * @return the text of the element
+   * @throws Exception if the xml is not well formed or has no such element
    */
   public static String getTag(String xml, String tagName) throws Exception {
-    String tagValue = null;
-    final Document document = createDocument(xml);
-    final NodeList nodeList = document.getElementsByTagName(tagName);
-    final Node node = nodeList.item(0);
-    final Element element = (Element) node;
-    tagValue = element.getTextContent();
-    // final String elementName = element.getNodeName();
-    // Environment.sysOut("elementName:[" + elementName + "],
-    // tagValue:[" + tagValue + "]");
+    final String tagValue = XMLTagExtractor.extract(xml, tagName).get(tagName);
+    if (tagValue == null) {
+      throw new NoSuchElementException("Tag [" + tagName + "] not found");
+    }
     return tagValue;
   }
 
@@ -383,43 +380,36 @@ public static String formatNotPretty(String xml) {
 
   /**
    * @param xml - The xml string.
-   * @return - Formatted xml string with tabs.
-   * @throws QAException
+   * @return - The xml string with every {@code &} escaped as {@code &amp;}, as {@link
+   *     #formatPretty(String)} does before parsing.
    */
-  public static String formatPretty(String xml) throws QAException {
+  public static String escapeAmpersands(String xml) {
     if (xml.contains("&")) {
       xml = xml.replaceAll("&&", "&");
       xml = xml.replaceAll("&amp;", "&");
       xml = xml.replaceAll("&", "&amp;");
     }
+    return xml;
+  }
+
+  /**
+   * @param xml - The xml string.
+   * @return - Formatted xml string with tabs.
+   * @throws QAException
+   */
+  public static String formatPretty(String xml) throws QAException {
+    xml = escapeAmpersands(xml);
     Element element;
     // Added to resolve Cursor breakage.
     InputSource inputSource = new InputSource("");
     try (StringReader stringReader = new StringReader(xml)) {
       inputSource = new InputSource(stringReader);
-      element =
-          DocumentBuilderFactory.newInstance()
-              .newDocumentBuilder()
-              .parse(inputSource)
-              .getDocumentElement();
-    } catch (SAXException | IOException | ParserConfigurationException e) {
-      throw new QAException(
-          "DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(" + inputSource + ")",
-          e);
+      element = XMLFactories.getDocumentBuilder().parse(inputSource).getDocumentElement();
+    } catch (SAXException | IOException e) {
+      throw new QAException("XMLFactories.getDocumentBuilder().parse(" + inputSource + ")", e);
     }
     final Boolean keepDeclaration = xml.startsWith("<?xml");
-    DOMImplementationRegistry domImplementationRegistry;
-    try {
-      domImplementationRegistry = DOMImplementationRegistry.newInstance();
-    } catch (ClassNotFoundException
-        | InstantiationException
-        | IllegalAccessException
-        | ClassCastException e) {
-      throw new QAException("DOMImplementationRegistry.newInstance();", e);
-    }
-    final DOMImplementationLS domImplementationLS =
-        (DOMImplementationLS) domImplementationRegistry.getDOMImplementation("LS");
-    final LSSerializer lsSerializer = domImplementationLS.createLSSerializer();
+    final LSSerializer lsSerializer = XMLFactories.getLSSerializer();
     lsSerializer.getDomConfig().setParameter("format-pretty-print", Boolean.TRUE);
     lsSerializer.getDomConfig().setParameter("xml-declaration", keepDeclaration);
     xml = lsSerializer.writeToString(element);
@@ -458,13 +448,11 @@ public static String fromStringToCanonical(String xml) throws QAException {
   public static void transformFromFile(
       String filePathXSL, String filePathInput, String filePathOutput) {
     LOG.info("Creating [{}] From [{}] Using [{}]", filePathOutput, filePathInput, filePathXSL);
-    final StreamSource streamSourceXSL = new StreamSource(new File(filePathXSL));
     final StreamSource streamSourceIn = new StreamSource(new File(filePathInput));
     final StreamResult streamResultOut = new StreamResult(new File(filePathOutput));
-    final TransformerFactory transformerFactory = TransformerFactory.newInstance();
     Transformer transformer;
     try {
-      transformer = transformerFactory.newTransformer(streamSourceXSL);
+      transformer = XMLFactories.newTransformer(new File(filePathXSL));
       try {
         transformer.transform(streamSourceIn, streamResultOut);
         LOG.info("Created [{}] From [{}] Using [{}]", filePathOutput, filePathInput, filePathXSL);
@@ -483,15 +471,12 @@ public static void transformFromFile(
    */
   public static void transformFromString(String xsl, String input, String filePathOutput) {
     LOG.info("Creating [{}] using string inputs", filePathOutput);
-    try (StringReader xslReader = new StringReader(xsl);
-        StringReader inputReader = new StringReader(input)) {
-      final StreamSource streamSourceXSL = new StreamSource(xslReader);
+    try (StringReader inputReader = new StringReader(input)) {
       final StreamSource streamSourceIn = new StreamSource(inputReader);
       final StreamResult streamResultOut = new StreamResult(new File(filePathOutput));
-      final TransformerFactory transformerFactory = TransformerFactory.newInstance();
       Transformer transformer;
       try {
-        transformer = transformerFactory.newTransformer(streamSourceXSL);
+        transformer = XMLFactories.newTransformerFromString(xsl);
         try {
           transformer.transform(streamSourceIn, streamResultOut);
           LOG.info("Created [{}] using string inputs", filePathOutput);
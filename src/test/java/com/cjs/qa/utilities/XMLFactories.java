@@ -0,0 +1,238 @@
+package com.cjs.qa.utilities;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import javax.xml.xpath.XPathFactoryConfigurationException;
+import org.w3c.dom.bootstrap.DOMImplementationRegistry;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSSerializer;
+
+/**
+ * Parsers, serializers, transformers and XPath expressions for {@link XML} and the classes that
+ * parse or write XML, built once instead of on every call and safe to use from parallel tests.
+ *
+ * <p>The factories are looked up and configured once. {@link DocumentBuilder}, {@link
+ * LSSerializer}, identity {@link Transformer} and {@link XPath} are not thread safe, so each thread
+ * gets its own, reset before it is handed out. Compiled XPath expressions are kept per thread and
+ * compiled stylesheets ({@link Templates}, which are thread safe) are shared, both in small LRU
+ * caches.
+ *
+ * <p>Secure processing is on for every factory. DTDs and entities declared in the document are
+ * still read, but nothing is fetched from outside it; stylesheets may only include local files.
+ */
+public final class XMLFactories {
+  private static final int XPATH_CACHE_SIZE = 128;
+  private static final int TEMPLATES_CACHE_SIZE = 32;
+  private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY =
+      newDocumentBuilderFactory();
+  private static final TransformerFactory TRANSFORMER_FACTORY = newTransformerFactory();
+  private static final XPathFactory XPATH_FACTORY = newXPathFactory();
+  private static final DOMImplementationLS DOM_IMPLEMENTATION_LS = newDOMImplementationLS();
+  private static final AtomicLong documentBuilderCount = new AtomicLong();
+  private static final AtomicLong xpathCompileCount = new AtomicLong();
+  private static final AtomicLong xpathHitCount = new AtomicLong();
+  private static final AtomicLong templatesCompileCount = new AtomicLong();
+  private static final AtomicLong templatesHitCount = new AtomicLong();
+  private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER =
+      ThreadLocal.withInitial(XMLFactories::newDocumentBuilder);
+  private static final ThreadLocal<Transformer> TRANSFORMER =
+      ThreadLocal.withInitial(XMLFactories::newIdentityTransformer);
+  private static final ThreadLocal<LSSerializer> LS_SERIALIZER =
+      ThreadLocal.withInitial(DOM_IMPLEMENTATION_LS::createLSSerializer);
+  private static final ThreadLocal<XPath> XPATH = ThreadLocal.withInitial(XPATH_FACTORY::newXPath);
+  private static final ThreadLocal<Map<String, XPathExpression>> XPATH_EXPRESSION_MAP =
+      ThreadLocal.withInitial(() -> newLRUMap(XPATH_CACHE_SIZE));
+  private static final Map<String, Templates> TEMPLATES_MAP =
+      Collections.synchronizedMap(newLRUMap(TEMPLATES_CACHE_SIZE));
+
+  private XMLFactories() {}
+
+  private static <V> Map<String, V> newLRUMap(int maxSize) {
+    return new LinkedHashMap<>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  private static DocumentBuilderFactory newDocumentBuilderFactory() {
+    final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+    try {
+      documentBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      documentBuilderFactory.setFeature(
+          "http://xml.org/sax/features/external-general-entities", false);
+      documentBuilderFactory.setFeature(
+          "http://xml.org/sax/features/external-parameter-entities", false);
+      documentBuilderFactory.setFeature(
+          "http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    } catch (final ParserConfigurationException e) {
+      throw new IllegalStateException(e);
+    }
+    documentBuilderFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+    documentBuilderFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+    documentBuilderFactory.setXIncludeAware(false);
+    return documentBuilderFactory;
+  }
+
+  private static TransformerFactory newTransformerFactory() {
+    final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+    try {
+      transformerFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    } catch (final TransformerConfigurationException e) {
+      throw new IllegalStateException(e);
+    }
+    transformerFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+    transformerFactory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "file");
+    return transformerFactory;
+  }
+
+  private static XPathFactory newXPathFactory() {
+    final XPathFactory xpathFactory = XPathFactory.newInstance();
+    try {
+      xpathFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+    } catch (final XPathFactoryConfigurationException e) {
+      throw new IllegalStateException(e);
+    }
+    return xpathFactory;
+  }
+
+  private static DOMImplementationLS newDOMImplementationLS() {
+    try {
+      return (DOMImplementationLS)
+          DOMImplementationRegistry.newInstance().getDOMImplementation("LS");
+    } catch (ClassNotFoundException
+        | InstantiationException
+        | IllegalAccessException
+        | ClassCastException e) {
+      throw new IllegalStateException("DOMImplementationRegistry.newInstance();", e);
+    }
+  }
+
+  private static DocumentBuilder newDocumentBuilder() {
+    try {
+      documentBuilderCount.incrementAndGet();
+      return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+    } catch (final ParserConfigurationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Transformer newIdentityTransformer() {
+    try {
+      return TRANSFORMER_FACTORY.newTransformer();
+    } catch (final TransformerConfigurationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return this thread's parser, reset; do not hand it to another thread
+   */
+  public static DocumentBuilder getDocumentBuilder() {
+    final DocumentBuilder documentBuilder = DOCUMENT_BUILDER.get();
+    documentBuilder.reset();
+    return documentBuilder;
+  }
+
+  /**
+   * @return this thread's identity transformer, reset to no output properties or parameters
+   */
+  public static Transformer getTransformer() {
+    final Transformer transformer = TRANSFORMER.get();
+    transformer.reset();
+    return transformer;
+  }
+
+  /**
+   * @return this thread's serializer; set the parameters needed before each use
+   */
+  public static LSSerializer getLSSerializer() {
+    return LS_SERIALIZER.get();
+  }
+
+  /**
+   * @param xPath
+   * @return the compiled expression, from this thread's cache when it has been compiled before
+   * @throws XPathExpressionException
+   */
+  public static XPathExpression compileXPath(String xPath) throws XPathExpressionException {
+    final Map<String, XPathExpression> xpathExpressionMap = XPATH_EXPRESSION_MAP.get();
+    XPathExpression xpathExpression = xpathExpressionMap.get(xPath);
+    if (xpathExpression == null) {
+      xpathCompileCount.incrementAndGet();
+      xpathExpression = XPATH.get().compile(xPath);
+      xpathExpressionMap.put(xPath, xpathExpression);
+    } else {
+      xpathHitCount.incrementAndGet();
+    }
+    return xpathExpression;
+  }
+
+  /**
+   * @param xsl stylesheet file; compiled again when it changes
+   * @return a new transformer from the cached, compiled stylesheet
+   * @throws TransformerConfigurationException
+   */
+  public static Transformer newTransformer(File xsl) throws TransformerConfigurationException {
+    return getTemplates(
+            "file:" + xsl.getAbsolutePath() + ":" + xsl.lastModified(), new StreamSource(xsl))
+        .newTransformer();
+  }
+
+  /**
+   * @param xsl stylesheet
+   * @return a new transformer from the cached, compiled stylesheet
+   * @throws TransformerConfigurationException
+   */
+  public static Transformer newTransformerFromString(String xsl)
+      throws TransformerConfigurationException {
+    return getTemplates("xsl:" + xsl, new StreamSource(new StringReader(xsl))).newTransformer();
+  }
+
+  private static Templates getTemplates(String key, StreamSource streamSource)
+      throws TransformerConfigurationException {
+    Templates templates = TEMPLATES_MAP.get(key);
+    if (templates == null) {
+      templatesCompileCount.incrementAndGet();
+      templates = TRANSFORMER_FACTORY.newTemplates(streamSource);
+      TEMPLATES_MAP.put(key, templates);
+    } else {
+      templatesHitCount.incrementAndGet();
+    }
+    return templates;
+  }
+
+  public static String getMetrics() {
+    return "Document Builders:["
+        + documentBuilderCount.get()
+        + "], XPath Compiles:["
+        + xpathCompileCount.get()
+        + "], XPath Cache Hits:["
+        + xpathHitCount.get()
+        + "], Stylesheet Compiles:["
+        + templatesCompileCount.get()
+        + "], Stylesheet Cache Hits:["
+        + templatesHitCount.get()
+        + "]";
+  }
+}
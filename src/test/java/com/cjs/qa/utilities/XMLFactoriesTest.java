@@ -0,0 +1,100 @@
+package com.cjs.qa.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.xpath.XPathConstants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+public class XMLFactoriesTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static String xml(int id) {
+    return "<Events><Event><ID>"
+        + id
+        + "</ID></Event><Event><ID>"
+        + (id + 1)
+        + "</ID></Event></Events>";
+  }
+
+  @Test
+  public void parsesAndEvaluatesCorrectlyFromParallelThreads() throws Exception {
+    final ExecutorService executorService = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<String>> futureList = new ArrayList<>();
+      for (int task = 0; task < 200; task++) {
+        final int id = task * 10;
+        final Callable<String> callable =
+            () -> {
+              final NodeList nodeList = XML.getNodeList(xml(id), "//Event/ID");
+              return nodeList.item(0).getTextContent() + "," + nodeList.item(1).getTextContent();
+            };
+        futureList.add(executorService.submit(callable));
+      }
+      for (int task = 0; task < futureList.size(); task++) {
+        assertEquals((task * 10) + "," + (task * 10 + 1), futureList.get(task).get());
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Test
+  public void reusesParsersAndCompiledExpressionsOnAThread() throws Exception {
+    assertSame(XMLFactories.getDocumentBuilder(), XMLFactories.getDocumentBuilder());
+    assertSame(XMLFactories.compileXPath("//Event[1]"), XMLFactories.compileXPath("//Event[1]"));
+    final Document document = XML.createDocument(xml(1));
+    assertEquals(
+        "1", XMLFactories.compileXPath("//Event[1]/ID").evaluate(document, XPathConstants.STRING));
+  }
+
+  @Test
+  public void doesNotResolveExternalEntities() throws Exception {
+    final File secret = temporaryFolder.newFile("secret.txt");
+    Files.writeString(secret.toPath(), "top secret", StandardCharsets.UTF_8);
+    final String xml =
+        "<!DOCTYPE a [<!ENTITY local \"inline\"><!ENTITY xxe SYSTEM \""
+            + secret.toURI()
+            + "\">]><a>&local;&xxe;</a>";
+    String text;
+    try {
+      text = XML.createDocument(xml).getDocumentElement().getTextContent();
+    } catch (final Exception e) {
+      text = "";
+    }
+    assertFalse(text, text.contains("top secret"));
+  }
+
+  @Test
+  public void compilesAStylesheetOnce() throws Exception {
+    final String xsl =
+        "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+            + "<xsl:output method=\"text\"/>"
+            + "<xsl:template match=\"/\"><xsl:value-of select=\"count(//Event)\"/></xsl:template>"
+            + "</xsl:stylesheet>";
+    final File output = new File(temporaryFolder.getRoot(), "count.txt");
+    XML.transformFromString(xsl, xml(1), output.getPath());
+    XML.transformFromString(xsl, xml(5), output.getPath());
+    assertEquals("2", Files.readString(output.toPath(), StandardCharsets.UTF_8));
+    assertTrue(
+        XMLFactories.getMetrics(), XMLFactories.getMetrics().contains("Stylesheet Cache Hits:["));
+    assertTrue(
+        XMLFactories.getMetrics(),
+        !XMLFactories.getMetrics().contains("Stylesheet Cache Hits:[0]"));
+  }
+}
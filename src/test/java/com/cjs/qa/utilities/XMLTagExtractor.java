@@ -0,0 +1,146 @@
+package com.cjs.qa.utilities;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the text of a few elements from an XML string in one streaming pass, without building a
+ * DOM. Made for API responses where only a handful of values are wanted, such as {@code ErrCode}
+ * and {@code ErrDesc}, or {@code Status} and {@code ExportURI}.
+ *
+ * <p>A tag path is an element name, or names separated by {@code /} to match an element by its
+ * closest ancestors (e.g. {@code Sa.Export.Status/Status}). The first element matching each path
+ * wins and its text is that of {@link org.w3c.dom.Node#getTextContent()}, descendants included.
+ * Names are qualified names as written in the document, as {@code getElementsByTagName} uses.
+ * Reading stops as soon as every path has been found. DTDs and external entities are not read.
+ *
+ * <pre>{@code
+ * Map<String, String> tagMap = XMLTagExtractor.extract(xml, "ErrCode", "ErrDesc");
+ * }</pre>
+ */
+public final class XMLTagExtractor {
+  private static final XMLInputFactory XML_INPUT_FACTORY = newXMLInputFactory();
+
+  private XMLTagExtractor() {}
+
+  private static XMLInputFactory newXMLInputFactory() {
+    final XMLInputFactory xmlInputFactory = XMLInputFactory.newFactory();
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    // Match on names as written, as a DocumentBuilder that is not namespace aware does.
+    xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    return xmlInputFactory;
+  }
+
+  /**
+   * @param xml
+   * @param tagPaths element names or {@code /} separated paths
+   * @return text of the first element matching each path, keyed by path in the order asked for;
+   *     paths with no match are left out
+   * @throws XMLStreamException if the xml is not well formed up to the last match
+   */
+  public static Map<String, String> extract(String xml, String... tagPaths)
+      throws XMLStreamException {
+    return extract(xml, Arrays.asList(tagPaths));
+  }
+
+  /**
+   * @param xml
+   * @param tagPathList
+   * @return see {@link #extract(String, String...)}
+   * @throws XMLStreamException
+   */
+  public static Map<String, String> extract(String xml, List<String> tagPathList)
+      throws XMLStreamException {
+    final List<String> pendingList = new ArrayList<>(tagPathList);
+    final Map<String, String> tagMap = new LinkedHashMap<>();
+    final List<String> elementList = new ArrayList<>();
+    final List<Capture> captureList = new ArrayList<>();
+    final XMLStreamReader xmlStreamReader =
+        XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+    try {
+      while ((!pendingList.isEmpty() || !captureList.isEmpty()) && xmlStreamReader.hasNext()) {
+        switch (xmlStreamReader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            elementList.add(getName(xmlStreamReader));
+            for (int index = pendingList.size() - 1; index >= 0; index--) {
+              if (endsWith(elementList, pendingList.get(index).split("/"))) {
+                captureList.add(new Capture(pendingList.remove(index), elementList.size()));
+              }
+            }
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+          case XMLStreamConstants.SPACE:
+          case XMLStreamConstants.ENTITY_REFERENCE:
+            for (final Capture capture : captureList) {
+              capture.text.append(xmlStreamReader.getText());
+            }
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            for (int index = captureList.size() - 1; index >= 0; index--) {
+              final Capture capture = captureList.get(index);
+              if (capture.depth == elementList.size()) {
+                tagMap.put(capture.tagPath, capture.text.toString());
+                captureList.remove(index);
+              }
+            }
+            elementList.remove(elementList.size() - 1);
+            break;
+          default:
+            break;
+        }
+      }
+    } finally {
+      xmlStreamReader.close();
+    }
+    // Keep the order the paths were asked for, whatever order they were found in.
+    final Map<String, String> orderedMap = new LinkedHashMap<>();
+    for (final String tagPath : tagPathList) {
+      if (tagMap.containsKey(tagPath)) {
+        orderedMap.put(tagPath, tagMap.get(tagPath));
+      }
+    }
+    return orderedMap;
+  }
+
+  private static String getName(XMLStreamReader xmlStreamReader) {
+    final String prefix = xmlStreamReader.getPrefix();
+    return prefix == null || prefix.isEmpty()
+        ? xmlStreamReader.getLocalName()
+        : prefix + ":" + xmlStreamReader.getLocalName();
+  }
+
+  private static boolean endsWith(List<String> elementList, String[] tagPath) {
+    final int offset = elementList.size() - tagPath.length;
+    if (offset < 0) {
+      return false;
+    }
+    for (int index = 0; index < tagPath.length; index++) {
+      if (!tagPath[index].equals(elementList.get(offset + index))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class Capture {
+    private final String tagPath;
+    private final int depth;
+    private final StringBuilder text = new StringBuilder();
+
+    private Capture(String tagPath, int depth) {
+      this.tagPath = tagPath;
+      this.depth = depth;
+    }
+  }
+}
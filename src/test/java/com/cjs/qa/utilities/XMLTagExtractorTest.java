@@ -0,0 +1,63 @@
+package com.cjs.qa.utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.xml.stream.XMLStreamException;
+import org.junit.Test;
+
+public class XMLTagExtractorTest {
+  private static final String XML_RESPONSE =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+          + "<YourMembership_Response>"
+          + "<ErrCode>0</ErrCode><ErrDesc/>"
+          + "<Sa.Export.Status><Status>2</Status>"
+          + "<ExportURI><![CDATA[https://example.com/export?id=1&type=csv]]></ExportURI>"
+          + "<Detail>Done <b>at</b> noon</Detail></Sa.Export.Status>"
+          + "<Status>ignored</Status>"
+          + "</YourMembership_Response>";
+
+  @Test
+  public void readsSeveralTagsInOnePass() throws XMLStreamException {
+    final Map<String, String> tagMap =
+        XMLTagExtractor.extract(XML_RESPONSE, "ExportURI", "Status", "ErrDesc", "Missing");
+    assertEquals(List.of("ExportURI", "Status", "ErrDesc"), List.copyOf(tagMap.keySet()));
+    assertEquals("https://example.com/export?id=1&type=csv", tagMap.get("ExportURI"));
+    assertEquals("2", tagMap.get("Status"));
+    assertEquals("", tagMap.get("ErrDesc"));
+  }
+
+  @Test
+  public void matchesPathsAndReadsNestedText() throws XMLStreamException {
+    final Map<String, String> tagMap =
+        XMLTagExtractor.extract(
+            XML_RESPONSE, "YourMembership_Response/Status", "Sa.Export.Status/Detail");
+    assertEquals("ignored", tagMap.get("YourMembership_Response/Status"));
+    assertEquals("Done at noon", tagMap.get("Sa.Export.Status/Detail"));
+  }
+
+  @Test
+  public void getTagMatchesTheDomResult() throws Exception {
+    final String soap =
+        "<s:Envelope xmlns:s=\"urn:s\"><s:Header><wsse:BinarySecurityToken>t0k3n"
+            + "</wsse:BinarySecurityToken></s:Header></s:Envelope>";
+    assertEquals("t0k3n", XML.getTag(soap, "wsse:BinarySecurityToken"));
+    assertEquals(
+        XML.createDocument(XML_RESPONSE).getElementsByTagName("Detail").item(0).getTextContent(),
+        XML.getTag(XML_RESPONSE, "Detail"));
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void getTagFailsForAMissingTag() throws Exception {
+    XML.getTag(XML_RESPONSE, "ExportID");
+  }
+
+  @Test
+  public void escapesAmpersandsOnce() {
+    assertEquals("<a>x &amp; y &amp; z</a>", XML.escapeAmpersands("<a>x & y &amp; z</a>"));
+    assertFalse(XML.escapeAmpersands("<a/>").contains("&"));
+  }
+}
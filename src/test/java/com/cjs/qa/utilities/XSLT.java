@@ -10,7 +10,6 @@
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
@@ -37,9 +36,7 @@ public void addParamter(String key, String value) {
 
   public boolean transformXML() {
     try {
-      final TransformerFactory transformerFactory = TransformerFactory.newInstance();
-      final Source sourceTransform = new StreamSource(new File(fileTransform));
-      final Transformer transformer = transformerFactory.newTransformer(sourceTransform);
+      final Transformer transformer = XMLFactories.newTransformer(new File(fileTransform));
       final Set<String> keys = parameters.keySet();
       for (final String key : keys) {
         transformer.setParameter(key, parameters.get(key));
@@ -7,10 +7,13 @@
 import com.cjs.qa.google.objects.Flight;
 import com.cjs.qa.gt.GTWebinarDataTests;
 import com.cjs.qa.gt.api.services.GTWebinarServiceTests;
+import com.cjs.qa.jdbc.BatchWriter;
 import com.cjs.qa.jdbc.DBParameters;
+import com.cjs.qa.jdbc.IncrementalLoader;
 import com.cjs.qa.jdbc.JDBC;
 import com.cjs.qa.jdbc.JDBCConstants;
 import com.cjs.qa.jdbc.SQL;
+import com.cjs.qa.jdbc.SQLiteMaintenance;
 import com.cjs.qa.jenkins.Jenkins;
 import com.cjs.qa.microsoft.excel.IExcel;
 import com.cjs.qa.microsoft.excel.xls.XLS;
@@ -33,12 +36,7 @@
 import com.cjs.qa.ym.api.services.YMAPI;
 import com.cjs.qa.ym.api.services.YMService;
 import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.attribute.FileTime;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -95,6 +93,18 @@ public class VivitDataTests extends Environment {
           + "]";
   private static final List<String> DATABASE_ONLY_FIELDS =
       Arrays.asList(LABEL_RECORD_COMPLETE, LABEL_RECORD_NUMBER);
+  private static final String LABEL_CURRENT = "_Current";
+  public static final String PROPERTY_INCREMENTAL_LOAD = "vivit.load.incremental";
+  // Tables without an entry are keyed on the whole record.
+  private static final Map<String, List<String>> INCREMENTAL_LOAD_KEY_FIELDS =
+      Map.of(
+          "Events", Arrays.asList(LABEL_EVENT_ID),
+          "EventInformation", Arrays.asList(LABEL_EVENT_ID),
+          "EventAttendees", Arrays.asList(LABEL_EVENT_ID, "RegisterID"),
+          "EventRegistration", Arrays.asList("RegistrationID"),
+          "EventRegistrationIDs", Arrays.asList(LABEL_EVENT_ID, "RegistrationID"),
+          "YMGTWLinks", Arrays.asList("YMID", "GTWID"));
+  private static final String LABEL_PREVIOUS = "_Previous";
 
   public static List<String> getDatabaseOnlyFields() {
     return DATABASE_ONLY_FIELDS;
@@ -195,41 +205,12 @@ public static void deleteOldDataBackups()
         DateHelpersTests.getCurrentDatePlusMinusDays(formatDate, DAYS_TO_KEEP_BACKUPS * -1);
     final String folderName = VivitFoldersFiles.PATH_DATA + date;
     FSOTests.fileDelete(folderName);
-    List<Path> pathList = FSOTests.pathsList(Constants.PATH_FILES_DATA_DATABASES, IExtension.BAK);
-    File[] filesBackup = Convert.fromListPathToFileArray(pathList);
-    filesBackup = FSOTests.sortByLastModified(filesBackup, false);
-    FileTime fileTime;
-    final int deleteDaysAgo = Integer.parseInt(date);
-    for (int fileIndex = 0; fileIndex < 0; fileIndex++) {
-      final File file = filesBackup[fileIndex];
-      final String filePathName = file.getAbsolutePath();
-      final Path path = Paths.get(filePathName);
-      try {
-        fileTime = Files.getLastModifiedTime(path);
-        DateFormat dateFormat = new SimpleDateFormat(formatDate);
-        final Integer lastModified = Integer.valueOf(dateFormat.format(fileTime.toMillis()));
-        if (fileIndex >= DAYS_TO_KEEP_BACKUPS) {
-          sysOut(
-              "Deleting filePathName:["
-                  + filePathName
-                  + "], ["
-                  + dateFormat.format(fileTime.toMillis())
-                  + "]");
-          if (lastModified < deleteDaysAgo) {
-            FSOTests.fileDelete(filePathName);
-          }
-        } else {
-          sysOut(
-              "Preserved filePathName:["
-                  + filePathName
-                  + "], ["
-                  + dateFormat.format(fileTime.toMillis())
-                  + "]");
-        }
-      } catch (final Exception e) {
-        sysOut(e);
-      }
-    }
+    // Only this database's backups; the Databases folder is shared.
+    SQLiteMaintenance.pruneBackups(
+        new File(Constants.PATH_FILES_DATA_DATABASES),
+        getDatabaseBaseName() + "_",
+        DAYS_TO_KEEP_BACKUPS,
+        DAYS_TO_KEEP_BACKUPS);
   }
 
   /**
@@ -250,7 +231,7 @@ public static void dropAndCreateBackUpTables(String tableGroupName) {
     sqlStringBuilder.append(Constants.NEWLINE);
     sysOut(sqlStringBuilder.toString());
     SQL.executeVivit("DropIfExists", tableNameBackUpPrevious, sqlStringBuilder);
-    // Drop the current backup table.
+    // Drop the current backup table left by earlier runs.
     String tableNameBackUp = tableName + "_" + dateCurrentBackUp;
     sqlStringBuilder = new StringBuilder();
     sqlStringBuilder.append(JDBCConstants.DROP_TABLE);
@@ -258,15 +239,43 @@ public static void dropAndCreateBackUpTables(String tableGroupName) {
     sqlStringBuilder.append(Constants.NEWLINE);
     sysOut(sqlStringBuilder.toString());
     SQL.executeVivit("DropIfExists", tableNameBackUp, sqlStringBuilder);
-    // Create the new current backup table from the Previous table.
-    final String tableNamePrevious = tableName + "_" + "Previous";
-    sqlStringBuilder = new StringBuilder();
-    sqlStringBuilder.append(JDBCConstants.CREATE_TABLE + "[" + tableNameBackUp + "] ");
-    sqlStringBuilder.append(JDBCConstants.AS);
-    sqlStringBuilder.append(JDBCConstants.SELECT_ALL_FROM + "[" + tableNamePrevious + "];");
-    sqlStringBuilder.append(Constants.NEWLINE);
-    sysOut(sqlStringBuilder.toString());
-    SQL.executeVivit("CreateTable", tableNameBackUp, sqlStringBuilder);
+    // The whole database is backed up once a day instead of copying each table.
+    backUpDatabase(dateCurrentBackUp);
+  }
+
+  /**
+   * @return the database file name without its extension, which starts every backup name
+   */
+  private static String getDatabaseBaseName() {
+    final String databaseName = new File(VivitFoldersFiles.DATABASE).getName();
+    return databaseName.contains(".")
+        ? databaseName.substring(0, databaseName.lastIndexOf('.'))
+        : databaseName;
+  }
+
+  /**
+   * Takes an online backup of the database into the Databases folder unless one was already taken
+   * on {@code date}.
+   *
+   * @param date backup date, yyyyMMdd
+   * @return the backup file
+   */
+  public static File backUpDatabase(String date) {
+    final File backupFile =
+        new File(
+            Constants.PATH_FILES_DATA_DATABASES,
+            getDatabaseBaseName() + "_" + date + IExtension.BAK);
+    if (backupFile.exists()) {
+      return backupFile;
+    }
+    backupFile.getParentFile().mkdirs();
+    try {
+      final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
+      return new SQLiteMaintenance(jdbc.getDbParameters()).backup(backupFile);
+    } catch (final SQLException e) {
+      sysOut(e);
+      return backupFile;
+    }
   }
 
   public static String getEmailCopy() {
@@ -745,29 +754,13 @@ public static void compactDatabase() throws Throwable {
     sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
     sysOut(ParameterHelper.getParameters(Arrays.asList()));
     sysOut("Compacting:[" + VivitFoldersFiles.DATABASE + "]");
-    final String compactCommand = "VACUUM;";
-    final String command =
-        "CMD /C "
-            + Constants.QUOTE_DOUBLE
-            + Constants.QUOTE_DOUBLE
-            + Constants.PATH_SQLITE3_FILE
-            + Constants.QUOTE_DOUBLE
-            + " "
-            + Constants.QUOTE_DOUBLE
-            + VivitFoldersFiles.DATABASE
-            + Constants.QUOTE_DOUBLE
-            + " "
-            + Constants.QUOTE_DOUBLE
-            + ""
-            + compactCommand
-            + Constants.QUOTE_DOUBLE
-            + Constants.QUOTE_DOUBLE
-            + "";
-    sysOut("command:[" + command + "]");
     long databaseSize = FSOTests.fileSize(VivitFoldersFiles.DATABASE);
     sysOut("[databaseSize], [" + databaseSize + "] bytes");
-    final int retunCode = CommandLineTests.runProcess(command);
-    sysOut("retunCode:[" + retunCode + "]");
+    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
+    final SQLiteMaintenance sqliteMaintenance = new SQLiteMaintenance(jdbc.getDbParameters());
+    // Only the first run pays for a full VACUUM; later runs free pages in bounded steps.
+    sqliteMaintenance.enableIncrementalVacuum();
+    sqliteMaintenance.incrementalVacuum();
     databaseSize = new File(VivitFoldersFiles.DATABASE).length();
     sysOut("[databaseSize], [" + databaseSize + "] bytes");
   }
@@ -3102,54 +3095,128 @@ public static void updateAPIData(String dateTimeFrom) throws Throwable {
    */
   public static void updateTableFromCurrentToPreviousAndInsert(
       List<StringBuilder> stringBuilderSQLList) {
-    final String labelCurrent = "_Current";
-    final String labelPrevious = "_Previous";
     StringBuilder stringBiulderSQL = stringBuilderSQLList.get(0);
     String[] tableArray = stringBiulderSQL.toString().split(Constants.DELIMETER_LIST);
-    // For each table update the tables with the exception of the Calendars
-    // table which only has Current.
     for (String table : tableArray) {
-      if (!"Calendars".equalsIgnoreCase(table)) {
-        VivitDataTests.dropAndCreateBackUpTables(table);
-        String queryDeletePrevious =
-            JDBCConstants.DELETE_FROM + "[" + VivitTables.PREFIX + table + labelPrevious + "];";
-        sysOut(queryDeletePrevious);
-        SQL.executeVivit(
-            "DeleteFrom", table + labelPrevious, new StringBuilder(queryDeletePrevious));
-        String queryInsertPrevious =
-            JDBCConstants.INSERT_INTO
-                + "["
-                + VivitTables.PREFIX
-                + table
-                + labelPrevious
-                + "] "
-                + JDBCConstants.SELECT_ALL_FROM
-                + "["
-                + VivitTables.PREFIX
-                + table
-                + labelCurrent
-                + "];";
-        sysOut(queryInsertPrevious);
-        SQL.executeVivit(
-            "InsertInto", table + labelPrevious, new StringBuilder(queryInsertPrevious));
-      }
-      String queryDeleteCurrent =
-          JDBCConstants.DELETE_FROM + "[" + VivitTables.PREFIX + table + labelCurrent + "];";
-      SQL.executeVivit("DeleteFrom", table + labelCurrent, new StringBuilder(queryDeleteCurrent));
+      moveCurrentToPrevious(table);
       // Run the queries to update the Current table(s).
       for (int stringBiulderSQLIndex = 1;
           stringBiulderSQLIndex < stringBuilderSQLList.size();
           stringBiulderSQLIndex++) {
         // String table = tableArray[(stringBiulderSQLIndex - 1)]
         String queryInsertCurrent =
-            "Inserting data into [" + VivitTables.PREFIX + table + labelCurrent + "];";
+            "Inserting data into [" + VivitTables.PREFIX + table + LABEL_CURRENT + "];";
         sysOut(queryInsertCurrent);
         stringBiulderSQL = stringBuilderSQLList.get(stringBiulderSQLIndex);
-        SQL.executeVivit("InsertInto", table + labelCurrent, stringBiulderSQL);
+        SQL.executeVivit("InsertInto", table + LABEL_CURRENT, stringBiulderSQL);
       }
     }
   }
 
+  /**
+   * Same as {@link #updateTableFromCurrentToPreviousAndInsert(List)} for a single table, but the
+   * new Current records are written with batched prepared statements as the source reads them,
+   * instead of being collected into a SQL string.
+   *
+   * @param table table group name (e.g. EventRegistration)
+   * @param recordSource reads the records for the Current table
+   * @throws Throwable if reading the records or the batch insert fails
+   */
+  public static void updateTableFromCurrentToPreviousAndInsertRecords(
+      String table, BatchWriter.RecordSource recordSource) throws Throwable {
+    if (Boolean.parseBoolean(JavaHelpers.readPropertyOrEnv(PROPERTY_INCREMENTAL_LOAD, "false"))) {
+      // The deltas are worked out against the complete snapshot, so it is collected first.
+      final List<Map<String, String>> recordList = new ArrayList<>();
+      recordSource.produce(recordList::add);
+      updateTableFromCurrentToPreviousIncrementally(table, recordList);
+      return;
+    }
+    moveCurrentToPrevious(table);
+    SQL.insertRecords(VivitTables.PREFIX + table + LABEL_CURRENT, recordSource);
+  }
+
+  /**
+   * Same as {@link #updateTableFromCurrentToPreviousAndInsertRecords(String,
+   * BatchWriter.RecordSource)} with {@code vivit.load.incremental=true}: no backup tables are made
+   * and nothing is copied in full. The Previous table only receives the rows of the Current table
+   * that change, and the Current table only the INSERT, UPDATE and DELETE deltas against {@code
+   * recordList}, both in one transaction. The change counts are appended to the SQL log.
+   *
+   * @param table table group name (e.g. EventRegistration)
+   * @param recordList records for the Current table
+   * @return the change counts
+   * @throws SQLException if the load fails, including two different records sharing a key; both
+   *     tables are left unchanged
+   */
+  public static IncrementalLoader.LoadResult updateTableFromCurrentToPreviousIncrementally(
+      String table, List<Map<String, String>> recordList) throws SQLException {
+    final JDBC jdbc = new JDBC("", DATABASE_DEFINITION);
+    final IncrementalLoader.LoadResult loadResult =
+        new IncrementalLoader(jdbc.getDbParameters())
+            .load(
+                VivitTables.PREFIX + table + LABEL_CURRENT,
+                // Calendars only has a Current table.
+                "Calendars".equalsIgnoreCase(table)
+                    ? null
+                    : VivitTables.PREFIX + table + LABEL_PREVIOUS,
+                INCREMENTAL_LOAD_KEY_FIELDS.getOrDefault(table, new ArrayList<>()),
+                recordList);
+    if (!FSOTests.fileExists(VivitFoldersFiles.FILE_SQL_LOG)) {
+      FSOTests.fileWrite(
+          VivitFoldersFiles.FILE_SQL_LOG,
+          "SQL File" + Constants.TAB + "Records Updated" + Constants.NEWLINE,
+          true);
+    }
+    FSOTests.fileWrite(
+        VivitFoldersFiles.FILE_SQL_LOG,
+        "IncrementalLoad-"
+            + table
+            + LABEL_CURRENT
+            + Constants.TAB
+            + loadResult.getChanges()
+            + Constants.TAB
+            + loadResult
+            + Constants.NEWLINE,
+        true);
+    return loadResult;
+  }
+
+  private static void moveCurrentToPrevious(String table) {
+    copyCurrentToPrevious(table);
+    String queryDeleteCurrent =
+        JDBCConstants.DELETE_FROM + "[" + VivitTables.PREFIX + table + LABEL_CURRENT + "];";
+    SQL.executeVivit("DeleteFrom", table + LABEL_CURRENT, new StringBuilder(queryDeleteCurrent));
+  }
+
+  private static void copyCurrentToPrevious(String table) {
+    // For each table update the tables with the exception of the Calendars
+    // table which only has Current.
+    if (!"Calendars".equalsIgnoreCase(table)) {
+      VivitDataTests.dropAndCreateBackUpTables(table);
+      String queryDeletePrevious =
+          JDBCConstants.DELETE_FROM + "[" + VivitTables.PREFIX + table + LABEL_PREVIOUS + "];";
+      sysOut(queryDeletePrevious);
+      SQL.executeVivit(
+          "DeleteFrom", table + LABEL_PREVIOUS, new StringBuilder(queryDeletePrevious));
+      String queryInsertPrevious =
+          JDBCConstants.INSERT_INTO
+              + "["
+              + VivitTables.PREFIX
+              + table
+              + LABEL_PREVIOUS
+              + "] "
+              + JDBCConstants.SELECT_ALL_FROM
+              + "["
+              + VivitTables.PREFIX
+              + table
+              + LABEL_CURRENT
+              + "];";
+      sysOut(queryInsertPrevious);
+      SQL.executeVivit(
+          "InsertInto", table + LABEL_PREVIOUS, new StringBuilder(queryInsertPrevious));
+    }
+  }
+
   @Test
   public void wrapUpTest() throws Throwable {
     wrapUp(false, false);
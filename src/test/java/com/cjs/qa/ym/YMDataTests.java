@@ -2,6 +2,7 @@
 
 import com.cjs.qa.core.Environment;
 import com.cjs.qa.core.QAException;
+import com.cjs.qa.jdbc.BatchWriter;
 import com.cjs.qa.jdbc.JDBC;
 import com.cjs.qa.jdbc.JDBCConstants;
 import com.cjs.qa.jdbc.SQL;
@@ -22,6 +23,8 @@
 import com.cjs.qa.ym.api.dataobjects.UnmarshallYourMembershipResponse;
 import com.cjs.qa.ym.api.dataobjects.YourMembershipResponse;
 import com.cjs.qa.ym.api.namespace.EventsNamespace;
+import com.cjs.qa.ym.api.namespace.ExportOrchestrator;
+import com.cjs.qa.ym.api.namespace.SaExportNamespace;
 import com.cjs.qa.ym.api.objects.Event;
 import com.cjs.qa.ym.api.services.YMAPI;
 import java.io.FileReader;
@@ -34,6 +37,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -344,6 +348,35 @@ public static void exportMembers(String dateTimeFrom) throws Throwable {
     sysOut("mapResults:[" + resultsMap.toString() + "]");
   }
 
+  /**
+   * Runs the Members and MemberGroups exports side by side, skipping any whose file already exists,
+   * and waits for both files.
+   *
+   * @param dateTimeFrom
+   * @throws Throwable
+   */
+  public static void exportMembersAndGroups(String dateTimeFrom) throws Throwable {
+    sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
+    sysOut(
+        ParameterHelper.getParameters(
+            Arrays.asList(Arrays.asList(VivitDataTests.LABEL_DATE_TIME_FROM, dateTimeFrom))));
+    if (getYmapi() == null) {
+      setYmApi(new YMAPI());
+    }
+    final SaExportNamespace saExportNamespace = getYmapi().getSaExportNamespace();
+    final List<CompletableFuture<ExportOrchestrator.Result>> futureList = new ArrayList<>();
+    if (!FSOTests.fileExists(VivitFoldersFiles.DATA_YMAPI_DATA_MEMBERS)) {
+      futureList.add(saExportNamespace.exportDataMembersAsync(dateTimeFrom));
+    }
+    if (!FSOTests.fileExists(VivitFoldersFiles.DATA_YMAPI_DATA_MEMBER_GROUPS)) {
+      futureList.add(saExportNamespace.exportDataMemberGroupsAsync(dateTimeFrom));
+    }
+    for (final CompletableFuture<ExportOrchestrator.Result> future : futureList) {
+      final ExportOrchestrator.Result result = ExportOrchestrator.await(future);
+      sysOut("mapResults:[" + result.statusMap().toString() + "]");
+    }
+  }
+
   public static List<Event> getEventList() {
     return eventList;
   }
@@ -357,20 +390,14 @@ public static void getAllEventAttendees() throws Throwable {
     sysOut(ParameterHelper.getParameters(Arrays.asList(Arrays.asList())));
     try {
       List<String> eventIDList = getEventIDListValid();
-      for (String eventID : eventIDList) {
-        String filePathName =
-            VivitFoldersFiles.PATH_API_DATA_YM_EVENT_ATTENDEES + eventID + IExtension.XML;
-        String xml;
-        if (!FSOTests.fileExists(filePathName)) { // Create the Event Attendee information.
-          if (getYmapi() == null) {
-            setYmApi(new YMAPI());
-          }
-          Map<String, String> eventAttendeeMap =
-              getYmapi().getEventsNamespace().eventAttendeesGet(Integer.parseInt(eventID));
-          xml = eventAttendeeMap.get("xml");
-          FSOTests.fileWrite(filePathName, xml, false);
-        }
-      }
+      final YMAPI ymApi = getYmApiInitialized();
+      new YMFetcher()
+          .fetchAll(
+              "Event Attendees",
+              eventIDList,
+              eventID ->
+                  VivitFoldersFiles.PATH_API_DATA_YM_EVENT_ATTENDEES + eventID + IExtension.XML,
+              eventID -> ymApi.getEventsNamespace().eventAttendeesGet(Integer.parseInt(eventID)));
     } catch (final Exception e) {
       sysOut(e);
     }
@@ -382,20 +409,14 @@ public static void getAllEventInformation() throws Throwable {
     try {
       List<String> eventIDList = getEventIDListValid();
       // eventIDList.add(EVENTID_TEST);
-      for (String eventID : eventIDList) {
-        String filePathName =
-            VivitFoldersFiles.PATH_API_DATA_YM_EVENT_INFORMATION + eventID + IExtension.XML;
-        String xml;
-        if (!FSOTests.fileExists(filePathName)) { // Create the Event Information information.
-          if (getYmapi() == null) {
-            setYmApi(new YMAPI());
-          }
-          Map<String, String> eventInformationMap =
-              getYmapi().getEventsNamespace().eventGet(Integer.parseInt(eventID));
-          xml = eventInformationMap.get("xml");
-          FSOTests.fileWrite(filePathName, xml, false);
-        }
-      }
+      final YMAPI ymApi = getYmApiInitialized();
+      new YMFetcher()
+          .fetchAll(
+              "Event Information",
+              eventIDList,
+              eventID ->
+                  VivitFoldersFiles.PATH_API_DATA_YM_EVENT_INFORMATION + eventID + IExtension.XML,
+              eventID -> ymApi.getEventsNamespace().eventGet(Integer.parseInt(eventID)));
     } catch (final Exception e) {
       sysOut(e);
     }
@@ -407,22 +428,19 @@ public static void getAllEventRegistrationIDs() throws Throwable {
     try {
       List<String> eventIDList = getEventIDListValid();
       // eventIDList.add(EVENTID_TEST);
-      for (String eventID : eventIDList) {
-        String filePathName =
-            VivitFoldersFiles.PATH_API_DATA_YM_EVENT_REGISTRATION_IDS + eventID + IExtension.XML;
-        String xml;
-        if (!FSOTests.fileExists(filePathName)) { // Create the Event RegistrationIDs information.
-          if (getYmapi() == null) {
-            setYmApi(new YMAPI());
-          }
-          Map<String, String> eventInformationMap =
-              getYmApi()
-                  .getSaEventsNamespace()
-                  .eventRegistrationsGetIDs(Integer.parseInt(eventID), null);
-          xml = eventInformationMap.get("xml");
-          FSOTests.fileWrite(filePathName, xml, false);
-        }
-      }
+      final YMAPI ymApi = getYmApiInitialized();
+      new YMFetcher()
+          .fetchAll(
+              "Event Registration IDs",
+              eventIDList,
+              eventID ->
+                  VivitFoldersFiles.PATH_API_DATA_YM_EVENT_REGISTRATION_IDS
+                      + eventID
+                      + IExtension.XML,
+              eventID ->
+                  ymApi
+                      .getSaEventsNamespace()
+                      .eventRegistrationsGetIDs(Integer.parseInt(eventID), null));
     } catch (final Exception e) {
       sysOut(e);
     }
@@ -435,20 +453,17 @@ public static void getAllEventRegistration() throws Throwable {
       List<String> registrationIDList = getEventRegistrationIDListAll();
       // getEventIDListValid();
       // eventIDList.add(EVENTID_TEST);
-      for (String registrationID : registrationIDList) {
-        String xml = "";
-        String filePathName =
-            VivitFoldersFiles.PATH_API_DATA_YM_EVENT_REGISTRATION + registrationID + IExtension.XML;
-        if (!FSOTests.fileExists(filePathName)) { // Create the Event Registration information.
-          if (getYmapi() == null) {
-            setYmApi(new YMAPI());
-          }
-          Map<String, String> eventInformationMap =
-              getYmapi().getSaEventsNamespace().eventRegistrationGet(registrationID, "");
-          xml = eventInformationMap.get("xml");
-          FSOTests.fileWrite(filePathName, xml, false);
-        }
-      }
+      final YMAPI ymApi = getYmApiInitialized();
+      new YMFetcher()
+          .fetchAll(
+              "Event Registration",
+              registrationIDList,
+              registrationID ->
+                  VivitFoldersFiles.PATH_API_DATA_YM_EVENT_REGISTRATION
+                      + registrationID
+                      + IExtension.XML,
+              registrationID ->
+                  ymApi.getSaEventsNamespace().eventRegistrationGet(registrationID, ""));
     } catch (final Exception e) {
       sysOut(e);
     }
@@ -681,6 +696,19 @@ public static YMAPI getYmApi() {
     return ymApi;
   }
 
+  /**
+   * Creates the API before calls are spread over several threads, so they all share it.
+   *
+   * @return the API
+   * @throws Throwable
+   */
+  private static synchronized YMAPI getYmApiInitialized() throws Throwable {
+    if (getYmapi() == null) {
+      setYmApi(new YMAPI());
+    }
+    return getYmapi();
+  }
+
   public static void importGoToWebinar() throws Throwable {
     sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
     sysOut(ParameterHelper.getParameters(Arrays.asList(Arrays.asList())));
@@ -701,42 +729,37 @@ public static void importGoToWebinarData(String tableBackupName) throws Throwabl
     sysOut(
         ParameterHelper.getParameters(
             Arrays.asList(Arrays.asList(tableBackupName, "tableBackupName"))));
-    List<StringBuilder> sqlStringBuilderList = new ArrayList<>();
-    List<StringBuilder> sqlStringBuilderListTemp = new ArrayList<>();
+    BatchWriter.RecordSource recordSource;
     switch (tableBackupName) {
       case "Events":
-        sqlStringBuilderListTemp.add(importGoToWebinarEvents());
+        recordSource = YMDataTests::importGoToWebinarEvents;
         break;
       case "EventInformation":
-        sqlStringBuilderListTemp.add(importGoToWebinarEventInformation());
+        recordSource = YMDataTests::importGoToWebinarEventInformation;
         break;
       case "YMGTWLinks":
-        sqlStringBuilderListTemp.add(importGoToWebinarYMGTWLinks());
+        recordSource = YMDataTests::importGoToWebinarYMGTWLinks;
         break;
       case "EventAttendees":
-        sqlStringBuilderListTemp.add(importGoToWebinarEventAttendees());
+        recordSource = YMDataTests::importGoToWebinarEventAttendees;
         break;
       case "EventRegistrationIDs":
-        sqlStringBuilderListTemp.add(importGoToWebinarEventRegistrationIDs());
+        recordSource = YMDataTests::importGoToWebinarEventRegistrationIDs;
         break;
       case "EventRegistration":
-        sqlStringBuilderListTemp.add(importGoToWebinarEventRegistration());
+        recordSource = YMDataTests::importGoToWebinarEventRegistration;
         break;
       default:
         throw new QAException("Undefined Table:[" + tableBackupName + "]");
     }
-    if (sqlStringBuilderListTemp.isEmpty()) {
-      return;
-    }
-    sqlStringBuilderList.add(new StringBuilder(tableBackupName));
-    sqlStringBuilderList.addAll(sqlStringBuilderListTemp);
-    VivitDataTests.updateTableFromCurrentToPreviousAndInsert(sqlStringBuilderList);
+    VivitDataTests.updateTableFromCurrentToPreviousAndInsertRecords(tableBackupName, recordSource);
   }
 
-  public static StringBuilder importGoToWebinarEventAttendees() throws Throwable {
+  public static int importGoToWebinarEventAttendees(BatchWriter.RecordSink recordSink)
+      throws Throwable {
     sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
     sysOut(ParameterHelper.getParameters(Arrays.asList(Arrays.asList())));
-    StringBuilder sqlStringBuilder = new StringBuilder();
+    int recordCount = 0;
     List<String> eventAttendeeFileList =
         FSOTests.filesList(VivitFoldersFiles.PATH_API_DATA_YM_EVENT_ATTENDEES);
     for (String filePathName : eventAttendeeFileList) {
@@ -794,36 +817,36 @@ public static StringBuilder importGoToWebinarEventAttendees() throws Throwable {
             }
           }
           attendeeMap.put(LABEL_EVENT_ID, eventID);
-          sqlStringBuilder =
-              SQL.appendStringBuilderSQLInsertRecord(
-                  VivitTables.VIVIT_EVENT_ATTENDEES_CURRENT, sqlStringBuilder, attendeeMap, true);
+          recordSink.accept(attendeeMap);
+          recordCount++;
         }
       }
     }
-    return sqlStringBuilder;
+    return recordCount;
   }
 
-  public static StringBuilder importGoToWebinarEventInformation() throws Throwable {
+  public static int importGoToWebinarEventInformation(BatchWriter.RecordSink recordSink)
+      throws Throwable {
     sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
     sysOut(ParameterHelper.getParameters(Arrays.asList()));
-    StringBuilder sqlStringBuilder = new StringBuilder();
+    int recordCount = 0;
     List<String> eventFileList =
         FSOTests.filesList(VivitFoldersFiles.PATH_API_DATA_YM_EVENT_INFORMATION);
     for (String filePathName : eventFileList) {
       String xml = FSOTests.fileReadAll(filePathName);
       for (Map<String, String> sessionMap : getEventInformationMapListAll(xml)) {
-        sqlStringBuilder =
-            SQL.appendStringBuilderSQLInsertRecord(
-                VivitTables.VIVIT_EVENTINFORMATION_CURRENT, sqlStringBuilder, sessionMap, true);
+        recordSink.accept(sessionMap);
+        recordCount++;
       }
     }
-    return sqlStringBuilder;
+    return recordCount;
   }
 
-  public static StringBuilder importGoToWebinarYMGTWLinks() throws Throwable {
+  public static int importGoToWebinarYMGTWLinks(BatchWriter.RecordSink recordSink)
+      throws Throwable {
     sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
     sysOut(ParameterHelper.getParameters(Arrays.asList()));
-    StringBuilder sqlStringBuilder = new StringBuilder();
+    int recordCount = 0;
     List<String> eventFileList =
         FSOTests.filesList(VivitFoldersFiles.PATH_API_DATA_YM_EVENT_INFORMATION);
     for (String filePathName : eventFileList) {
@@ -838,35 +861,35 @@ public static StringBuilder importGoToWebinarYMGTWLinks() throws Throwable {
             Map<String, String> linkMap = new HashMap<>();
             linkMap.put("YMID", eventID);
             linkMap.put("GTWID", gtwID);
-            SQL.appendStringBuilderSQLInsertRecord(
-                VivitTables.VIVIT_YMGTW_LINKS_CURRENT, sqlStringBuilder, linkMap, true);
+            recordSink.accept(linkMap);
+            recordCount++;
           }
         }
       }
     }
-    return sqlStringBuilder;
+    return recordCount;
   }
 
-  public static StringBuilder importGoToWebinarEvents() throws Throwable {
+  public static int importGoToWebinarEvents(BatchWriter.RecordSink recordSink) throws Throwable {
     sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
     sysOut(ParameterHelper.getParameters(Arrays.asList()));
-    StringBuilder sqlStringBuilder = new StringBuilder();
+    int recordCount = 0;
     List<String> eventFileList = FSOTests.filesList(VivitFoldersFiles.PATH_API_DATA_YM_EVENTS);
     for (String filePathName : eventFileList) {
       String xml = FSOTests.fileReadAll(filePathName);
       for (Map<String, String> sessionMap : getEventMapListValid(xml)) {
-        sqlStringBuilder =
-            SQL.appendStringBuilderSQLInsertRecord(
-                VivitTables.VIVIT_EVENTS_CURRENT, sqlStringBuilder, sessionMap, true);
+        recordSink.accept(sessionMap);
+        recordCount++;
       }
     }
-    return sqlStringBuilder;
+    return recordCount;
   }
 
-  public static StringBuilder importGoToWebinarEventRegistration() throws Throwable {
+  public static int importGoToWebinarEventRegistration(BatchWriter.RecordSink recordSink)
+      throws Throwable {
     sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
     sysOut(ParameterHelper.getParameters(Arrays.asList(Arrays.asList())));
-    StringBuilder sqlStringBuilder = new StringBuilder();
+    int recordCount = 0;
     List<String> eventRegistrationFileList =
         FSOTests.filesList(VivitFoldersFiles.PATH_API_DATA_YM_EVENT_REGISTRATION);
     for (String filePathName : eventRegistrationFileList) {
@@ -919,17 +942,13 @@ public static StringBuilder importGoToWebinarEventRegistration() throws Throwabl
               processDataSetNode(eventRegistrationChildNode, eventRegistrationMap);
             }
           }
-          sqlStringBuilder =
-              SQL.appendStringBuilderSQLInsertRecord(
-                  VivitTables.VIVIT_EVENT_REGISTRATION_CURRENT,
-                  sqlStringBuilder,
-                  eventRegistrationMap,
-                  true);
+          recordSink.accept(eventRegistrationMap);
+          recordCount++;
         }
       }
     }
-    Environment.sysOut(sqlStringBuilder.toString().split(Constants.NEWLINE).length);
-    return sqlStringBuilder;
+    Environment.sysOut(recordCount);
+    return recordCount;
   }
 
   /**
@@ -977,10 +996,11 @@ private static void processDataSetNode(
     }
   }
 
-  public static StringBuilder importGoToWebinarEventRegistrationIDs() throws Throwable {
+  public static int importGoToWebinarEventRegistrationIDs(BatchWriter.RecordSink recordSink)
+      throws Throwable {
     sysOut(Constants.CLASS_METHOD_DEBUG + JavaHelpers.getCurrentClassMethodDebugName() + "]");
     sysOut(ParameterHelper.getParameters(Arrays.asList(Arrays.asList())));
-    StringBuilder sqlStringBuilder = new StringBuilder();
+    int recordCount = 0;
     List<String> eventRegistrationFileList =
         FSOTests.filesList(VivitFoldersFiles.PATH_API_DATA_YM_EVENT_REGISTRATION_IDS);
     for (String filePathName : eventRegistrationFileList) {
@@ -991,16 +1011,12 @@ public static StringBuilder importGoToWebinarEventRegistrationIDs() throws Throw
       List<Map<String, String>> registrationIDMapList = getEventRegistrationIDsMapListAll(xml);
       for (Map<String, String> registrationIDMap : registrationIDMapList) {
         registrationIDMap.put("EventID", eventID);
-        sqlStringBuilder =
-            SQL.appendStringBuilderSQLInsertRecord(
-                VivitTables.VIVIT_EVENT_REGISTRATION_IDS_CURRENT,
-                sqlStringBuilder,
-                registrationIDMap,
-                true);
+        recordSink.accept(registrationIDMap);
+        recordCount++;
       }
     }
-    Environment.sysOut(sqlStringBuilder.toString().split(Constants.NEWLINE).length);
-    return sqlStringBuilder;
+    Environment.sysOut(recordCount);
+    return recordCount;
   }
 
   /**
@@ -1224,14 +1240,7 @@ public static void pullFromYM(String dateTimeFrom) throws Throwable {
       try {
         attempt++;
         Environment.sysOut(JavaHelpers.getCurrentMethodName() + " attempt " + attempt);
-        if (!FSOTests.fileExists(
-            VivitFoldersFiles.DATA_YMAPI_DATA_MEMBERS)) { // Export Members from YMAPI
-          exportMembers(dateTimeFrom);
-        }
-        if (!FSOTests.fileExists(
-            VivitFoldersFiles.DATA_YMAPI_DATA_MEMBER_GROUPS)) { // Export MemberGroups from YMAPI
-          exportMemberGroups(dateTimeFrom);
-        }
+        exportMembersAndGroups(dateTimeFrom);
         exportGTW(true);
         success = true;
       } catch (Exception e) {
@@ -0,0 +1,289 @@
+package com.cjs.qa.ym;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.utilities.FSOTests;
+import com.cjs.qa.utilities.JavaHelpers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pulls one YM response per ID into its own XML file, many at a time.
+ *
+ * <p>Each ID is fetched on a virtual thread; at most {@code ym.fetch.concurrency} calls are in
+ * flight and calls are started no faster than {@code ym.fetch.ratePerSecond} (a token bucket that
+ * allows short bursts of {@code ym.fetch.burst}), so the YM quota is respected however many IDs
+ * there are. A call that throws or returns no XML is retried up to {@code ym.fetch.attempts} times
+ * with exponential backoff and jitter. IDs whose file already exists are skipped, as they always
+ * have been, so a pull that failed part way picks up where it stopped. Progress and throughput are
+ * reported every {@code ym.fetch.progressSeconds}.
+ *
+ * <pre>{@code
+ * YMFetcher.Summary summary =
+ *     new YMFetcher().fetchAll(
+ *         "Event Attendees",
+ *         eventIDList,
+ *         eventID -> PATH + eventID + IExtension.XML,
+ *         eventID -> ymApi.getEventsNamespace().eventAttendeesGet(Integer.parseInt(eventID)));
+ * }</pre>
+ */
+public final class YMFetcher {
+  public static final String PROPERTY_CONCURRENCY = "ym.fetch.concurrency";
+  public static final String PROPERTY_RATE_PER_SECOND = "ym.fetch.ratePerSecond";
+  public static final String PROPERTY_BURST = "ym.fetch.burst";
+  public static final String PROPERTY_ATTEMPTS = "ym.fetch.attempts";
+  public static final String PROPERTY_BACKOFF_MILLIS = "ym.fetch.backoffMillis";
+  public static final String PROPERTY_PROGRESS_SECONDS = "ym.fetch.progressSeconds";
+  private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
+  private final int concurrency;
+  private final TokenBucket tokenBucket;
+  private final int attempts;
+  private final long backoffMillis;
+  private final long progressNanos;
+
+  /** Calls YM for one ID. */
+  @FunctionalInterface
+  public interface Fetch {
+    /**
+     * @param id
+     * @return the response map; its {@code xml} entry is written to the ID's file
+     * @throws Throwable
+     */
+    Map<String, String> fetch(String id) throws Throwable;
+  }
+
+  /**
+   * Outcome of one {@link #fetchAll(String, List, Function, Fetch)}.
+   *
+   * @param total IDs asked for
+   * @param fetched IDs written
+   * @param skipped IDs whose file already existed
+   * @param failed IDs still missing after every attempt
+   * @param retries calls that were retried
+   * @param elapsedMillis
+   */
+  public record Summary(
+      int total, int fetched, int skipped, int failed, int retries, long elapsedMillis) {
+    public double getFetchedPerSecond() {
+      return elapsedMillis == 0 ? fetched : fetched * 1000.0 / elapsedMillis;
+    }
+  }
+
+  /**
+   * Starts no more than {@code ratePerSecond} calls a second on average, with bursts of up to
+   * {@code burst}. Callers reserve a token and sleep until it is due, so they are served in order.
+   */
+  static final class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastNanos = System.nanoTime();
+
+    TokenBucket(double ratePerSecond, int burst) {
+      this.capacity = Math.max(1, burst);
+      this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+      this.tokens = capacity;
+    }
+
+    void acquire() throws InterruptedException {
+      if (tokensPerNano <= 0) {
+        return;
+      }
+      final long waitNanos;
+      synchronized (this) {
+        final long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastNanos) * tokensPerNano);
+        lastNanos = now;
+        tokens -= 1;
+        waitNanos = tokens >= 0 ? 0 : (long) (-tokens / tokensPerNano);
+      }
+      if (waitNanos > 0) {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      }
+    }
+  }
+
+  public YMFetcher() {
+    this(
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_CONCURRENCY, 8),
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_RATE_PER_SECOND, 10),
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_BURST, 10),
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_ATTEMPTS, 3),
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_BACKOFF_MILLIS, 500),
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_PROGRESS_SECONDS, 10));
+  }
+
+  YMFetcher(
+      int concurrency,
+      double ratePerSecond,
+      int burst,
+      int attempts,
+      long backoffMillis,
+      long progressSeconds) {
+    this.concurrency = Math.max(1, concurrency);
+    this.tokenBucket = new TokenBucket(ratePerSecond, burst);
+    this.attempts = Math.max(1, attempts);
+    this.backoffMillis = Math.max(0, backoffMillis);
+    this.progressNanos = TimeUnit.SECONDS.toNanos(Math.max(1, progressSeconds));
+  }
+
+  /**
+   * Fetches every ID whose file does not exist yet and waits until all are written or have failed.
+   * A failed ID is reported and left without a file, so the next pull tries it again.
+   *
+   * @param label names the pull in progress messages
+   * @param idList IDs to fetch
+   * @param filePathName file an ID's XML is written to
+   * @param fetch calls YM for one ID
+   * @return counts and timing
+   * @throws InterruptedException if interrupted; calls in flight are cancelled
+   */
+  public Summary fetchAll(
+      String label, List<String> idList, Function<String, String> filePathName, Fetch fetch)
+      throws InterruptedException {
+    final long start = System.nanoTime();
+    final List<String> pendingIDList = new ArrayList<>();
+    for (final String id : idList) {
+      if (!FSOTests.fileExists(filePathName.apply(id))) {
+        pendingIDList.add(id);
+      }
+    }
+    final int skipped = idList.size() - pendingIDList.size();
+    Environment.sysOut(
+        label
+            + " Total:["
+            + idList.size()
+            + "], Skipped:["
+            + skipped
+            + "], To Fetch:["
+            + pendingIDList.size()
+            + "]");
+    final Semaphore semaphore = new Semaphore(concurrency);
+    final AtomicInteger fetched = new AtomicInteger();
+    final AtomicInteger failed = new AtomicInteger();
+    final AtomicInteger retries = new AtomicInteger();
+    try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+      final List<Future<?>> futureList = new ArrayList<>();
+      try {
+        for (final String id : pendingIDList) {
+          futureList.add(
+              executorService.submit(
+                  () -> {
+                    semaphore.acquire();
+                    try {
+                      if (fetchOne(label, id, filePathName.apply(id), fetch, retries)) {
+                        fetched.incrementAndGet();
+                      } else {
+                        failed.incrementAndGet();
+                      }
+                    } finally {
+                      semaphore.release();
+                    }
+                    return null;
+                  }));
+        }
+        long nextProgress = System.nanoTime() + progressNanos;
+        for (final Future<?> future : futureList) {
+          while (!future.isDone()) {
+            final long now = System.nanoTime();
+            if (now >= nextProgress) {
+              reportProgress(label, pendingIDList.size(), fetched.get(), failed.get(), start);
+              nextProgress = now + progressNanos;
+            }
+            TimeUnit.MILLISECONDS.sleep(
+                Math.min(100, TimeUnit.NANOSECONDS.toMillis(progressNanos)));
+          }
+        }
+      } catch (final InterruptedException e) {
+        futureList.forEach(future -> future.cancel(true));
+        throw e;
+      }
+    }
+    final Summary summary =
+        new Summary(
+            idList.size(),
+            fetched.get(),
+            skipped,
+            failed.get(),
+            retries.get(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    Environment.sysOut(
+        label
+            + " Fetched:["
+            + summary.fetched()
+            + "], Skipped:["
+            + summary.skipped()
+            + "], Failed:["
+            + summary.failed()
+            + "], Retries:["
+            + summary.retries()
+            + "], Elapsed:["
+            + summary.elapsedMillis()
+            + " ms], Throughput:["
+            + String.format("%.1f", summary.getFetchedPerSecond())
+            + "/s]");
+    return summary;
+  }
+
+  private boolean fetchOne(
+      String label, String id, String filePathName, Fetch fetch, AtomicInteger retries)
+      throws InterruptedException {
+    for (int attempt = 1; attempt <= attempts; attempt++) {
+      tokenBucket.acquire();
+      String error;
+      try {
+        final Map<String, String> map = fetch.fetch(id);
+        final String xml = map == null ? null : map.get("xml");
+        if (JavaHelpers.hasValue(xml)) {
+          FSOTests.fileWrite(filePathName, xml, false);
+          return true;
+        }
+        error =
+            "no xml returned"
+                + (map == null ? "" : " (responseCode:[" + map.get("responseCode") + "])");
+      } catch (final InterruptedException e) {
+        throw e;
+      } catch (final Throwable e) {
+        error = e.getMessage();
+      }
+      if (attempt == attempts) {
+        Environment.sysOut(
+            label + " ID:[" + id + "] failed after " + attempts + " attempts: " + error);
+        return false;
+      }
+      retries.incrementAndGet();
+      final long backoff = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << (attempt - 1));
+      TimeUnit.MILLISECONDS.sleep(
+          backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+    }
+    return false;
+  }
+
+  private static void reportProgress(String label, int total, int fetched, int failed, long start) {
+    final long elapsedMillis =
+        Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    final double perSecond = fetched * 1000.0 / elapsedMillis;
+    final int remaining = total - fetched - failed;
+    Environment.sysOut(
+        label
+            + " Progress:["
+            + (fetched + failed)
+            + "/"
+            + total
+            + "], Failed:["
+            + failed
+            + "], Throughput:["
+            + String.format("%.1f", perSecond)
+            + "/s], Remaining:["
+            + (perSecond == 0 ? "?" : Math.round(remaining / perSecond) + " s")
+            + "]");
+  }
+}
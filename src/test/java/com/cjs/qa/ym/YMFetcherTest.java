@@ -0,0 +1,104 @@
+package com.cjs.qa.ym;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class YMFetcherTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private String filePathName(String id) {
+    return temporaryFolder.getRoot().getPath() + File.separator + id + ".xml";
+  }
+
+  private String read(String id) throws IOException {
+    return Files.readString(new File(filePathName(id)).toPath(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void skipsExistingFilesAndRetriesFailedCalls() throws Exception {
+    Files.writeString(new File(filePathName("1")).toPath(), "<old/>", StandardCharsets.UTF_8);
+    final Map<String, AtomicInteger> callMap = new ConcurrentHashMap<>();
+    final YMFetcher ymFetcher = new YMFetcher(4, 0, 1, 3, 10, 10);
+    final YMFetcher.Summary summary =
+        ymFetcher.fetchAll(
+            "Test",
+            List.of("1", "2", "3", "4"),
+            this::filePathName,
+            id -> {
+              final int call =
+                  callMap.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+              if ("3".equals(id) && call == 1) {
+                throw new IllegalStateException("quota");
+              }
+              if ("4".equals(id)) {
+                return Map.of("responseCode", "500");
+              }
+              return Map.of("xml", "<id>" + id + "</id>");
+            });
+    assertEquals(4, summary.total());
+    assertEquals(1, summary.skipped());
+    assertEquals(2, summary.fetched());
+    assertEquals(1, summary.failed());
+    assertEquals(3, summary.retries());
+    assertFalse(callMap.containsKey("1"));
+    assertEquals("<old/>", read("1"));
+    assertEquals("<id>3</id>", read("3"));
+    assertEquals(3, callMap.get("4").get());
+    assertFalse(new File(filePathName("4")).exists());
+  }
+
+  @Test
+  public void runsCallsConcurrentlyUpToTheCap() throws Exception {
+    final AtomicInteger activeCount = new AtomicInteger();
+    final AtomicInteger activeMax = new AtomicInteger();
+    final List<String> idList = new ArrayList<>();
+    for (int id = 0; id < 20; id++) {
+      idList.add(String.valueOf(id));
+    }
+    final YMFetcher.Summary summary =
+        new YMFetcher(3, 0, 1, 1, 0, 10)
+            .fetchAll(
+                "Test",
+                idList,
+                this::filePathName,
+                id -> {
+                  activeMax.accumulateAndGet(activeCount.incrementAndGet(), Math::max);
+                  TimeUnit.MILLISECONDS.sleep(30);
+                  activeCount.decrementAndGet();
+                  return Map.of("xml", "<id>" + id + "</id>");
+                });
+    assertEquals(20, summary.fetched());
+    assertEquals(3, activeMax.get());
+    assertEquals("<id>19</id>", read("19"));
+  }
+
+  @Test
+  public void tokenBucketSpacesCallsAfterTheBurst() throws Exception {
+    final YMFetcher.TokenBucket tokenBucket = new YMFetcher.TokenBucket(20, 5);
+    final long start = System.nanoTime();
+    for (int call = 0; call < 5; call++) {
+      tokenBucket.acquire();
+    }
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+    for (int call = 0; call < 6; call++) {
+      tokenBucket.acquire();
+    }
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue(String.valueOf(elapsedMillis), elapsedMillis >= 270);
+  }
+}
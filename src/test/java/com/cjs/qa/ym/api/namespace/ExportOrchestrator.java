@@ -0,0 +1,246 @@
+package com.cjs.qa.ym.api.namespace;
+
+import com.cjs.qa.core.Environment;
+import com.cjs.qa.core.QAException;
+import com.cjs.qa.core.api.ApiHttpClient;
+import com.cjs.qa.utilities.Constants;
+import com.cjs.qa.utilities.JavaHelpers;
+import com.cjs.qa.utilities.XML;
+import com.cjs.qa.utilities.XMLTagExtractor;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs Sa.Export jobs side by side: each export is started, polled with {@code Sa.Export.Status}
+ * and downloaded on its own virtual thread, and its {@link CompletableFuture} completes as soon as
+ * its file is on disk, so an import can start on one file while the others are still being built.
+ *
+ * <p>Status is checked after {@code ym.export.pollInitialMillis}, then at intervals growing by half
+ * each time up to {@code ym.export.pollMaxMillis}; a job still working after {@code
+ * ym.export.timeoutMinutes} fails. The file is streamed by {@link ApiHttpClient#download(String,
+ * Path, int, long)}, which resumes a broken transfer instead of starting over, up to {@code
+ * ym.export.downloadAttempts} times.
+ *
+ * <pre>{@code
+ * CompletableFuture<ExportOrchestrator.Result> members =
+ *     exportOrchestrator.submit(
+ *         new ExportOrchestrator.Export(
+ *             "Members", () -> members(false, true, date), DATA_YMAPI_DATA_MEMBERS));
+ * }</pre>
+ */
+public final class ExportOrchestrator {
+  public static final String PROPERTY_POLL_INITIAL_MILLIS = "ym.export.pollInitialMillis";
+  public static final String PROPERTY_POLL_MAX_MILLIS = "ym.export.pollMaxMillis";
+  public static final String PROPERTY_TIMEOUT_MINUTES = "ym.export.timeoutMinutes";
+  public static final String PROPERTY_DOWNLOAD_ATTEMPTS = "ym.export.downloadAttempts";
+  private static final double POLL_GROWTH = 1.5;
+  private static final long DOWNLOAD_BACKOFF_MILLIS = 1000;
+  private static final ExecutorService EXECUTOR_SERVICE =
+      Executors.newVirtualThreadPerTaskExecutor();
+  private final Status status;
+  private final Download download;
+  private final long pollInitialMillis;
+  private final long pollMaxMillis;
+  private final long timeoutMillis;
+
+  /** Starts an export and returns the response holding its {@code ExportID}. */
+  @FunctionalInterface
+  public interface Start {
+    Map<String, String> start() throws Throwable;
+  }
+
+  /** Calls {@code Sa.Export.Status} for an {@code ExportID}. */
+  @FunctionalInterface
+  public interface Status {
+    Map<String, String> status(String exportID) throws Throwable;
+  }
+
+  @FunctionalInterface
+  interface Download {
+    void download(String exportURI, String filePathName) throws Throwable;
+  }
+
+  /**
+   * One export to run.
+   *
+   * @param name names the export in messages
+   * @param start starts the export
+   * @param filePathName file the export is downloaded to
+   */
+  public record Export(String name, Start start, String filePathName) {}
+
+  /**
+   * A finished export.
+   *
+   * @param name
+   * @param exportID
+   * @param filePathName file the export was downloaded to
+   * @param statusMap last {@code Sa.Export.Status} response
+   * @param statusChecks status calls made
+   * @param elapsedMillis from start to the file being written
+   */
+  public record Result(
+      String name,
+      String exportID,
+      String filePathName,
+      Map<String, String> statusMap,
+      int statusChecks,
+      long elapsedMillis) {}
+
+  /**
+   * @param status calls {@code Sa.Export.Status}
+   */
+  public ExportOrchestrator(Status status) {
+    this(
+        status,
+        (exportURI, filePathName) ->
+            ApiHttpClient.getInstance()
+                .download(
+                    exportURI,
+                    Path.of(filePathName),
+                    JavaHelpers.readPropertyOrEnvInt(PROPERTY_DOWNLOAD_ATTEMPTS, 4),
+                    DOWNLOAD_BACKOFF_MILLIS),
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_POLL_INITIAL_MILLIS, 2000),
+        JavaHelpers.readPropertyOrEnvInt(PROPERTY_POLL_MAX_MILLIS, 30000),
+        TimeUnit.MINUTES.toMillis(JavaHelpers.readPropertyOrEnvInt(PROPERTY_TIMEOUT_MINUTES, 120)));
+  }
+
+  ExportOrchestrator(
+      Status status,
+      Download download,
+      long pollInitialMillis,
+      long pollMaxMillis,
+      long timeoutMillis) {
+    this.status = status;
+    this.download = download;
+    this.pollInitialMillis = Math.max(0, pollInitialMillis);
+    this.pollMaxMillis = Math.max(this.pollInitialMillis, pollMaxMillis);
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Starts an export in the background.
+   *
+   * @param export
+   * @return completes with the result once the file is written, or exceptionally with a {@link
+   *     QAException} if the export failed, timed out or could not be downloaded
+   */
+  public CompletableFuture<Result> submit(Export export) {
+    final CompletableFuture<Result> future = new CompletableFuture<>();
+    EXECUTOR_SERVICE.execute(
+        () -> {
+          try {
+            future.complete(run(export));
+          } catch (final Throwable e) {
+            future.completeExceptionally(e);
+          }
+        });
+    return future;
+  }
+
+  /**
+   * Starts every export at once.
+   *
+   * @param exportList
+   * @return one future per export, in the same order
+   */
+  public List<CompletableFuture<Result>> submitAll(List<Export> exportList) {
+    final List<CompletableFuture<Result>> futureList = new ArrayList<>();
+    for (final Export export : exportList) {
+      futureList.add(submit(export));
+    }
+    return futureList;
+  }
+
+  /**
+   * Waits for an export and rethrows its failure as it was thrown.
+   *
+   * @param future
+   * @return the result
+   * @throws Throwable
+   */
+  public static Result await(CompletableFuture<Result> future) throws Throwable {
+    try {
+      return future.get();
+    } catch (final ExecutionException e) {
+      throw e.getCause();
+    }
+  }
+
+  private Result run(Export export) throws Throwable {
+    final long start = System.nanoTime();
+    final Map<String, String> startMap = export.start().start();
+    final String exportID = XML.getTag(startMap.get("xml"), "ExportID");
+    if (!JavaHelpers.hasValue(exportID)) {
+      throw new QAException(
+          export.name() + " export did not start" + Constants.NEWLINE + startMap.toString());
+    }
+    Environment.sysOut(export.name() + " ExportID:[" + exportID + "]");
+    long pollMillis = pollInitialMillis;
+    int statusChecks = 0;
+    Map<String, String> statusMap;
+    Map<String, String> tagMap;
+    String exportStatus;
+    do {
+      if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+        throw new QAException(
+            export.name()
+                + " export ["
+                + exportID
+                + "] still working after "
+                + TimeUnit.MILLISECONDS.toMinutes(timeoutMillis)
+                + " minutes");
+      }
+      TimeUnit.MILLISECONDS.sleep(pollMillis);
+      pollMillis = Math.min(pollMaxMillis, Math.round(pollMillis * POLL_GROWTH));
+      statusChecks++;
+      statusMap = status.status(exportID);
+      tagMap = XMLTagExtractor.extract(statusMap.get("xml"), "Status", "ExportURI");
+      final String statusCode = tagMap.get("Status");
+      exportStatus =
+          JavaHelpers.hasValue(statusCode)
+              ? ExportStatus.getValue(statusCode)
+              : ExportStatus.UNKNOWN;
+      Environment.sysOut(
+          export.name()
+              + "-statusCheckCount:["
+              + statusChecks
+              + "], exportStatus:["
+              + exportStatus
+              + "]");
+    } while (exportStatus.equals(ExportStatus.WORKING)
+        || exportStatus.equals(ExportStatus.UNKNOWN));
+    if (!exportStatus.equals(ExportStatus.COMPLETE)) {
+      throw new QAException(export.name() + Constants.NEWLINE + statusMap.toString());
+    }
+    final String exportURI = tagMap.get("ExportURI");
+    Environment.sysOut(export.name() + " exportURI:[" + exportURI + "]");
+    try {
+      download.download(exportURI, export.filePathName());
+    } catch (final QAException e) {
+      throw e;
+    } catch (final Throwable e) {
+      throw new QAException(
+          export.name() + " download from [" + exportURI + "] failed:[" + e.getMessage() + "]", e);
+    }
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    Environment.sysOut(
+        export.name()
+            + " Downloaded:["
+            + export.filePathName()
+            + "], Status Checks:["
+            + statusChecks
+            + "], Elapsed:["
+            + elapsedMillis
+            + " ms]");
+    return new Result(
+        export.name(), exportID, export.filePathName(), statusMap, statusChecks, elapsedMillis);
+  }
+}
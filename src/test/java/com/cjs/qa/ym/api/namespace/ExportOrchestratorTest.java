@@ -0,0 +1,115 @@
+package com.cjs.qa.ym.api.namespace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.cjs.qa.core.QAException;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExportOrchestratorTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+  private final Map<String, AtomicInteger> statusCallMap = new ConcurrentHashMap<>();
+
+  private static Map<String, String> xml(String body) {
+    return Map.of("xml", "<YourMembership_Response>" + body + "</YourMembership_Response>");
+  }
+
+  private String filePathName(String name) {
+    return temporaryFolder.getRoot().getPath() + File.separator + name + ".csv";
+  }
+
+  /** Reports WORKING for the given number of checks, then the final status. */
+  private ExportOrchestrator.Status status(Map<String, Integer> workingChecksMap, String last) {
+    return exportID -> {
+      final int call =
+          statusCallMap.computeIfAbsent(exportID, key -> new AtomicInteger()).incrementAndGet();
+      if (call <= workingChecksMap.get(exportID)) {
+        return xml("<Status>1</Status>");
+      }
+      return xml("<Status>" + last + "</Status><ExportURI>uri-" + exportID + "</ExportURI>");
+    };
+  }
+
+  private static ExportOrchestrator.Export export(String name, String exportID, String path) {
+    return new ExportOrchestrator.Export(
+        name, () -> xml("<ExportID>" + exportID + "</ExportID>"), path);
+  }
+
+  @Test
+  public void completesEachExportAsSoonAsItsFileIsDownloaded() throws Throwable {
+    final CountDownLatch quickDownloaded = new CountDownLatch(1);
+    final ExportOrchestrator exportOrchestrator =
+        new ExportOrchestrator(
+            status(Map.of("slow", 6, "quick", 1), "2"),
+            (exportURI, filePathName) -> {
+              Files.writeString(new File(filePathName).toPath(), exportURI, StandardCharsets.UTF_8);
+              if (exportURI.endsWith("quick")) {
+                quickDownloaded.countDown();
+              }
+            },
+            10,
+            40,
+            TimeUnit.MINUTES.toMillis(1));
+    final List<CompletableFuture<ExportOrchestrator.Result>> futureList =
+        exportOrchestrator.submitAll(
+            List.of(
+                export("Slow", "slow", filePathName("slow")),
+                export("Quick", "quick", filePathName("quick"))));
+    assertTrue(quickDownloaded.await(5, TimeUnit.SECONDS));
+    final ExportOrchestrator.Result quick = ExportOrchestrator.await(futureList.get(1));
+    assertFalse(futureList.get(0).isDone());
+    assertEquals(2, quick.statusChecks());
+    assertEquals("uri-quick", Files.readString(new File(filePathName("quick")).toPath()));
+    final ExportOrchestrator.Result slow = ExportOrchestrator.await(futureList.get(0));
+    assertEquals("slow", slow.exportID());
+    assertEquals(7, slow.statusChecks());
+    assertEquals("uri-slow", Files.readString(new File(slow.filePathName()).toPath()));
+  }
+
+  @Test
+  public void backsOffBetweenStatusChecks() throws Throwable {
+    final ExportOrchestrator exportOrchestrator =
+        new ExportOrchestrator(
+            status(Map.of("1", 4), "2"), (exportURI, filePathName) -> {}, 20, 45, 60_000);
+    final long start = System.nanoTime();
+    final ExportOrchestrator.Result result =
+        ExportOrchestrator.await(exportOrchestrator.submit(export("Backoff", "1", "unused")));
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertEquals(5, result.statusChecks());
+    // 20 + 30 + 45 + 45 + 45 rather than 5 checks at the initial interval.
+    assertTrue(String.valueOf(elapsedMillis), elapsedMillis >= 185);
+  }
+
+  @Test
+  public void failsTheFutureWhenTheExportFails() throws Throwable {
+    final AtomicInteger downloadCount = new AtomicInteger();
+    final ExportOrchestrator exportOrchestrator =
+        new ExportOrchestrator(
+            status(Map.of("1", 1), "-1"),
+            (exportURI, filePathName) -> downloadCount.incrementAndGet(),
+            5,
+            5,
+            60_000);
+    try {
+      ExportOrchestrator.await(exportOrchestrator.submit(export("Failing", "1", "unused")));
+      fail("expected the export to fail");
+    } catch (final QAException e) {
+      // Expected: the status reported FAILURE.
+    }
+    assertEquals(0, downloadCount.get());
+  }
+}
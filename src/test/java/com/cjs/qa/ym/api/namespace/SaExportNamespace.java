@@ -1,19 +1,19 @@
 package com.cjs.qa.ym.api.namespace;
 
 import com.cjs.qa.core.Environment;
-import com.cjs.qa.core.QAException;
 import com.cjs.qa.utilities.Constants;
-import com.cjs.qa.utilities.FSOTests;
 import com.cjs.qa.utilities.IExtension;
 import com.cjs.qa.utilities.JavaHelpers;
-import com.cjs.qa.utilities.XML;
 import com.cjs.qa.vivit.VivitFoldersFiles;
 import com.cjs.qa.ym.YMDataTests;
 import com.cjs.qa.ym.api.services.YMAPI;
 import com.cjs.qa.ym.api.services.YMService;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class SaExportNamespace extends YMService {
+  private ExportOrchestrator exportOrchestrator = null;
+
   public Map<String, String> allInvoiceItems(boolean unicode, String date) throws Throwable {
     // Starts an export of all invoice items and returns the <ExportID>. To
     // query the status of an export, call Sa.Export.Status until receiving
@@ -259,72 +259,77 @@ public Map<String, String> financeBatch(boolean unicode, String batchID) throws
     return getAPIXMLResponse("POST", stringBuilder.toString());
   }
 
+  /**
+   * Exports the members, waits for the export and downloads it to {@link
+   * VivitFoldersFiles#DATA_YMAPI_DATA_MEMBERS}.
+   *
+   * @param dateTimeFrom
+   * @return the last {@code Sa.Export.Status} response
+   * @throws Throwable
+   */
   public Map<String, String> exportDataMembers(String dateTimeFrom) throws Throwable {
-    if (!JavaHelpers.hasValue(dateTimeFrom)) {
-      dateTimeFrom = YMDataTests.getInceptionDateTime();
-    }
-    Map<String, String> mapResults = members(false, true, dateTimeFrom);
-    final String exportID = XML.getTag(mapResults.get("xml"), "ExportID");
-    String exportStatus = null;
-    String exportURI = null;
-    int statusCheckCount = 0;
-    do {
-      statusCheckCount++;
-      JavaHelpers.sleep(0, Constants.MILLISECONDS * 15);
-      mapResults = status(exportID);
-      exportStatus = XML.getTag(mapResults.get("xml"), "Status");
-      exportURI = XML.getTag(mapResults.get("xml"), "ExportURI");
-      exportStatus = ExportStatus.getValue(exportStatus);
-      Environment.sysOut(
-          JavaHelpers.getCurrentClassMethodName()
-              + "-statusCheckCount:["
-              + statusCheckCount
-              + "], exportStatus:["
-              + exportStatus
-              + "]");
-    } while (exportStatus.equals(ExportStatus.WORKING)
-        || exportStatus.equals(ExportStatus.UNKNOWN));
-    if (exportStatus.equals(ExportStatus.COMPLETE)) {
-      FSOTests.fileDownloadFromURL(exportURI, VivitFoldersFiles.DATA_YMAPI_DATA_MEMBERS);
-    } else {
-      throw new QAException(
-          JavaHelpers.getCurrentClassMethodDebugName() + Constants.NEWLINE + mapResults.toString());
-    }
-    return mapResults;
+    return ExportOrchestrator.await(exportDataMembersAsync(dateTimeFrom)).statusMap();
   }
 
+  /**
+   * Exports the member groups, waits for the export and downloads it to {@link
+   * VivitFoldersFiles#DATA_YMAPI_DATA_MEMBER_GROUPS}.
+   *
+   * @param dateTimeFrom
+   * @return the last {@code Sa.Export.Status} response
+   * @throws Throwable
+   */
   public Map<String, String> exportDataMemberGroups(String dateTimeFrom) throws Throwable {
-    if (!JavaHelpers.hasValue(dateTimeFrom)) {
-      dateTimeFrom = YMDataTests.getInceptionDateTime();
-    }
-    Map<String, String> mapResults = membersGroups(false, dateTimeFrom);
-    final String exportID = XML.getTag(mapResults.get("xml"), "ExportID");
-    String exportStatus = null;
-    String exportURI = null;
-    int statusCheckCount = 0;
-    do {
-      statusCheckCount++;
-      JavaHelpers.sleep(0, Constants.MILLISECONDS * 15);
-      mapResults = status(exportID);
-      exportStatus = XML.getTag(mapResults.get("xml"), "Status");
-      exportURI = XML.getTag(mapResults.get("xml"), "ExportURI");
-      exportStatus = ExportStatus.getValue(exportStatus);
-      Environment.sysOut(
-          JavaHelpers.getCurrentClassMethodName()
-              + "-statusCheckCount:["
-              + statusCheckCount
-              + "], exportStatus:["
-              + exportStatus
-              + "]");
-    } while (exportStatus.equals(ExportStatus.WORKING)
-        || exportStatus.equals(ExportStatus.UNKNOWN));
-    if (exportStatus.equals(ExportStatus.COMPLETE)) {
-      FSOTests.fileDownloadFromURL(exportURI, VivitFoldersFiles.DATA_YMAPI_DATA_MEMBER_GROUPS);
-    } else {
-      throw new QAException(
-          JavaHelpers.getCurrentClassMethodDebugName() + Constants.NEWLINE + mapResults.toString());
+    return ExportOrchestrator.await(exportDataMemberGroupsAsync(dateTimeFrom)).statusMap();
+  }
+
+  /**
+   * Starts the members export in the background.
+   *
+   * @param dateTimeFrom
+   * @return completes once the file is downloaded
+   * @throws Throwable
+   * @see #exportDataMembers(String)
+   */
+  public CompletableFuture<ExportOrchestrator.Result> exportDataMembersAsync(String dateTimeFrom)
+      throws Throwable {
+    final String timestamp = getDateTimeFrom(dateTimeFrom);
+    return getExportOrchestrator()
+        .submit(
+            new ExportOrchestrator.Export(
+                "Members",
+                () -> members(false, true, timestamp),
+                VivitFoldersFiles.DATA_YMAPI_DATA_MEMBERS));
+  }
+
+  /**
+   * Starts the member groups export in the background.
+   *
+   * @param dateTimeFrom
+   * @return completes once the file is downloaded
+   * @throws Throwable
+   * @see #exportDataMemberGroups(String)
+   */
+  public CompletableFuture<ExportOrchestrator.Result> exportDataMemberGroupsAsync(
+      String dateTimeFrom) throws Throwable {
+    final String timestamp = getDateTimeFrom(dateTimeFrom);
+    return getExportOrchestrator()
+        .submit(
+            new ExportOrchestrator.Export(
+                "MemberGroups",
+                () -> membersGroups(false, timestamp),
+                VivitFoldersFiles.DATA_YMAPI_DATA_MEMBER_GROUPS));
+  }
+
+  private static String getDateTimeFrom(String dateTimeFrom) throws Throwable {
+    return JavaHelpers.hasValue(dateTimeFrom) ? dateTimeFrom : YMDataTests.getInceptionDateTime();
+  }
+
+  private synchronized ExportOrchestrator getExportOrchestrator() {
+    if (exportOrchestrator == null) {
+      exportOrchestrator = new ExportOrchestrator(this::status);
     }
-    return mapResults;
+    return exportOrchestrator;
   }
 
   public Map<String, String> members(boolean unicode, boolean customFields, String timestamp)
@@ -18,14 +18,14 @@ public SessionNamespace() throws Throwable {
   }
 
   public static final int TIMEOUT_SESSION = 20;
-  private static String sessionID = null;
-  private static long timeSessionStart = 0;
+  // timeSessionStart is written last, so a thread that sees it current also sees its sessionID.
+  private static volatile String sessionID = null;
+  private static volatile long timeSessionStart = 0;
 
   // public static int callID = 0
 
   public static String getSessionID() throws Throwable {
     final long timeSessionCurrent = System.currentTimeMillis(); // 20 minutes
-    final long sessionLimit = TIMEOUT_SESSION * 60 * Constants.MILLISECONDS;
     final long timeSessionElapsed = timeSessionCurrent - timeSessionStart;
     VivitEnvironment.sysOut(
         "timeSessionStart:["
@@ -35,14 +35,25 @@ public static String getSessionID() throws Throwable {
             + "], timeSessionElapsed:["
             + timeSessionElapsed
             + "]");
-    if (timeSessionElapsed >= sessionLimit || timeSessionStart == 0) {
-      setSessionID();
+    // The thread refreshing the session reads the new one while it authenticates.
+    if (!Thread.holdsLock(SessionNamespace.class) && isSessionExpired()) {
+      synchronized (SessionNamespace.class) {
+        // Only the first thread to find the session expired creates a new one.
+        if (isSessionExpired()) {
+          setSessionID();
+        }
+      }
     }
     return Constants.nlTab(1, 1) + "<SessionID>" + sessionID + "</SessionID>";
   }
 
-  public static void setSessionID() throws Throwable {
-    timeSessionStart = System.currentTimeMillis();
+  private static boolean isSessionExpired() {
+    final long sessionLimit = TIMEOUT_SESSION * 60 * Constants.MILLISECONDS;
+    return timeSessionStart == 0 || System.currentTimeMillis() - timeSessionStart >= sessionLimit;
+  }
+
+  public static synchronized void setSessionID() throws Throwable {
+    final long timeSessionStart = System.currentTimeMillis();
     // SessionNamespace.callID = 0
     resetCallID();
     final Map<String, String> mapResponse = create(true);
@@ -50,6 +61,7 @@ public static void setSessionID() throws Throwable {
     SessionNamespace.sessionID = sessionID;
     AuthNamespace authNamespace = new AuthNamespace();
     authNamespace.authenticate(CJSConstants.USERID_VIVIT, EPasswords.VIVIT.getValue());
+    SessionNamespace.timeSessionStart = timeSessionStart;
   }
 
   public Map<String, String> abandon() throws Throwable {
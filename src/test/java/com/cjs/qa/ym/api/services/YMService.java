@@ -2,22 +2,20 @@
 
 import com.cjs.qa.core.Environment;
 import com.cjs.qa.core.QAException;
+import com.cjs.qa.core.api.ApiHttpClient;
 import com.cjs.qa.core.security.EAPIKeys;
 import com.cjs.qa.utilities.Constants;
 import com.cjs.qa.utilities.IExtension;
 import com.cjs.qa.utilities.IHTTP;
 import com.cjs.qa.utilities.JavaHelpers;
 import com.cjs.qa.utilities.XML;
+import com.cjs.qa.utilities.XMLTagExtractor;
 import com.cjs.qa.ym.api.namespace.SessionNamespace;
-import java.io.BufferedReader;
-import java.io.DataOutputStream;
-import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 
 public class YMService {
@@ -42,15 +40,14 @@ public static String getApiSaPasscodeValue() {
   public static final String URL_YM = URL_YM_API_BASE;
   public static final String CONNECTED_TO = "Connection to [";
   private static boolean serviceActive = false;
-  private static int callID = 0;
+  // Calls can run on several threads at once (see YMFetcher), so each still gets its own CallID.
+  private static final AtomicInteger callID = new AtomicInteger();
 
   public YMService() {
     if (!serviceActive) {
       try {
-        final HttpURLConnection httpUrlConnection =
-            (HttpURLConnection) URI.create(URL_YM).toURL().openConnection();
-        httpUrlConnection.setRequestMethod("HEAD");
-        final int responseCode = httpUrlConnection.getResponseCode();
+        final int responseCode =
+            ApiHttpClient.getInstance().send("HEAD", URL_YM, Map.of(), null, true).statusCode();
         if (!(responseCode >= HttpURLConnection.HTTP_OK
             && responseCode < HttpURLConnection.HTTP_BAD_REQUEST)) {
           Environment.sysOut(
@@ -124,45 +121,31 @@ public static Map<String, String> getAPIXMLResponse(String requestMethod, String
         }
       }
     }
-    int responseCode = -1;
-    HttpURLConnection httpURLConnection = null;
     String xml = "";
     try {
-      final URL oURL = URI.create(URL_YM).toURL();
-      httpURLConnection = (HttpURLConnection) oURL.openConnection();
-      httpURLConnection.setDoOutput(true);
-      httpURLConnection.setInstanceFollowRedirects(false);
-      if (!requestMethod.isEmpty()) {
-        httpURLConnection.setRequestMethod(requestMethod);
-      }
-      httpURLConnection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-      httpURLConnection.setRequestProperty("Accept", "application/xml");
-      httpURLConnection.setRequestProperty("charset", StandardCharsets.UTF_8.toString());
-      httpURLConnection.setRequestProperty(
-          "Content-Length", "" + Integer.toString(request.getBytes().length));
-      httpURLConnection.setUseCaches(false);
-      try (DataOutputStream dataOutputStream =
-          new DataOutputStream(httpURLConnection.getOutputStream())) {
-        dataOutputStream.writeBytes(request);
-        dataOutputStream.flush();
-      }
-      responseCode = httpURLConnection.getResponseCode();
+      final ApiHttpClient.Response response =
+          ApiHttpClient.getInstance()
+              .send(
+                  requestMethod,
+                  URL_YM,
+                  Map.of(
+                      "Content-Type",
+                      "application/x-www-form-urlencoded",
+                      "Accept",
+                      "application/xml",
+                      "charset",
+                      StandardCharsets.UTF_8.toString()),
+                  request);
+      final int responseCode = response.statusCode();
       map.put("responseCode", String.valueOf(responseCode));
-      final String responseMessage = String.valueOf(httpURLConnection.getResponseMessage());
+      final String responseMessage = response.responseMessage();
       map.put("responseMessage", responseMessage);
       if (responseCode == HttpURLConnection.HTTP_OK) {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (BufferedReader bufferedReader =
-            new BufferedReader(new InputStreamReader(httpURLConnection.getInputStream()))) {
-          String line = "";
-          while ((line = bufferedReader.readLine()) != null) {
-            stringBuilder.append(line);
-          }
-        } catch (Exception e) {
-          throw new QAException("BufferedReader", e);
-        }
-        xml = stringBuilder.toString();
-        xml = XML.formatPretty(xml);
+        // Pretty printing parses and serializes the whole response, so only do it to log it.
+        xml =
+            Environment.isLogAPI()
+                ? XML.formatPretty(response.body())
+                : XML.escapeAmpersands(response.body());
         map.put("xml", xml);
         // Environment.sysOut("xml:[" + xml + "]")
       }
@@ -170,16 +153,15 @@ public static Map<String, String> getAPIXMLResponse(String requestMethod, String
         Environment.sysOut("responseCode:[" + responseCode + "]");
         Environment.sysOut("responseMessage:[" + responseMessage + "]");
       }
-      if (!"0".equals(XML.getTag(xml, "ErrCode"))) {
-        String message = JavaHelpers.getCallingMethodName() + ":" + XML.getTag(xml, "ErrDesc");
+      final Map<String, String> errorMap = XMLTagExtractor.extract(xml, "ErrCode", "ErrDesc");
+      if (!errorMap.containsKey("ErrCode")) {
+        Environment.sysOut("ErrCode not found");
+      } else if (!"0".equals(errorMap.get("ErrCode"))) {
+        String message = JavaHelpers.getCallingMethodName() + ":" + errorMap.get("ErrDesc");
         throw new QAException(message);
       }
     } catch (final Exception e) {
       Environment.sysOut(e);
-    } finally {
-      if (httpURLConnection != null) {
-        httpURLConnection.disconnect();
-      }
     }
     // Environment.sysOut("map:[" + map.toString() + "]")
     return map;
@@ -204,14 +186,13 @@ public static String getAPIKey() throws Throwable {
   public static String getCallID() throws Throwable {
     // SessionNamespace.callID++
     // final String callID = String.format("%03d", SessionNamespace.callID)
-    YMService.callID++;
-    final String callID = String.format("%03d", YMService.callID);
+    final String callID = String.format("%03d", YMService.callID.incrementAndGet());
     Environment.sysOut("callID:[" + callID + "]");
     return Constants.nlTab(1, 1) + "<CallID>" + callID + "</CallID>";
   }
 
   public static void resetCallID() throws Throwable {
-    YMService.callID = 0;
+    YMService.callID.set(0);
   }
 
   public static String getSAPasscode() throws Throwable {